@@ -0,0 +1,166 @@
+/**
+ * EPlan - Automated ETCS Planning Tool
+ * 
+ * Copyright (c) 2017-2025, The FormETCS Project. All rights reserved.
+ * This file is licensed under the terms of the Modified (3-Clause) BSD License.
+ * 
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package eplan;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jdom2.Element;
+
+/**
+ * Synthetic single-track topology for the micro-benchmarks of {@link eplan.PlanProModel}.
+ * The line consists of sections of 1 km plain line followed by a station, in which the track branches
+ * into parallel tracks through a switch ladder and joins again through a second ladder.
+ * Every third TOP_Kante is oriented against the line direction, so searches have to handle both orientations.
+ * Each plain line edge and each station track carries a signal in line direction.
+ * 
+ * @author Stefan Dillmann
+ *
+ */
+public class BenchmarkTopology {
+	
+	/**
+	 * Length of a plain line edge in meters.
+	 */
+	public static final double LINE_LENGTH = 1000.0;
+	
+	/**
+	 * Length of a station track in meters.
+	 */
+	public static final double TRACK_LENGTH = 600.0;
+	
+	/**
+	 * Length of an edge between two switches of a ladder in meters.
+	 */
+	public static final double LADDER_LENGTH = 50.0;
+	
+	
+	/**
+	 * The builder of the document.
+	 */
+	public final PlanBuilder builder;
+	
+	/**
+	 * The GUIDs of the edges of the path through the first track of each station, in line direction.
+	 */
+	public final List<String> mainPath;
+	
+	/**
+	 * The GUIDs of the signals on the main path, in line direction.
+	 */
+	public final List<String> signals;
+	
+	/**
+	 * The GUIDs of all TOP_Kante objects.
+	 */
+	public final List<String> topKanten;
+	
+	/**
+	 * The length of the main path in meters.
+	 */
+	public double mainPathLength;
+	
+	/**
+	 * Number of created edges, used to decide their orientation.
+	 */
+	private int edgeCount;
+	
+	
+	/**
+	 * Creates a new topology.
+	 * With a branching factor of 1, the line has no switches.
+	 * 
+	 * @param size the minimum number of TOP_Kante objects
+	 * @param branching the number of parallel tracks in each station
+	 */
+	public BenchmarkTopology(int size, int branching) {
+		this.builder = new PlanBuilder("Benchmark topology with " + size + " edges and branching factor " + branching);
+		this.mainPath = new ArrayList<String>();
+		this.signals = new ArrayList<String>();
+		this.topKanten = new ArrayList<String>();
+		this.mainPathLength = 0.0;
+		this.edgeCount = 0;
+		String knoten = builder.addTopKnoten();
+		String anschluss = "Ende";
+		while(topKanten.size() < size) {
+			String next = builder.addTopKnoten();
+			String nextAnschluss = (branching > 1) ? "Spitze" : "Verbindung";
+			addEdge(knoten, next, anschluss, nextAnschluss, LINE_LENGTH, true);
+			if(branching > 1) {
+				knoten = addStation(next, branching);
+				anschluss = "Spitze";
+			}
+			else {
+				knoten = next;
+				anschluss = "Verbindung";
+			}
+		}
+		String end = builder.addTopKnoten();
+		addEdge(knoten, end, anschluss, "Ende", LINE_LENGTH, true);
+	}
+	
+	/**
+	 * Add a station, starting at the tip of its entry switch.
+	 * 
+	 * @param entry the GUID of the node of the entry switch
+	 * @param branching the number of parallel tracks
+	 * @return the GUID of the node of the exit switch, whose tip points to the following line
+	 */
+	private String addStation(String entry, int branching) {
+		String[] entrySwitches = new String[branching - 1];
+		String[] exitSwitches = new String[branching - 1];
+		entrySwitches[0] = entry;
+		exitSwitches[0] = builder.addTopKnoten();
+		for(int i = 1; i < branching - 1; i++) {
+			entrySwitches[i] = builder.addTopKnoten();
+			exitSwitches[i] = builder.addTopKnoten();
+			addEdge(entrySwitches[i - 1], entrySwitches[i], "Rechts", "Spitze", LADDER_LENGTH, false);
+			addEdge(exitSwitches[i], exitSwitches[i - 1], "Spitze", "Rechts", LADDER_LENGTH, false);
+		}
+		for(int i = 0; i < branching; i++) {
+			int sw = Math.min(i, branching - 2);
+			String side = (i < branching - 1) ? "Links" : "Rechts";
+			addEdge(entrySwitches[sw], exitSwitches[sw], side, side, TRACK_LENGTH, i == 0);
+		}
+		return exitSwitches[0];
+	}
+	
+	/**
+	 * Add an edge in line direction, and a signal in its middle if it belongs to the main path.
+	 * Every third edge is created against the line direction.
+	 * 
+	 * @param from the GUID of the node at the beginning in line direction
+	 * @param to the GUID of the node at the end in line direction
+	 * @param anschlussFrom the connection type at the beginning
+	 * @param anschlussTo the connection type at the end
+	 * @param length the length in meters
+	 * @param main true if the edge belongs to the main path
+	 */
+	private void addEdge(String from, String to, String anschlussFrom, String anschlussTo, double length, boolean main) {
+		edgeCount++;
+		boolean reversed = (edgeCount % 3 == 0);
+		Element topKante;
+		if(reversed) {
+			topKante = builder.addTopKante(to, from, anschlussTo, anschlussFrom, length);
+		}
+		else {
+			topKante = builder.addTopKante(from, to, anschlussFrom, anschlussTo, length);
+		}
+		String guid = PlanBuilder.getGuid(topKante);
+		topKanten.add(guid);
+		if(main) {
+			mainPath.add(guid);
+			mainPathLength += length;
+			Element signal = builder.addSignal(guid, length / 2.0, reversed ? "gegen" : "in", "S" + (signals.size() + 1));
+			signals.add(PlanBuilder.getGuid(signal));
+		}
+	}
+
+}
@@ -0,0 +1,447 @@
+/**
+ * EPlan - Automated ETCS Planning Tool
+ * 
+ * Copyright (c) 2017-2025, The FormETCS Project. All rights reserved.
+ * This file is licensed under the terms of the Modified (3-Clause) BSD License.
+ * 
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package eplan;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.CommandLineParser;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.jdom2.JDOMException;
+
+/**
+ * End-to-end benchmark of the planning, which runs a complete {@link eplan.PlanningJob} for ETCS Level 1 and Level 2
+ * on plans of increasing size created by the {@link eplan.PlanGenerator}.
+ * For each run, the wall time and the allocated bytes of parsing, each placement pass and writing are measured by a {@link eplan.Profiler}.
+ * The planning runs in one thread, so the allocations of the current thread cover all allocations of a phase.
+ * The results are written as JSON, so they can be compared between versions of EPlan; the time per kilometer of line
+ * shows if the effort grows linearly with the size of the plan.
+ * Unlike the JMH benchmarks, each configuration is only run a few times, since a single run can take minutes.
+ * 
+ * @author Stefan Dillmann
+ *
+ */
+public class EndToEndBenchmark {
+	
+	/**
+	 * The measurements of one planning run.
+	 * 
+	 * @author Stefan Dillmann
+	 *
+	 */
+	public static class Result {
+		
+		/**
+		 * The length of each line of the plan in kilometers.
+		 */
+		public final double lineLength;
+		
+		/**
+		 * The ETCS Level.
+		 */
+		public final int level;
+		
+		/**
+		 * The number of PlanPro objects of the generated plan.
+		 */
+		public final long objectCount;
+		
+		/**
+		 * The wall time of the whole run in nanoseconds.
+		 */
+		public long totalTime;
+		
+		/**
+		 * The bytes allocated by the whole run.
+		 */
+		public long totalAllocated;
+		
+		/**
+		 * The wall time per phase in nanoseconds, in the order the phases were executed.
+		 */
+		public Map<String, Long> phaseTimes;
+		
+		/**
+		 * The allocated bytes per phase.
+		 */
+		public Map<String, Long> phaseAllocations;
+		
+		/**
+		 * Creates a new result without measurements.
+		 * 
+		 * @param lineLength the length of each line of the plan in kilometers
+		 * @param level the ETCS Level
+		 * @param objectCount the number of PlanPro objects of the generated plan
+		 */
+		public Result(double lineLength, int level, long objectCount) {
+			this.lineLength = lineLength;
+			this.level = level;
+			this.objectCount = objectCount;
+			this.totalTime = 0;
+			this.totalAllocated = 0;
+			this.phaseTimes = null;
+			this.phaseAllocations = null;
+		}
+		
+		/**
+		 * Get the wall time per kilometer of line.
+		 * 
+		 * @return the time in milliseconds
+		 */
+		public double getTimePerKm() {
+			return totalTime / 1e6 / lineLength;
+		}
+		
+		/**
+		 * String representation of the object (only for debugging purposes).
+		 * This is the line of the result in the summary table.
+		 * 
+		 * @return String representation of the object
+		 */
+		@Override
+		public String toString() {
+			return String.format("%10.1f %6d %10d %14.3f %14.3f %14.3f", lineLength, level, objectCount,
+					totalTime / 1e6, getTimePerKm(), totalAllocated / 1e6);
+		}
+	
+	}
+	
+	
+	/**
+	 * Name of the phase covering the whole planning run.
+	 */
+	public static final String TOTAL_PHASE = "total";
+	
+	
+	/**
+	 * The lengths of the lines of the generated plans in kilometers, in increasing order.
+	 */
+	public double[] lineLengths;
+	
+	/**
+	 * The ETCS Levels to plan.
+	 */
+	public int[] levels;
+	
+	/**
+	 * The number of runs of each configuration, of which the fastest is reported.
+	 */
+	public int iterations;
+	
+	/**
+	 * Flag if the smallest plan is planned once before the measurements, to let the JIT compiler optimize the code.
+	 */
+	public boolean warmup;
+	
+	/**
+	 * The generator of the plans, whose parameters except the line length are used for all plans.
+	 */
+	public PlanGenerator generator;
+	
+	/**
+	 * A free text describing the measured version of EPlan, or null.
+	 */
+	public String label;
+	
+	/**
+	 * The log context of the planning runs, which discards all messages.
+	 */
+	private LogContext logContext;
+	
+	
+	/**
+	 * Creates a new benchmark with the default configuration: lines of 2, 5 and 10 km, Level 1 and Level 2,
+	 * one iteration with warmup, and plans generated with seed 1.
+	 */
+	public EndToEndBenchmark() {
+		this.lineLengths = new double[] {2.0, 5.0, 10.0};
+		this.levels = new int[] {1, 2};
+		this.iterations = 1;
+		this.warmup = true;
+		this.generator = new PlanGenerator(1);
+		this.label = null;
+		this.logContext = new LogContext();
+		this.logContext.enable(false);
+	}
+	
+	/**
+	 * Run the benchmark for all configurations.
+	 * 
+	 * @return the fastest run of each configuration, ordered by line length and level
+	 * @throws IOException if a file error occurs
+	 * @throws JDOMException if an XML parse error occurs
+	 */
+	public List<Result> run() throws IOException, JDOMException {
+		List<Result> returnval = new ArrayList<Result>();
+		File planFile = File.createTempFile("eplan-benchmark", ".ppxml");
+		File outputFile = File.createTempFile("eplan-benchmark", ".out.ppxml");
+		try {
+			if(warmup && lineLengths.length > 0) {
+				long objectCount = generatePlan(lineLengths[0], planFile);
+				for(int level : levels) {
+					runPlanning(lineLengths[0], level, objectCount, planFile, outputFile);
+				}
+			}
+			for(double lineLength : lineLengths) {
+				long objectCount = generatePlan(lineLength, planFile);
+				for(int level : levels) {
+					Result fastest = null;
+					for(int i = 0; i < iterations; i++) {
+						Result result = runPlanning(lineLength, level, objectCount, planFile, outputFile);
+						if(fastest == null || result.totalTime < fastest.totalTime) {
+							fastest = result;
+						}
+					}
+					returnval.add(fastest);
+				}
+			}
+		} finally {
+			planFile.delete();
+			outputFile.delete();
+		}
+		return returnval;
+	}
+	
+	/**
+	 * Generate a plan.
+	 * 
+	 * @param lineLength the length of each line in kilometers
+	 * @param file the file the plan is written into
+	 * @return the number of PlanPro objects of the plan
+	 * @throws IOException if the file cannot be written
+	 */
+	private long generatePlan(double lineLength, File file) throws IOException {
+		generator.lineLength = lineLength;
+		return generator.writeFile(file.getPath());
+	}
+	
+	/**
+	 * Plan the ETCS equipment of a plan once, measuring each phase.
+	 * 
+	 * @param lineLength the length of each line of the plan in kilometers
+	 * @param level the ETCS Level
+	 * @param objectCount the number of PlanPro objects of the plan
+	 * @param planFile the file containing the plan
+	 * @param outputFile the file the planned plan is written into
+	 * @return the measurements
+	 * @throws IOException if a file error occurs
+	 * @throws JDOMException if an XML parse error occurs
+	 */
+	private Result runPlanning(double lineLength, int level, long objectCount, File planFile, File outputFile) throws IOException, JDOMException {
+		PlanningJob job = new PlanningJob(planFile.getPath(), outputFile.getPath());
+		job.etcslevel = level;
+		job.logContext = logContext;
+		job.profiler = new Profiler(true);
+		job.profiler.enableAllocationTracking();
+		long start = job.profiler.start();
+		job.run("EPlan", "benchmark");
+		job.profiler.stop(TOTAL_PHASE, start);
+		Result returnval = new Result(lineLength, level, objectCount);
+		returnval.phaseTimes = job.profiler.getPhaseTimes();
+		returnval.phaseAllocations = job.profiler.getPhaseAllocations();
+		returnval.totalTime = returnval.phaseTimes.remove(TOTAL_PHASE);
+		returnval.totalAllocated = returnval.phaseAllocations.remove(TOTAL_PHASE);
+		return returnval;
+	}
+	
+	/**
+	 * Create a table of the results.
+	 * 
+	 * @param results the results
+	 * @return the lines of the table
+	 */
+	public static List<String> createReport(List<Result> results) {
+		List<String> returnval = new ArrayList<String>();
+		returnval.add(String.format("%10s %6s %10s %14s %14s %14s", "length[km]", "level", "objects", "time [ms]", "time/km [ms]", "allocated [MB]"));
+		for(Result result : results) {
+			returnval.add(result.toString());
+		}
+		return returnval;
+	}
+	
+	/**
+	 * Write the results into a JSON file.
+	 * The file contains the label, the parameters of the generator and an array "runs" with one object per configuration,
+	 * which contains the total wall time in milliseconds and allocated bytes and an object "phases" with the same values per phase.
+	 * 
+	 * @param results the results
+	 * @param filename the name of the file to write into
+	 * @throws IOException if the file cannot be written
+	 */
+	public void writeJson(List<Result> results, String filename) throws IOException {
+		List<String> lines = new ArrayList<String>();
+		lines.add("{");
+		lines.add("  \"label\": " + ((label == null) ? "null" : Profiler.quote(label)) + ",");
+		lines.add("  \"java\": " + Profiler.quote(System.getProperty("java.version")) + ",");
+		lines.add("  \"generator\": {\"lines\": " + generator.lineCount + ", \"stationSpacing\": " + formatDouble(generator.stationSpacing)
+				+ ", \"stationTracks\": " + generator.stationTracks + ", \"crossovers\": " + generator.crossovers + ", \"seed\": " + generator.seed + "},");
+		lines.add("  \"runs\": [");
+		for(int i = 0; i < results.size(); i++) {
+			Result result = results.get(i);
+			lines.add("    {");
+			lines.add("      \"length\": " + formatDouble(result.lineLength) + ", \"level\": " + result.level + ", \"objects\": " + result.objectCount + ",");
+			lines.add("      \"time\": " + formatMillis(result.totalTime) + ", \"timePerKm\": " + formatDouble(result.getTimePerKm())
+					+ ", \"allocated\": " + result.totalAllocated + ",");
+			lines.add("      \"phases\": {");
+			List<String> entries = new ArrayList<String>();
+			for(Map.Entry<String, Long> entry : result.phaseTimes.entrySet()) {
+				Long allocated = result.phaseAllocations.get(entry.getKey());
+				entries.add("        " + Profiler.quote(entry.getKey()) + ": {\"time\": " + formatMillis(entry.getValue())
+						+ ", \"allocated\": " + ((allocated == null) ? 0 : allocated) + "}");
+			}
+			for(int j = 0; j < entries.size(); j++) {
+				lines.add((j < entries.size() - 1) ? entries.get(j) + "," : entries.get(j));
+			}
+			lines.add("      }");
+			lines.add((i < results.size() - 1) ? "    }," : "    }");
+		}
+		lines.add("  ]");
+		lines.add("}");
+		File file = new File(filename);
+		if(file.getParentFile() != null) {
+			file.getParentFile().mkdirs();
+		}
+		Files.write(Paths.get(filename), lines, StandardCharsets.UTF_8);
+	}
+	
+	/**
+	 * Format a duration for the JSON file.
+	 * 
+	 * @param nanos the duration in nanoseconds
+	 * @return the duration in milliseconds
+	 */
+	private static String formatMillis(long nanos) {
+		return formatDouble(nanos / 1e6);
+	}
+	
+	/**
+	 * Format a number for the JSON file.
+	 * 
+	 * @param value the number
+	 * @return the number with three decimal places
+	 */
+	private static String formatDouble(double value) {
+		return String.format(Locale.ROOT, "%.3f", value);
+	}
+	
+	/**
+	 * Main function of the benchmark.
+	 * 
+	 * @param args the command line arguments
+	 */
+	public static void main(String[] args) {
+		Options options = new Options();
+		options.addOption("h", "help", false, "print this message and exit");
+		Option outfileOption = Option.builder("o").hasArg().argName("file").desc("write the results as JSON to <file>").build();
+		options.addOption(outfileOption);
+		Option lengthsOption = Option.builder().longOpt("lengths").hasArg().argName("km,...").desc("comma separated line lengths of the generated plans in kilometers (default: 2,5,10)").build();
+		options.addOption(lengthsOption);
+		Option levelsOption = Option.builder().longOpt("levels").hasArg().argName("level,...").desc("comma separated ETCS Levels to plan (default: 1,2)").build();
+		options.addOption(levelsOption);
+		Option iterationsOption = Option.builder().longOpt("iterations").hasArg().argName("n").desc("number of runs of each configuration, of which the fastest is reported (default: 1)").build();
+		options.addOption(iterationsOption);
+		Option noWarmupOption = Option.builder().longOpt("no-warmup").desc("do not plan the smallest plan once before the measurements").build();
+		options.addOption(noWarmupOption);
+		Option linesOption = Option.builder().longOpt("lines").hasArg().argName("n").desc("number of independent lines of each plan (default: 1)").build();
+		options.addOption(linesOption);
+		Option tracksOption = Option.builder().longOpt("station-tracks").hasArg().argName("n").desc("number of station tracks next to each main track (default: 1)").build();
+		options.addOption(tracksOption);
+		Option seedOption = Option.builder().longOpt("seed").hasArg().argName("n").desc("seed of the plan generator (default: 1)").build();
+		options.addOption(seedOption);
+		Option labelOption = Option.builder().longOpt("label").hasArg().argName("text").desc("description of the measured version, written into the results").build();
+		options.addOption(labelOption);
+		
+		CommandLineParser parser = new DefaultParser();
+		CommandLine cmd = null;
+		try {
+			cmd = parser.parse(options, args);
+		} catch (ParseException e) {
+			e.printStackTrace();
+			System.exit(1);
+		}
+		if(cmd.hasOption("h")) {
+			HelpFormatter formatter = new HelpFormatter();
+			formatter.printHelp("EndToEndBenchmark [options]", options);
+			System.exit(0);
+		}
+		EndToEndBenchmark benchmark = new EndToEndBenchmark();
+		try {
+			if(cmd.hasOption("lengths")) {
+				String[] values = cmd.getOptionValue("lengths").split(",");
+				benchmark.lineLengths = new double[values.length];
+				for(int i = 0; i < values.length; i++) {
+					benchmark.lineLengths[i] = Double.parseDouble(values[i].trim());
+				}
+			}
+			if(cmd.hasOption("levels")) {
+				String[] values = cmd.getOptionValue("levels").split(",");
+				benchmark.levels = new int[values.length];
+				for(int i = 0; i < values.length; i++) {
+					benchmark.levels[i] = Integer.parseInt(values[i].trim());
+				}
+			}
+			if(cmd.hasOption("iterations")) {
+				benchmark.iterations = Integer.parseInt(cmd.getOptionValue("iterations"));
+			}
+			if(cmd.hasOption("lines")) {
+				benchmark.generator.lineCount = Integer.parseInt(cmd.getOptionValue("lines"));
+			}
+			if(cmd.hasOption("station-tracks")) {
+				benchmark.generator.stationTracks = Integer.parseInt(cmd.getOptionValue("station-tracks"));
+			}
+			if(cmd.hasOption("seed")) {
+				benchmark.generator.seed = Long.parseLong(cmd.getOptionValue("seed"));
+			}
+		} catch (NumberFormatException e) {
+			e.printStackTrace();
+			System.exit(1);
+		}
+		benchmark.warmup = !cmd.hasOption("no-warmup");
+		benchmark.label = cmd.getOptionValue("label");
+		try {
+			List<Result> results = benchmark.run();
+			for(String line : createReport(results)) {
+				System.out.println(line);
+			}
+			if(cmd.hasOption("o")) {
+				benchmark.writeJson(results, cmd.getOptionValue("o"));
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+			System.exit(1);
+		} catch (JDOMException e) {
+			e.printStackTrace();
+			System.exit(1);
+		}
+	}
+	
+	/**
+	 * String representation of the object (only for debugging purposes).
+	 * 
+	 * @return String representation of the object
+	 */
+	@Override
+	public String toString() {
+		return "[" + lineLengths.length + " plan sizes," + levels.length + " levels," + iterations + " iterations]";
+	}
+
+}
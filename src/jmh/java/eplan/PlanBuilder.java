@@ -0,0 +1,399 @@
+/**
+ * EPlan - Automated ETCS Planning Tool
+ * 
+ * Copyright (c) 2017-2025, The FormETCS Project. All rights reserved.
+ * This file is licensed under the terms of the Modified (3-Clause) BSD License.
+ * 
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package eplan;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.Locale;
+
+import org.jdom2.Comment;
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.Namespace;
+import org.jdom2.output.Format;
+import org.jdom2.output.XMLOutputter;
+
+/**
+ * Builder for synthetic PlanPro documents, used as input of the benchmarks.
+ * All objects are added to the end state container of the category "ESTW".
+ * The GUIDs are consecutive numbers, so the same sequence of calls always creates the same document.
+ * In streaming mode, the objects are written to the output as soon as they are added instead of being kept in memory,
+ * so documents of any size can be created.
+ * 
+ * @author Stefan Dillmann
+ *
+ */
+public class PlanBuilder {
+	
+	/**
+	 * The namespace of the XML schema instance attributes, used for the signal aspect types.
+	 */
+	public static final Namespace XSI = Namespace.getNamespace("xsi", "http://www.w3.org/2001/XMLSchema-instance");
+	
+	
+	/**
+	 * The document.
+	 */
+	private final Document doc;
+	
+	/**
+	 * The end state container, which is the parent of all created objects.
+	 */
+	private final Element container;
+	
+	/**
+	 * Number of created GUIDs.
+	 */
+	private long guidCount;
+	
+	/**
+	 * Number of added PlanPro objects.
+	 */
+	private long objectCount;
+	
+	/**
+	 * The output of the streaming mode, or null if the objects are kept in the document.
+	 */
+	private final PrintWriter writer;
+	
+	/**
+	 * The outputter used to format the objects.
+	 */
+	private final XMLOutputter outputter;
+	
+	/**
+	 * The line separator and indentation written before each object in streaming mode.
+	 */
+	private String objectSeparator;
+	
+	/**
+	 * The end of the document after the objects, written when the builder is closed in streaming mode.
+	 */
+	private String tail;
+	
+	
+	/**
+	 * Creates a new builder for a document without PlanPro objects, which keeps all objects in the document.
+	 * 
+	 * @param remark the remark written into the PlanPro header
+	 */
+	public PlanBuilder(String remark) {
+		this(remark, null);
+	}
+	
+	/**
+	 * Creates a new builder for a document without PlanPro objects.
+	 * If a writer is provided, the builder works in streaming mode: the beginning of the document is written immediately,
+	 * each object is written when it is added, and {@link #close()} writes the end of the document.
+	 * 
+	 * @param remark the remark written into the PlanPro header
+	 * @param w the writer of the streaming mode, or null to keep all objects in the document
+	 */
+	public PlanBuilder(String remark, Writer w) {
+		this.guidCount = 0;
+		this.objectCount = 0;
+		this.outputter = new XMLOutputter(Format.getPrettyFormat());
+		Element rootElem = new Element("PlanPro_Schnittstelle");
+		rootElem.addNamespaceDeclaration(XSI);
+		this.doc = new Document(rootElem);
+		rootElem.addContent(createWert("Identitaet", createGuid()));
+		Element allgElem = new Element("PlanPro_Schnittstelle_Allg");
+		rootElem.addContent(allgElem);
+		allgElem.addContent(createWert("Bemerkung", remark));
+		allgElem.addContent(createWert("Erzeugung_Zeitstempel", "2025-01-01T00:00:00Z"));
+		allgElem.addContent(createWert("Werkzeug_Name", "EPlan benchmarks"));
+		allgElem.addContent(createWert("Werkzeug_Version", "1.0.0"));
+		
+		Element ausgabeFachdatenElem = new Element("Ausgabe_Fachdaten");
+		rootElem.addContent(new Element("LST_Planung").addContent(new Element("Fachdaten").addContent(ausgabeFachdatenElem)));
+		ausgabeFachdatenElem.addContent(createWert("Identitaet", createGuid()));
+		Element zustandStartElem = new Element("LST_Zustand_Start");
+		ausgabeFachdatenElem.addContent(zustandStartElem);
+		zustandStartElem.addContent(createWert("Identitaet", createGuid()));
+		zustandStartElem.addContent(new Element("Container"));
+		Element zustandZielElem = new Element("LST_Zustand_Ziel");
+		ausgabeFachdatenElem.addContent(zustandZielElem);
+		zustandZielElem.addContent(createWert("Identitaet", createGuid()));
+		this.container = new Element("Container");
+		zustandZielElem.addContent(container);
+		ausgabeFachdatenElem.addContent(createWert("Untergewerk_Art", "ESTW"));
+		
+		this.writer = (w != null) ? new PrintWriter(w) : null;
+		if(writer != null) {
+			Comment marker = new Comment("objects");
+			container.addContent(marker);
+			String text = outputter.outputString(doc);
+			String markerText = outputter.outputString(marker);
+			int markerIndex = text.indexOf(markerText);
+			String head = text.substring(0, markerIndex);
+			this.objectSeparator = head.substring(head.lastIndexOf('\n') - outputter.getFormat().getLineSeparator().length() + 1);
+			this.tail = text.substring(markerIndex + markerText.length());
+			writer.write(head.substring(0, head.length() - objectSeparator.length()));
+			container.removeContent(marker);
+		}
+	}
+	
+	/**
+	 * Create a new GUID.
+	 * 
+	 * @return the next GUID of the consecutive sequence
+	 */
+	public String createGuid() {
+		guidCount++;
+		return String.format(Locale.ROOT, "00000000-0000-4000-8000-%012X", guidCount);
+	}
+	
+	/**
+	 * Create an element containing a value (e.g. &lt;Abstand&gt;&lt;Wert&gt;50&lt;/Wert&gt;&lt;/Abstand&gt;).
+	 * 
+	 * @param name the name of the element
+	 * @param value the value
+	 * @return the new element
+	 */
+	public static Element createWert(String name, String value) {
+		return new Element(name).addContent(new Element("Wert").setText(value));
+	}
+	
+	/**
+	 * Format a length in meters as PlanPro value with millimeter precision.
+	 * 
+	 * @param meters the length in meters
+	 * @return the formatted value
+	 */
+	public static String formatMeters(double meters) {
+		return String.format(Locale.ROOT, "%.3f", meters);
+	}
+	
+	/**
+	 * Get the GUID of a PlanPro object.
+	 * 
+	 * @param object the DOM element of the PlanPro object
+	 * @return the GUID
+	 */
+	public static String getGuid(Element object) {
+		return object.getChild("Identitaet").getChild("Wert").getText();
+	}
+	
+	/**
+	 * Add a PlanPro object to the end state container.
+	 * 
+	 * @param object the DOM element of the PlanPro object
+	 * @return the added element
+	 */
+	public Element addObject(Element object) {
+		objectCount++;
+		if(writer == null) {
+			container.addContent(object);
+			return object;
+		}
+		writer.write(objectSeparator);
+		writer.write(outputter.outputString(object).replace(outputter.getFormat().getLineSeparator(), objectSeparator));
+		return object;
+	}
+	
+	/**
+	 * Add a new TOP_Knoten.
+	 * 
+	 * @return the GUID of the new TOP_Knoten
+	 */
+	public String addTopKnoten() {
+		String guid = createGuid();
+		addObject(new Element("TOP_Knoten").addContent(createWert("Identitaet", guid)));
+		return guid;
+	}
+	
+	/**
+	 * Add a new TOP_Kante.
+	 * The connection types are "Verbindung", "Spitze", "Links", "Rechts" or "Ende".
+	 * 
+	 * @param knotenA the GUID of node A
+	 * @param knotenB the GUID of node B
+	 * @param anschlussA the connection type at node A
+	 * @param anschlussB the connection type at node B
+	 * @param length the length in meters
+	 * @return the DOM element of the new TOP_Kante
+	 */
+	public Element addTopKante(String knotenA, String knotenB, String anschlussA, String anschlussB, double length) {
+		Element topKanteElem = new Element("TOP_Kante");
+		topKanteElem.addContent(createWert("Identitaet", createGuid()));
+		topKanteElem.addContent(createWert("ID_TOP_Knoten_A", knotenA));
+		topKanteElem.addContent(createWert("ID_TOP_Knoten_B", knotenB));
+		Element allgElem = new Element("TOP_Kante_Allg");
+		topKanteElem.addContent(allgElem);
+		allgElem.addContent(createWert("TOP_Anschluss_A", anschlussA));
+		allgElem.addContent(createWert("TOP_Anschluss_B", anschlussB));
+		allgElem.addContent(createWert("TOP_Laenge", formatMeters(length)));
+		return addObject(topKanteElem);
+	}
+	
+	/**
+	 * Create a Punkt_Objekt_TOP_Kante attribute group.
+	 * 
+	 * @param idTopKante the GUID of the TOP_Kante
+	 * @param abstand the distance from node A in meters
+	 * @param seitlicherAbstand the lateral distance in meters
+	 * @param wirkrichtung the effective direction ("in", "gegen" or "beide")
+	 * @return the new element
+	 */
+	public static Element createPunktObjektTopKante(String idTopKante, double abstand, double seitlicherAbstand, String wirkrichtung) {
+		Element potkElem = new Element("Punkt_Objekt_TOP_Kante");
+		potkElem.addContent(createWert("ID_TOP_Kante", idTopKante));
+		potkElem.addContent(createWert("Abstand", formatMeters(abstand)));
+		potkElem.addContent(createWert("Seitlicher_Abstand", formatMeters(seitlicherAbstand)));
+		potkElem.addContent(createWert("Wirkrichtung", wirkrichtung));
+		return potkElem;
+	}
+	
+	/**
+	 * Create a Punkt_Objekt_Strecke attribute group.
+	 * 
+	 * @param idStrecke the GUID of the Strecke
+	 * @param km the kilometer value of the position on the Strecke
+	 * @return the new element
+	 */
+	public static Element createPunktObjektStrecke(String idStrecke, double km) {
+		Element postElem = new Element("Punkt_Objekt_Strecke");
+		postElem.addContent(createWert("ID_Strecke", idStrecke));
+		postElem.addContent(createWert("Strecke_Km", String.format(Locale.ROOT, "%.3f", km).replace('.', ',')));
+		return postElem;
+	}
+	
+	/**
+	 * Add a new Signal without function and type.
+	 * 
+	 * @param idTopKante the GUID of the TOP_Kante the signal is located on
+	 * @param abstand the distance from node A in meters
+	 * @param wirkrichtung the effective direction ("in" or "gegen")
+	 * @param name the name of the signal
+	 * @return the DOM element of the new Signal
+	 */
+	public Element addSignal(String idTopKante, double abstand, String wirkrichtung, String name) {
+		return addSignal(createPunktObjektTopKante(idTopKante, abstand, 3.5, wirkrichtung), null, null, null, name);
+	}
+	
+	/**
+	 * Add a new Signal.
+	 * A signal without function and type gets no Signal_Real attribute group.
+	 * 
+	 * @param punktObjektTopKante the Punkt_Objekt_TOP_Kante attribute group
+	 * @param punktObjektStrecke the Punkt_Objekt_Strecke attribute group, or null
+	 * @param funktion the value of Signal_Funktion (e.g. "Einfahr_Signal"), or null
+	 * @param art the value of Signal_Art (e.g. "Hauptsignal"), or null
+	 * @param name the name of the signal
+	 * @return the DOM element of the new Signal
+	 */
+	public Element addSignal(Element punktObjektTopKante, Element punktObjektStrecke, String funktion, String art, String name) {
+		Element signalElem = new Element("Signal");
+		signalElem.addContent(createWert("Identitaet", createGuid()));
+		signalElem.addContent(punktObjektTopKante);
+		if(punktObjektStrecke != null) {
+			signalElem.addContent(punktObjektStrecke);
+		}
+		if(funktion != null || art != null) {
+			Element realElem = new Element("Signal_Real");
+			signalElem.addContent(realElem);
+			realElem.addContent(createWert("Signal_Befestigungsart", "Pfahl"));
+			if(funktion != null) {
+				realElem.addContent(new Element("Signal_Real_Aktiv").addContent(createWert("Signal_Funktion", funktion)));
+			}
+			if(art != null) {
+				Element schirmElem = new Element("Signal_Real_Aktiv_Schirm");
+				realElem.addContent(schirmElem);
+				schirmElem.addContent(createWert("Signalsystem", "Ks"));
+				schirmElem.addContent(createWert("Signal_Art", art));
+			}
+		}
+		Element bezeichnungElem = new Element("Bezeichnung");
+		signalElem.addContent(bezeichnungElem);
+		bezeichnungElem.addContent(createWert("Bezeichnung_Lageplan_Kurz", name));
+		bezeichnungElem.addContent(createWert("Bezeichnung_Lageplan_Lang", name));
+		bezeichnungElem.addContent(createWert("Bezeichnung_Tabelle", name));
+		bezeichnungElem.addContent(createWert("Bezeichnung_Aussenanlage", name));
+		return addObject(signalElem);
+	}
+	
+	/**
+	 * Add a signal aspect to a signal, consisting of a new Signal_Rahmen and a Signal_Signalbegriff.
+	 * 
+	 * @param idSignal the GUID of the signal
+	 * @param aspect the signal aspect as defined in Ril 301 (e.g. "Ra_10")
+	 * @return the DOM element of the new Signal_Signalbegriff
+	 */
+	public Element addSignalAspect(String idSignal, String aspect) {
+		String idRahmen = createGuid();
+		Element rahmenElem = new Element("Signal_Rahmen");
+		rahmenElem.addContent(createWert("Identitaet", idRahmen));
+		rahmenElem.addContent(createWert("ID_Signal", idSignal));
+		addObject(rahmenElem);
+		Element begriffElem = new Element("Signal_Signalbegriff");
+		begriffElem.addContent(createWert("Identitaet", createGuid()));
+		begriffElem.addContent(createWert("ID_Signal_Rahmen", idRahmen));
+		begriffElem.addContent(new Element("Signalbegriff_ID").setAttribute("type", "nsSignalbegriffe_Ril_301:" + aspect, XSI));
+		return addObject(begriffElem);
+	}
+	
+	/**
+	 * Get the document.
+	 * In streaming mode, the document does not contain the objects.
+	 * 
+	 * @return the document
+	 */
+	public Document getDocument() {
+		return doc;
+	}
+	
+	/**
+	 * Get the number of added PlanPro objects.
+	 * 
+	 * @return the number of objects
+	 */
+	public long getObjectCount() {
+		return objectCount;
+	}
+	
+	/**
+	 * Write the document into an XML file.
+	 * 
+	 * @param filename the name of the file to write
+	 * @throws IOException if a file error occurs
+	 * @throws IllegalStateException if the builder works in streaming mode
+	 */
+	public void writeFile(String filename) throws IOException {
+		if(writer != null) {
+			throw new IllegalStateException("objects are written by the streaming mode");
+		}
+		FileWriter fw = new FileWriter(filename);
+		try {
+			outputter.output(doc, fw);
+		} finally {
+			fw.close();
+		}
+	}
+	
+	/**
+	 * Write the end of the document and close the writer of the streaming mode.
+	 * Without streaming mode, this method has no effect.
+	 * 
+	 * @throws IOException if an error occurred while writing the document
+	 */
+	public void close() throws IOException {
+		if(writer == null) {
+			return;
+		}
+		writer.write(tail);
+		writer.close();
+		if(writer.checkError()) {
+			throw new IOException("error while writing the document");
+		}
+	}
+
+}
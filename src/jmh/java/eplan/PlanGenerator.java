@@ -0,0 +1,669 @@
+/**
+ * EPlan - Automated ETCS Planning Tool
+ * 
+ * Copyright (c) 2017-2025, The FormETCS Project. All rights reserved.
+ * This file is licensed under the terms of the Modified (3-Clause) BSD License.
+ * 
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package eplan;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.CommandLineParser;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.jdom2.Element;
+
+/**
+ * Generator for synthetic PlanPro plans of double-track lines, used for benchmarks and scaling tests.
+ * Each line consists of two main tracks with stations at a configurable spacing. In each station, each main track
+ * branches into station tracks through switch ladders, and a crossover connects the main tracks behind the station.
+ * The signals (distant, entry, exit and block signals, Ra 10 and Oz Bk boards) have Signal_Funktion, Signal_Art and signal aspects,
+ * the switches have a W_Kr_Gsp_Komponente and a W_Kr_Gsp_Element referencing their Grenzzeichen,
+ * and all signals have a kilometer value on the Strecke of their line.
+ * Track segments have random lengths and orientations. The same seed and parameters always create the same plan.
+ * The plan is written while it is generated, so plans of the size of a national network need little memory.
+ * 
+ * @author Stefan Dillmann
+ *
+ */
+public class PlanGenerator {
+	
+	/**
+	 * A track between two nodes, consisting of TOP_Kante objects of random length and orientation.
+	 * Positions on the track are given as line coordinate in meters, increasing in up direction.
+	 * 
+	 * @author Stefan Dillmann
+	 *
+	 */
+	private class Track {
+		
+		/**
+		 * The line coordinates of the segment boundaries, in ascending order.
+		 */
+		final double[] bounds;
+		
+		/**
+		 * The GUIDs of the TOP_Kante objects of the segments.
+		 */
+		final String[] edges;
+		
+		/**
+		 * The orientation of the segments, true if node A of the TOP_Kante is at the higher line coordinate.
+		 */
+		final boolean[] reversed;
+		
+		/**
+		 * Creates a new track and adds its TOP_Knoten and TOP_Kante objects.
+		 * 
+		 * @param from the line coordinate of the beginning
+		 * @param to the line coordinate of the end, greater than from
+		 * @param fromKnoten the GUID of the node at the beginning
+		 * @param fromAnschluss the connection type at the beginning
+		 * @param toKnoten the GUID of the node at the end
+		 * @param toAnschluss the connection type at the end
+		 */
+		Track(double from, double to, String fromKnoten, String fromAnschluss, String toKnoten, String toAnschluss) {
+			List<Double> boundList = new ArrayList<Double>();
+			boundList.add(from);
+			double x = from;
+			while(to - x > 450.0) {
+				x += 80 + random.nextInt(321);
+				if(to - x < 40.0) {
+					break;
+				}
+				boundList.add(x);
+			}
+			boundList.add(to);
+			int n = boundList.size() - 1;
+			bounds = new double[n + 1];
+			edges = new String[n];
+			reversed = new boolean[n];
+			String knoten = fromKnoten;
+			String anschluss = fromAnschluss;
+			for(int i = 0; i < n; i++) {
+				bounds[i] = boundList.get(i);
+				String nextKnoten = toKnoten;
+				String nextAnschluss = toAnschluss;
+				if(i < n - 1) {
+					nextKnoten = builder.addTopKnoten();
+					nextAnschluss = "Verbindung";
+				}
+				double length = boundList.get(i + 1) - boundList.get(i);
+				reversed[i] = random.nextDouble() < 0.4;
+				Element topKante;
+				if(reversed[i]) {
+					topKante = builder.addTopKante(nextKnoten, knoten, nextAnschluss, anschluss, length);
+				}
+				else {
+					topKante = builder.addTopKante(knoten, nextKnoten, anschluss, nextAnschluss, length);
+				}
+				edges[i] = PlanBuilder.getGuid(topKante);
+				knoten = nextKnoten;
+				anschluss = nextAnschluss;
+			}
+			bounds[n] = to;
+		}
+		
+		/**
+		 * Create the Punkt_Objekt_TOP_Kante attribute group of a position on the track.
+		 * 
+		 * @param x the line coordinate
+		 * @param up true if the effective direction is the up direction
+		 * @param lateral the lateral distance in meters, to the right in effective direction
+		 * @return the new element
+		 * @throws IllegalArgumentException if the position is not on the track
+		 */
+		Element position(double x, boolean up, double lateral) {
+			for(int i = 0; i < edges.length; i++) {
+				if(x >= bounds[i] && x <= bounds[i + 1]) {
+					double abstand = reversed[i] ? bounds[i + 1] - x : x - bounds[i];
+					String wirkrichtung = (up != reversed[i]) ? "in" : "gegen";
+					return PlanBuilder.createPunktObjektTopKante(edges[i], abstand, up ? lateral : -lateral, wirkrichtung);
+				}
+			}
+			throw new IllegalArgumentException("position " + x + " is not on the track");
+		}
+		
+		/**
+		 * Move a group of positions on the track clear of the segment boundaries, where the TOP_Kante objects end.
+		 * A group next to a boundary is moved behind it, or before it at the end of the track.
+		 * 
+		 * @param x the line coordinate of the first position of the group
+		 * @param extent the distance between the first and the last position of the group in meters
+		 * @param margin the minimum distance to a segment boundary in meters
+		 * @return the line coordinate of the first position of the moved group
+		 */
+		double clearOfBoundaries(double x, double extent, double margin) {
+			for(int i = 0; i < bounds.length; i++) {
+				if(bounds[i] > x - margin && bounds[i] < x + extent + margin) {
+					if(i < bounds.length - 1) {
+						return bounds[i] + margin;
+					}
+					return bounds[i] - margin - extent;
+				}
+			}
+			return x;
+		}
+		
+		/**
+		 * Get the line coordinate of the beginning.
+		 * 
+		 * @return the line coordinate
+		 */
+		double getStart() {
+			return bounds[0];
+		}
+	
+	}
+	
+	
+	/**
+	 * Half the length of a station with one station track per main track, in meters between the switches on the main track.
+	 */
+	public static final double STATION_HALF_LENGTH = 300.0;
+	
+	/**
+	 * Distance between two switches of a switch ladder in meters.
+	 */
+	public static final double LADDER_SPACING = 50.0;
+	
+	/**
+	 * Distance between two block signals in meters.
+	 */
+	public static final double BLOCK_SPACING = 1800.0;
+	
+	/**
+	 * Lateral distance of signals in meters.
+	 */
+	public static final double SIGNAL_LATERAL_DISTANCE = 3.5;
+	
+	/**
+	 * Minimum distance of block signals to the end of their TOP_Kante in meters, the distance the planning searches behind a signal.
+	 */
+	public static final double SIGNAL_EDGE_END_DISTANCE = 1.5;
+	
+	/**
+	 * Distance between the two signals of a pair of back-to-back block signals in meters.
+	 */
+	public static final double BACK_TO_BACK_DISTANCE = 0.3;
+	
+	
+	/**
+	 * The length of each line in kilometers.
+	 */
+	public double lineLength;
+	
+	/**
+	 * The number of independent lines.
+	 */
+	public int lineCount;
+	
+	/**
+	 * The mean distance between two stations in kilometers; the actual distances vary by 20 percent.
+	 */
+	public double stationSpacing;
+	
+	/**
+	 * The number of station tracks next to each main track in each station.
+	 */
+	public int stationTracks;
+	
+	/**
+	 * Flag if a crossover should connect the main tracks behind each station.
+	 */
+	public boolean crossovers;
+	
+	/**
+	 * The seed of the random number generator.
+	 */
+	public long seed;
+	
+	/**
+	 * The random number generator of the current generation.
+	 */
+	private Random random;
+	
+	/**
+	 * The builder of the current generation.
+	 */
+	private PlanBuilder builder;
+	
+	/**
+	 * The GUID of the Strecke of the current line.
+	 */
+	private String strecke;
+	
+	/**
+	 * The main tracks of the current line by their line coordinate of the beginning, one map for each direction.
+	 */
+	private List<TreeMap<Double, Track>> mainTracks;
+	
+	/**
+	 * Number of created signals, used for their names.
+	 */
+	private int signalCount;
+	
+	/**
+	 * Number of created switches, used for the names of their Grenzzeichen.
+	 */
+	private int switchCount;
+	
+	
+	/**
+	 * Creates a new generator with the default parameters: one line of 10 km, stations every 5 km with one station track per main track,
+	 * crossovers behind each station.
+	 * 
+	 * @param seed the seed of the random number generator
+	 */
+	public PlanGenerator(long seed) {
+		this.lineLength = 10.0;
+		this.lineCount = 1;
+		this.stationSpacing = 5.0;
+		this.stationTracks = 1;
+		this.crossovers = true;
+		this.seed = seed;
+	}
+	
+	/**
+	 * Get half the length of a station, which grows with the number of station tracks.
+	 * 
+	 * @return half the length in meters
+	 */
+	private double getStationHalfLength() {
+		return STATION_HALF_LENGTH + LADDER_SPACING * Math.max(0, stationTracks - 1);
+	}
+	
+	/**
+	 * Check if the parameters are valid, especially if the stations fit between each other with the given spacing and number of station tracks.
+	 * 
+	 * @throws IllegalArgumentException if the parameters are invalid
+	 */
+	private void checkParameters() {
+		if(lineLength <= 0.1 || lineCount < 1 || stationTracks < 0) {
+			throw new IllegalArgumentException("invalid parameters " + this);
+		}
+		if(stationSpacing * 800.0 < 2 * getStationHalfLength() + 3000.0) {
+			throw new IllegalArgumentException("station spacing of " + stationSpacing + " km is too small for " + stationTracks + " station tracks");
+		}
+	}
+	
+	/**
+	 * Generate the plan and write it into a file.
+	 * 
+	 * @param filename the name of the file to write
+	 * @return the number of generated PlanPro objects
+	 * @throws IOException if a file error occurs
+	 * @throws IllegalArgumentException if the parameters are invalid, e.g. the stations do not fit between each other
+	 */
+	public long writeFile(String filename) throws IOException {
+		checkParameters();
+		return generate(new BufferedWriter(new FileWriter(filename)));
+	}
+	
+	/**
+	 * Generate the plan and write it. The writer is closed afterwards.
+	 * 
+	 * @param w the writer
+	 * @return the number of generated PlanPro objects
+	 * @throws IOException if a write error occurs
+	 * @throws IllegalArgumentException if the parameters are invalid, e.g. the stations do not fit between each other
+	 */
+	public long generate(Writer w) throws IOException {
+		checkParameters();
+		random = new Random(seed);
+		builder = new PlanBuilder("Generated plan: " + lineCount + " x " + lineLength + " km, station spacing " + stationSpacing
+				+ " km, " + stationTracks + " station tracks, seed " + seed, w);
+		signalCount = 0;
+		switchCount = 0;
+		for(int i = 0; i < lineCount; i++) {
+			generateLine();
+		}
+		builder.close();
+		mainTracks = null;
+		return builder.getObjectCount();
+	}
+	
+	/**
+	 * Generate one line.
+	 */
+	private void generateLine() {
+		strecke = builder.createGuid();
+		double length = lineLength * 1000.0;
+		double halfLength = getStationHalfLength();
+		List<Double> stations = new ArrayList<Double>();
+		double s = halfLength + 2700.0;
+		while(s + halfLength + 2700.0 <= length) {
+			stations.add(s);
+			s += stationSpacing * 1000.0 * (0.8 + 0.4 * random.nextDouble());
+		}
+		
+		// the switches on the main tracks, by line coordinate and whether the tip of the switch points down
+		mainTracks = new ArrayList<TreeMap<Double, Track>>();
+		List<Map<Double, String>> switchNodes = new ArrayList<Map<Double, String>>();
+		for(int track = 0; track < 2; track++) {
+			TreeMap<Double, Boolean> splits = new TreeMap<Double, Boolean>();
+			for(double station : stations) {
+				if(stationTracks > 0) {
+					splits.put(station - halfLength, true);
+					splits.put(station + halfLength, false);
+				}
+				if(crossovers) {
+					splits.put(station + halfLength + ((track == 0) ? 400.0 : 500.0), track == 0);
+				}
+			}
+			TreeMap<Double, Track> tracks = new TreeMap<Double, Track>();
+			Map<Double, String> nodes = new TreeMap<Double, String>();
+			double x = 0.0;
+			String knoten = builder.addTopKnoten();
+			String anschluss = "Ende";
+			for(Map.Entry<Double, Boolean> split : splits.entrySet()) {
+				String next = builder.addTopKnoten();
+				nodes.put(split.getKey(), next);
+				boolean tipDown = split.getValue();
+				tracks.put(x, new Track(x, split.getKey(), knoten, anschluss, next, tipDown ? "Spitze" : "Rechts"));
+				x = split.getKey();
+				knoten = next;
+				anschluss = tipDown ? "Rechts" : "Spitze";
+			}
+			tracks.put(x, new Track(x, length, knoten, anschluss, builder.addTopKnoten(), "Ende"));
+			mainTracks.add(tracks);
+			switchNodes.add(nodes);
+		}
+		
+		for(double station : stations) {
+			for(int track = 0; track < 2; track++) {
+				generateStation(station, track, switchNodes.get(track).get(station - halfLength), switchNodes.get(track).get(station + halfLength));
+			}
+			if(crossovers) {
+				double x0 = station + halfLength + 400.0;
+				double x1 = station + halfLength + 500.0;
+				Track crossover = new Track(x0, x1, switchNodes.get(0).get(x0), "Links", switchNodes.get(1).get(x1), "Links");
+				addSwitch(mainTrack(0, x0 - 1.0), x0, true, crossover, x0 + 40.0);
+				addSwitch(mainTrack(1, x1 + 1.0), x1, false, crossover, x1 - 40.0);
+			}
+		}
+		
+		for(int i = 0; i <= stations.size(); i++) {
+			double from = (i == 0) ? 200.0 : stations.get(i - 1) + halfLength + 1900.0;
+			double to = (i == stations.size()) ? length - 950.0 : stations.get(i) - halfLength - 1700.0;
+			for(double x = from; x < to; x += BLOCK_SPACING) {
+				generateBlock(x);
+			}
+		}
+		
+		// kilometer references at the ends of the line
+		for(int track = 0; track < 2; track++) {
+			addSignal(mainTrack(track, 10.0), 10.0, true, null, null);
+			addSignal(mainTrack(track, length - 10.0), length - 10.0, true, null, null);
+		}
+	}
+	
+	/**
+	 * Generate the station tracks, switches and signals of a station on one main track.
+	 * Trains on main track 0 run up, trains on main track 1 run down.
+	 * 
+	 * @param station the line coordinate of the middle of the station
+	 * @param track the main track
+	 * @param entryNode the GUID of the node of the switch on the main track at the lower end of the station, or null without station tracks
+	 * @param exitNode the GUID of the node of the switch on the main track at the upper end of the station, or null without station tracks
+	 */
+	private void generateStation(double station, int track, String entryNode, String exitNode) {
+		double halfLength = getStationHalfLength();
+		boolean up = (track == 0);
+		double entry = station - halfLength;
+		double exit = station + halfLength;
+		List<Track> stationTracks = new ArrayList<Track>();
+		if(this.stationTracks == 1) {
+			Track stationTrack = new Track(entry, exit, entryNode, "Links", exitNode, "Links");
+			stationTracks.add(stationTrack);
+			addSwitch(mainTrack(track, entry - 1.0), entry, true, stationTrack, entry + 40.0);
+			addSwitch(mainTrack(track, exit + 1.0), exit, false, stationTrack, exit - 40.0);
+		}
+		else if(this.stationTracks > 1) {
+			// switch ladders: the ladder track continues on the left branch of each switch, the station tracks leave on the right branch
+			int ladderSwitches = this.stationTracks - 1;
+			String[] entryLadder = new String[ladderSwitches];
+			String[] exitLadder = new String[ladderSwitches];
+			Track entryStem = null;
+			Track exitStem = null;
+			for(int i = 0; i < ladderSwitches; i++) {
+				entryLadder[i] = builder.addTopKnoten();
+				exitLadder[i] = builder.addTopKnoten();
+				double ladderEntry = entry + LADDER_SPACING * (i + 1);
+				double ladderExit = exit - LADDER_SPACING * (i + 1);
+				Track entryLink = new Track(ladderEntry - LADDER_SPACING, ladderEntry, (i == 0) ? entryNode : entryLadder[i - 1], "Links", entryLadder[i], "Spitze");
+				Track exitLink = new Track(ladderExit, ladderExit + LADDER_SPACING, exitLadder[i], "Spitze", (i == 0) ? exitNode : exitLadder[i - 1], "Links");
+				if(i == 0) {
+					addSwitch(mainTrack(track, entry - 1.0), entry, true, entryLink, entry + 40.0);
+					addSwitch(mainTrack(track, exit + 1.0), exit, false, exitLink, exit - 40.0);
+				}
+				else {
+					addSwitch(entryStem, ladderEntry - LADDER_SPACING, true, entryLink, ladderEntry - LADDER_SPACING + 40.0);
+					addSwitch(exitStem, ladderExit + LADDER_SPACING, false, exitLink, ladderExit + LADDER_SPACING - 40.0);
+				}
+				stationTracks.add(new Track(ladderEntry, ladderExit, entryLadder[i], "Rechts", exitLadder[i], "Rechts"));
+				entryStem = entryLink;
+				exitStem = exitLink;
+			}
+			double ladderEntry = entry + LADDER_SPACING * ladderSwitches;
+			double ladderExit = exit - LADDER_SPACING * ladderSwitches;
+			Track lastTrack = new Track(ladderEntry, ladderExit, entryLadder[ladderSwitches - 1], "Links", exitLadder[ladderSwitches - 1], "Links");
+			stationTracks.add(lastTrack);
+			addSwitch(entryStem, ladderEntry, true, lastTrack, ladderEntry + 40.0);
+			addSwitch(exitStem, ladderExit, false, lastTrack, ladderExit - 40.0);
+		}
+		
+		if(up) {
+			addSignal(mainTrack(track, entry - 1300.0), entry - 1300.0, true, null, "Vorsignal");
+			addSignal(mainTrack(track, entry - 300.0), entry - 300.0, true, "Einfahr_Signal", "Hauptsignal");
+			addSignal(mainTrack(track, station + 150.0), station + 150.0, true, "Ausfahr_Signal", "Hauptsperrsignal");
+			for(Track stationTrack : stationTracks) {
+				addSignal(stationTrack, station + 150.0, true, "Ausfahr_Signal", "Hauptsperrsignal");
+			}
+			addAspect(addSignal(mainTrack(track, entry - 150.0), entry - 150.0, false, null, null), "Ra_10");
+		}
+		else {
+			addSignal(mainTrack(track, exit + 1300.0), exit + 1300.0, false, null, "Vorsignal");
+			addSignal(mainTrack(track, exit + 300.0), exit + 300.0, false, "Einfahr_Signal", "Hauptsignal");
+			addSignal(mainTrack(track, station - 150.0), station - 150.0, false, "Ausfahr_Signal", "Hauptsperrsignal");
+			for(Track stationTrack : stationTracks) {
+				addSignal(stationTrack, station - 150.0, false, "Gruppenausfahr_Signal", "Hauptsperrsignal");
+			}
+			addAspect(addSignal(mainTrack(track, exit + 150.0), exit + 150.0, true, null, null), "Ra_10");
+		}
+		// exit signal for trains running against the regular direction
+		double oppositeExit = up ? entry + 120.0 : exit - 120.0;
+		addSignal(mainTrack(track, oppositeExit), oppositeExit, !up, "Ausfahr_Signal", "Hauptsperrsignal");
+	}
+	
+	/**
+	 * Generate the block signals at one position between two stations.
+	 * 
+	 * @param x the line coordinate of the block signal on main track 0, before it is moved clear of the ends of its TOP_Kante
+	 */
+	private void generateBlock(double x) {
+		double pair = mainTrack(0, x).clearOfBoundaries(x, BACK_TO_BACK_DISTANCE, SIGNAL_EDGE_END_DISTANCE);
+		addSignal(mainTrack(0, pair), pair, true, "Block_Signal", random.nextBoolean() ? "Mehrabschnittssignal" : "Hauptsignal");
+		if(random.nextDouble() < 0.5) {
+			addSignal(mainTrack(0, pair + BACK_TO_BACK_DISTANCE), pair + BACK_TO_BACK_DISTANCE, false, "Block_Signal", "Hauptsignal");
+		}
+		addSignal(mainTrack(1, x + 100.0), x + 100.0, false, "Block_Signal", "Mehrabschnittssignal");
+		if(random.nextDouble() < 0.3) {
+			addSignal(mainTrack(1, x + 900.0), x + 900.0, false, "Zugdeckungs_Signal", "Zugdeckungssignal");
+		}
+		if(random.nextDouble() < 0.5) {
+			addAspect(addSignal(mainTrack(1, x + 500.0), x + 500.0, false, null, null), "Oz_Bk");
+		}
+	}
+	
+	/**
+	 * Get the main track containing a position of the current line.
+	 * 
+	 * @param track the main track
+	 * @param x the line coordinate
+	 * @return the track
+	 */
+	private Track mainTrack(int track, double x) {
+		return mainTracks.get(track).floorEntry(x).getValue();
+	}
+	
+	/**
+	 * Add a signal with a kilometer value.
+	 * 
+	 * @param track the track the signal is located on
+	 * @param x the line coordinate
+	 * @param up true if the signal is valid in up direction
+	 * @param funktion the value of Signal_Funktion, or null
+	 * @param art the value of Signal_Art, or null
+	 * @return the GUID of the new signal
+	 */
+	private String addSignal(Track track, double x, boolean up, String funktion, String art) {
+		signalCount++;
+		Element signal = builder.addSignal(track.position(x, up, SIGNAL_LATERAL_DISTANCE), PlanBuilder.createPunktObjektStrecke(strecke, x / 1000.0),
+				funktion, art, "S" + signalCount);
+		return PlanBuilder.getGuid(signal);
+	}
+	
+	/**
+	 * Add a signal aspect to a signal.
+	 * 
+	 * @param signal the GUID of the signal
+	 * @param aspect the signal aspect as defined in Ril 301
+	 */
+	private void addAspect(String signal, String aspect) {
+		builder.addSignalAspect(signal, aspect);
+	}
+	
+	/**
+	 * Add the W_Kr_Gsp_Komponente and W_Kr_Gsp_Element of a switch, and its Grenzzeichen.
+	 * 
+	 * @param stem the track at the tip of the switch
+	 * @param x the line coordinate of the switch
+	 * @param up true if the branch leaves the switch in up direction
+	 * @param branch the track on the left branch
+	 * @param grenzzeichen the line coordinate of the Grenzzeichen on the branch
+	 */
+	private void addSwitch(Track stem, double x, boolean up, Track branch, double grenzzeichen) {
+		switchCount++;
+		Element grenzzeichenElem = builder.addSignal(branch.position(grenzzeichen, up, SIGNAL_LATERAL_DISTANCE), null, null, null, "GZ" + switchCount);
+		String idElement = builder.createGuid();
+		Element elementElem = new Element("W_Kr_Gsp_Element");
+		elementElem.addContent(PlanBuilder.createWert("Identitaet", idElement));
+		elementElem.addContent(new Element("Weiche_Element").addContent(PlanBuilder.createWert("ID_Grenzzeichen", PlanBuilder.getGuid(grenzzeichenElem))));
+		builder.addObject(elementElem);
+		Element komponenteElem = new Element("W_Kr_Gsp_Komponente");
+		komponenteElem.addContent(PlanBuilder.createWert("Identitaet", builder.createGuid()));
+		komponenteElem.addContent(stem.position(x, up, 0.0));
+		komponenteElem.addContent(PlanBuilder.createWert("ID_W_Kr_Gsp_Element", idElement));
+		Element zungenpaarElem = new Element("Zungenpaar");
+		komponenteElem.addContent(zungenpaarElem);
+		zungenpaarElem.addContent(PlanBuilder.createWert("Geschwindigkeit_L", Integer.toString(40 + 20 * random.nextInt(4))));
+		zungenpaarElem.addContent(PlanBuilder.createWert("Geschwindigkeit_R", "160"));
+		builder.addObject(komponenteElem);
+	}
+	
+	/**
+	 * Main function of the generator.
+	 * 
+	 * @param args the command line arguments
+	 */
+	public static void main(String[] args) {
+		Options options = new Options();
+		options.addOption("h", "help", false, "print this message and exit");
+		Option outfileOption = Option.builder("o").hasArg().argName("file").desc("write generated plan to <file> instead of stdout").build();
+		options.addOption(outfileOption);
+		Option lengthOption = Option.builder().longOpt("length").hasArg().argName("km").desc("length of each line in kilometers (default: 10)").build();
+		options.addOption(lengthOption);
+		Option linesOption = Option.builder().longOpt("lines").hasArg().argName("n").desc("number of independent lines (default: 1)").build();
+		options.addOption(linesOption);
+		Option spacingOption = Option.builder().longOpt("station-spacing").hasArg().argName("km").desc("mean distance between two stations in kilometers (default: 5)").build();
+		options.addOption(spacingOption);
+		Option tracksOption = Option.builder().longOpt("station-tracks").hasArg().argName("n").desc("number of station tracks next to each main track, connected by switch ladders (default: 1)").build();
+		options.addOption(tracksOption);
+		Option noCrossoversOption = Option.builder().longOpt("no-crossovers").desc("do not connect the main tracks by crossovers").build();
+		options.addOption(noCrossoversOption);
+		Option seedOption = Option.builder().longOpt("seed").hasArg().argName("n").desc("seed of the random number generator (default: 1)").build();
+		options.addOption(seedOption);
+		
+		CommandLineParser parser = new DefaultParser();
+		CommandLine cmd = null;
+		try {
+			cmd = parser.parse(options, args);
+		} catch (ParseException e) {
+			e.printStackTrace();
+			System.exit(1);
+		}
+		if(cmd.hasOption("h")) {
+			HelpFormatter formatter = new HelpFormatter();
+			formatter.printHelp("PlanGenerator [options]", options);
+			System.exit(0);
+		}
+		PlanGenerator generator = new PlanGenerator(1);
+		try {
+			if(cmd.hasOption("length")) {
+				generator.lineLength = Double.parseDouble(cmd.getOptionValue("length"));
+			}
+			if(cmd.hasOption("lines")) {
+				generator.lineCount = Integer.parseInt(cmd.getOptionValue("lines"));
+			}
+			if(cmd.hasOption("station-spacing")) {
+				generator.stationSpacing = Double.parseDouble(cmd.getOptionValue("station-spacing"));
+			}
+			if(cmd.hasOption("station-tracks")) {
+				generator.stationTracks = Integer.parseInt(cmd.getOptionValue("station-tracks"));
+			}
+			if(cmd.hasOption("seed")) {
+				generator.seed = Long.parseLong(cmd.getOptionValue("seed"));
+			}
+		} catch (NumberFormatException e) {
+			e.printStackTrace();
+			System.exit(1);
+		}
+		if(cmd.hasOption("no-crossovers")) {
+			generator.crossovers = false;
+		}
+		try {
+			long objectCount;
+			if(cmd.hasOption("o")) {
+				objectCount = generator.writeFile(cmd.getOptionValue("o"));
+			}
+			else {
+				objectCount = generator.generate(new BufferedWriter(new OutputStreamWriter(System.out)));
+			}
+			System.err.println("generated " + objectCount + " objects");
+		} catch (IOException e) {
+			e.printStackTrace();
+			System.exit(1);
+		} catch (IllegalArgumentException e) {
+			e.printStackTrace();
+			System.exit(1);
+		}
+	}
+	
+	/**
+	 * String representation of the object (only for debugging purposes).
+	 * 
+	 * @return String representation of the object
+	 */
+	@Override
+	public String toString() {
+		return "[" + lineCount + "x" + lineLength + " km,station spacing " + stationSpacing + " km," + stationTracks + " station tracks,seed " + seed + "]";
+	}
+
+}
@@ -0,0 +1,275 @@
+/**
+ * EPlan - Automated ETCS Planning Tool
+ * 
+ * Copyright (c) 2017-2025, The FormETCS Project. All rights reserved.
+ * This file is licensed under the terms of the Modified (3-Clause) BSD License.
+ * 
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package eplan;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jdom2.Element;
+import org.jdom2.JDOMException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks for the topology operations of {@link eplan.PlanProModel}.
+ * The benchmarks run on a {@link eplan.BenchmarkTopology}, parameterised over the number of TOP_Kante objects and the branching factor.
+ * The model is read and its precomputed data is built once per trial, so the queries are measured on a warm model.
+ * Distance queries run over a fixed number of signals of the main path, because the depth-first searches enumerate all alternative paths through the stations.
+ * 
+ * @author Stefan Dillmann
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlanProModelBenchmark {
+	
+	/**
+	 * The topology and the model read from it.
+	 * 
+	 * @author Stefan Dillmann
+	 *
+	 */
+	@State(Scope.Thread)
+	public static class ModelState {
+		
+		/**
+		 * The number of signals between the first signal and the target of the distance queries.
+		 */
+		public static final int TARGET_OFFSET = 10;
+		
+		/**
+		 * The minimum number of TOP_Kante objects.
+		 */
+		@Param({"100", "1000", "3000"})
+		public int size;
+		
+		/**
+		 * The number of parallel tracks in each station.
+		 */
+		@Param({"1", "2", "4"})
+		public int branching;
+		
+		/**
+		 * The file the topology is written into.
+		 */
+		public File file;
+		
+		/**
+		 * The model.
+		 */
+		public PlanProModel ppm;
+		
+		/**
+		 * The GUIDs of all TOP_Kante and Signal objects, looked up in turn.
+		 */
+		public String[] guids;
+		
+		/**
+		 * Index of the next GUID to look up.
+		 */
+		public int guidIndex;
+		
+		/**
+		 * The first TOP_Kante of the main path.
+		 */
+		public Element firstTopKante;
+		
+		/**
+		 * The TOP_Kante objects of the main path, in line direction.
+		 */
+		public List<Element> mainPath;
+		
+		/**
+		 * The first signal of the main path.
+		 */
+		public PunktObjekt startSignal;
+		
+		/**
+		 * The signal {@link #TARGET_OFFSET} signals behind the first signal, or the last signal of the main path if there are not enough signals.
+		 */
+		public PunktObjekt targetSignal;
+		
+		/**
+		 * The distance from the first signal to the middle of the main path in millimeters.
+		 */
+		public int halfPathDistance;
+		
+		
+		/**
+		 * Create the topology, write it into a temporary file, read the model from it and build its precomputed data.
+		 * 
+		 * @throws IOException if a file error occurs
+		 * @throws JDOMException if an XML parse error occurs
+		 */
+		@Setup(Level.Trial)
+		public void setup() throws IOException, JDOMException {
+			BenchmarkTopology topology = new BenchmarkTopology(size, branching);
+			file = File.createTempFile("eplan-benchmark", ".ppxml");
+			topology.builder.writeFile(file.getPath());
+			ppm = new PlanProModel();
+			ppm.readFile(file.getPath());
+			ppm.prepareConcurrentQueries();
+			
+			List<String> guidList = new ArrayList<String>(topology.topKanten);
+			guidList.addAll(topology.signals);
+			guids = guidList.toArray(new String[guidList.size()]);
+			guidIndex = 0;
+			mainPath = new ArrayList<Element>();
+			for(String guid : topology.mainPath) {
+				mainPath.add(ppm.getElementbyId(guid));
+			}
+			firstTopKante = mainPath.get(0);
+			startSignal = PunktObjekt.valueOf(ppm.getElementbyId(topology.signals.get(0)));
+			targetSignal = PunktObjekt.valueOf(ppm.getElementbyId(topology.signals.get(Math.min(TARGET_OFFSET, topology.signals.size() - 1))));
+			halfPathDistance = (int) (topology.mainPathLength * 500.0);
+		}
+		
+		/**
+		 * Delete the temporary file.
+		 */
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			file.delete();
+		}
+		
+		/**
+		 * Get the next GUID to look up.
+		 * 
+		 * @return the GUID
+		 */
+		public String nextGuid() {
+			guidIndex = (guidIndex + 1) % guids.length;
+			return guids[guidIndex];
+		}
+	
+	}
+	
+	
+	/**
+	 * Read and parse the whole file.
+	 * 
+	 * @param state the benchmark state
+	 * @return the new model
+	 * @throws IOException if a file error occurs
+	 * @throws JDOMException if an XML parse error occurs
+	 */
+	@Benchmark
+	public PlanProModel readFile(ModelState state) throws IOException, JDOMException {
+		PlanProModel ppm = new PlanProModel();
+		ppm.readFile(state.file.getPath());
+		return ppm;
+	}
+	
+	/**
+	 * Collect all PlanPro objects.
+	 * 
+	 * @param state the benchmark state
+	 * @return the objects
+	 */
+	@Benchmark
+	public List<Element> getPlanProObjectList(ModelState state) {
+		return state.ppm.getPlanProObjectList();
+	}
+	
+	/**
+	 * Look up an object by its GUID.
+	 * 
+	 * @param state the benchmark state
+	 * @return the object
+	 */
+	@Benchmark
+	public Element getElementbyId(ModelState state) {
+		return state.ppm.getElementbyId(state.nextGuid());
+	}
+	
+	/**
+	 * Find the neighbours of the first TOP_Kante in line direction.
+	 * 
+	 * @param state the benchmark state
+	 * @return the neighbours
+	 */
+	@Benchmark
+	public List<NextTopKanteResult> getNextTopKante(ModelState state) {
+		return state.ppm.getNextTopKante(state.firstTopKante, true);
+	}
+	
+	/**
+	 * Calculate all positions 5 km behind the first signal, which branch in each station.
+	 * 
+	 * @param state the benchmark state
+	 * @return the positions
+	 */
+	@Benchmark
+	public List<PunktObjekt> calculatePosition(ModelState state) {
+		return state.ppm.calculatePosition(state.startSignal, 5000000);
+	}
+	
+	/**
+	 * Calculate the position in the middle of the main path.
+	 * 
+	 * @param state the benchmark state
+	 * @return the position
+	 */
+	@Benchmark
+	public PunktObjekt calculatePositionOnPath(ModelState state) {
+		return state.ppm.calculatePositionOnPath(state.startSignal, state.mainPath, state.halfPathDistance, true);
+	}
+	
+	/**
+	 * Calculate the distance from the first signal to the target signal.
+	 * 
+	 * @param state the benchmark state
+	 * @return the distance
+	 */
+	@Benchmark
+	public int calculateDistance(ModelState state) {
+		return state.ppm.calculateDistance(state.startSignal, state.targetSignal);
+	}
+	
+	/**
+	 * Calculate the relative orientation of the first signal and the target signal.
+	 * 
+	 * @param state the benchmark state
+	 * @return the orientation
+	 */
+	@Benchmark
+	public PlanProModel.Direction checkDirection(ModelState state) {
+		return state.ppm.checkDirection(state.startSignal, state.targetSignal);
+	}
+	
+	/**
+	 * Find the signals following the first signal.
+	 * 
+	 * @param state the benchmark state
+	 * @return the paths to the signals
+	 */
+	@Benchmark
+	public List<NextPunktObjektPathResult> getNextPunktObjektPaths(ModelState state) {
+		return state.ppm.getNextPunktObjektPaths(state.startSignal, "Signal", true);
+	}
+
+}
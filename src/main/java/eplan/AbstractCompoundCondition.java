@@ -0,0 +1,279 @@
+/**
+ * EPlan - Automated ETCS Planning Tool
+ * 
+ * Copyright (c) 2017-2025, The FormETCS Project. All rights reserved.
+ * This file is licensed under the terms of the Modified (3-Clause) BSD License.
+ * 
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package eplan;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jdom2.Element;
+
+/**
+ * Abstract base class for conditions combining multiple other conditions with short-circuit evaluation.
+ * The conditions are not necessarily evaluated in insertion order. Instead, they are ordered by their
+ * estimated cost first, so cheap checks (like type or existence checks) are always evaluated before
+ * expensive ones (like signal aspect lookups). Conditions with equal cost are ordered by their observed
+ * probability to end the evaluation early, which is updated from the pass/fail counts during the run.
+ * As the result of a conjunction or disjunction does not depend on the evaluation order, this only
+ * affects the runtime, provided that the contained conditions are free of side effects.
+ * The condition can be evaluated by several threads at once. The statistics are counted atomically,
+ * and the evaluation order is recalculated by the one thread whose evaluation completes the interval.
+ * 
+ * @author Stefan Dillmann
+ *
+ */
+public abstract class AbstractCompoundCondition implements Evaluable {
+	
+	/**
+	 * Number of evaluations after which the evaluation order is recalculated.
+	 */
+	private static final int REORDER_INTERVAL = 128;
+	
+	/**
+	 * Minimum number of evaluations of a condition before its observed statistics are trusted.
+	 */
+	private static final int MIN_SAMPLES = 16;
+	
+	/**
+	 * The list of conditions in insertion order.
+	 */
+	private List<Entry> conditionList;
+	
+	/**
+	 * The conditions in current evaluation order.
+	 */
+	private volatile Entry[] evaluationOrder;
+	
+	/**
+	 * The result of a single condition which ends the evaluation early.
+	 */
+	private boolean shortCircuitValue;
+	
+	/**
+	 * Number of evaluations since the evaluation order was recalculated the last time.
+	 */
+	private final AtomicInteger evaluationsSinceReorder;
+	
+	
+	/**
+	 * Structure holding a condition and its observed evaluation statistics.
+	 * 
+	 * @author Stefan Dillmann
+	 *
+	 */
+	private static class Entry {
+		
+		/**
+		 * The condition.
+		 */
+		Evaluable condition;
+		
+		/**
+		 * The position of the condition in insertion order.
+		 */
+		int index;
+		
+		/**
+		 * Number of evaluations of the condition.
+		 */
+		final AtomicLong evaluations = new AtomicLong();
+		
+		/**
+		 * Number of evaluations that resulted in true.
+		 */
+		final AtomicLong passes = new AtomicLong();
+	}
+	
+	
+	/**
+	 * Creates a new AbstractCompoundCondition.
+	 * 
+	 * @param shortCircuit the result of a single condition which ends the evaluation early (false for a conjunction, true for a disjunction)
+	 */
+	protected AbstractCompoundCondition(boolean shortCircuit) {
+		conditionList = new ArrayList<Entry>();
+		evaluationOrder = new Entry[0];
+		shortCircuitValue = shortCircuit;
+		evaluationsSinceReorder = new AtomicInteger();
+	}
+	
+	/**
+	 * Add a new condition to the condition list.
+	 * 
+	 * @param e the new condition to add
+	 */
+	public void addCondition(Evaluable e) {
+		Entry entry = new Entry();
+		entry.condition = e;
+		entry.index = conditionList.size();
+		conditionList.add(entry);
+		reorder();
+	}
+	
+	/**
+	 * Evaluation function.
+	 * 
+	 * @param e the DOM element to test
+	 * @return the combined result of all containing conditions
+	 */
+	@Override
+	public boolean evaluate(Element e) {
+		Entry[] order = evaluationOrder;
+		boolean result = !shortCircuitValue;
+		for(int i = 0; i < order.length; i++) {
+			Entry entry = order[i];
+			boolean value = entry.condition.evaluate(e);
+			entry.evaluations.incrementAndGet();
+			if(value) {
+				entry.passes.incrementAndGet();
+			}
+			if(value == shortCircuitValue) {
+				result = shortCircuitValue;
+				break;
+			}
+		}
+		// only the evaluation reaching the interval recalculates the order, the counter is reset by reorder()
+		if(evaluationsSinceReorder.incrementAndGet() == REORDER_INTERVAL) {
+			reorder();
+		}
+		return result;
+	}
+	
+	/**
+	 * Estimated relative cost of a single evaluation.
+	 * This is the cost of evaluating all containing conditions, independent of the observed statistics.
+	 * An enclosing compound condition therefore never orders a nested compound condition containing
+	 * an expensive check ahead of a cheap guard, like a type check, even if the nested condition
+	 * usually ends its evaluation early.
+	 * 
+	 * @return the estimated cost of one evaluation
+	 */
+	@Override
+	public int getCost() {
+		Entry[] order = evaluationOrder;
+		long cost = 0;
+		for(int i = 0; i < order.length; i++) {
+			cost += order[i].condition.getCost();
+		}
+		return (int) Math.min(cost, Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * Check if the result of the condition depends only on the given element and its child elements.
+	 * This is the case if all containing conditions are local.
+	 * 
+	 * @return true if all containing conditions are local, otherwise false
+	 */
+	@Override
+	public boolean isLocal() {
+		for(int i = 0; i < conditionList.size(); i++) {
+			if(!conditionList.get(i).condition.isLocal()) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Get the containing conditions in their current evaluation order.
+	 * 
+	 * @return list of the containing conditions
+	 */
+	public List<Evaluable> getEvaluationOrder() {
+		Entry[] order = evaluationOrder;
+		List<Evaluable> result = new ArrayList<Evaluable>();
+		for(int i = 0; i < order.length; i++) {
+			result.add(order[i].condition);
+		}
+		return result;
+	}
+	
+	/**
+	 * Get the name of the logical operation, used for the string representation.
+	 * 
+	 * @return the name of the logical operation
+	 */
+	protected abstract String getOperatorName();
+	
+	/**
+	 * String representation of the object (only for debugging purposes).
+	 * The containing conditions are listed in their current evaluation order,
+	 * together with the number of evaluations and the observed pass rate.
+	 * 
+	 * @return String representation of the object
+	 */
+	@Override
+	public String toString() {
+		Entry[] order = evaluationOrder;
+		StringBuilder sb = new StringBuilder();
+		sb.append(getOperatorName()).append("[");
+		for(int i = 0; i < order.length; i++) {
+			Entry entry = order[i];
+			if(i > 0) {
+				sb.append(", ");
+			}
+			sb.append(entry.condition);
+			long evaluations = entry.evaluations.get();
+			sb.append(" {n=").append(evaluations);
+			if(evaluations > 0) {
+				sb.append(", pass=").append(Math.round(100.0 * entry.passes.get() / evaluations)).append("%");
+			}
+			sb.append("}");
+		}
+		sb.append("]");
+		return sb.toString();
+	}
+	
+	/**
+	 * Recalculate the evaluation order from the estimated costs and the observed statistics.
+	 * The new order is published as a whole, so concurrent evaluations always see a complete order.
+	 */
+	private synchronized void reorder() {
+		evaluationsSinceReorder.set(0);
+		Entry[] order = conditionList.toArray(new Entry[0]);
+		final int[] cost = new int[order.length];
+		final double[] shortCircuitRate = new double[order.length];
+		for(int i = 0; i < order.length; i++) {
+			cost[order[i].index] = order[i].condition.getCost();
+			shortCircuitRate[order[i].index] = getShortCircuitRate(order[i]);
+		}
+		// stable sort: conditions with equal cost and equal rate keep their insertion order
+		Arrays.sort(order, new Comparator<Entry>() {
+			@Override
+			public int compare(Entry o1, Entry o2) {
+				if(cost[o1.index] != cost[o2.index]) {
+					return Integer.compare(cost[o1.index], cost[o2.index]);
+				}
+				return Double.compare(shortCircuitRate[o2.index], shortCircuitRate[o1.index]);
+			}
+		});
+		evaluationOrder = order;
+	}
+	
+	/**
+	 * Get the observed probability that a condition ends the evaluation early.
+	 * If there are not enough observations yet, a probability of 50 % is assumed.
+	 * 
+	 * @param entry the condition and its statistics
+	 * @return the probability that the condition ends the evaluation early
+	 */
+	private double getShortCircuitRate(Entry entry) {
+		long n = entry.evaluations.get();
+		double passRate = 0.5;
+		if(n >= MIN_SAMPLES) {
+			passRate = (double) entry.passes.get() / (double) n;
+		}
+		return shortCircuitValue ? passRate : 1.0 - passRate;
+	}
+
+}
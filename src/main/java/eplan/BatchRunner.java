@@ -0,0 +1,451 @@
+/**
+ * EPlan - Automated ETCS Planning Tool
+ * 
+ * Copyright (c) 2017-2025, The FormETCS Project. All rights reserved.
+ * This file is licensed under the terms of the Modified (3-Clause) BSD License.
+ * 
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package eplan;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+
+/**
+ * Plans several PlanPro files in one program run, using a bounded number of parallel jobs.
+ * The input files are either all files with the extension .ppxml in a directory, or the files listed in a list file.
+ * Each line of a list file contains the name of an input file, optionally followed by options for this file
+ * (-l/--level, -a/--add, -r/--remove, -c/--compatibility, --create-end, --delete-start, -q/--quiet, --debug, -o and --logfile),
+ * separated by whitespace. Empty lines and lines starting with # are ignored, relative input file names are resolved
+ * against the directory of the list file, relative output and log file names against the output directory.
+ * The generated plans are written into the output directory with the name of the input file, the log messages
+ * of each job into a file with the extension .log next to it, using a separate {@link eplan.LogContext} for each job.
+ * A failed job does not affect the other jobs.
+ * A job which would overwrite an input file or a file written by a job before it (e.g. because of equal file names
+ * in different directories of a list file) is not executed and reported as failed.
+ * If profiling is enabled in the planning options, each job gets its own {@link eplan.Profiler}, whose measurements
+ * are appended to the log of the job and optionally written as JSON next to the generated plan.
+ * 
+ * @author Stefan Dillmann
+ *
+ */
+public class BatchRunner {
+	
+	/**
+	 * Result of a planning job.
+	 * 
+	 * @author Stefan Dillmann
+	 *
+	 */
+	public static class JobResult {
+		
+		/**
+		 * The planning job.
+		 */
+		public final PlanningJob job;
+		
+		/**
+		 * Flag if the planning was successful.
+		 */
+		public final boolean success;
+		
+		/**
+		 * The error message, or null if the planning was successful.
+		 */
+		public final String message;
+		
+		/**
+		 * The duration of the job in milliseconds.
+		 */
+		public final long duration;
+		
+		/**
+		 * Creates a new result.
+		 * 
+		 * @param j the planning job
+		 * @param msg the error message, or null if the planning was successful
+		 * @param d the duration of the job in milliseconds
+		 */
+		public JobResult(PlanningJob j, String msg, long d) {
+			this.job = j;
+			this.success = (msg == null);
+			this.message = msg;
+			this.duration = d;
+		}
+		
+		/**
+		 * String representation of the object (only for debugging purposes).
+		 * This is the line of the job in the summary.
+		 * 
+		 * @return String representation of the object
+		 */
+		@Override
+		public String toString() {
+			if(success) {
+				return "OK      " + job.inputFile + " -> " + job.outputFile + " (" + duration + " ms)";
+			}
+			return "FAILED  " + job.inputFile + ": " + message;
+		}
+	
+	}
+	
+	
+	/**
+	 * The planning options used for all files, unless they are overridden in a list file.
+	 */
+	private final PlanningJob defaults;
+	
+	/**
+	 * The directory the generated plans and logs are written into.
+	 */
+	private final File outputDirectory;
+	
+	/**
+	 * Maximum number of jobs executed in parallel.
+	 */
+	private final int jobCount;
+	
+	/**
+	 * The tool name written into the PlanPro header.
+	 */
+	private final String toolname;
+	
+	/**
+	 * The tool version written into the PlanPro header.
+	 */
+	private final String toolversion;
+	
+	/**
+	 * Flag if the measurements of the profiler of each job should be written next to the generated plan, into a file with the additional extension .profile.json.
+	 */
+	private boolean profileJson;
+	
+	
+	/**
+	 * Creates a new batch runner.
+	 * 
+	 * @param defaults the planning options used for all files, unless they are overridden in a list file
+	 * @param outDir the directory the generated plans and logs are written into, which is created if necessary
+	 * @param jobCount the maximum number of jobs executed in parallel
+	 * @param toolname the tool name written into the PlanPro header
+	 * @param toolversion the tool version written into the PlanPro header
+	 */
+	public BatchRunner(PlanningJob defaults, String outDir, int jobCount, String toolname, String toolversion) {
+		this.defaults = defaults;
+		this.outputDirectory = new File(outDir);
+		this.jobCount = Math.max(1, jobCount);
+		this.toolname = toolname;
+		this.toolversion = toolversion;
+		this.profileJson = false;
+	}
+	
+	/**
+	 * Enable writing the measurements of the profiler of each job next to the generated plan, into a file with the additional extension .profile.json.
+	 * This only affects jobs created afterwards, and only has an effect if profiling is enabled in the planning options.
+	 * 
+	 * @param enable true to write the measurements, false otherwise
+	 */
+	public void setProfileJson(boolean enable) {
+		this.profileJson = enable;
+	}
+	
+	/**
+	 * Create the planning jobs for a directory or a list file.
+	 * 
+	 * @param source the name of a directory containing .ppxml files, or of a list file
+	 * @return the planning jobs, in the order of the file names (directory) or lines (list file)
+	 * @throws IOException if the directory or list file cannot be read
+	 * @throws ParseException if a line of the list file contains invalid options
+	 */
+	public List<PlanningJob> readJobs(String source) throws IOException, ParseException {
+		List<PlanningJob> returnval = new ArrayList<PlanningJob>();
+		File sourceFile = new File(source);
+		if(sourceFile.isDirectory()) {
+			File[] files = sourceFile.listFiles();
+			if(files == null) {
+				throw new IOException("cannot read directory " + source);
+			}
+			Arrays.sort(files);
+			for(File f : files) {
+				if(f.isFile() && f.getName().toLowerCase().endsWith(".ppxml")) {
+					returnval.add(createJob(defaults, f));
+				}
+			}
+			return returnval;
+		}
+		Options lineOptions = createLineOptions();
+		List<String> lines = Files.readAllLines(sourceFile.toPath(), StandardCharsets.UTF_8);
+		for(int i = 0; i < lines.size(); i++) {
+			String line = lines.get(i).trim();
+			if(line.isEmpty() || line.startsWith("#")) {
+				continue;
+			}
+			CommandLine cmd = new DefaultParser().parse(lineOptions, line.split("\\s+"));
+			if(cmd.getArgs().length != 1) {
+				throw new ParseException("line " + (i + 1) + ": exactly one input file expected");
+			}
+			File inFile = new File(cmd.getArgs()[0]);
+			if(!inFile.isAbsolute()) {
+				inFile = new File(sourceFile.getAbsoluteFile().getParentFile(), cmd.getArgs()[0]);
+			}
+			PlanningJob job = createJob(defaults, inFile);
+			if(cmd.hasOption("l")) {
+				try {
+					job.etcslevel = Integer.parseInt(cmd.getOptionValue("l"));
+				} catch (NumberFormatException e) {
+					throw new ParseException("line " + (i + 1) + ": invalid level " + cmd.getOptionValue("l"));
+				}
+			}
+			if(cmd.hasOption("a")) {
+				job.addlist = cmd.getOptionValues("a");
+			}
+			if(cmd.hasOption("r")) {
+				job.removelist = cmd.getOptionValues("r");
+			}
+			if(cmd.hasOption("c")) {
+				job.compatibilityMode = true;
+			}
+			if(cmd.hasOption("create-end")) {
+				job.createEndState = true;
+			}
+			if(cmd.hasOption("delete-start")) {
+				job.deleteStartState = true;
+			}
+			if(cmd.hasOption("debug")) {
+				job.logContext.enableDebug(true);
+			}
+			if(cmd.hasOption("q")) {
+				job.logContext.enable(false);
+				job.logContext.enableDebug(false);
+			}
+			if(cmd.hasOption("o")) {
+				job.outputFile = resolveOutputFile(cmd.getOptionValue("o"));
+				if(job.profileFile != null) {
+					job.profileFile = job.outputFile + ".profile.json";
+				}
+			}
+			if(cmd.hasOption("logfile")) {
+				job.logContext.setLogfile(resolveOutputFile(cmd.getOptionValue("logfile")));
+			}
+			returnval.add(job);
+		}
+		return returnval;
+	}
+	
+	/**
+	 * Execute planning jobs in parallel.
+	 * The log messages of each job are written into the logfile of its logging context when the job is finished.
+	 * Jobs whose files conflict with other jobs (see {@link #findConflicts(List)}) are not executed and reported as failed.
+	 * 
+	 * @param jobs the planning jobs
+	 * @return the results of the jobs, in the order of the jobs
+	 * @throws IOException if the output directory cannot be created or a file name cannot be resolved
+	 */
+	public List<JobResult> run(List<PlanningJob> jobs) throws IOException {
+		List<JobResult> returnval = new ArrayList<JobResult>();
+		if(jobs.isEmpty()) {
+			return returnval;
+		}
+		Files.createDirectories(outputDirectory.toPath());
+		String[] conflicts = findConflicts(jobs);
+		List<Callable<JobResult>> tasks = new ArrayList<Callable<JobResult>>();
+		for(int i = 0; i < jobs.size(); i++) {
+			final PlanningJob job = jobs.get(i);
+			final String conflict = conflicts[i];
+			tasks.add(new Callable<JobResult>() {
+				@Override
+				public JobResult call() {
+					if(conflict != null) {
+						return new JobResult(job, conflict, 0);
+					}
+					return execute(job);
+				}
+			});
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(jobCount, jobs.size()));
+		try {
+			for(Future<JobResult> future : executor.invokeAll(tasks)) {
+				returnval.add(future.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("batch interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			executor.shutdown();
+		}
+		return returnval;
+	}
+	
+	/**
+	 * Create the summary of the job results.
+	 * 
+	 * @param results the results of the jobs
+	 * @return one line per job and a final line with the number of successful and failed jobs
+	 */
+	public static List<String> createSummary(List<JobResult> results) {
+		List<String> returnval = new ArrayList<String>();
+		int failed = 0;
+		for(JobResult result : results) {
+			returnval.add(result.toString());
+			if(!result.success) {
+				failed++;
+			}
+		}
+		returnval.add(results.size() + " plans, " + (results.size() - failed) + " successful, " + failed + " failed");
+		return returnval;
+	}
+	
+	/**
+	 * Check the files written by the jobs (generated plan, logfile and profiler measurements).
+	 * A job must not write an input file of any job, or a file which is also written by a job before it.
+	 * 
+	 * @param jobs the planning jobs
+	 * @return for each job the reason why it must not be executed, or null if it can be executed
+	 * @throws IOException if a file name cannot be resolved
+	 */
+	static String[] findConflicts(List<PlanningJob> jobs) throws IOException {
+		String[] returnval = new String[jobs.size()];
+		Map<File, PlanningJob> inputFiles = new HashMap<File, PlanningJob>();
+		for(PlanningJob job : jobs) {
+			inputFiles.put(new File(job.inputFile).getCanonicalFile(), job);
+		}
+		Map<File, PlanningJob> writtenFiles = new HashMap<File, PlanningJob>();
+		for(int i = 0; i < jobs.size(); i++) {
+			PlanningJob job = jobs.get(i);
+			List<File> outFiles = new ArrayList<File>();
+			for(String name : new String[] {job.outputFile, job.logContext.getLogfile(), job.profileFile}) {
+				if(name != null) {
+					outFiles.add(new File(name).getCanonicalFile());
+				}
+			}
+			for(File outFile : outFiles) {
+				if(inputFiles.containsKey(outFile)) {
+					returnval[i] = "output file " + outFile + " would overwrite the input file of " + inputFiles.get(outFile).inputFile;
+					break;
+				}
+				if(writtenFiles.containsKey(outFile)) {
+					returnval[i] = "output file " + outFile + " is already written for " + writtenFiles.get(outFile).inputFile;
+					break;
+				}
+			}
+			if(returnval[i] == null) {
+				for(File outFile : outFiles) {
+					writtenFiles.put(outFile, job);
+				}
+			}
+		}
+		return returnval;
+	}
+	
+	/**
+	 * Execute a planning job in the current thread and write its logfile.
+	 * Any exception or error thrown by the job is reported as failure of the job, so the other jobs are not affected.
+	 * 
+	 * @param job the planning job
+	 * @return the result of the job
+	 */
+	private JobResult execute(PlanningJob job) {
+		long start = System.currentTimeMillis();
+		String message = null;
+		try {
+			job.run(toolname, toolversion);
+			if(job.profiler.isEnabled()) {
+				for(String line : job.profiler.createReport()) {
+					job.logContext.log(line);
+				}
+			}
+		} catch (Throwable e) {
+			message = e.toString();
+			job.logContext.log("planning failed: " + message);
+		}
+		try {
+			job.logContext.writeLogfile();
+		} catch (IOException e) {
+			if(message == null) {
+				message = "cannot write logfile: " + e;
+			}
+		}
+		return new JobResult(job, message, System.currentTimeMillis() - start);
+	}
+	
+	/**
+	 * Create a planning job for an input file, writing into the output directory.
+	 * The job gets its own logging context, with the message types enabled in the context of the options.
+	 * 
+	 * @param options the planning options
+	 * @param inFile the input file
+	 * @return the planning job
+	 */
+	private PlanningJob createJob(PlanningJob options, File inFile) {
+		String name = inFile.getName();
+		String baseName = name;
+		if(name.lastIndexOf('.') > 0) {
+			baseName = name.substring(0, name.lastIndexOf('.'));
+		}
+		PlanningJob job = new PlanningJob(options, inFile.getPath(), new File(outputDirectory, name).getPath());
+		job.logContext = new LogContext();
+		job.logContext.enable(options.logContext.isEnabled());
+		job.logContext.enableDebug(options.logContext.isDebugEnabled());
+		job.logContext.setLogfile(new File(outputDirectory, baseName + ".log").getPath());
+		if(profileJson && job.profiler.isEnabled()) {
+			job.profileFile = job.outputFile + ".profile.json";
+		}
+		return job;
+	}
+	
+	/**
+	 * Resolve the name of an output or log file given in a line of a list file.
+	 * 
+	 * @param name the file name
+	 * @return the file name itself if it is absolute, otherwise the file name in the output directory
+	 */
+	private String resolveOutputFile(String name) {
+		File file = new File(name);
+		if(!file.isAbsolute()) {
+			file = new File(outputDirectory, name);
+		}
+		return file.getPath();
+	}
+	
+	/**
+	 * Create the options which can be used in a line of a list file.
+	 * 
+	 * @return the options
+	 */
+	private static Options createLineOptions() {
+		Options options = new Options();
+		options.addOption(Option.builder("o").hasArg().argName("file").build());
+		options.addOption(Option.builder("l").longOpt("level").hasArg().argName("lv").build());
+		options.addOption(Option.builder("a").longOpt("add").hasArg().argName("type").build());
+		options.addOption(Option.builder("r").longOpt("remove").hasArg().argName("type").build());
+		options.addOption(Option.builder("c").longOpt("compatibility").build());
+		options.addOption(Option.builder().longOpt("create-end").build());
+		options.addOption(Option.builder().longOpt("delete-start").build());
+		options.addOption(Option.builder("q").longOpt("quiet").build());
+		options.addOption(Option.builder().longOpt("debug").build());
+		options.addOption(Option.builder().longOpt("logfile").hasArg().argName("file").build());
+		return options;
+	}
+
+}
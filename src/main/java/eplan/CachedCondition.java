@@ -0,0 +1,201 @@
+/**
+ * EPlan - Automated ETCS Planning Tool
+ * 
+ * Copyright (c) 2017-2025, The FormETCS Project. All rights reserved.
+ * This file is licensed under the terms of the Modified (3-Clause) BSD License.
+ * 
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package eplan;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.jdom2.Element;
+
+/**
+ * Condition class to cache the results of another condition per DOM element.
+ * The cache is keyed by element identity and holds a bounded number of results;
+ * if the limit is reached, the least recently used result is dropped.
+ * Results of local conditions (see {@link Evaluable#isLocal()}) are kept as long as they are in the cache.
+ * Results of conditions depending on other objects are only reused as long as the modification counter
+ * of the given model has not changed, and are never cached if no model is given.
+ * Note that the wrapped condition must not be changed (e.g. by adding further conditions) after wrapping,
+ * and that modifications of the tested elements themselves are not detected.
+ * 
+ * @author Stefan Dillmann
+ *
+ */
+public class CachedCondition implements Evaluable {
+	
+	/**
+	 * The condition whose results should be cached.
+	 */
+	private Evaluable condition;
+	
+	/**
+	 * The model to detect modifications, or null.
+	 */
+	private PlanProModel ppm;
+	
+	/**
+	 * Flag if the results depend only on the tested element.
+	 */
+	private boolean local;
+	
+	/**
+	 * The cached results, in access order.
+	 */
+	private LinkedHashMap<Element, Boolean> cache;
+	
+	/**
+	 * The modification counter of the model at the time the cached results were computed.
+	 */
+	private long cachedModificationCount;
+	
+	/**
+	 * Number of evaluations answered from the cache.
+	 */
+	private long hitCount;
+	
+	/**
+	 * Number of evaluations that had to be delegated to the wrapped condition.
+	 */
+	private long missCount;
+	
+	
+	/**
+	 * Creates a new CachedCondition for a local condition.
+	 * If the condition is not local, its results will not be cached.
+	 * 
+	 * @param ev the condition whose results should be cached
+	 * @param maxSize the maximum number of cached results
+	 */
+	public CachedCondition(Evaluable ev, int maxSize) {
+		this(ev, maxSize, null);
+	}
+	
+	/**
+	 * Creates a new CachedCondition.
+	 * 
+	 * @param ev the condition whose results should be cached
+	 * @param maxSize the maximum number of cached results
+	 * @param p the model used to detect modifications, required for conditions that are not local
+	 */
+	public CachedCondition(Evaluable ev, final int maxSize, PlanProModel p) {
+		condition = ev;
+		ppm = p;
+		local = ev.isLocal();
+		cache = new LinkedHashMap<Element, Boolean>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Element, Boolean> eldest) {
+				return size() > maxSize;
+			}
+		};
+		cachedModificationCount = -1;
+		hitCount = 0;
+		missCount = 0;
+	}
+	
+	/**
+	 * Evaluation function.
+	 * 
+	 * @param e the DOM element to test
+	 * @return the result of the wrapped condition for the given object
+	 */
+	@Override
+	public boolean evaluate(Element e) {
+		if(!local && ppm == null) {
+			synchronized(cache) {
+				missCount++;
+			}
+			return condition.evaluate(e);
+		}
+		long modificationCount = -1;
+		synchronized(cache) {
+			if(!local) {
+				modificationCount = ppm.getModificationCount();
+				if(modificationCount != cachedModificationCount) {
+					cache.clear();
+					cachedModificationCount = modificationCount;
+				}
+			}
+			Boolean cachedValue = cache.get(e);
+			if(cachedValue != null) {
+				hitCount++;
+				return cachedValue.booleanValue();
+			}
+			missCount++;
+		}
+		boolean value = condition.evaluate(e);
+		synchronized(cache) {
+			// do not store results computed while the model was modified
+			if(local || (modificationCount == cachedModificationCount && modificationCount == ppm.getModificationCount())) {
+				cache.put(e, Boolean.valueOf(value));
+			}
+		}
+		return value;
+	}
+	
+	/**
+	 * Estimated relative cost of a single evaluation.
+	 * This is the cost of the wrapped condition, as a cache miss requires a full evaluation.
+	 * 
+	 * @return the estimated cost of one evaluation
+	 */
+	@Override
+	public int getCost() {
+		return condition.getCost();
+	}
+	
+	/**
+	 * Check if the result of the condition depends only on the given element and its child elements.
+	 * 
+	 * @return true if the wrapped condition is local, otherwise false
+	 */
+	@Override
+	public boolean isLocal() {
+		return local;
+	}
+	
+	/**
+	 * Get the number of evaluations answered from the cache.
+	 * 
+	 * @return the number of cache hits
+	 */
+	public long getHitCount() {
+		synchronized(cache) {
+			return hitCount;
+		}
+	}
+	
+	/**
+	 * Get the number of evaluations that had to be delegated to the wrapped condition.
+	 * 
+	 * @return the number of cache misses
+	 */
+	public long getMissCount() {
+		synchronized(cache) {
+			return missCount;
+		}
+	}
+	
+	/**
+	 * String representation of the object (only for debugging purposes).
+	 * Contains the wrapped condition and the cache statistics.
+	 * 
+	 * @return String representation of the object
+	 */
+	@Override
+	public String toString() {
+		long hits = getHitCount();
+		long total = hits + getMissCount();
+		long rate = 0;
+		if(total > 0) {
+			rate = Math.round(100.0 * hits / total);
+		}
+		return "cached(" + condition + ") {hits=" + hits + ", total=" + total + ", rate=" + rate + "%}";
+	}
+
+}
@@ -43,5 +43,37 @@ public class ConditionNegation implements Evaluable {
 	public boolean evaluate(Element e) {
 		return (! condition.evaluate(e));
 	}
+	
+	/**
+	 * Estimated relative cost of a single evaluation.
+	 * The negation itself is free, so this is the cost of the negated condition.
+	 * 
+	 * @return the estimated cost of one evaluation
+	 */
+	@Override
+	public int getCost() {
+		return condition.getCost();
+	}
+	
+	/**
+	 * String representation of the object (only for debugging purposes).
+	 * 
+	 * @return String representation of the object
+	 */
+	@Override
+	public String toString() {
+		return "NOT(" + condition + ")";
+	}
+	
+	/**
+	 * Check if the result of the condition depends only on the given element and its child elements.
+	 * This is the case if the negated condition is local.
+	 * 
+	 * @return true if the negated condition is local, otherwise false
+	 */
+	@Override
+	public boolean isLocal() {
+		return condition.isLocal();
+	}
 
 }
@@ -43,5 +43,37 @@ public class ConstantCondition implements Evaluable {
 	public boolean evaluate(Element e) {
 		return constantValue;
 	}
+	
+	/**
+	 * Estimated relative cost of a single evaluation.
+	 * A constant value is returned without any element access.
+	 * 
+	 * @return the estimated cost of one evaluation
+	 */
+	@Override
+	public int getCost() {
+		return 0;
+	}
+	
+	/**
+	 * String representation of the object (only for debugging purposes).
+	 * 
+	 * @return String representation of the object
+	 */
+	@Override
+	public String toString() {
+		return String.valueOf(constantValue);
+	}
+	
+	/**
+	 * Check if the result of the condition depends only on the given element and its child elements.
+	 * The result does not depend on any element at all.
+	 * 
+	 * @return true
+	 */
+	@Override
+	public boolean isLocal() {
+		return true;
+	}
 
 }
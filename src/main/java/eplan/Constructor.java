@@ -13,6 +13,11 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import org.jdom2.Element;
 
@@ -27,11 +32,147 @@ import eplan.PlanProModel.Direction;
  */
 public class Constructor {
 	
+	/**
+	 * Calculated placement of the datapoints type 26 for one signal.
+	 * 
+	 * @author Stefan Dillmann
+	 *
+	 */
+	private static class Dp26Placement {
+		
+		/**
+		 * The DOM element of the signal.
+		 */
+		final Element signal;
+		
+		/**
+		 * The distance from the signal to the next danger point.
+		 */
+		final int distanceSignalDangerPoint;
+		
+		/**
+		 * The nearest preceding signal, or null if there is none.
+		 */
+		final NextPunktObjektPathResult precedingSignal;
+		
+		/**
+		 * The positions of the additional datapoints in front of the preceding signal, or null if they are not required.
+		 */
+		final List<PunktObjekt> additionalPositions;
+		
+		/**
+		 * The positions of the datapoints, or null if no datapoint is required.
+		 */
+		final List<PunktObjekt> positions;
+		
+		/**
+		 * Creates a new placement.
+		 * 
+		 * @param s the DOM element of the signal
+		 * @param dangerPoint the distance from the signal to the next danger point
+		 * @param preceding the nearest preceding signal, or null
+		 * @param additional the positions of the additional datapoints, or null
+		 * @param pos the positions of the datapoints, or null
+		 */
+		Dp26Placement(Element s, int dangerPoint, NextPunktObjektPathResult preceding, List<PunktObjekt> additional, List<PunktObjekt> pos) {
+			signal = s;
+			distanceSignalDangerPoint = dangerPoint;
+			precedingSignal = preceding;
+			additionalPositions = additional;
+			positions = pos;
+		}
+	}
+	
+	/**
+	 * Calculated placement of the datapoints type 28 for one signal.
+	 * 
+	 * @author Stefan Dillmann
+	 *
+	 */
+	private static class Dp28Placement {
+		
+		/**
+		 * The DOM element of the signal.
+		 */
+		final Element signal;
+		
+		/**
+		 * The distance from the signal to the next trailing point.
+		 */
+		final int distanceSignalStumpfeWeiche;
+		
+		/**
+		 * The distance from the signal to the next danger point.
+		 */
+		final int distanceSignalDangerPoint;
+		
+		/**
+		 * The maximum allowed approach speed towards the signal.
+		 */
+		final double vmax;
+		
+		/**
+		 * The positions of the datapoints with a single balise, for each distance.
+		 */
+		final List<List<PunktObjekt>> singlePositions;
+		
+		/**
+		 * The positions of the datapoints with two balises, for each distance.
+		 */
+		final List<List<PunktObjekt>> twicePositions;
+		
+		/**
+		 * The positions of the datapoints combined with datapoint type 24, for each distance.
+		 */
+		final List<List<PunktObjekt>> combinedPositions;
+		
+		/**
+		 * Creates a new placement.
+		 * 
+		 * @param s the DOM element of the signal
+		 * @param distSW the distance from the signal to the next trailing point
+		 * @param distDP the distance from the signal to the next danger point
+		 * @param v the maximum allowed approach speed
+		 * @param single the positions of the datapoints with a single balise
+		 * @param twice the positions of the datapoints with two balises
+		 * @param combined the positions of the datapoints combined with datapoint type 24
+		 */
+		Dp28Placement(Element s, int distSW, int distDP, double v, List<List<PunktObjekt>> single, List<List<PunktObjekt>> twice, List<List<PunktObjekt>> combined) {
+			signal = s;
+			distanceSignalStumpfeWeiche = distSW;
+			distanceSignalDangerPoint = distDP;
+			vmax = v;
+			singlePositions = single;
+			twicePositions = twice;
+			combinedPositions = combined;
+		}
+	}
+	
+	/**
+	 * Pass resource: the interlocking objects of the model (signals, switches, track topology).
+	 */
+	private static final String INTERLOCKING = "interlocking";
+	
+	/**
+	 * Pass resource: the datapoints and balises of the model.
+	 */
+	private static final String DATAPOINTS = "datapoints";
+	
+	/**
+	 * Pass resource: the list of signals where the DP 24 functionality has already been handled.
+	 */
+	private static final String HANDLED_DP24 = "alreadyHandledDp24";
+	
 	/**
 	 * The PlanPro model.
 	 */
 	private PlanProModel ppm;
 	
+	/**
+	 * The logging context of the planning run.
+	 */
+	private LogContext logContext;
+	
 	/**
 	 * The ETCS level.
 	 */
@@ -57,6 +198,42 @@ public class Constructor {
 	 */
 	List<Element> alreadyHandledDp24;
 	
+	/**
+	 * Maximum number of cached results per search condition, or 0 if condition results should not be cached.
+	 */
+	private int conditionCacheSize;
+	
+	/**
+	 * Search condition for switches and crossings, shared by all signals.
+	 */
+	private Evaluable switchCondition;
+	
+	/**
+	 * Search condition for Ra 10 signals, shared by all signals.
+	 */
+	private Evaluable ra10Condition;
+	
+	/**
+	 * Number of threads used to calculate the placements of the signals of a placement rule.
+	 */
+	private int threadCount;
+	
+	/**
+	 * The threads executing the placement rules and calculating the placements of the signals,
+	 * or null if everything is executed in the current thread or no placement is running.
+	 */
+	private ExecutorService executor;
+	
+	/**
+	 * The scheduler executing the placement rules, or null if no placement is running.
+	 */
+	private PassScheduler scheduler;
+	
+	/**
+	 * The flight recorder event of the placement rule executed by the current thread, or null.
+	 */
+	private final ThreadLocal<PlacementPassEvent> passEvent;
+	
 	/**
 	 * Set the ETCS level which should be used for planning.
 	 * 
@@ -100,8 +277,39 @@ public class Constructor {
 		this.addlist = addlist;
 		this.removelist = removelist;
 	}
+	
+	
+	/**
+	 * Set the maximum number of cached results per search condition.
+	 * The same search conditions are evaluated for the same objects many times,
+	 * when searching from different signals. If caching is enabled, the results
+	 * are stored per object (see {@link eplan.CachedCondition}).
+	 * The default is 0, which disables caching.
+	 * 
+	 * 
+	 * @param conditionCacheSize the maximum number of cached results per condition, or 0 to disable caching
+	 */
+	public void setConditionCacheSize(int conditionCacheSize) {
+		this.conditionCacheSize = conditionCacheSize;
+	}
 
 	
+	/**
+	 * Set the number of threads used by placement rules which calculate the placements of all signals
+	 * before the datapoints are created (currently datapoint types 26 and 28), and to execute
+	 * independent placement rules in parallel (see {@link eplan.PassScheduler}).
+	 * The calculations only read the model and the datapoints are created in the order of the signals and rules,
+	 * so the resulting plan does not depend on the number of threads.
+	 * The default is 1.
+	 * 
+	 * 
+	 * @param threadCount the number of threads
+	 */
+	public void setThreadCount(int threadCount) {
+		this.threadCount = Math.max(1, threadCount);
+	}
+	
+	
 	/**
 	 * Initialize the constructor object.
 	 * The default behavior is the construction of an ETCS Level 2 plan,
@@ -114,15 +322,108 @@ public class Constructor {
 	 * @param p The PlanPro model which should be extended to an ETCS plan
 	 */
 	public Constructor(PlanProModel p) {
+		this(p, p.getLogContext());
+	}
+	
+	
+	/**
+	 * Initialize the constructor object with a separate logging context.
+	 * See {@link #Constructor(PlanProModel)} for the default behavior.
+	 * 
+	 * 
+	 * @param p The PlanPro model which should be extended to an ETCS plan
+	 * @param l the logging context for all messages of the planning
+	 */
+	public Constructor(PlanProModel p, LogContext l) {
 		this.ppm = p;
+		this.logContext = l;
 		this.etcslevel = 2;
 		this.addlist = null;
 		this.removelist = null;
 		this.compatibilityMode = false;
+		this.conditionCacheSize = 0;
+		this.threadCount = 1;
+		this.passEvent = new ThreadLocal<PlacementPassEvent>();
 		alreadyHandledDp24 = new ArrayList<Element>();
 	}
 	
 	
+	/**
+	 * Wrap a search condition into a cache, if condition caching is enabled.
+	 * 
+	 * 
+	 * @param condition the search condition
+	 * @return the cached condition, or the given condition if caching is disabled
+	 */
+	private Evaluable cached(Evaluable condition) {
+		if(conditionCacheSize <= 0) {
+			return condition;
+		}
+		return new CachedCondition(condition, conditionCacheSize, ppm);
+	}
+	
+	
+	/**
+	 * Execute the calculations of a placement rule for several signals, using the configured number of threads.
+	 * With one thread, the calculations are executed in the current thread, otherwise in the thread pool of the running placement,
+	 * which also executes the placement rules.
+	 * The calculations must not modify the model. The results are returned in the order of the tasks,
+	 * independent of the order in which they are finished.
+	 * 
+	 * 
+	 * @param <T> the type of the calculated placements
+	 * @param tasks the calculations for each signal
+	 * @return the results of the calculations, in the order of the tasks
+	 */
+	private <T> List<T> computeAll(List<Callable<T>> tasks) {
+		List<T> returnval = new ArrayList<T>();
+		if(tasks.isEmpty()) {
+			return returnval;
+		}
+		if(executor == null) {
+			for(Callable<T> task : tasks) {
+				try {
+					returnval.add(task.call());
+				} catch (RuntimeException e) {
+					throw e;
+				} catch (Exception e) {
+					throw new IllegalStateException(e);
+				}
+			}
+			return returnval;
+		}
+		ppm.prepareConcurrentQueries();
+		try {
+			for(Future<T> future : executor.invokeAll(tasks)) {
+				returnval.add(future.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("placement interrupted", e);
+		} catch (ExecutionException e) {
+			if(e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+		return returnval;
+	}
+	
+	
+	/**
+	 * Print the cache statistics of a search condition as debug message.
+	 * Nothing is printed if condition caching is disabled.
+	 * 
+	 * 
+	 * @param condition the search condition
+	 */
+	private void logCacheStatistics(Evaluable condition) {
+		if(condition instanceof CachedCondition) {
+			logContext.debug("-condition cache: %s", condition);
+		}
+	}
+	
+	
 	/**
 	 * Generate a new random GUID.
 	 * 
@@ -199,6 +500,42 @@ public class Constructor {
 	}
 	
 	
+	/**
+	 * Argument for log messages, which prints out the kilometer mark value of a Punkt_Objekt subtype (see {@link #printKmValue(Element)}).
+	 * The value is only looked up if the message is actually logged.
+	 * 
+	 * 
+	 * @param punktObjekt the DOM element of the Punkt_Objekt subtype
+	 * @return object whose string representation is the kilometer value
+	 */
+	private static Object kmValue(final Element punktObjekt) {
+		return new Object() {
+			@Override
+			public String toString() {
+				return printKmValue(punktObjekt);
+			}
+		};
+	}
+	
+	
+	/**
+	 * Argument for log messages, which prints out the name of a signal (see {@link #printSignalBezeichnung(Element)}).
+	 * The name is only looked up if the message is actually logged.
+	 * 
+	 * 
+	 * @param punktObjekt the DOM element of the signal
+	 * @return object whose string representation is the signal name
+	 */
+	private static Object signalBezeichnung(final Element punktObjekt) {
+		return new Object() {
+			@Override
+			public String toString() {
+				return printSignalBezeichnung(punktObjekt);
+			}
+		};
+	}
+	
+	
 	/**
 	 * Create a new balise element.
 	 * 
@@ -378,6 +715,34 @@ public class Constructor {
 	}
 	
 	
+	/**
+	 * Add a new Punkt_Objekt_Strecke subgroup element to a new datapoint, at the current end of its content.
+	 * The kilometer mark value depends on the objects placed before the datapoint (see {@link #createPunktObjektStreckeElement(PunktObjekt)}),
+	 * so while the placement rules are executed, it is calculated by the {@link eplan.PassScheduler} when the datapoint is committed.
+	 * 
+	 * 
+	 * @param dp DOM element of the new datapoint
+	 * @param referencePoint the PunktObjekt structure of the datapoint
+	 */
+	private void addPunktObjektStreckeElement(final Element dp, final PunktObjekt referencePoint) {
+		final int index = dp.getContentSize();
+		Runnable action = new Runnable() {
+			@Override
+			public void run() {
+				Element poStrecke = createPunktObjektStreckeElement(referencePoint);
+				if(poStrecke != null) {
+					dp.addContent(index, poStrecke);
+				}
+			}
+		};
+		if(scheduler == null) {
+			action.run();
+			return;
+		}
+		scheduler.addAction(action);
+	}
+	
+	
 	/**
 	 * Create a new DP_Bezug_Betrieblich subgroup element.
 	 * 
@@ -515,14 +880,22 @@ public class Constructor {
 	 * @return the distance from the signal to the next trailing point, or -1 if there is no such point
 	 */
 	private int calculateDistanceSignalStumpfeWeiche(Element signal) {
-		Evaluable typeCond = new TypeCondition("W_Kr_Gsp_Komponente");
-		Evaluable wExistCond = new ExistenceCondition("Zungenpaar");
-		Evaluable krExistCond = new ExistenceCondition("Kreuzung");
-		ConditionDisjunction disjunc = new ConditionDisjunction(wExistCond, krExistCond);
-		ConditionConjunction conjunc = new ConditionConjunction(typeCond, disjunc);
+		return calculateDistanceSignalStumpfeWeiche(signal, ppm.getNearestPunktObjektPath(PunktObjekt.valueOf(signal), switchCondition, Direction.BOTH, true));
+	}
+	
+	
+	/**
+	 * Calculates the distance from a signal to the next trailing point, if the nearest point in search direction is already known.
+	 * 
+	 * 
+	 * @param signal DOM element of the signal which is the starting point of the search
+	 * @param nearestSwitch the nearest point in search direction, or null if there is no point
+	 * @return the distance from the signal to the next trailing point, or -1 if there is no such point
+	 */
+	private int calculateDistanceSignalStumpfeWeiche(Element signal, NextPunktObjektPathResult nearestSwitch) {
+		ConditionConjunction conjunc = new ConditionConjunction(switchCondition);
+		NextPunktObjektPathResult tempWKr = nearestSwitch;
 		while(true) {
-			List<NextPunktObjektPathResult> tempWKrList = ppm.getNextPunktObjektPaths(PunktObjekt.valueOf(signal), conjunc, Direction.BOTH, true);
-			NextPunktObjektPathResult tempWKr = NextPunktObjektPathResult.nearest(tempWKrList);
 			if(tempWKr == null) {
 				return -1;
 			}
@@ -543,6 +916,7 @@ public class Constructor {
 			}
 			Evaluable cond = new StringCondition("Identitaet/Wert", Operator.NOT_EQUAL, tempWKr.punktObjektElement.getChild("Identitaet").getChild("Wert").getText());
 			conjunc.addCondition(cond);
+			tempWKr = ppm.getNearestPunktObjektPath(PunktObjekt.valueOf(signal), conjunc, Direction.BOTH, true);
 		}
 	}
 	
@@ -578,9 +952,16 @@ public class Constructor {
 			finalDistance = topLaenge - abstand;
 		}
 		
-		Evaluable aspectCond = new SignalAspectCondition(ppm, "Ra_10");
-		List<NextPunktObjektPathResult> ra10List = ppm.getNextPunktObjektPaths(PunktObjekt.valueOf(signal), aspectCond, Direction.OPPOSITE, true);
-		NextPunktObjektPathResult nearestRa10 = NextPunktObjektPathResult.nearest(ra10List);
+		// search the nearest Ra 10 signal and the nearest point in one traversal,
+		// Ra 10 signals beyond the next top node are not relevant
+		SearchTarget ra10Target = new SearchTarget(ra10Condition, Direction.OPPOSITE, finalDistance);
+		SearchTarget switchTarget = new SearchTarget(switchCondition, Direction.BOTH);
+		List<SearchTarget> targets = new ArrayList<SearchTarget>();
+		targets.add(ra10Target);
+		targets.add(switchTarget);
+		ppm.findNextPunktObjektPaths(PunktObjekt.valueOf(signal), targets, true);
+		
+		NextPunktObjektPathResult nearestRa10 = ra10Target.getNearest();
 		if(nearestRa10 != null) {
 			int ra10dist = nearestRa10.distance;
 			if(ra10dist < finalDistance) {
@@ -588,7 +969,7 @@ public class Constructor {
 			}
 		}
 		
-		int distSW = calculateDistanceSignalStumpfeWeiche(signal);
+		int distSW = calculateDistanceSignalStumpfeWeiche(signal, switchTarget.getNearest());
 		if(distSW >= 0 && distSW < finalDistance) {
 			finalDistance = distSW;
 		}
@@ -620,13 +1001,7 @@ public class Constructor {
 			topAnschluss = topKanteElement.getChild("TOP_Kante_Allg").getChild("TOP_Anschluss_A").getChild("Wert").getText();
 		}
 		
-		Evaluable typeCond = new TypeCondition("W_Kr_Gsp_Komponente");
-		Evaluable wExistCond = new ExistenceCondition("Zungenpaar");
-		Evaluable krExistCond = new ExistenceCondition("Kreuzung");
-		ConditionDisjunction disjunc = new ConditionDisjunction(wExistCond, krExistCond);
-		ConditionConjunction conjunc = new ConditionConjunction(typeCond, disjunc);
-		
-		List<NextPunktObjektPathResult> resultlist = ppm.getNextPunktObjektPaths(PunktObjekt.valueOf(signal), conjunc, Direction.BOTH, false);
+		List<NextPunktObjektPathResult> resultlist = ppm.getNextPunktObjektPaths(PunktObjekt.valueOf(signal), switchCondition, Direction.BOTH, false);
 		if(resultlist.isEmpty()) { // no switch found -> use line speed
 			return 160;
 		}
@@ -711,56 +1086,243 @@ public class Constructor {
 	 */
 	public void constructEtcsLine() {
 		if(compatibilityMode) {
-			Logger.log("compatibility mode activated");
+			logContext.log("compatibility mode activated");
+		}
+		Evaluable typeCond = new TypeCondition("W_Kr_Gsp_Komponente");
+		Evaluable wExistCond = new ExistenceCondition("Zungenpaar");
+		Evaluable krExistCond = new ExistenceCondition("Kreuzung");
+		ConditionDisjunction disjunc = new ConditionDisjunction(wExistCond, krExistCond);
+		switchCondition = cached(new ConditionConjunction(typeCond, disjunc));
+		ra10Condition = cached(new SignalAspectCondition(ppm, "Ra_10"));
+		if(threadCount > 1) {
+			// a thread of a pass waiting for the calculations of its signals executes them itself,
+			// so the passes and the calculations can share the threads of one pool
+			executor = new ForkJoinPool(threadCount);
 		}
+		try {
+			scheduler = createPassScheduler();
+			if(scheduler.isWrittenConcurrently(DATAPOINTS)) {
+				// passes running in parallel cannot create the container on the frozen model
+				ppm.createContainerElement("ETCS");
+			}
+			scheduler.run();
+		} finally {
+			scheduler = null;
+			if(executor != null) {
+				executor.shutdown();
+				executor = null;
+			}
+		}
+		logCacheStatistics(switchCondition);
+		logCacheStatistics(ra10Condition);
+		logContext.log("placement finished!");
+	}
+	
+	
+	/**
+	 * Create the sequence of placement rules for the selected ETCS level and datapoint types.
+	 * 
+	 * 
+	 * @return the scheduler executing the placement rules
+	 */
+	PassScheduler createPassScheduler() {
+		PassScheduler returnval = new PassScheduler(ppm, logContext, threadCount);
+		returnval.setExecutor(executor);
+		// the km values of new datapoints are interpolated from the nearest objects with Punkt_Objekt_Strecke,
+		// which include the datapoints placed before, but they are calculated on commit (see addPunktObjektStreckeElement),
+		// so only the rules inspecting existing datapoints read them
+		String[] interlocking = {INTERLOCKING};
+		String[] datapoints = {DATAPOINTS};
 		if (etcslevel == 1) {
-			if(isTypeSelected("HS")) {
-				placeDpHs();
-			}
-			if(isTypeSelected("MS")) {
-			    placeDpMs();
-			}
-		    if(isTypeSelected("VS")) {
-			    placeDpVs();
-		    }
-		    if(isTypeSelected("VW")) {
-			    placeDpVw();
-		    }
-		    if(isTypeSelected("AW")) {
-			    placeDpAw();
-		    }
+			schedule(returnval, "HS", interlocking, datapoints);
+			schedule(returnval, "MS", interlocking, datapoints);
+			schedule(returnval, "VS", interlocking, datapoints);
+			schedule(returnval, "VW", interlocking, datapoints);
+			schedule(returnval, "AW", interlocking, datapoints);
 		}
 		else {
-			if(isTypeSelected("20")) {
-				placeDp20();
-			}
-			if(isTypeSelected("21")) {
-				placeDp21();
-			}
-			if(isTypeSelected("22")) {
-				placeDp22();
-			}
-			if(isTypeSelected("23")) {
-				placeDp23();
-			}
-			if(isTypeSelected("28")) {
-				placeDp28();
-			}
-			if(isTypeSelected("24")) {
-				placeDp24();
-			}
-			if(isTypeSelected("26")) {
-				placeDp26();
-			}
-			if(isTypeSelected("9")) {
-				placeDp9();
-			}
-			if(isTypeSelected("25")) {
-				placeDp25FaultySwitch();
-				placeDp25GapFill();
+			schedule(returnval, "20", interlocking, datapoints);
+			schedule(returnval, "21", interlocking, datapoints);
+			schedule(returnval, "22", interlocking, datapoints);
+			schedule(returnval, "23", interlocking, datapoints);
+			schedule(returnval, "28", interlocking, new String[] {DATAPOINTS, HANDLED_DP24});
+			schedule(returnval, "24", new String[] {INTERLOCKING, HANDLED_DP24}, datapoints);
+			schedule(returnval, "26", interlocking, datapoints);
+			schedule(returnval, "9", datapoints, datapoints);
+			schedule(returnval, "25", new String[] {INTERLOCKING, DATAPOINTS}, datapoints);
+		}
+		return returnval;
+	}
+	
+	
+	/**
+	 * Append the placement rule of a datapoint type to the pass sequence, if the type is selected.
+	 * 
+	 * 
+	 * @param passScheduler the scheduler executing the placement rules
+	 * @param type the datapoint type
+	 * @param reads the resources the placement rule reads
+	 * @param writes the resources the placement rule writes
+	 */
+	private void schedule(PassScheduler passScheduler, final String type, String[] reads, String[] writes) {
+		if(!isTypeSelected(type)) {
+			return;
+		}
+		passScheduler.addPass("DP " + type, reads, writes, new Runnable() {
+			@Override
+			public void run() {
+				PlacementPassEvent event = new PlacementPassEvent();
+				event.pass = "DP " + type;
+				passEvent.set(event);
+				event.begin();
+				try {
+					placeDp(type);
+				} finally {
+					event.end();
+					passEvent.remove();
+					event.commit();
+				}
 			}
+		});
+	}
+	
+	
+	/**
+	 * Execute the placement rule of a datapoint type.
+	 * 
+	 * 
+	 * @param type the datapoint type
+	 */
+	private void placeDp(String type) {
+		if(type.equals("HS")) {
+			placeDpHs();
+		}
+		else if(type.equals("MS")) {
+			placeDpMs();
+		}
+		else if(type.equals("VS")) {
+			placeDpVs();
+		}
+		else if(type.equals("VW")) {
+			placeDpVw();
+		}
+		else if(type.equals("AW")) {
+			placeDpAw();
+		}
+		else if(type.equals("20")) {
+			placeDp20();
+		}
+		else if(type.equals("21")) {
+			placeDp21();
+		}
+		else if(type.equals("22")) {
+			placeDp22();
+		}
+		else if(type.equals("23")) {
+			placeDp23();
+		}
+		else if(type.equals("28")) {
+			placeDp28();
+		}
+		else if(type.equals("24")) {
+			placeDp24();
+		}
+		else if(type.equals("26")) {
+			placeDp26();
+		}
+		else if(type.equals("9")) {
+			placeDp9();
+		}
+		else if(type.equals("25")) {
+			placeDp25FaultySwitch();
+			placeDp25GapFill();
+		}
+		else {
+			throw new IllegalArgumentException("unknown datapoint type " + type);
+		}
+	}
+	
+	
+	/**
+	 * Add a new datapoint or balise to a container, or a new subgroup element to an existing datapoint.
+	 * While the placement rules are executed, the object is passed to the {@link eplan.PassScheduler},
+	 * which buffers it if the rule runs in parallel with others.
+	 * 
+	 * 
+	 * @param container the DOM element of the container or the parent element of the subgroup
+	 * @param object the DOM element of the new object
+	 */
+	private void addObject(Element container, Element object) {
+		PlacementPassEvent event = passEvent.get();
+		if(event != null && object.getName().equals("Datenpunkt")) {
+			event.datapointsPlaced++;
+		}
+		if(scheduler == null) {
+			ppm.addObject(container, object);
+			return;
+		}
+		scheduler.addObject(container, object);
+	}
+	
+	
+	/**
+	 * Start the processing of a signal (or datapoint) by the placement rule executed by the current thread.
+	 * The following effort is attributed to the object by the profiler of the model (see {@link #beginAttribution(String, Element)}),
+	 * and the object is counted in the flight recorder event of the rule.
+	 * 
+	 * 
+	 * @param pass the name of the placement rule
+	 * @param object the DOM element of the signal or datapoint
+	 */
+	private void beginObject(String pass, Element object) {
+		beginAttribution(pass, object);
+		PlacementPassEvent event = passEvent.get();
+		if(event != null) {
+			event.objectsScanned++;
+		}
+	}
+	
+	
+	/**
+	 * Attribute the following effort of the current thread to a signal (or datapoint), if the profiler of the model
+	 * attributes the effort to objects (see {@link eplan.Profiler#beginAttribution(String, Element, String, String)}).
+	 * The object is listed with its name and kilometer mark value.
+	 * 
+	 * 
+	 * @param pass the name of the placement rule
+	 * @param object the DOM element of the signal or datapoint
+	 */
+	private void beginAttribution(String pass, Element object) {
+		Profiler profiler = ppm.getProfiler();
+		if(profiler.isAttributionEnabled()) {
+			profiler.beginAttribution(pass, object, printSignalBezeichnung(object), printKmValue(object));
 		}
-		Logger.log("placement finished!");
+	}
+	
+	
+	/**
+	 * Wrap the calculation of a placement rule for one signal (see {@link #computeAll(List)}),
+	 * so its effort is attributed to the signal in whichever thread the calculation is executed.
+	 * 
+	 * 
+	 * @param <T> the type of the calculated placement
+	 * @param pass the name of the placement rule
+	 * @param object the DOM element of the signal
+	 * @param task the calculation
+	 * @return the calculation with attribution
+	 */
+	private <T> Callable<T> attributed(final String pass, final Element object, final Callable<T> task) {
+		return new Callable<T>() {
+			@Override
+			public T call() throws Exception {
+				beginAttribution(pass, object);
+				try {
+					return task.call();
+				} finally {
+					ppm.getProfiler().endAttribution();
+				}
+			}
+		};
 	}
 	
 	
@@ -768,7 +1330,7 @@ public class Constructor {
 	 * Contains the placement rules for datapoint type HS (ETCS Level 1).
 	 */
 	private void placeDpHs() {
-		Logger.log("placing DP HS...");
+		logContext.log("placing DP HS...");
 		Element etcsContainerElement = ppm.createContainerElement("ETCS");
 		List<Element> objectList = ppm.getPlanProObjectList();
 		for(int i = 0; i < objectList.size(); i++) {
@@ -784,7 +1346,8 @@ public class Constructor {
 			}
 			String signalArt = currentObject.getChild("Signal_Real").getChild("Signal_Real_Aktiv_Schirm").getChild("Signal_Art").getChild("Wert").getText();
 			if(signalArt.equals("Hauptsignal") || signalArt.equals("Hauptsperrsignal")) {
-				Logger.log("-Signal " + printSignalBezeichnung(currentObject) + " (km " + printKmValue(currentObject) + ")");
+				beginObject("DP HS", currentObject);
+				logContext.log("-Signal %s (km %s)", signalBezeichnung(currentObject), kmValue(currentObject));
 				String signalId = currentObject.getChild("Identitaet").getChild("Wert").getText();
 				List<PunktObjekt> nextposlist = ppm.calculatePosition(PunktObjekt.valueOf(currentObject), -3000);
 				for(int j = 0; j < nextposlist.size(); j++) {
@@ -795,17 +1358,14 @@ public class Constructor {
 					dp.addContent(createIdentitaetElement(guid));
 					dp.addContent(createBasisObjektElement(LocalDate.now()));
 					dp.addContent(createPunktObjektTopKanteElement(nextpotk.idTopKante, nextpotk.abstand, 0, nextpotk.wirkrichtung));
-					Element poStrecke = createPunktObjektStreckeElement(nextpos);
-					if(poStrecke != null) {
-						dp.addContent(poStrecke);
-					}
+					addPunktObjektStreckeElement(dp, nextpos);
 					dp.addContent(createDpBezugBetrieblElement("unmittelbar", signalId));
 					dp.addContent(createDpAllgElement("ESG", nextpotk.wirkrichtung, "Hauptsignal-DP (Typ HS)", 3, "Signal"));
 					dp.addContent(createTypEsgElement("HS"));
-					Logger.log("--placing DP at km " + printKmValue(dp));
-					etcsContainerElement.addContent(dp);
-					etcsContainerElement.addContent(createBalise(guid, 1));
-					etcsContainerElement.addContent(createBalise(guid, 2));
+					logContext.log("--placing DP at km %s", kmValue(dp));
+					addObject(etcsContainerElement, dp);
+					addObject(etcsContainerElement, createBalise(guid, 1));
+					addObject(etcsContainerElement, createBalise(guid, 2));
 				}
 			}
 		}
@@ -816,7 +1376,7 @@ public class Constructor {
 	 * Contains the placement rules for datapoint type MS (ETCS Level 1).
 	 */
 	private void placeDpMs() {
-		Logger.log("placing DP MS...");
+		logContext.log("placing DP MS...");
 		Element etcsContainerElement = ppm.createContainerElement("ETCS");
 		List<Element> objectList = ppm.getPlanProObjectList();
 		for(int i = 0; i < objectList.size(); i++) {
@@ -832,7 +1392,8 @@ public class Constructor {
 			}
 			String signalArt = currentObject.getChild("Signal_Real").getChild("Signal_Real_Aktiv_Schirm").getChild("Signal_Art").getChild("Wert").getText();
 			if(signalArt.equals("Mehrabschnittssignal") || signalArt.equals("Mehrabschnittssperrsignal")) {
-				Logger.log("-Signal " + printSignalBezeichnung(currentObject) + " (km " + printKmValue(currentObject) + ")");
+				beginObject("DP MS", currentObject);
+				logContext.log("-Signal %s (km %s)", signalBezeichnung(currentObject), kmValue(currentObject));
 				String signalId = currentObject.getChild("Identitaet").getChild("Wert").getText();
 				List<PunktObjekt> nextposlist = ppm.calculatePosition(PunktObjekt.valueOf(currentObject), -3000);
 				for(int j = 0; j < nextposlist.size(); j++) {
@@ -843,17 +1404,14 @@ public class Constructor {
 					dp.addContent(createIdentitaetElement(guid));
 					dp.addContent(createBasisObjektElement(LocalDate.now()));
 					dp.addContent(createPunktObjektTopKanteElement(nextpotk.idTopKante, nextpotk.abstand, 0, nextpotk.wirkrichtung));
-					Element poStrecke = createPunktObjektStreckeElement(nextpos);
-					if(poStrecke != null) {
-						dp.addContent(poStrecke);
-					}
+					addPunktObjektStreckeElement(dp, nextpos);
 					dp.addContent(createDpBezugBetrieblElement("unmittelbar", signalId));
 					dp.addContent(createDpAllgElement("ESG", nextpotk.wirkrichtung, "Mehrabschnittssignal-DP (Typ MS)", 3, "Signal"));
 					dp.addContent(createTypEsgElement("MS"));
-					Logger.log("--placing DP at km " + printKmValue(dp));
-					etcsContainerElement.addContent(dp);
-					etcsContainerElement.addContent(createBalise(guid, 1));
-					etcsContainerElement.addContent(createBalise(guid, 2));
+					logContext.log("--placing DP at km %s", kmValue(dp));
+					addObject(etcsContainerElement, dp);
+					addObject(etcsContainerElement, createBalise(guid, 1));
+					addObject(etcsContainerElement, createBalise(guid, 2));
 				}
 			}
 		}
@@ -864,7 +1422,7 @@ public class Constructor {
 	 * Contains the placement rules for datapoint type VS (ETCS Level 1).
 	 */
 	private void placeDpVs() {
-		Logger.log("placing DP VS...");
+		logContext.log("placing DP VS...");
 		Element etcsContainerElement = ppm.createContainerElement("ETCS");
 		List<Element> objectList = ppm.getPlanProObjectList();
 		for(int i = 0; i < objectList.size(); i++) {
@@ -880,7 +1438,8 @@ public class Constructor {
 			}
 			String signalArt = currentObject.getChild("Signal_Real").getChild("Signal_Real_Aktiv_Schirm").getChild("Signal_Art").getChild("Wert").getText();
 			if(signalArt.equals("Vorsignal")) {
-				Logger.log("-Signal " + printSignalBezeichnung(currentObject) + " (km " + printKmValue(currentObject) + ")");
+				beginObject("DP VS", currentObject);
+				logContext.log("-Signal %s (km %s)", signalBezeichnung(currentObject), kmValue(currentObject));
 				String signalId = currentObject.getChild("Identitaet").getChild("Wert").getText();
 				List<PunktObjekt> nextposlist = ppm.calculatePosition(PunktObjekt.valueOf(currentObject), -3000);
 				for(int j = 0; j < nextposlist.size(); j++) {
@@ -891,17 +1450,14 @@ public class Constructor {
 					dp.addContent(createIdentitaetElement(guid));
 					dp.addContent(createBasisObjektElement(LocalDate.now()));
 					dp.addContent(createPunktObjektTopKanteElement(nextpotk.idTopKante, nextpotk.abstand, 0, nextpotk.wirkrichtung));
-					Element poStrecke = createPunktObjektStreckeElement(nextpos);
-					if(poStrecke != null) {
-						dp.addContent(poStrecke);
-					}
+					addPunktObjektStreckeElement(dp, nextpos);
 					dp.addContent(createDpBezugBetrieblElement("unmittelbar", signalId));
 					dp.addContent(createDpAllgElement("ESG", nextpotk.wirkrichtung, "Vorsignal-DP (Typ VS)", 3, "Signal"));
 					dp.addContent(createTypEsgElement("VS"));
-					Logger.log("--placing DP at km " + printKmValue(dp));
-					etcsContainerElement.addContent(dp);
-					etcsContainerElement.addContent(createBalise(guid, 1));
-					etcsContainerElement.addContent(createBalise(guid, 2));
+					logContext.log("--placing DP at km %s", kmValue(dp));
+					addObject(etcsContainerElement, dp);
+					addObject(etcsContainerElement, createBalise(guid, 1));
+					addObject(etcsContainerElement, createBalise(guid, 2));
 				}
 			}
 		}
@@ -912,7 +1468,7 @@ public class Constructor {
 	 * Contains the placement rules for datapoint type VW (ETCS Level 1).
 	 */
 	private void placeDpVw() {
-		Logger.log("placing DP VW...");
+		logContext.log("placing DP VW...");
 		Element etcsContainerElement = ppm.createContainerElement("ETCS");
 		List<Element> objectList = ppm.getPlanProObjectList();
 		for(int i = 0; i < objectList.size(); i++) {
@@ -928,7 +1484,8 @@ public class Constructor {
 			}
 			String signalArt = currentObject.getChild("Signal_Real").getChild("Signal_Real_Aktiv_Schirm").getChild("Signal_Art").getChild("Wert").getText();
 			if(signalArt.equals("Vorsignalwiederholer")) {
-				Logger.log("-Signal " + printSignalBezeichnung(currentObject) + " (km " + printKmValue(currentObject) + ")");
+				beginObject("DP VW", currentObject);
+				logContext.log("-Signal %s (km %s)", signalBezeichnung(currentObject), kmValue(currentObject));
 				String signalId = currentObject.getChild("Identitaet").getChild("Wert").getText();
 				List<PunktObjekt> nextposlist = ppm.calculatePosition(PunktObjekt.valueOf(currentObject), -3000);
 				for(int j = 0; j < nextposlist.size(); j++) {
@@ -939,17 +1496,14 @@ public class Constructor {
 					dp.addContent(createIdentitaetElement(guid));
 					dp.addContent(createBasisObjektElement(LocalDate.now()));
 					dp.addContent(createPunktObjektTopKanteElement(nextpotk.idTopKante, nextpotk.abstand, 0, nextpotk.wirkrichtung));
-					Element poStrecke = createPunktObjektStreckeElement(nextpos);
-					if(poStrecke != null) {
-						dp.addContent(poStrecke);
-					}
+					addPunktObjektStreckeElement(dp, nextpos);
 					dp.addContent(createDpBezugBetrieblElement("unmittelbar", signalId));
 					dp.addContent(createDpAllgElement("ESG", nextpotk.wirkrichtung, "Vorsignalwiederholer-DP (Typ VW)", 3, "Signal"));
 					dp.addContent(createTypEsgElement("VW"));
-					Logger.log("--placing DP at km " + printKmValue(dp));
-					etcsContainerElement.addContent(dp);
-					etcsContainerElement.addContent(createBalise(guid, 1));
-					etcsContainerElement.addContent(createBalise(guid, 2));
+					logContext.log("--placing DP at km %s", kmValue(dp));
+					addObject(etcsContainerElement, dp);
+					addObject(etcsContainerElement, createBalise(guid, 1));
+					addObject(etcsContainerElement, createBalise(guid, 2));
 				}
 			}
 		}
@@ -960,7 +1514,7 @@ public class Constructor {
 	 * Contains the placement rules for datapoint type AW (ETCS Level 1).
 	 */
 	private void placeDpAw() {
-		Logger.log("placing DP AW...");
+		logContext.log("placing DP AW...");
 		Element etcsContainerElement = ppm.createContainerElement("ETCS");
 		List<Element> objectList = ppm.getPlanProObjectList();
 		for(int i = 0; i < objectList.size(); i++) {
@@ -976,7 +1530,8 @@ public class Constructor {
 			}
 			String signalArt = currentObject.getChild("Signal_Real").getChild("Signal_Real_Aktiv_Schirm").getChild("Signal_Art").getChild("Wert").getText();
 			if(signalArt.equals("Hauptsignal") || signalArt.equals("Hauptsperrsignal") || signalArt.equals("Mehrabschnittssignal") || signalArt.equals("Mehrabschnittssperrsignal")) {
-				Logger.log("-Signal " + printSignalBezeichnung(currentObject) + " (km " + printKmValue(currentObject) + ")");
+				beginObject("DP AW", currentObject);
+				logContext.log("-Signal %s (km %s)", signalBezeichnung(currentObject), kmValue(currentObject));
 				String signalId = currentObject.getChild("Identitaet").getChild("Wert").getText();
 				List<PunktObjekt> nextposlist = ppm.calculatePosition(PunktObjekt.valueOf(currentObject), -250000);
 				for(int j = 0; j < nextposlist.size(); j++) {
@@ -987,18 +1542,15 @@ public class Constructor {
 					dp.addContent(createIdentitaetElement(guid));
 					dp.addContent(createBasisObjektElement(LocalDate.now()));
 					dp.addContent(createPunktObjektTopKanteElement(nextpotk.idTopKante, nextpotk.abstand, 0, nextpotk.wirkrichtung));
-					Element poStrecke = createPunktObjektStreckeElement(nextpos);
-					if(poStrecke != null) {
-						dp.addContent(poStrecke);
-					}
+					addPunktObjektStreckeElement(dp, nextpos);
 					dp.addContent(createDpBezugBetrieblElement("mittelbar", signalId));
 					int dpNr = j + 1;
 					dp.addContent(createDpAllgElement("ESG", nextpotk.wirkrichtung, "Aufwerte-DP " + dpNr + "/" + nextposlist.size() + " (Typ AW)", 3, "Signal Gleis"));
 					dp.addContent(createTypEsgElement("AW"));
-					Logger.log("--placing DP at km " + printKmValue(dp));
-					etcsContainerElement.addContent(dp);
-					etcsContainerElement.addContent(createBalise(guid, 1));
-					etcsContainerElement.addContent(createBalise(guid, 2));
+					logContext.log("--placing DP at km %s", kmValue(dp));
+					addObject(etcsContainerElement, dp);
+					addObject(etcsContainerElement, createBalise(guid, 1));
+					addObject(etcsContainerElement, createBalise(guid, 2));
 				}
 			}
 		}
@@ -1009,13 +1561,14 @@ public class Constructor {
 	 * Contains the placement rules for datapoint type 9 (ETCS Level 2).
 	 */
 	private void placeDp9() {
-		Logger.log("placing DP 9...");
+		logContext.log("placing DP 9...");
 		List<Element> objectList = ppm.getPlanProObjectList();
 		for(int i = 0; i < objectList.size(); i++) {
 			Element currentObject = objectList.get(i);
 			if(!currentObject.getName().equals("Datenpunkt")) {
 				continue;
 			}
+			beginObject("DP 9", currentObject);
 			Element dptypgetcs = currentObject.getChild("DP_Typ").getChild("DP_Typ_GETCS");
 			List<Element> typelist = dptypgetcs.getChildren("DP_Typ_ETCS");
 			for(int j = 0; j < typelist.size(); j++) {
@@ -1030,8 +1583,8 @@ public class Constructor {
 					Element dptypetcsWert = new Element("Wert");
 					dptypetcsWert.setText("9");
 					dptypetcs.addContent(dptypetcsWert);
-					dptypgetcs.addContent(dptypetcs);
-					Logger.log("--added type 9 to DP at km " + printKmValue(currentObject));
+					addObject(dptypgetcs, dptypetcs);
+					logContext.log("--added type 9 to DP at km %s", kmValue(currentObject));
 				}
 			}
 		}
@@ -1044,8 +1597,11 @@ public class Constructor {
 	 * and have a distance of less than 500 mm.
 	 */
 	private void placeDp20() {
-		Logger.log("placing DP 20...");
+		logContext.log("placing DP 20...");
 		List<Element> alreadyHandledSignals = new ArrayList<Element>();
+		Evaluable cond1 = new StringCondition("Signal_Real/Signal_Real_Aktiv/Signal_Funktion/Wert", Operator.EQUAL, "Block_Signal");
+		Evaluable cond2 = new StringCondition("Signal_Real/Signal_Real_Aktiv/Signal_Funktion/Wert", Operator.EQUAL, "Einfahr_Signal");
+		Evaluable disjunc = cached(new ConditionDisjunction(cond1, cond2));
 		Element etcsContainerElement = ppm.createContainerElement("ETCS");
 		List<Element> objectList = ppm.getPlanProObjectList();
 		for(int i = 0; i < objectList.size(); i++) {
@@ -1054,8 +1610,9 @@ public class Constructor {
 				continue;
 			}
 			if(alreadyHandledSignals.contains(currentObject)) {
-				Logger.log("-Signal " + printSignalBezeichnung(currentObject) + " (km " + printKmValue(currentObject) + ")");
-				Logger.log("--already handled, no DP required");
+				beginObject("DP 20", currentObject);
+				logContext.log("-Signal %s (km %s)", signalBezeichnung(currentObject), kmValue(currentObject));
+				logContext.log("--already handled, no DP required");
 				continue;
 			}
 			if(currentObject.getChild("Signal_Real") == null) {
@@ -1066,13 +1623,11 @@ public class Constructor {
 			}
 			String signalFunc = currentObject.getChild("Signal_Real").getChild("Signal_Real_Aktiv").getChild("Signal_Funktion").getChild("Wert").getText();
 			if(signalFunc.equals("Block_Signal") || signalFunc.equals("Einfahr_Signal")) {
-				Logger.log("-Signal " + printSignalBezeichnung(currentObject) + " (km " + printKmValue(currentObject) + ")");
+				beginObject("DP 20", currentObject);
+				logContext.log("-Signal %s (km %s)", signalBezeichnung(currentObject), kmValue(currentObject));
 				String signalId = currentObject.getChild("Identitaet").getChild("Wert").getText();
-				Evaluable cond1 = new StringCondition("Signal_Real/Signal_Real_Aktiv/Signal_Funktion/Wert", Operator.EQUAL, "Block_Signal");
-				Evaluable cond2 = new StringCondition("Signal_Real/Signal_Real_Aktiv/Signal_Funktion/Wert", Operator.EQUAL, "Einfahr_Signal");
-				ConditionDisjunction disjunc = new ConditionDisjunction(cond1, cond2);
-				List<NextPunktObjektPathResult> otherSignalsForward = ppm.getNextPunktObjektPaths(PunktObjekt.valueOf(currentObject), disjunc, Direction.OPPOSITE, true);
-				List<NextPunktObjektPathResult> otherSignalsBackward = ppm.getNextPunktObjektPaths(PunktObjekt.valueOf(currentObject), disjunc, Direction.OPPOSITE, false);
+				List<NextPunktObjektPathResult> otherSignalsForward = ppm.findPunktObjekteInRange(PunktObjekt.valueOf(currentObject), 0, 500, disjunc, Direction.OPPOSITE, true);
+				List<NextPunktObjektPathResult> otherSignalsBackward = ppm.findPunktObjekteInRange(PunktObjekt.valueOf(currentObject), 0, 500, disjunc, Direction.OPPOSITE, false);
 				boolean alreadyPlacedDp = false;
 				for(int i1 = 0; i1 < otherSignalsForward.size(); i1++) {
 					NextPunktObjektPathResult current = otherSignalsForward.get(i1);
@@ -1085,19 +1640,16 @@ public class Constructor {
 						dp.addContent(createIdentitaetElement(guid));
 						dp.addContent(createBasisObjektElement(LocalDate.now()));
 						dp.addContent(createPunktObjektTopKanteElement(nextpotk.idTopKante, nextpotk.abstand, 0, nextpotk.wirkrichtung));
-						Element poStrecke = createPunktObjektStreckeElement(target);
-						if(poStrecke != null) {
-							dp.addContent(poStrecke);
-						}
+						addPunktObjektStreckeElement(dp, target);
 						dp.addContent(createDpBezugBetrieblElement("unmittelbar", signalId));
 						dp.addContent(createDpAllgElement("ETCS", "beide", "Datenpunkt an Signalen (kombiniert) (Typ 20)", 3, "Signal"));
 						int[] types = {20};
 						dp.addContent(createTypEtcsElement(types));
-						Logger.log("--combining with " + printSignalBezeichnung(current.punktObjektElement) + " (km " + printKmValue(current.punktObjektElement) + ")");
-						Logger.log("--placing DP (combined) at km " + printKmValue(dp));
-						etcsContainerElement.addContent(dp);
-						etcsContainerElement.addContent(createBalise(guid, 1));
-						etcsContainerElement.addContent(createBalise(guid, 2));
+						logContext.log("--combining with %s (km %s)", signalBezeichnung(current.punktObjektElement), kmValue(current.punktObjektElement));
+						logContext.log("--placing DP (combined) at km %s", kmValue(dp));
+						addObject(etcsContainerElement, dp);
+						addObject(etcsContainerElement, createBalise(guid, 1));
+						addObject(etcsContainerElement, createBalise(guid, 2));
 						alreadyHandledSignals.add(current.punktObjektElement);
 						alreadyPlacedDp = true;
 						break; // there should be no other path to be equipped with DP 20
@@ -1114,19 +1666,16 @@ public class Constructor {
 						dp.addContent(createIdentitaetElement(guid));
 						dp.addContent(createBasisObjektElement(LocalDate.now()));
 						dp.addContent(createPunktObjektTopKanteElement(nextpotk.idTopKante, nextpotk.abstand, 0, nextpotk.wirkrichtung));
-						Element poStrecke = createPunktObjektStreckeElement(target);
-						if(poStrecke != null) {
-							dp.addContent(poStrecke);
-						}
+						addPunktObjektStreckeElement(dp, target);
 						dp.addContent(createDpBezugBetrieblElement("unmittelbar", signalId));
 						dp.addContent(createDpAllgElement("ETCS", "beide", "Datenpunkt an Signalen (kombiniert) (Typ 20)", 3, "Signal"));
 						int[] types = {20};
 						dp.addContent(createTypEtcsElement(types));
-						Logger.log("--combining with " + printSignalBezeichnung(current.punktObjektElement) + " (km " + printKmValue(current.punktObjektElement) + ")");
-						Logger.log("--placing DP (combined) at km " + printKmValue(dp));
-						etcsContainerElement.addContent(dp);
-						etcsContainerElement.addContent(createBalise(guid, 1));
-						etcsContainerElement.addContent(createBalise(guid, 2));
+						logContext.log("--combining with %s (km %s)", signalBezeichnung(current.punktObjektElement), kmValue(current.punktObjektElement));
+						logContext.log("--placing DP (combined) at km %s", kmValue(dp));
+						addObject(etcsContainerElement, dp);
+						addObject(etcsContainerElement, createBalise(guid, 1));
+						addObject(etcsContainerElement, createBalise(guid, 2));
 						alreadyHandledSignals.add(current.punktObjektElement);
 						alreadyPlacedDp = true;
 						break; // there should be no other path to be equipped with DP 20
@@ -1137,6 +1686,7 @@ public class Constructor {
 				}
 			}
 		}
+		logContext.debug("-condition order: %s", disjunc);
 	}
 	
 	
@@ -1158,18 +1708,15 @@ public class Constructor {
 			dp.addContent(createIdentitaetElement(guid));
 			dp.addContent(createBasisObjektElement(LocalDate.now()));
 			dp.addContent(createPunktObjektTopKanteElement(nextpotk.idTopKante, nextpotk.abstand, 0, nextpotk.wirkrichtung));
-			Element poStrecke = createPunktObjektStreckeElement(nextpos);
-			if(poStrecke != null) {
-				dp.addContent(poStrecke);
-			}
+			addPunktObjektStreckeElement(dp, nextpos);
 			dp.addContent(createDpBezugBetrieblElement("unmittelbar", signalId));
 			dp.addContent(createDpAllgElement("ETCS", nextpotk.wirkrichtung, "Datenpunkt an Signalen (Typ 20)", 3, "Signal"));
 			int[] types = {20};
 			dp.addContent(createTypEtcsElement(types));
-			Logger.log("--placing DP at km " + printKmValue(dp));
-			etcsContainerElement.addContent(dp);
-			etcsContainerElement.addContent(createBalise(guid, 1));
-			etcsContainerElement.addContent(createBalise(guid, 2));
+			logContext.log("--placing DP at km %s", kmValue(dp));
+			addObject(etcsContainerElement, dp);
+			addObject(etcsContainerElement, createBalise(guid, 1));
+			addObject(etcsContainerElement, createBalise(guid, 2));
 		}
 	}
 	
@@ -1180,8 +1727,17 @@ public class Constructor {
 	 * and have a distance of less than 500 mm.
 	 */
 	private void placeDp21() {
-		Logger.log("placing DP 21...");
+		logContext.log("placing DP 21...");
 		List<Element> alreadyHandledSignals = new ArrayList<Element>();
+		Evaluable cond1 = new StringCondition("Signal_Real/Signal_Real_Aktiv/Signal_Funktion/Wert", Operator.EQUAL, "Ausfahr_Signal");
+		Evaluable cond2 = new StringCondition("Signal_Real/Signal_Real_Aktiv/Signal_Funktion/Wert", Operator.EQUAL, "Ausfahr_Zwischen_Signal");
+		Evaluable cond3 = new StringCondition("Signal_Real/Signal_Real_Aktiv/Signal_Funktion/Wert", Operator.EQUAL, "Einfahr_Ausfahr_Signal");
+		Evaluable cond4 = new StringCondition("Signal_Real/Signal_Real_Aktiv/Signal_Funktion/Wert", Operator.EQUAL, "Gruppenausfahr_Gruppenzwischen_Signal");
+		Evaluable cond5 = new StringCondition("Signal_Real/Signal_Real_Aktiv/Signal_Funktion/Wert", Operator.EQUAL, "Gruppenausfahr_Signal");
+		Evaluable cond6 = new StringCondition("Signal_Real/Signal_Real_Aktiv/Signal_Funktion/Wert", Operator.EQUAL, "Gruppenzwischen_Signal");
+		Evaluable cond7 = new StringCondition("Signal_Real/Signal_Real_Aktiv/Signal_Funktion/Wert", Operator.EQUAL, "Zugdeckungs_Signal");
+		Evaluable cond8 = new StringCondition("Signal_Real/Signal_Real_Aktiv/Signal_Funktion/Wert", Operator.EQUAL, "Zwischen_Signal");
+		Evaluable disjunc = cached(new ConditionDisjunction(cond1, cond2, cond3, cond4, cond5, cond6, cond7, cond8));
 		Element etcsContainerElement = ppm.createContainerElement("ETCS");
 		List<Element> objectList = ppm.getPlanProObjectList();
 		for(int i = 0; i < objectList.size(); i++) {
@@ -1190,8 +1746,9 @@ public class Constructor {
 				continue;
 			}
 			if(alreadyHandledSignals.contains(currentObject)) {
-				Logger.log("-Signal " + printSignalBezeichnung(currentObject) + " (km " + printKmValue(currentObject) + ")");
-				Logger.log("--already handled, no DP required");
+				beginObject("DP 21", currentObject);
+				logContext.log("-Signal %s (km %s)", signalBezeichnung(currentObject), kmValue(currentObject));
+				logContext.log("--already handled, no DP required");
 				continue;
 			}
 			if(currentObject.getChild("Signal_Real") == null) {
@@ -1205,19 +1762,11 @@ public class Constructor {
 					signalFunc.equals("Einfahr_Ausfahr_Signal") || signalFunc.equals("Gruppenausfahr_Gruppenzwischen_Signal") ||
 					signalFunc.equals("Gruppenausfahr_Signal") || signalFunc.equals("Gruppenzwischen_Signal") ||
 					signalFunc.equals("Zugdeckungs_Signal") || signalFunc.equals("Zwischen_Signal")) {
-				Logger.log("-Signal " + printSignalBezeichnung(currentObject) + " (km " + printKmValue(currentObject) + ")");
+				beginObject("DP 21", currentObject);
+				logContext.log("-Signal %s (km %s)", signalBezeichnung(currentObject), kmValue(currentObject));
 				String signalId = currentObject.getChild("Identitaet").getChild("Wert").getText();
-				Evaluable cond1 = new StringCondition("Signal_Real/Signal_Real_Aktiv/Signal_Funktion/Wert", Operator.EQUAL, "Ausfahr_Signal");
-				Evaluable cond2 = new StringCondition("Signal_Real/Signal_Real_Aktiv/Signal_Funktion/Wert", Operator.EQUAL, "Ausfahr_Zwischen_Signal");
-				Evaluable cond3 = new StringCondition("Signal_Real/Signal_Real_Aktiv/Signal_Funktion/Wert", Operator.EQUAL, "Einfahr_Ausfahr_Signal");
-				Evaluable cond4 = new StringCondition("Signal_Real/Signal_Real_Aktiv/Signal_Funktion/Wert", Operator.EQUAL, "Gruppenausfahr_Gruppenzwischen_Signal");
-				Evaluable cond5 = new StringCondition("Signal_Real/Signal_Real_Aktiv/Signal_Funktion/Wert", Operator.EQUAL, "Gruppenausfahr_Signal");
-				Evaluable cond6 = new StringCondition("Signal_Real/Signal_Real_Aktiv/Signal_Funktion/Wert", Operator.EQUAL, "Gruppenzwischen_Signal");
-				Evaluable cond7 = new StringCondition("Signal_Real/Signal_Real_Aktiv/Signal_Funktion/Wert", Operator.EQUAL, "Zugdeckungs_Signal");
-				Evaluable cond8 = new StringCondition("Signal_Real/Signal_Real_Aktiv/Signal_Funktion/Wert", Operator.EQUAL, "Zwischen_Signal");
-				ConditionDisjunction disjunc = new ConditionDisjunction(cond1, cond2, cond3, cond4, cond5, cond6, cond7, cond8);
-				List<NextPunktObjektPathResult> otherSignalsForward = ppm.getNextPunktObjektPaths(PunktObjekt.valueOf(currentObject), disjunc, Direction.OPPOSITE, true);
-				List<NextPunktObjektPathResult> otherSignalsBackward = ppm.getNextPunktObjektPaths(PunktObjekt.valueOf(currentObject), disjunc, Direction.OPPOSITE, false);
+				List<NextPunktObjektPathResult> otherSignalsForward = ppm.findPunktObjekteInRange(PunktObjekt.valueOf(currentObject), 0, 500, disjunc, Direction.OPPOSITE, true);
+				List<NextPunktObjektPathResult> otherSignalsBackward = ppm.findPunktObjekteInRange(PunktObjekt.valueOf(currentObject), 0, 500, disjunc, Direction.OPPOSITE, false);
 				boolean alreadyPlacedDp = false;
 				for(int i1 = 0; i1 < otherSignalsForward.size(); i1++) {
 					NextPunktObjektPathResult current = otherSignalsForward.get(i1);
@@ -1230,19 +1779,16 @@ public class Constructor {
 						dp.addContent(createIdentitaetElement(guid));
 						dp.addContent(createBasisObjektElement(LocalDate.now()));
 						dp.addContent(createPunktObjektTopKanteElement(nextpotk.idTopKante, nextpotk.abstand, 0, nextpotk.wirkrichtung));
-						Element poStrecke = createPunktObjektStreckeElement(target);
-						if(poStrecke != null) {
-							dp.addContent(poStrecke);
-						}
+						addPunktObjektStreckeElement(dp, target);
 						dp.addContent(createDpBezugBetrieblElement("unmittelbar", signalId));
 						dp.addContent(createDpAllgElement("ETCS", "beide", "Datenpunkt an Ausfahrsignalen (kombiniert) (Typ 21)", 3, "Signal"));
 						int[] types = {21};
 						dp.addContent(createTypEtcsElement(types));
-						Logger.log("--combining with " + printSignalBezeichnung(current.punktObjektElement) + " (km " + printKmValue(current.punktObjektElement) + ")");
-						Logger.log("--placing DP (combined) at km " + printKmValue(dp));
-						etcsContainerElement.addContent(dp);
-						etcsContainerElement.addContent(createBalise(guid, 1));
-						etcsContainerElement.addContent(createBalise(guid, 2));
+						logContext.log("--combining with %s (km %s)", signalBezeichnung(current.punktObjektElement), kmValue(current.punktObjektElement));
+						logContext.log("--placing DP (combined) at km %s", kmValue(dp));
+						addObject(etcsContainerElement, dp);
+						addObject(etcsContainerElement, createBalise(guid, 1));
+						addObject(etcsContainerElement, createBalise(guid, 2));
 						alreadyHandledSignals.add(current.punktObjektElement);
 						alreadyPlacedDp = true;
 						break; // there should be no other path to be equipped with DP 21
@@ -1259,19 +1805,16 @@ public class Constructor {
 						dp.addContent(createIdentitaetElement(guid));
 						dp.addContent(createBasisObjektElement(LocalDate.now()));
 						dp.addContent(createPunktObjektTopKanteElement(nextpotk.idTopKante, nextpotk.abstand, 0, nextpotk.wirkrichtung));
-						Element poStrecke = createPunktObjektStreckeElement(target);
-						if(poStrecke != null) {
-							dp.addContent(poStrecke);
-						}
+						addPunktObjektStreckeElement(dp, target);
 						dp.addContent(createDpBezugBetrieblElement("unmittelbar", signalId));
 						dp.addContent(createDpAllgElement("ETCS", "beide", "Datenpunkt an Ausfahrsignalen (kombiniert) (Typ 21)", 3, "Signal"));
 						int[] types = {21};
 						dp.addContent(createTypEtcsElement(types));
-						Logger.log("--combining with " + printSignalBezeichnung(current.punktObjektElement) + " (km " + printKmValue(current.punktObjektElement) + ")");
-						Logger.log("--placing DP (combined) at km " + printKmValue(dp));
-						etcsContainerElement.addContent(dp);
-						etcsContainerElement.addContent(createBalise(guid, 1));
-						etcsContainerElement.addContent(createBalise(guid, 2));
+						logContext.log("--combining with %s (km %s)", signalBezeichnung(current.punktObjektElement), kmValue(current.punktObjektElement));
+						logContext.log("--placing DP (combined) at km %s", kmValue(dp));
+						addObject(etcsContainerElement, dp);
+						addObject(etcsContainerElement, createBalise(guid, 1));
+						addObject(etcsContainerElement, createBalise(guid, 2));
 						alreadyHandledSignals.add(current.punktObjektElement);
 						alreadyPlacedDp = true;
 						break; // there should be no other path to be equipped with DP 21
@@ -1282,6 +1825,7 @@ public class Constructor {
 				}
 			}
 		}
+		logContext.debug("-condition order: %s", disjunc);
 	}
 	
 	
@@ -1303,18 +1847,15 @@ public class Constructor {
 			dp.addContent(createIdentitaetElement(guid));
 			dp.addContent(createBasisObjektElement(LocalDate.now()));
 			dp.addContent(createPunktObjektTopKanteElement(nextpotk.idTopKante, nextpotk.abstand, 0, nextpotk.wirkrichtung));
-			Element poStrecke = createPunktObjektStreckeElement(nextpos);
-			if(poStrecke != null) {
-				dp.addContent(poStrecke);
-			}
+			addPunktObjektStreckeElement(dp, nextpos);
 			dp.addContent(createDpBezugBetrieblElement("unmittelbar", signalId));
 			dp.addContent(createDpAllgElement("ETCS", nextpotk.wirkrichtung, "Datenpunkt an Ausfahrsignalen (Typ 21)", 3, "Signal"));
 			int[] types = {21};
 			dp.addContent(createTypEtcsElement(types));
-			Logger.log("--placing DP at km " + printKmValue(dp));
-			etcsContainerElement.addContent(dp);
-			etcsContainerElement.addContent(createBalise(guid, 1));
-			etcsContainerElement.addContent(createBalise(guid, 2));
+			logContext.log("--placing DP at km %s", kmValue(dp));
+			addObject(etcsContainerElement, dp);
+			addObject(etcsContainerElement, createBalise(guid, 1));
+			addObject(etcsContainerElement, createBalise(guid, 2));
 		}
 	}
 	
@@ -1325,8 +1866,9 @@ public class Constructor {
 	 * and have a distance of less than 500 mm.
 	 */
 	private void placeDp22() {
-		Logger.log("placing DP 22...");
+		logContext.log("placing DP 22...");
 		List<Element> alreadyHandledSignals = new ArrayList<Element>();
+		Evaluable aspectCond = cached(new SignalAspectCondition(ppm, "Oz_Bk"));
 		Element etcsContainerElement = ppm.createContainerElement("ETCS");
 		List<Element> objectList = ppm.getPlanProObjectList();
 		for(int i = 0; i < objectList.size(); i++) {
@@ -1335,13 +1877,14 @@ public class Constructor {
 				continue;
 			}
 			if(alreadyHandledSignals.contains(currentObject)) {
-				Logger.log("-Signal " + printSignalBezeichnung(currentObject) + " (km " + printKmValue(currentObject) + ")");
-				Logger.log("--already handled, no DP required");
+				beginObject("DP 22", currentObject);
+				logContext.log("-Signal %s (km %s)", signalBezeichnung(currentObject), kmValue(currentObject));
+				logContext.log("--already handled, no DP required");
 				continue;
 			}
-			Evaluable aspectCond = new SignalAspectCondition(ppm, "Oz_Bk");
-			if(aspectCond.evaluate(currentObject)) {
-				Logger.log("-Signal " + printSignalBezeichnung(currentObject) + " (km " + printKmValue(currentObject) + ")");
+			if(ppm.evaluate(aspectCond, currentObject)) {
+				beginObject("DP 22", currentObject);
+				logContext.log("-Signal %s (km %s)", signalBezeichnung(currentObject), kmValue(currentObject));
 				String signalId = currentObject.getChild("Identitaet").getChild("Wert").getText();
 				List<NextPunktObjektPathResult> otherSignalsForward = ppm.getNextPunktObjektPaths(PunktObjekt.valueOf(currentObject), aspectCond, Direction.OPPOSITE, true);
 				List<NextPunktObjektPathResult> otherSignalsBackward = ppm.getNextPunktObjektPaths(PunktObjekt.valueOf(currentObject), aspectCond, Direction.OPPOSITE, false);
@@ -1357,18 +1900,15 @@ public class Constructor {
 						dp.addContent(createIdentitaetElement(guid));
 						dp.addContent(createBasisObjektElement(LocalDate.now()));
 						dp.addContent(createPunktObjektTopKanteElement(nextpotk.idTopKante, nextpotk.abstand, 0, nextpotk.wirkrichtung));
-						Element poStrecke = createPunktObjektStreckeElement(target);
-						if(poStrecke != null) {
-							dp.addContent(poStrecke);
-						}
+						addPunktObjektStreckeElement(dp, target);
 						dp.addContent(createDpBezugBetrieblElement("unmittelbar", signalId));
 						dp.addContent(createDpAllgElement("ETCS", "beide", "Datenpunkt an Blockkennzeichen (kombiniert) (Typ 22)", 0, "Signal"));
 						int[] types = {22};
 						dp.addContent(createTypEtcsElement(types));
-						Logger.log("--combining with " + printSignalBezeichnung(current.punktObjektElement) + " (km " + printKmValue(current.punktObjektElement) + ")");
-						Logger.log("--placing DP (combined) at km " + printKmValue(dp));
-						etcsContainerElement.addContent(dp);
-						etcsContainerElement.addContent(createBalise(guid, 1));
+						logContext.log("--combining with %s (km %s)", signalBezeichnung(current.punktObjektElement), kmValue(current.punktObjektElement));
+						logContext.log("--placing DP (combined) at km %s", kmValue(dp));
+						addObject(etcsContainerElement, dp);
+						addObject(etcsContainerElement, createBalise(guid, 1));
 						alreadyHandledSignals.add(current.punktObjektElement);
 						alreadyPlacedDp = true;
 						break; // there should be no other path to be equipped with DP 22
@@ -1385,18 +1925,15 @@ public class Constructor {
 						dp.addContent(createIdentitaetElement(guid));
 						dp.addContent(createBasisObjektElement(LocalDate.now()));
 						dp.addContent(createPunktObjektTopKanteElement(nextpotk.idTopKante, nextpotk.abstand, 0, nextpotk.wirkrichtung));
-						Element poStrecke = createPunktObjektStreckeElement(target);
-						if(poStrecke != null) {
-							dp.addContent(poStrecke);
-						}
+						addPunktObjektStreckeElement(dp, target);
 						dp.addContent(createDpBezugBetrieblElement("unmittelbar", signalId));
 						dp.addContent(createDpAllgElement("ETCS", "beide", "Datenpunkt an Blockkennzeichen (kombiniert) (Typ 22)", 0, "Signal"));
 						int[] types = {22};
 						dp.addContent(createTypEtcsElement(types));
-						Logger.log("--combining with " + printSignalBezeichnung(current.punktObjektElement) + " (km " + printKmValue(current.punktObjektElement) + ")");
-						Logger.log("--placing DP (combined) at km " + printKmValue(dp));
-						etcsContainerElement.addContent(dp);
-						etcsContainerElement.addContent(createBalise(guid, 1));
+						logContext.log("--combining with %s (km %s)", signalBezeichnung(current.punktObjektElement), kmValue(current.punktObjektElement));
+						logContext.log("--placing DP (combined) at km %s", kmValue(dp));
+						addObject(etcsContainerElement, dp);
+						addObject(etcsContainerElement, createBalise(guid, 1));
 						alreadyHandledSignals.add(current.punktObjektElement);
 						alreadyPlacedDp = true;
 						break; // there should be no other path to be equipped with DP 22
@@ -1407,6 +1944,7 @@ public class Constructor {
 				}
 			}
 		}
+		logCacheStatistics(aspectCond);
 	}
 	
 	
@@ -1428,17 +1966,14 @@ public class Constructor {
 			dp.addContent(createIdentitaetElement(guid));
 			dp.addContent(createBasisObjektElement(LocalDate.now()));
 			dp.addContent(createPunktObjektTopKanteElement(nextpotk.idTopKante, nextpotk.abstand, 0, nextpotk.wirkrichtung));
-			Element poStrecke = createPunktObjektStreckeElement(nextpos);
-			if(poStrecke != null) {
-				dp.addContent(poStrecke);
-			}
+			addPunktObjektStreckeElement(dp, nextpos);
 			dp.addContent(createDpBezugBetrieblElement("unmittelbar", signalId));
 			dp.addContent(createDpAllgElement("ETCS", nextpotk.wirkrichtung, "Datenpunkt an Blockkennzeichen (Typ 22)", 0, "Signal"));
 			int[] types = {22};
 			dp.addContent(createTypEtcsElement(types));
-			Logger.log("--placing DP at km " + printKmValue(dp));
-			etcsContainerElement.addContent(dp);
-			etcsContainerElement.addContent(createBalise(guid, 1));
+			logContext.log("--placing DP at km %s", kmValue(dp));
+			addObject(etcsContainerElement, dp);
+			addObject(etcsContainerElement, createBalise(guid, 1));
 		}
 	}
 	
@@ -1449,8 +1984,14 @@ public class Constructor {
 	 * and with a distance between 250 m and 350 m or between 350 m and 700 m.
 	 */
 	private void placeDp23() {
-		Logger.log("placing DP 23...");
+		logContext.log("placing DP 23...");
 		List<Element> alreadyHandledSignals = new ArrayList<Element>();
+		Evaluable cond1 = new StringCondition("Signal_Real/Signal_Real_Aktiv_Schirm/Signal_Art/Wert", Operator.EQUAL, "Hauptsignal");
+		Evaluable cond2 = new StringCondition("Signal_Real/Signal_Real_Aktiv_Schirm/Signal_Art/Wert", Operator.EQUAL, "Hauptsperrsignal");
+		Evaluable cond3 = new StringCondition("Signal_Real/Signal_Real_Aktiv_Schirm/Signal_Art/Wert", Operator.EQUAL, "Mehrabschnittssignal");
+		Evaluable cond4 = new StringCondition("Signal_Real/Signal_Real_Aktiv_Schirm/Signal_Art/Wert", Operator.EQUAL, "Mehrabschnittssperrsignal");
+		Evaluable cond5 = new StringCondition("Signal_Real/Signal_Real_Aktiv_Schirm/Signal_Art/Wert", Operator.EQUAL, "Zugdeckungssignal");
+		Evaluable disjunc = cached(new ConditionDisjunction(cond1, cond2, cond3, cond4, cond5));
 		Element etcsContainerElement = ppm.createContainerElement("ETCS");
 		List<Element> objectList = ppm.getPlanProObjectList();
 		for(int i = 0; i < objectList.size(); i++) {
@@ -1459,8 +2000,9 @@ public class Constructor {
 				continue;
 			}
 			if(alreadyHandledSignals.contains(currentObject)) {
-				Logger.log("-Signal " + printSignalBezeichnung(currentObject) + " (km " + printKmValue(currentObject) + ")");
-				Logger.log("--already handled, no DP required");
+				beginObject("DP 23", currentObject);
+				logContext.log("-Signal %s (km %s)", signalBezeichnung(currentObject), kmValue(currentObject));
+				logContext.log("--already handled, no DP required");
 				continue;
 			}
 			if(currentObject.getChild("Signal_Real") == null) {
@@ -1472,22 +2014,17 @@ public class Constructor {
 			String signalArt = currentObject.getChild("Signal_Real").getChild("Signal_Real_Aktiv_Schirm").getChild("Signal_Art").getChild("Wert").getText();
 			if(signalArt.equals("Hauptsignal") || signalArt.equals("Hauptsperrsignal") || signalArt.equals("Mehrabschnittssignal") || signalArt.equals("Mehrabschnittssperrsignal") ||
 					signalArt.equals("Zugdeckungssignal")) {
-				Logger.log("-Signal " + printSignalBezeichnung(currentObject) + " (km " + printKmValue(currentObject) + ")");
+				beginObject("DP 23", currentObject);
+				logContext.log("-Signal %s (km %s)", signalBezeichnung(currentObject), kmValue(currentObject));
 				String signalId = currentObject.getChild("Identitaet").getChild("Wert").getText();
-				Evaluable cond1 = new StringCondition("Signal_Real/Signal_Real_Aktiv_Schirm/Signal_Art/Wert", Operator.EQUAL, "Hauptsignal");
-				Evaluable cond2 = new StringCondition("Signal_Real/Signal_Real_Aktiv_Schirm/Signal_Art/Wert", Operator.EQUAL, "Hauptsperrsignal");
-				Evaluable cond3 = new StringCondition("Signal_Real/Signal_Real_Aktiv_Schirm/Signal_Art/Wert", Operator.EQUAL, "Mehrabschnittssignal");
-				Evaluable cond4 = new StringCondition("Signal_Real/Signal_Real_Aktiv_Schirm/Signal_Art/Wert", Operator.EQUAL, "Mehrabschnittssperrsignal");
-				Evaluable cond5 = new StringCondition("Signal_Real/Signal_Real_Aktiv_Schirm/Signal_Art/Wert", Operator.EQUAL, "Zugdeckungssignal");
-				ConditionDisjunction disjunc = new ConditionDisjunction(cond1, cond2, cond3, cond4, cond5);
 				List<NextPunktObjektPathResult> otherSignals = ppm.getNextPunktObjektPaths(PunktObjekt.valueOf(currentObject), disjunc, Direction.OPPOSITE, false);
 				if(otherSignals.size() > 0) {
 					for(int i1 = 0; i1 < otherSignals.size(); i1++) {
 						NextPunktObjektPathResult current = otherSignals.get(i1);
 						if (current.distance >= 250000 && current.distance <= 350000) {
 							// do not place any DP 23
-							Logger.log("--combining with " + printSignalBezeichnung(current.punktObjektElement) + " (km " + printKmValue(current.punktObjektElement) + ")");
-							Logger.log("--short distance, no DP required");
+							logContext.log("--combining with %s (km %s)", signalBezeichnung(current.punktObjektElement), kmValue(current.punktObjektElement));
+							logContext.log("--short distance, no DP required");
 							alreadyHandledSignals.add(current.punktObjektElement);
 							break; // there should be no other path to be equipped with DP 23
 						}
@@ -1500,18 +2037,15 @@ public class Constructor {
 							dp.addContent(createIdentitaetElement(guid));
 							dp.addContent(createBasisObjektElement(LocalDate.now()));
 							dp.addContent(createPunktObjektTopKanteElement(nextpotk.idTopKante, nextpotk.abstand, 0, nextpotk.wirkrichtung));
-							Element poStrecke = createPunktObjektStreckeElement(target);
-							if(poStrecke != null) {
-								dp.addContent(poStrecke);
-							}
+							addPunktObjektStreckeElement(dp, target);
 							dp.addContent(createDpBezugBetrieblElement("mittelbar", signalId));
 							dp.addContent(createDpAllgElement("ETCS", "keine", "Erster Ortungs-Datenpunkt vor Signalen (kombiniert) (Typ 23)", 0, "Signal Gleis"));
 							int[] types = {23};
 							dp.addContent(createTypEtcsElement(types));
-							Logger.log("--combining with " + printSignalBezeichnung(current.punktObjektElement) + " (km " + printKmValue(current.punktObjektElement) + ")");
-							Logger.log("--placing DP (combined) at km " + printKmValue(dp));
-							etcsContainerElement.addContent(dp);
-							etcsContainerElement.addContent(createBalise(guid, 1));
+							logContext.log("--combining with %s (km %s)", signalBezeichnung(current.punktObjektElement), kmValue(current.punktObjektElement));
+							logContext.log("--placing DP (combined) at km %s", kmValue(dp));
+							addObject(etcsContainerElement, dp);
+							addObject(etcsContainerElement, createBalise(guid, 1));
 							alreadyHandledSignals.add(current.punktObjektElement);
 							break; // there should be no other path to be equipped with DP 23
 						}
@@ -1525,6 +2059,7 @@ public class Constructor {
 				}
 			}
 		}
+		logContext.debug("-condition order: %s", disjunc);
 	}
 	
 	
@@ -1546,18 +2081,15 @@ public class Constructor {
 			dp.addContent(createIdentitaetElement(guid));
 			dp.addContent(createBasisObjektElement(LocalDate.now()));
 			dp.addContent(createPunktObjektTopKanteElement(nextpotk.idTopKante, nextpotk.abstand, 0, nextpotk.wirkrichtung));
-			Element poStrecke = createPunktObjektStreckeElement(nextpos);
-			if(poStrecke != null) {
-				dp.addContent(poStrecke);
-			}
+			addPunktObjektStreckeElement(dp, nextpos);
 			dp.addContent(createDpBezugBetrieblElement("mittelbar", signalId));
 			int dpNr = j + 1;
 			dp.addContent(createDpAllgElement("ETCS", "keine", "Erster Ortungs-Datenpunkt vor Signalen " + dpNr + "/" + nextposlist.size() + " (Typ 23)", 0, "Signal Gleis"));
 			int[] types = {23};
 			dp.addContent(createTypEtcsElement(types));
-			Logger.log("--placing DP at km " + printKmValue(dp));
-			etcsContainerElement.addContent(dp);
-			etcsContainerElement.addContent(createBalise(guid, 1));
+			logContext.log("--placing DP at km %s", kmValue(dp));
+			addObject(etcsContainerElement, dp);
+			addObject(etcsContainerElement, createBalise(guid, 1));
 		}
 	}
 	
@@ -1566,7 +2098,7 @@ public class Constructor {
 	 * Contains the placement rules for datapoint type 24 (ETCS Level 2).
 	 */
 	private void placeDp24() {
-		Logger.log("placing DP 24...");
+		logContext.log("placing DP 24...");
 		Element etcsContainerElement = ppm.createContainerElement("ETCS");
 		List<Element> objectList = ppm.getPlanProObjectList();
 		for(int i = 0; i < objectList.size(); i++) {
@@ -1575,8 +2107,9 @@ public class Constructor {
 				continue;
 			}
 			if(alreadyHandledDp24.contains(currentObject)) {
-				Logger.log("-Signal " + printSignalBezeichnung(currentObject) + " (km " + printKmValue(currentObject) + ")");
-				Logger.log("--already handled, no DP required");
+				beginObject("DP 24", currentObject);
+				logContext.log("-Signal %s (km %s)", signalBezeichnung(currentObject), kmValue(currentObject));
+				logContext.log("--already handled, no DP required");
 				continue;
 			}
 			if(currentObject.getChild("Signal_Real") == null) {
@@ -1592,7 +2125,8 @@ public class Constructor {
 					signalFunc.equals("Einfahr_Ausfahr_Signal") || signalFunc.equals("Gruppenausfahr_Gruppenzwischen_Signal") ||
 					signalFunc.equals("Gruppenausfahr_Signal") || signalFunc.equals("Gruppenzwischen_Signal") ||
 					signalFunc.equals("Zugdeckungs_Signal") || signalFunc.equals("Zwischen_Signal")) {
-				Logger.log("-Signal " + printSignalBezeichnung(currentObject) + " (km " + printKmValue(currentObject) + ")");
+				beginObject("DP 24", currentObject);
+				logContext.log("-Signal %s (km %s)", signalBezeichnung(currentObject), kmValue(currentObject));
 				String signalId = currentObject.getChild("Identitaet").getChild("Wert").getText();
 				List<PunktObjekt> nextposlist = ppm.calculatePosition(PunktObjekt.valueOf(currentObject), -50000);
 				for(int j = 0; j < nextposlist.size(); j++) {
@@ -1603,18 +2137,15 @@ public class Constructor {
 					dp.addContent(createIdentitaetElement(guid));
 					dp.addContent(createBasisObjektElement(LocalDate.now()));
 					dp.addContent(createPunktObjektTopKanteElement(nextpotk.idTopKante, nextpotk.abstand, 0, nextpotk.wirkrichtung));
-					Element poStrecke = createPunktObjektStreckeElement(nextpos);
-					if(poStrecke != null) {
-						dp.addContent(poStrecke);
-					}
+					addPunktObjektStreckeElement(dp, nextpos);
 					dp.addContent(createDpBezugBetrieblElement("mittelbar", signalId));
 					int dpNr = j + 1;
 					dp.addContent(createDpAllgElement("ETCS", "keine", "Zweiter Ortungs-Datenpunkt vor Signalen " + dpNr + "/" + nextposlist.size() + " (Typ 24)", 0, "Signal Gleis"));
 					int[] types = {24};
 					dp.addContent(createTypEtcsElement(types));
-					Logger.log("--placing DP at km " + printKmValue(dp));
-					etcsContainerElement.addContent(dp);
-					etcsContainerElement.addContent(createBalise(guid, 1));
+					logContext.log("--placing DP at km %s", kmValue(dp));
+					addObject(etcsContainerElement, dp);
+					addObject(etcsContainerElement, createBalise(guid, 1));
 				}
 			}
 		}
@@ -1625,7 +2156,7 @@ public class Constructor {
 	 * Contains the placement rules for datapoint type 25 (Faulty switch use case) (ETCS Level 2).
 	 */
 	private void placeDp25FaultySwitch() {
-		Logger.log("placing DP 25 (faulty switch)...");
+		logContext.log("placing DP 25 (faulty switch)...");
 	}
 	
 	
@@ -1633,9 +2164,12 @@ public class Constructor {
 	 * Contains the placement rules for datapoint type 25 (Gap fill use case) (ETCS Level 2).
 	 */
 	private void placeDp25GapFill() {
-		Logger.log("placing DP 25 (gap fill)...");
+		logContext.log("placing DP 25 (gap fill)...");
 		boolean finished = false;
 		boolean modified = false;
+		Evaluable typeCond = new TypeCondition("Datenpunkt");
+		Evaluable dpTypeCond = new IntegerSetCondition("DP_Typ/DP_Typ_GETCS/DP_Typ_ETCS/Wert", Operator.NOT_EQUAL, 26, 32, 34, 36, 37);
+		ConditionConjunction conjunc = new ConditionConjunction(typeCond, dpTypeCond);
 		while(!finished) {
 			Element etcsContainerElement = ppm.createContainerElement("ETCS");
 			List<Element> objectList = ppm.getPlanProObjectList();
@@ -1644,17 +2178,10 @@ public class Constructor {
 				if(!currentObject.getName().equals("Datenpunkt")) {
 					continue;
 				}
-				int dpType = Integer.parseInt(currentObject.getChild("DP_Typ").getChild("DP_Typ_GETCS").getChild("DP_Typ_ETCS").getChild("Wert").getText());
-				if(dpType == 26 || dpType == 32 || dpType == 34 || dpType == 36 || dpType == 37) {
+				beginObject("DP 25", currentObject);
+				if(!ppm.evaluate(dpTypeCond, currentObject)) {
 					continue;
 				}
-				Evaluable typeCond = new TypeCondition("Datenpunkt");
-				Evaluable cond1 = new IntegerCondition("DP_Typ/DP_Typ_GETCS/DP_Typ_ETCS/Wert", Operator.NOT_EQUAL, 26);
-				Evaluable cond2 = new IntegerCondition("DP_Typ/DP_Typ_GETCS/DP_Typ_ETCS/Wert", Operator.NOT_EQUAL, 32);
-				Evaluable cond3 = new IntegerCondition("DP_Typ/DP_Typ_GETCS/DP_Typ_ETCS/Wert", Operator.NOT_EQUAL, 34);
-				Evaluable cond4 = new IntegerCondition("DP_Typ/DP_Typ_GETCS/DP_Typ_ETCS/Wert", Operator.NOT_EQUAL, 36);
-				Evaluable cond5 = new IntegerCondition("DP_Typ/DP_Typ_GETCS/DP_Typ_ETCS/Wert", Operator.NOT_EQUAL, 37);
-				ConditionConjunction conjunc = new ConditionConjunction(typeCond, cond1, cond2, cond3, cond4, cond5);
 				List<NextPunktObjektPathResult> nextlistForward = ppm.getNextPunktObjektPaths(PunktObjekt.valueOf(currentObject), conjunc, Direction.BOTH, true);
 				List<NextPunktObjektPathResult> nextlistReverse = ppm.getNextPunktObjektPaths(PunktObjekt.valueOf(currentObject), conjunc, Direction.BOTH, false);
 				List<Element> nodelist = null;
@@ -1693,16 +2220,13 @@ public class Constructor {
 					dp.addContent(createIdentitaetElement(guid));
 					dp.addContent(createBasisObjektElement(LocalDate.now()));
 					dp.addContent(createPunktObjektTopKanteElement(nextpotk.idTopKante, nextpotk.abstand, 0, nextpotk.wirkrichtung));
-					Element poStrecke = createPunktObjektStreckeElement(nextpos);
-					if(poStrecke != null) {
-						dp.addContent(poStrecke);
-					}
+					addPunktObjektStreckeElement(dp, nextpos);
 					dp.addContent(createDpAllgElement("ETCS", "keine", "Allgemeiner Ortungs-Datenpunkt (Typ 25)", 0, "Streckenkilometer Gleis"));
 					int[] types = {25};
 					dp.addContent(createTypEtcsElement(types));
-					Logger.log("--placing DP at km " + printKmValue(dp));
-					etcsContainerElement.addContent(dp);
-					etcsContainerElement.addContent(createBalise(guid, 1));
+					logContext.log("--placing DP at km %s", kmValue(dp));
+					addObject(etcsContainerElement, dp);
+					addObject(etcsContainerElement, createBalise(guid, 1));
 					modified = true;
 				}
 			}
@@ -1713,18 +2237,28 @@ public class Constructor {
 				modified = false;
 			}
 		}
+		logContext.debug("-condition order: %s", conjunc);
 	}
 	
 	
 	/**
 	 * Contains the placement rules for datapoint type 26 (ETCS Level 2).
+	 * The positions are calculated for all signals first (see {@link #planDp26(Element, Evaluable)}),
+	 * then the datapoints are created in the order of the signals.
 	 */
 	private void placeDp26() {
-		Logger.log("placing DP 26...");
+		logContext.log("placing DP 26...");
+		Evaluable cond1 = new StringCondition("Signal_Real/Signal_Real_Aktiv_Schirm/Signal_Art/Wert", Operator.EQUAL, "Hauptsignal");
+		Evaluable cond2 = new StringCondition("Signal_Real/Signal_Real_Aktiv_Schirm/Signal_Art/Wert", Operator.EQUAL, "Hauptsperrsignal");
+		Evaluable cond3 = new StringCondition("Signal_Real/Signal_Real_Aktiv_Schirm/Signal_Art/Wert", Operator.EQUAL, "Mehrabschnittssignal");
+		Evaluable cond4 = new StringCondition("Signal_Real/Signal_Real_Aktiv_Schirm/Signal_Art/Wert", Operator.EQUAL, "Mehrabschnittssperrsignal");
+		Evaluable cond5 = new StringCondition("Signal_Real/Signal_Real_Aktiv_Schirm/Signal_Art/Wert", Operator.EQUAL, "Zugdeckungssignal");
+		final Evaluable disjunc = cached(new ConditionDisjunction(cond1, cond2, cond3, cond4, cond5));
 		Element etcsContainerElement = ppm.createContainerElement("ETCS");
+		List<Callable<Dp26Placement>> tasks = new ArrayList<Callable<Dp26Placement>>();
 		List<Element> objectList = ppm.getPlanProObjectList();
 		for(int i = 0; i < objectList.size(); i++) {
-			Element currentObject = objectList.get(i);
+			final Element currentObject = objectList.get(i);
 			if(!currentObject.getName().equals("Signal")) {
 				continue;
 			}
@@ -1737,84 +2271,31 @@ public class Constructor {
 			String signalArt = currentObject.getChild("Signal_Real").getChild("Signal_Real_Aktiv_Schirm").getChild("Signal_Art").getChild("Wert").getText();
 			if(signalArt.equals("Hauptsignal") || signalArt.equals("Hauptsperrsignal") || signalArt.equals("Mehrabschnittssignal") ||
 					signalArt.equals("Mehrabschnittssperrsignal") || signalArt.equals("Zugdeckungssignal")) {
-				
-				Logger.log("-Signal " + printSignalBezeichnung(currentObject) + " (km " + printKmValue(currentObject) + ")");
-				int distanceSignalDangerPoint = calculateDistanceSignalDangerPoint(currentObject);
-				Logger.debug("--dangerPoint=" + distanceSignalDangerPoint);
-				if(distanceSignalDangerPoint < 0 || distanceSignalDangerPoint >= 325000) {
-					continue;
-					
-				}
-				double gradient = 0; // TODO
-				double vmax = calculateVmax(currentObject);
-				int distPrecedingSignal = 999999999;
-				Element elemPrecedingSignal = null;
-				
-				Evaluable cond1 = new StringCondition("Signal_Real/Signal_Real_Aktiv_Schirm/Signal_Art/Wert", Operator.EQUAL, "Hauptsignal");
-				Evaluable cond2 = new StringCondition("Signal_Real/Signal_Real_Aktiv_Schirm/Signal_Art/Wert", Operator.EQUAL, "Hauptsperrsignal");
-				Evaluable cond3 = new StringCondition("Signal_Real/Signal_Real_Aktiv_Schirm/Signal_Art/Wert", Operator.EQUAL, "Mehrabschnittssignal");
-				Evaluable cond4 = new StringCondition("Signal_Real/Signal_Real_Aktiv_Schirm/Signal_Art/Wert", Operator.EQUAL, "Mehrabschnittssperrsignal");
-				Evaluable cond5 = new StringCondition("Signal_Real/Signal_Real_Aktiv_Schirm/Signal_Art/Wert", Operator.EQUAL, "Zugdeckungssignal");
-				ConditionDisjunction disjunc = new ConditionDisjunction(cond1, cond2, cond3, cond4, cond5);
-				List<NextPunktObjektPathResult> signallist = ppm.getNextPunktObjektPaths(PunktObjekt.valueOf(currentObject), disjunc, Direction.EQUAL, false);
-				NextPunktObjektPathResult nearestsignal = NextPunktObjektPathResult.nearest(signallist);
-				if(nearestsignal != null ) {
-					distPrecedingSignal = nearestsignal.distance;
-					elemPrecedingSignal = nearestsignal.punktObjektElement;
-					Logger.debug("--precSignal=" + elemPrecedingSignal.getChild("Bezeichnung").getChild("Bezeichnung_Lageplan_Lang").getChild("Wert").getText()
-							+ ", dist=" + distPrecedingSignal);
-				}
-				
-				
-				
-				int resultingDistance = 0;
-				
-				String signalId = currentObject.getChild("Identitaet").getChild("Wert").getText();
-				
-				if(gradient < -15) {
-					resultingDistance = 780000;
-				}
-				else if(gradient < 0) {
-					resultingDistance = 750000;
-				}
-				else { // gradient >= 0
-					resultingDistance = 720000;
-				}
-				
-				if(distPrecedingSignal < resultingDistance) {
-					resultingDistance -= Math.min(distanceSignalDangerPoint, 100000);
-				}
-				if(distPrecedingSignal < resultingDistance) {
-					double speedfactor = 2.6 + 0.2 * toM_s(vmax);
-					speedfactor *= 1000.0;
-					int additionalDistance = Math.min(distPrecedingSignal - ((int) speedfactor), 100000);
-					List<PunktObjekt> nextposlist = ppm.calculatePosition(PunktObjekt.valueOf(currentObject), - additionalDistance);
-					for(int j = 0; j < nextposlist.size(); j++) {
-						PunktObjekt nextpos = nextposlist.get(j);
-						PunktObjektTopKante nextpotk = nextpos.punktObjektTopKante[0];
-						Element dp = new Element("Datenpunkt");
-						String guid = generateGuid();
-						dp.addContent(createIdentitaetElement(guid));
-						dp.addContent(createBasisObjektElement(LocalDate.now()));
-						dp.addContent(createPunktObjektTopKanteElement(nextpotk.idTopKante, nextpotk.abstand, 0, nextpotk.wirkrichtung));
-						Element poStrecke = createPunktObjektStreckeElement(nextpos);
-						if(poStrecke != null) {
-							dp.addContent(poStrecke);
-						}
-						dp.addContent(createDpBezugBetrieblElement("mittelbar", signalId));
-						int dpNr = j + 1;
-						dp.addContent(createDpAllgElement("ETCS", nextpotk.wirkrichtung, "TSR-Datenpunkt " + dpNr + "/" + nextposlist.size() + " (Typ 26)", 3, "Signal Gleis"));
-						int[] types = {26};
-						dp.addContent(createTypEtcsElement(types));
-						Logger.log("--placing DP at km " + printKmValue(dp));
-						etcsContainerElement.addContent(dp);
-						etcsContainerElement.addContent(createBalise(guid, 1));
-						etcsContainerElement.addContent(createBalise(guid, 2));
+				tasks.add(attributed("DP 26", currentObject, new Callable<Dp26Placement>() {
+					@Override
+					public Dp26Placement call() {
+						return planDp26(currentObject, disjunc);
 					}
-				}
-				
-				
-				List<PunktObjekt> nextposlist = ppm.calculatePosition(PunktObjekt.valueOf(currentObject), - resultingDistance);
+				}));
+			}
+		}
+		for(Dp26Placement placement : computeAll(tasks)) {
+			Element currentObject = placement.signal;
+			beginObject("DP 26", currentObject);
+			logContext.log("-Signal %s (km %s)", signalBezeichnung(currentObject), kmValue(currentObject));
+			logContext.debug("--dangerPoint=%s", placement.distanceSignalDangerPoint);
+			if(placement.positions == null) {
+				continue;
+			}
+			if(placement.precedingSignal != null) {
+				Element elemPrecedingSignal = placement.precedingSignal.punktObjektElement;
+				logContext.debug("--precSignal=%s, dist=%s", signalBezeichnung(elemPrecedingSignal), placement.precedingSignal.distance);
+			}
+			
+			String signalId = currentObject.getChild("Identitaet").getChild("Wert").getText();
+			
+			if(placement.additionalPositions != null) {
+				List<PunktObjekt> nextposlist = placement.additionalPositions;
 				for(int j = 0; j < nextposlist.size(); j++) {
 					PunktObjekt nextpos = nextposlist.get(j);
 					PunktObjektTopKante nextpotk = nextpos.punktObjektTopKante[0];
@@ -1823,34 +2304,107 @@ public class Constructor {
 					dp.addContent(createIdentitaetElement(guid));
 					dp.addContent(createBasisObjektElement(LocalDate.now()));
 					dp.addContent(createPunktObjektTopKanteElement(nextpotk.idTopKante, nextpotk.abstand, 0, nextpotk.wirkrichtung));
-					Element poStrecke = createPunktObjektStreckeElement(nextpos);
-					if(poStrecke != null) {
-						dp.addContent(poStrecke);
-					}
+					addPunktObjektStreckeElement(dp, nextpos);
 					dp.addContent(createDpBezugBetrieblElement("mittelbar", signalId));
 					int dpNr = j + 1;
 					dp.addContent(createDpAllgElement("ETCS", nextpotk.wirkrichtung, "TSR-Datenpunkt " + dpNr + "/" + nextposlist.size() + " (Typ 26)", 3, "Signal Gleis"));
 					int[] types = {26};
 					dp.addContent(createTypEtcsElement(types));
-					Logger.log("--placing DP at km " + printKmValue(dp));
-					etcsContainerElement.addContent(dp);
-					etcsContainerElement.addContent(createBalise(guid, 1));
-					etcsContainerElement.addContent(createBalise(guid, 2));
+					logContext.log("--placing DP at km %s", kmValue(dp));
+					addObject(etcsContainerElement, dp);
+					addObject(etcsContainerElement, createBalise(guid, 1));
+					addObject(etcsContainerElement, createBalise(guid, 2));
 				}
 			}
+			
+			List<PunktObjekt> nextposlist = placement.positions;
+			for(int j = 0; j < nextposlist.size(); j++) {
+				PunktObjekt nextpos = nextposlist.get(j);
+				PunktObjektTopKante nextpotk = nextpos.punktObjektTopKante[0];
+				Element dp = new Element("Datenpunkt");
+				String guid = generateGuid();
+				dp.addContent(createIdentitaetElement(guid));
+				dp.addContent(createBasisObjektElement(LocalDate.now()));
+				dp.addContent(createPunktObjektTopKanteElement(nextpotk.idTopKante, nextpotk.abstand, 0, nextpotk.wirkrichtung));
+				addPunktObjektStreckeElement(dp, nextpos);
+				dp.addContent(createDpBezugBetrieblElement("mittelbar", signalId));
+				int dpNr = j + 1;
+				dp.addContent(createDpAllgElement("ETCS", nextpotk.wirkrichtung, "TSR-Datenpunkt " + dpNr + "/" + nextposlist.size() + " (Typ 26)", 3, "Signal Gleis"));
+				int[] types = {26};
+				dp.addContent(createTypEtcsElement(types));
+				logContext.log("--placing DP at km %s", kmValue(dp));
+				addObject(etcsContainerElement, dp);
+				addObject(etcsContainerElement, createBalise(guid, 1));
+				addObject(etcsContainerElement, createBalise(guid, 2));
+			}
 		}
+		logContext.debug("-condition order: %s", disjunc);
+	}
+	
+	
+	/**
+	 * Calculates the positions of the datapoints type 26 for a signal.
+	 * This only reads the model, so it can be called for several signals concurrently.
+	 * 
+	 * 
+	 * @param currentObject DOM element of the signal
+	 * @param disjunc search condition for the signals which can precede the signal
+	 * @return the calculated positions and the values they are based on
+	 */
+	private Dp26Placement planDp26(Element currentObject, Evaluable disjunc) {
+		int distanceSignalDangerPoint = calculateDistanceSignalDangerPoint(currentObject);
+		if(distanceSignalDangerPoint < 0 || distanceSignalDangerPoint >= 325000) {
+			return new Dp26Placement(currentObject, distanceSignalDangerPoint, null, null, null);
+		}
+		double gradient = 0; // TODO
+		double vmax = calculateVmax(currentObject);
+		int distPrecedingSignal = 999999999;
+		
+		NextPunktObjektPathResult nearestsignal = NextPunktObjektPathResult.nearest(ppm.getNextPunktObjektPaths(PunktObjekt.valueOf(currentObject), disjunc, Direction.EQUAL, false));
+		if(nearestsignal != null ) {
+			distPrecedingSignal = nearestsignal.distance;
+		}
+		
+		int resultingDistance = 0;
+		
+		if(gradient < -15) {
+			resultingDistance = 780000;
+		}
+		else if(gradient < 0) {
+			resultingDistance = 750000;
+		}
+		else { // gradient >= 0
+			resultingDistance = 720000;
+		}
+		
+		if(distPrecedingSignal < resultingDistance) {
+			resultingDistance -= Math.min(distanceSignalDangerPoint, 100000);
+		}
+		List<PunktObjekt> additionalPositions = null;
+		if(distPrecedingSignal < resultingDistance) {
+			double speedfactor = 2.6 + 0.2 * toM_s(vmax);
+			speedfactor *= 1000.0;
+			int additionalDistance = Math.min(distPrecedingSignal - ((int) speedfactor), 100000);
+			additionalPositions = ppm.calculatePosition(PunktObjekt.valueOf(currentObject), - additionalDistance);
+		}
+		
+		List<PunktObjekt> positions = ppm.calculatePosition(PunktObjekt.valueOf(currentObject), - resultingDistance);
+		return new Dp26Placement(currentObject, distanceSignalDangerPoint, nearestsignal, additionalPositions, positions);
 	}
 	
 	
 	/**
 	 * Contains the placement rules for datapoint type 28 (ETCS Level 2).
+	 * The positions are calculated for all signals first (see {@link #planDp28(Element)}),
+	 * then the datapoints are created in the order of the signals.
 	 */
 	private void placeDp28() {
-		Logger.log("placing DP 28...");
+		logContext.log("placing DP 28...");
 		Element etcsContainerElement = ppm.createContainerElement("ETCS");
+		List<Callable<Dp28Placement>> tasks = new ArrayList<Callable<Dp28Placement>>();
 		List<Element> objectList = ppm.getPlanProObjectList();
 		for(int i = 0; i < objectList.size(); i++) {
-			Element currentObject = objectList.get(i);
+			final Element currentObject = objectList.get(i);
 			if(!currentObject.getName().equals("Signal")) {
 				continue;
 			}
@@ -1864,232 +2418,261 @@ public class Constructor {
 			if(signalFunc.equals("Ausfahr_Signal") || signalFunc.equals("Ausfahr_Zwischen_Signal") ||
 					signalFunc.equals("Einfahr_Ausfahr_Signal") || signalFunc.equals("Gruppenausfahr_Gruppenzwischen_Signal") ||
 					signalFunc.equals("Gruppenausfahr_Signal")) {
-				Logger.log("-Signal " + printSignalBezeichnung(currentObject) + " (km " + printKmValue(currentObject) + ")");
-				int distanceSignalStumpfeWeiche = calculateDistanceSignalStumpfeWeiche(currentObject);
-				if(distanceSignalStumpfeWeiche < 0) {
-					distanceSignalStumpfeWeiche = 999999999;
-				}
-				int distanceSignalDangerPoint = calculateDistanceSignalDangerPoint(currentObject);
-				if(distanceSignalDangerPoint < 0) {
-					distanceSignalDangerPoint = 999999999;
-				}
-				double vmax = calculateVmax(currentObject);
-				
-				Logger.debug("--distSW=" + distanceSignalStumpfeWeiche + ", distDP=" + distanceSignalDangerPoint + ", vmax=" + vmax);
-				
-				int[] singleDpList = {};
-				int[] twiceDpList = {};
-				int[] combinedDpList = {};
-				
-				String signalId = currentObject.getChild("Identitaet").getChild("Wert").getText();
-				
-				// Tabelle 14
-				if(vmax <= 160 && distanceSignalStumpfeWeiche < 25000) {
-					if(distanceSignalDangerPoint < 30000 && vmax <= 80) {
-						singleDpList = new int[] {-12000};
-					}
-					else {
-						singleDpList = new int[] {};
-					}
-					twiceDpList = new int[] {-18000, -33000, -50000, -77000, -100000, -125000};
-					combinedDpList = new int[] {-65000};
-				}
-				else if(vmax <= 160 && distanceSignalStumpfeWeiche <= 50000) {
-					if(distanceSignalDangerPoint < 30000 && vmax <= 80) {
-						singleDpList = new int[] {-12000, -77000};
-					}
-					else {
-						singleDpList = new int[] {-77000};
-					}
-					twiceDpList = new int[] {-18000, -33000, -50000, -100000};
-					combinedDpList = new int[] {-65000};
-				}
-				else if(vmax <= 160 && distanceSignalStumpfeWeiche <= 75000) {
-					if(distanceSignalDangerPoint < 30000 && vmax <= 80) {
-						singleDpList = new int[] {-12000};
-					}
-					else {
-						singleDpList = new int[] {};
-					}
-					twiceDpList = new int[] {-18000, -33000, -50000, -77000};
-					combinedDpList = new int[] {-65000};
-				}
-				else if(vmax <= 160 && distanceSignalStumpfeWeiche <= 92000) {
-					if(distanceSignalDangerPoint < 30000 && vmax <= 80) {
-						singleDpList = new int[] {-12000, -33000, -65000, -80000};
-					}
-					else if(distanceSignalDangerPoint < 30000 && vmax > 80) {
-						singleDpList = new int[] {-33000, -65000, -80000};
-					}
-					else {
-						singleDpList = new int[] {-33000, -65000};
-					}
-					twiceDpList = new int[] {-18000};
-					combinedDpList = new int[] {-50000};
-				}
-				else if(vmax <= 160 && distanceSignalStumpfeWeiche <= 125000) {
-					if(distanceSignalDangerPoint < 30000 && vmax <= 80) {
-						singleDpList = new int[] {-12000, -18000, -33000, -80000};
-					}
-					else if(distanceSignalDangerPoint < 30000 && vmax > 80) {
-						singleDpList = new int[] {-18000, -33000, -80000};
-					}
-					else {
-						singleDpList = new int[] {-18000, -33000};
-					}
-					twiceDpList = new int[] {};
-					combinedDpList = new int[] {-50000};
-				}
-				// Tabelle 15
-				else if(vmax > 160 && distanceSignalStumpfeWeiche < 20000) {
-					singleDpList = new int[] {-85000};
-					twiceDpList = new int[] {-26000, -50000, -105000, -128000};
-					combinedDpList = new int[] {-73000};
-				}
-				else if(vmax > 160 && distanceSignalStumpfeWeiche <= 40000) {
-					singleDpList = new int[] {-85000};
-					twiceDpList = new int[] {-26000, -50000, -105000};
-					combinedDpList = new int[] {-73000};
-				}
-				else if(vmax > 160 && distanceSignalStumpfeWeiche <= 52000) {
-					singleDpList = new int[] {-85000, -105000};
-					twiceDpList = new int[] {-26000, -50000};
-					combinedDpList = new int[] {-73000};
-				}
-				else if(vmax > 160 && distanceSignalStumpfeWeiche <= 75000) {
-					singleDpList = new int[] {-85000};
-					twiceDpList = new int[] {-26000, -50000};
-					combinedDpList = new int[] {-73000};
-				}
-				else if(vmax > 160 && distanceSignalStumpfeWeiche <= 99000) {
-					if(distanceSignalDangerPoint < 30000) {
-						singleDpList = new int[] {-85000};
-					}
-					else {
-						singleDpList = new int[] {};
-					}
-					twiceDpList = new int[] {-26000, -50000};
-					combinedDpList = new int[] {-73000};
-				}
-				else if(vmax > 160 && distanceSignalStumpfeWeiche <= 125000) {
-					if(distanceSignalDangerPoint < 30000) {
-						singleDpList = new int[] {-80000};
-					}
-					else {
-						singleDpList = new int[] {};
-					}
-					twiceDpList = new int[] {-26000};
-					combinedDpList = new int[] {-50000};
-				}
-				// Tabelle 16
-				else if(vmax <= 160 && distanceSignalStumpfeWeiche > 125000 && distanceSignalDangerPoint < 30000) {
-					if(vmax <= 80) {
-						singleDpList = new int[] {-12000, -18000, -30000, -80000};
-					}
-					else {
-						singleDpList = new int[] {-18000, -30000, -80000};
-					}
-					twiceDpList = new int[] {};
-					combinedDpList = new int[] {-50000};
-				}
-				else if(vmax <= 160 && distanceSignalStumpfeWeiche > 125000 && distanceSignalDangerPoint <= 62000) {
-					singleDpList = new int[] {-18000, -30000};
-					twiceDpList = new int[] {};
-					combinedDpList = new int[] {-50000};
-				}
-				else if(vmax <= 160 && distanceSignalStumpfeWeiche > 125000 && distanceSignalDangerPoint <= 80000) {
-					singleDpList = new int[] {-18000};
-					twiceDpList = new int[] {};
-					combinedDpList = new int[] {-50000};
-				}
-				// Tabelle 17
-				else if(vmax > 160 && distanceSignalStumpfeWeiche > 125000 && distanceSignalDangerPoint < 30000) {
-					singleDpList = new int[] {-26000, -80000};
-					twiceDpList = new int[] {};
-					combinedDpList = new int[] {-50000};
-				}
-				else if(vmax > 160 && distanceSignalStumpfeWeiche > 125000 && distanceSignalDangerPoint <= 80000) {
-					singleDpList = new int[] {-26000};
-					twiceDpList = new int[] {};
-					combinedDpList = new int[] {-50000};
-				}
-				
-				for(int dist : singleDpList) {
-					List<PunktObjekt> nextposlist = ppm.calculatePosition(PunktObjekt.valueOf(currentObject), dist);
-					for(int j = 0; j < nextposlist.size(); j++) {
-						PunktObjekt nextpos = nextposlist.get(j);
-						PunktObjektTopKante nextpotk = nextpos.punktObjektTopKante[0];
-						Element dp = new Element("Datenpunkt");
-						String guid = generateGuid();
-						dp.addContent(createIdentitaetElement(guid));
-						dp.addContent(createBasisObjektElement(LocalDate.now()));
-						dp.addContent(createPunktObjektTopKanteElement(nextpotk.idTopKante, nextpotk.abstand, 0, nextpotk.wirkrichtung));
-						Element poStrecke = createPunktObjektStreckeElement(nextpos);
-						if(poStrecke != null) {
-							dp.addContent(poStrecke);
-						}
-						dp.addContent(createDpBezugBetrieblElement("mittelbar", signalId));
-						int dpNr = j + 1;
-						dp.addContent(createDpAllgElement("ETCS", "keine", "Datenpunkt fuer Start of Mission " + dpNr + "/" + nextposlist.size() + " (Typ 28)", 0, "Signal Gleis"));
-						int[] types = {28};
-						dp.addContent(createTypEtcsElement(types));
-						Logger.log("--placing DP at km " + printKmValue(dp));
-						etcsContainerElement.addContent(dp);
-						etcsContainerElement.addContent(createBalise(guid, 1));
+				tasks.add(attributed("DP 28", currentObject, new Callable<Dp28Placement>() {
+					@Override
+					public Dp28Placement call() {
+						return planDp28(currentObject);
 					}
+				}));
+			}
+		}
+		for(Dp28Placement placement : computeAll(tasks)) {
+			Element currentObject = placement.signal;
+			beginObject("DP 28", currentObject);
+			logContext.log("-Signal %s (km %s)", signalBezeichnung(currentObject), kmValue(currentObject));
+			logContext.debug("--distSW=%s, distDP=%s, vmax=%s", placement.distanceSignalStumpfeWeiche, placement.distanceSignalDangerPoint, placement.vmax);
+			
+			String signalId = currentObject.getChild("Identitaet").getChild("Wert").getText();
+			
+			for(List<PunktObjekt> nextposlist : placement.singlePositions) {
+				for(int j = 0; j < nextposlist.size(); j++) {
+					PunktObjekt nextpos = nextposlist.get(j);
+					PunktObjektTopKante nextpotk = nextpos.punktObjektTopKante[0];
+					Element dp = new Element("Datenpunkt");
+					String guid = generateGuid();
+					dp.addContent(createIdentitaetElement(guid));
+					dp.addContent(createBasisObjektElement(LocalDate.now()));
+					dp.addContent(createPunktObjektTopKanteElement(nextpotk.idTopKante, nextpotk.abstand, 0, nextpotk.wirkrichtung));
+					addPunktObjektStreckeElement(dp, nextpos);
+					dp.addContent(createDpBezugBetrieblElement("mittelbar", signalId));
+					int dpNr = j + 1;
+					dp.addContent(createDpAllgElement("ETCS", "keine", "Datenpunkt fuer Start of Mission " + dpNr + "/" + nextposlist.size() + " (Typ 28)", 0, "Signal Gleis"));
+					int[] types = {28};
+					dp.addContent(createTypEtcsElement(types));
+					logContext.log("--placing DP at km %s", kmValue(dp));
+					addObject(etcsContainerElement, dp);
+					addObject(etcsContainerElement, createBalise(guid, 1));
 				}
-				for(int dist : twiceDpList) {
-					List<PunktObjekt> nextposlist = ppm.calculatePosition(PunktObjekt.valueOf(currentObject), dist);
-					for(int j = 0; j < nextposlist.size(); j++) {
-						PunktObjekt nextpos = nextposlist.get(j);
-						PunktObjektTopKante nextpotk = nextpos.punktObjektTopKante[0];
-						Element dp = new Element("Datenpunkt");
-						String guid = generateGuid();
-						dp.addContent(createIdentitaetElement(guid));
-						dp.addContent(createBasisObjektElement(LocalDate.now()));
-						dp.addContent(createPunktObjektTopKanteElement(nextpotk.idTopKante, nextpotk.abstand, 0, nextpotk.wirkrichtung));
-						Element poStrecke = createPunktObjektStreckeElement(nextpos);
-						if(poStrecke != null) {
-							dp.addContent(poStrecke);
-						}
-						dp.addContent(createDpBezugBetrieblElement("mittelbar", signalId));
-						int dpNr = j + 1;
-						dp.addContent(createDpAllgElement("ETCS", "keine", "Datenpunkt fuer Start of Mission " + dpNr + "/" + nextposlist.size() + " (Typ 28)", 3, "Signal Gleis"));
-						int[] types = {28};
-						dp.addContent(createTypEtcsElement(types));
-						Logger.log("--placing DP at km " + printKmValue(dp));
-						etcsContainerElement.addContent(dp);
-						etcsContainerElement.addContent(createBalise(guid, 1));
-						etcsContainerElement.addContent(createBalise(guid, 2));
-					}
+			}
+			for(List<PunktObjekt> nextposlist : placement.twicePositions) {
+				for(int j = 0; j < nextposlist.size(); j++) {
+					PunktObjekt nextpos = nextposlist.get(j);
+					PunktObjektTopKante nextpotk = nextpos.punktObjektTopKante[0];
+					Element dp = new Element("Datenpunkt");
+					String guid = generateGuid();
+					dp.addContent(createIdentitaetElement(guid));
+					dp.addContent(createBasisObjektElement(LocalDate.now()));
+					dp.addContent(createPunktObjektTopKanteElement(nextpotk.idTopKante, nextpotk.abstand, 0, nextpotk.wirkrichtung));
+					addPunktObjektStreckeElement(dp, nextpos);
+					dp.addContent(createDpBezugBetrieblElement("mittelbar", signalId));
+					int dpNr = j + 1;
+					dp.addContent(createDpAllgElement("ETCS", "keine", "Datenpunkt fuer Start of Mission " + dpNr + "/" + nextposlist.size() + " (Typ 28)", 3, "Signal Gleis"));
+					int[] types = {28};
+					dp.addContent(createTypEtcsElement(types));
+					logContext.log("--placing DP at km %s", kmValue(dp));
+					addObject(etcsContainerElement, dp);
+					addObject(etcsContainerElement, createBalise(guid, 1));
+					addObject(etcsContainerElement, createBalise(guid, 2));
 				}
-				for(int dist : combinedDpList) {
-					List<PunktObjekt> nextposlist = ppm.calculatePosition(PunktObjekt.valueOf(currentObject), dist);
-					for(int j = 0; j < nextposlist.size(); j++) {
-						PunktObjekt nextpos = nextposlist.get(j);
-						PunktObjektTopKante nextpotk = nextpos.punktObjektTopKante[0];
-						Element dp = new Element("Datenpunkt");
-						String guid = generateGuid();
-						dp.addContent(createIdentitaetElement(guid));
-						dp.addContent(createBasisObjektElement(LocalDate.now()));
-						dp.addContent(createPunktObjektTopKanteElement(nextpotk.idTopKante, nextpotk.abstand, 0, nextpotk.wirkrichtung));
-						Element poStrecke = createPunktObjektStreckeElement(nextpos);
-						if(poStrecke != null) {
-							dp.addContent(poStrecke);
-						}
-						dp.addContent(createDpBezugBetrieblElement("mittelbar", signalId));
-						int dpNr = j + 1;
-						dp.addContent(createDpAllgElement("ETCS", "keine", "Zweiter Ortungs-Datenpunkt vor Signalen/Datenpunkt fuer Start of Mission " + dpNr + "/" + nextposlist.size() + " (Typ 24/28)", 0, "Signal Gleis"));
-						int[] types = {24, 28};
-						dp.addContent(createTypEtcsElement(types));
-						Logger.log("--placing DP (combined with DP 24) at km " + printKmValue(dp));
-						etcsContainerElement.addContent(dp);
-						etcsContainerElement.addContent(createBalise(guid, 1));
-						alreadyHandledDp24.add(currentObject);
-					}
+			}
+			for(List<PunktObjekt> nextposlist : placement.combinedPositions) {
+				for(int j = 0; j < nextposlist.size(); j++) {
+					PunktObjekt nextpos = nextposlist.get(j);
+					PunktObjektTopKante nextpotk = nextpos.punktObjektTopKante[0];
+					Element dp = new Element("Datenpunkt");
+					String guid = generateGuid();
+					dp.addContent(createIdentitaetElement(guid));
+					dp.addContent(createBasisObjektElement(LocalDate.now()));
+					dp.addContent(createPunktObjektTopKanteElement(nextpotk.idTopKante, nextpotk.abstand, 0, nextpotk.wirkrichtung));
+					addPunktObjektStreckeElement(dp, nextpos);
+					dp.addContent(createDpBezugBetrieblElement("mittelbar", signalId));
+					int dpNr = j + 1;
+					dp.addContent(createDpAllgElement("ETCS", "keine", "Zweiter Ortungs-Datenpunkt vor Signalen/Datenpunkt fuer Start of Mission " + dpNr + "/" + nextposlist.size() + " (Typ 24/28)", 0, "Signal Gleis"));
+					int[] types = {24, 28};
+					dp.addContent(createTypEtcsElement(types));
+					logContext.log("--placing DP (combined with DP 24) at km %s", kmValue(dp));
+					addObject(etcsContainerElement, dp);
+					addObject(etcsContainerElement, createBalise(guid, 1));
+					alreadyHandledDp24.add(currentObject);
 				}
 			}
 		}
 	}
+	
+	
+	/**
+	 * Calculates the positions of the datapoints type 28 for a signal.
+	 * This only reads the model, so it can be called for several signals concurrently.
+	 * 
+	 * 
+	 * @param currentObject DOM element of the signal
+	 * @return the calculated positions and the values they are based on
+	 */
+	private Dp28Placement planDp28(Element currentObject) {
+		int distanceSignalStumpfeWeiche = calculateDistanceSignalStumpfeWeiche(currentObject);
+		if(distanceSignalStumpfeWeiche < 0) {
+			distanceSignalStumpfeWeiche = 999999999;
+		}
+		int distanceSignalDangerPoint = calculateDistanceSignalDangerPoint(currentObject);
+		if(distanceSignalDangerPoint < 0) {
+			distanceSignalDangerPoint = 999999999;
+		}
+		double vmax = calculateVmax(currentObject);
+		
+		int[] singleDpList = {};
+		int[] twiceDpList = {};
+		int[] combinedDpList = {};
+		
+		// Tabelle 14
+		if(vmax <= 160 && distanceSignalStumpfeWeiche < 25000) {
+			if(distanceSignalDangerPoint < 30000 && vmax <= 80) {
+				singleDpList = new int[] {-12000};
+			}
+			else {
+				singleDpList = new int[] {};
+			}
+			twiceDpList = new int[] {-18000, -33000, -50000, -77000, -100000, -125000};
+			combinedDpList = new int[] {-65000};
+		}
+		else if(vmax <= 160 && distanceSignalStumpfeWeiche <= 50000) {
+			if(distanceSignalDangerPoint < 30000 && vmax <= 80) {
+				singleDpList = new int[] {-12000, -77000};
+			}
+			else {
+				singleDpList = new int[] {-77000};
+			}
+			twiceDpList = new int[] {-18000, -33000, -50000, -100000};
+			combinedDpList = new int[] {-65000};
+		}
+		else if(vmax <= 160 && distanceSignalStumpfeWeiche <= 75000) {
+			if(distanceSignalDangerPoint < 30000 && vmax <= 80) {
+				singleDpList = new int[] {-12000};
+			}
+			else {
+				singleDpList = new int[] {};
+			}
+			twiceDpList = new int[] {-18000, -33000, -50000, -77000};
+			combinedDpList = new int[] {-65000};
+		}
+		else if(vmax <= 160 && distanceSignalStumpfeWeiche <= 92000) {
+			if(distanceSignalDangerPoint < 30000 && vmax <= 80) {
+				singleDpList = new int[] {-12000, -33000, -65000, -80000};
+			}
+			else if(distanceSignalDangerPoint < 30000 && vmax > 80) {
+				singleDpList = new int[] {-33000, -65000, -80000};
+			}
+			else {
+				singleDpList = new int[] {-33000, -65000};
+			}
+			twiceDpList = new int[] {-18000};
+			combinedDpList = new int[] {-50000};
+		}
+		else if(vmax <= 160 && distanceSignalStumpfeWeiche <= 125000) {
+			if(distanceSignalDangerPoint < 30000 && vmax <= 80) {
+				singleDpList = new int[] {-12000, -18000, -33000, -80000};
+			}
+			else if(distanceSignalDangerPoint < 30000 && vmax > 80) {
+				singleDpList = new int[] {-18000, -33000, -80000};
+			}
+			else {
+				singleDpList = new int[] {-18000, -33000};
+			}
+			twiceDpList = new int[] {};
+			combinedDpList = new int[] {-50000};
+		}
+		// Tabelle 15
+		else if(vmax > 160 && distanceSignalStumpfeWeiche < 20000) {
+			singleDpList = new int[] {-85000};
+			twiceDpList = new int[] {-26000, -50000, -105000, -128000};
+			combinedDpList = new int[] {-73000};
+		}
+		else if(vmax > 160 && distanceSignalStumpfeWeiche <= 40000) {
+			singleDpList = new int[] {-85000};
+			twiceDpList = new int[] {-26000, -50000, -105000};
+			combinedDpList = new int[] {-73000};
+		}
+		else if(vmax > 160 && distanceSignalStumpfeWeiche <= 52000) {
+			singleDpList = new int[] {-85000, -105000};
+			twiceDpList = new int[] {-26000, -50000};
+			combinedDpList = new int[] {-73000};
+		}
+		else if(vmax > 160 && distanceSignalStumpfeWeiche <= 75000) {
+			singleDpList = new int[] {-85000};
+			twiceDpList = new int[] {-26000, -50000};
+			combinedDpList = new int[] {-73000};
+		}
+		else if(vmax > 160 && distanceSignalStumpfeWeiche <= 99000) {
+			if(distanceSignalDangerPoint < 30000) {
+				singleDpList = new int[] {-85000};
+			}
+			else {
+				singleDpList = new int[] {};
+			}
+			twiceDpList = new int[] {-26000, -50000};
+			combinedDpList = new int[] {-73000};
+		}
+		else if(vmax > 160 && distanceSignalStumpfeWeiche <= 125000) {
+			if(distanceSignalDangerPoint < 30000) {
+				singleDpList = new int[] {-80000};
+			}
+			else {
+				singleDpList = new int[] {};
+			}
+			twiceDpList = new int[] {-26000};
+			combinedDpList = new int[] {-50000};
+		}
+		// Tabelle 16
+		else if(vmax <= 160 && distanceSignalStumpfeWeiche > 125000 && distanceSignalDangerPoint < 30000) {
+			if(vmax <= 80) {
+				singleDpList = new int[] {-12000, -18000, -30000, -80000};
+			}
+			else {
+				singleDpList = new int[] {-18000, -30000, -80000};
+			}
+			twiceDpList = new int[] {};
+			combinedDpList = new int[] {-50000};
+		}
+		else if(vmax <= 160 && distanceSignalStumpfeWeiche > 125000 && distanceSignalDangerPoint <= 62000) {
+			singleDpList = new int[] {-18000, -30000};
+			twiceDpList = new int[] {};
+			combinedDpList = new int[] {-50000};
+		}
+		else if(vmax <= 160 && distanceSignalStumpfeWeiche > 125000 && distanceSignalDangerPoint <= 80000) {
+			singleDpList = new int[] {-18000};
+			twiceDpList = new int[] {};
+			combinedDpList = new int[] {-50000};
+		}
+		// Tabelle 17
+		else if(vmax > 160 && distanceSignalStumpfeWeiche > 125000 && distanceSignalDangerPoint < 30000) {
+			singleDpList = new int[] {-26000, -80000};
+			twiceDpList = new int[] {};
+			combinedDpList = new int[] {-50000};
+		}
+		else if(vmax > 160 && distanceSignalStumpfeWeiche > 125000 && distanceSignalDangerPoint <= 80000) {
+			singleDpList = new int[] {-26000};
+			twiceDpList = new int[] {};
+			combinedDpList = new int[] {-50000};
+		}
+		
+		return new Dp28Placement(currentObject, distanceSignalStumpfeWeiche, distanceSignalDangerPoint, vmax,
+				calculatePositions(currentObject, singleDpList), calculatePositions(currentObject, twiceDpList), calculatePositions(currentObject, combinedDpList));
+	}
+	
+	
+	/**
+	 * Calculates the positions at several distances from a signal.
+	 * 
+	 * 
+	 * @param signal DOM element of the signal
+	 * @param distances the distances from the signal in millimeters (negative value means reverse direction)
+	 * @return a list containing the result of {@link eplan.PlanProModel#calculatePosition(PunktObjekt, int)} for each distance
+	 */
+	private List<List<PunktObjekt>> calculatePositions(Element signal, int[] distances) {
+		List<List<PunktObjekt>> returnval = new ArrayList<List<PunktObjekt>>();
+		for(int dist : distances) {
+			returnval.add(ppm.calculatePosition(PunktObjekt.valueOf(signal), dist));
+		}
+		return returnval;
+	}
 
 }
@@ -0,0 +1,444 @@
+/**
+ * EPlan - Automated ETCS Planning Tool
+ * 
+ * Copyright (c) 2017-2025, The FormETCS Project. All rights reserved.
+ * This file is licensed under the terms of the Modified (3-Clause) BSD License.
+ * 
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package eplan;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Precomputed shortcut hierarchy (contraction hierarchy) for distance queries on the track topology of a {@link eplan.TopologyIndex}.
+ * The graph consists of two nodes for each TOP_Kante, one for each search direction, where a node stands for entering the TOP_Kante
+ * in this direction. The arcs lead to the following TOP_Kante objects and are weighted with the length of the TOP_Kante.
+ * During the preprocessing, the nodes are removed one after another, and shortcut arcs are added where a shortest path
+ * leads through a removed node. A query then only has to search upwards in this order, from the start and from the end,
+ * which visits a small fraction of the graph.
+ * The oracle is immutable after construction, so it can be shared between threads.
+ * It must be rebuilt together with the topology index.
+ * 
+ * @author Stefan Dillmann
+ *
+ */
+public class DistanceOracle {
+	
+	/**
+	 * Marker for an unknown distance.
+	 */
+	private static final int INFINITY = Integer.MAX_VALUE;
+	
+	/**
+	 * Maximum number of nodes settled by a witness search during preprocessing.
+	 * If a witness search is stopped, a shortcut is added, which is always correct.
+	 */
+	private static final int WITNESS_LIMIT = 500;
+	
+	/**
+	 * The topology index the hierarchy was built for.
+	 */
+	private final TopologyIndex index;
+	
+	/**
+	 * The targets of the arcs leading from each node to higher ranked nodes.
+	 */
+	private int[][] upwardTargets;
+	
+	/**
+	 * The weights of the arcs leading from each node to higher ranked nodes.
+	 */
+	private int[][] upwardWeights;
+	
+	/**
+	 * The sources of the arcs leading from higher ranked nodes to each node.
+	 */
+	private int[][] downwardSources;
+	
+	/**
+	 * The weights of the arcs leading from higher ranked nodes to each node.
+	 */
+	private int[][] downwardWeights;
+	
+	/**
+	 * The number of shortcut arcs added during preprocessing.
+	 */
+	private int shortcutCount;
+	
+	
+	/**
+	 * Creates the shortcut hierarchy for a topology index.
+	 * 
+	 * @param index the topology index
+	 */
+	public DistanceOracle(TopologyIndex index) {
+		this.index = index;
+		int n = 2 * index.getEdgeCount();
+		List<Map<Integer, Integer>> outArcs = new ArrayList<Map<Integer, Integer>>();
+		List<Map<Integer, Integer>> inArcs = new ArrayList<Map<Integer, Integer>>();
+		for(int v = 0; v < n; v++) {
+			outArcs.add(new HashMap<Integer, Integer>());
+			inArcs.add(new HashMap<Integer, Integer>());
+		}
+		for(int i = 0; i < index.getEdgeCount(); i++) {
+			for(boolean forward : new boolean[] { true, false }) {
+				int v = node(i, forward);
+				int[] edges = index.getSuccessorEdges(i, forward);
+				boolean[] directions = index.getSuccessorDirections(i, forward);
+				for(int j = 0; j < edges.length; j++) {
+					if(edges[j] >= 0) {
+						addArc(outArcs, inArcs, v, node(edges[j], directions[j]), index.getEdgeLength(i));
+					}
+				}
+			}
+		}
+		contract(outArcs, inArcs);
+	}
+	
+	/**
+	 * Get the topology index the hierarchy was built for.
+	 * 
+	 * @return the topology index
+	 */
+	public TopologyIndex getTopologyIndex() {
+		return index;
+	}
+	
+	/**
+	 * Get the number of shortcut arcs added during preprocessing (only for debugging purposes).
+	 * 
+	 * @return the number of shortcut arcs
+	 */
+	public int getShortcutCount() {
+		return shortcutCount;
+	}
+	
+	/**
+	 * Calculates the distance from a position to another position in a given search direction.
+	 * The result is the same as the result of a search along the track with {@link eplan.PlanProModel#traverse(PunktObjektTopKante, boolean, TraversalVisitor)}:
+	 * If both positions are on the same TOP_Kante, only the direct distance on this TOP_Kante is considered.
+	 * Both positions must lie within their TOP_Kante.
+	 * 
+	 * @param startEdge the number of the starting TOP_Kante
+	 * @param startAbstand the starting position, as distance from node A in millimeters
+	 * @param startDirection if the search direction is the same as the topological direction (A -> B) of the starting TOP_Kante
+	 * @param endEdge the number of the ending TOP_Kante
+	 * @param endAbstand the ending position, as distance from node A in millimeters
+	 * @return the (positive) distance between the positions in millimeters, or -1 if the ending position is not reachable
+	 */
+	public int calculateDistance(int startEdge, int startAbstand, boolean startDirection, int endEdge, int endAbstand) {
+		if(startEdge == endEdge) {
+			int dist = endAbstand - startAbstand;
+			if(!startDirection) {
+				dist = -dist;
+			}
+			if(dist < 0) {
+				return -1;
+			}
+			return dist;
+		}
+		
+		// the search starts on the following TOP_Kante objects
+		int remainingDistance = startAbstand;
+		if(startDirection) {
+			remainingDistance = index.getEdgeLength(startEdge) - startAbstand;
+		}
+		Map<Integer, Integer> forwardSpace = new HashMap<Integer, Integer>();
+		int[] edges = index.getSuccessorEdges(startEdge, startDirection);
+		boolean[] directions = index.getSuccessorDirections(startEdge, startDirection);
+		for(int j = 0; j < edges.length; j++) {
+			if(edges[j] >= 0) {
+				forwardSpace.put(node(edges[j], directions[j]), remainingDistance);
+			}
+		}
+		forwardSpace = searchUpwards(forwardSpace, upwardTargets, upwardWeights);
+		
+		// the search ends when the ending TOP_Kante is entered in one of both directions
+		Map<Integer, Integer> backwardSpace = new HashMap<Integer, Integer>();
+		backwardSpace.put(node(endEdge, true), endAbstand);
+		backwardSpace.put(node(endEdge, false), index.getEdgeLength(endEdge) - endAbstand);
+		backwardSpace = searchUpwards(backwardSpace, downwardSources, downwardWeights);
+		
+		long best = INFINITY;
+		for(Map.Entry<Integer, Integer> entry : forwardSpace.entrySet()) {
+			Integer backwardDistance = backwardSpace.get(entry.getKey());
+			if(backwardDistance != null) {
+				best = Math.min(best, (long) entry.getValue() + backwardDistance);
+			}
+		}
+		if(best >= INFINITY) {
+			return -1;
+		}
+		return (int) best;
+	}
+	
+	/**
+	 * Dijkstra search which only follows arcs to higher ranked nodes.
+	 * 
+	 * @param initial the starting nodes with their initial distances
+	 * @param targets the targets of the arcs for each node
+	 * @param weights the weights of the arcs for each node
+	 * @return the settled nodes with their distances
+	 */
+	private Map<Integer, Integer> searchUpwards(Map<Integer, Integer> initial, int[][] targets, int[][] weights) {
+		Map<Integer, Integer> settled = new HashMap<Integer, Integer>();
+		Map<Integer, Integer> tentative = new HashMap<Integer, Integer>(initial);
+		PriorityQueue<long[]> queue = new PriorityQueue<long[]>(11, new DistanceComparator());
+		for(Map.Entry<Integer, Integer> entry : initial.entrySet()) {
+			queue.add(new long[] { entry.getValue(), entry.getKey() });
+		}
+		while(!queue.isEmpty()) {
+			long[] entry = queue.poll();
+			int v = (int) entry[1];
+			if(settled.containsKey(v) || entry[0] > tentative.get(v)) {
+				continue;
+			}
+			settled.put(v, (int) entry[0]);
+			for(int k = 0; k < targets[v].length; k++) {
+				int w = targets[v][k];
+				long dist = entry[0] + weights[v][k];
+				Integer old = tentative.get(w);
+				if(dist < INFINITY && (old == null || dist < old)) {
+					tentative.put(w, (int) dist);
+					queue.add(new long[] { dist, w });
+				}
+			}
+		}
+		return settled;
+	}
+	
+	/**
+	 * Removes all nodes in the order of their importance and adds the necessary shortcuts.
+	 * Afterwards, the upward and downward arcs of each node are stored.
+	 * 
+	 * @param outArcs the outgoing arcs of each node, by target, which are modified
+	 * @param inArcs the incoming arcs of each node, by source, which are modified
+	 */
+	private void contract(List<Map<Integer, Integer>> outArcs, List<Map<Integer, Integer>> inArcs) {
+		int n = outArcs.size();
+		upwardTargets = new int[n][];
+		upwardWeights = new int[n][];
+		downwardSources = new int[n][];
+		downwardWeights = new int[n][];
+		boolean[] contracted = new boolean[n];
+		int[] contractedNeighbours = new int[n];
+		
+		PriorityQueue<long[]> queue = new PriorityQueue<long[]>(Math.max(n, 1), new DistanceComparator());
+		for(int v = 0; v < n; v++) {
+			queue.add(new long[] { getPriority(v, outArcs, inArcs, contracted, contractedNeighbours), v });
+		}
+		while(!queue.isEmpty()) {
+			long[] entry = queue.poll();
+			int v = (int) entry[1];
+			if(contracted[v]) {
+				continue;
+			}
+			// lazy update: the priority may have changed since the node was added
+			long priority = getPriority(v, outArcs, inArcs, contracted, contractedNeighbours);
+			if(!queue.isEmpty() && priority > queue.peek()[0]) {
+				queue.add(new long[] { priority, v });
+				continue;
+			}
+			
+			List<int[]> shortcuts = findShortcuts(v, outArcs, inArcs, contracted);
+			for(int[] shortcut : shortcuts) {
+				addArc(outArcs, inArcs, shortcut[0], shortcut[1], shortcut[2]);
+			}
+			shortcutCount += shortcuts.size();
+			
+			// all remaining neighbours are contracted later and therefore ranked higher
+			upwardTargets[v] = new int[outArcs.get(v).size()];
+			upwardWeights[v] = new int[outArcs.get(v).size()];
+			int k = 0;
+			for(Map.Entry<Integer, Integer> arc : outArcs.get(v).entrySet()) {
+				upwardTargets[v][k] = arc.getKey();
+				upwardWeights[v][k] = arc.getValue();
+				inArcs.get(arc.getKey()).remove(v);
+				contractedNeighbours[arc.getKey()]++;
+				k++;
+			}
+			downwardSources[v] = new int[inArcs.get(v).size()];
+			downwardWeights[v] = new int[inArcs.get(v).size()];
+			k = 0;
+			for(Map.Entry<Integer, Integer> arc : inArcs.get(v).entrySet()) {
+				downwardSources[v][k] = arc.getKey();
+				downwardWeights[v][k] = arc.getValue();
+				outArcs.get(arc.getKey()).remove(v);
+				contractedNeighbours[arc.getKey()]++;
+				k++;
+			}
+			contracted[v] = true;
+		}
+	}
+	
+	/**
+	 * Calculates the priority of a node for the contraction order.
+	 * Nodes which need few shortcuts compared to their number of arcs are contracted first.
+	 * 
+	 * @param v the node
+	 * @param outArcs the outgoing arcs of each node, by target
+	 * @param inArcs the incoming arcs of each node, by source
+	 * @param contracted flag for each node, if it is already contracted
+	 * @param contractedNeighbours the number of contracted neighbours of each node
+	 * @return the priority, where a lower value means earlier contraction
+	 */
+	private static long getPriority(int v, List<Map<Integer, Integer>> outArcs, List<Map<Integer, Integer>> inArcs, boolean[] contracted, int[] contractedNeighbours) {
+		int shortcuts = findShortcuts(v, outArcs, inArcs, contracted).size();
+		return shortcuts - outArcs.get(v).size() - inArcs.get(v).size() + contractedNeighbours[v];
+	}
+	
+	/**
+	 * Finds the shortcuts which are necessary to remove a node from the graph.
+	 * A shortcut is necessary for a pair of neighbours, if there is no other path between them
+	 * which is at most as long as the path through the node.
+	 * 
+	 * @param v the node
+	 * @param outArcs the outgoing arcs of each node, by target
+	 * @param inArcs the incoming arcs of each node, by source
+	 * @param contracted flag for each node, if it is already contracted
+	 * @return a list of shortcuts, each consisting of source, target and weight
+	 */
+	private static List<int[]> findShortcuts(int v, List<Map<Integer, Integer>> outArcs, List<Map<Integer, Integer>> inArcs, boolean[] contracted) {
+		List<int[]> returnval = new ArrayList<int[]>();
+		Map<Integer, Integer> out = outArcs.get(v);
+		if(out.isEmpty()) {
+			return returnval;
+		}
+		int maxOut = 0;
+		for(int weight : out.values()) {
+			maxOut = Math.max(maxOut, weight);
+		}
+		for(Map.Entry<Integer, Integer> in : inArcs.get(v).entrySet()) {
+			int u = in.getKey();
+			if(u == v) {
+				continue;
+			}
+			long limit = (long) in.getValue() + maxOut;
+			Map<Integer, Long> witness = searchWitness(u, v, limit, outArcs, contracted);
+			for(Map.Entry<Integer, Integer> arc : out.entrySet()) {
+				int w = arc.getKey();
+				if(w == u || w == v) {
+					continue;
+				}
+				long viaDistance = (long) in.getValue() + arc.getValue();
+				Long witnessDistance = witness.get(w);
+				if((witnessDistance == null || witnessDistance > viaDistance) && viaDistance < INFINITY) {
+					returnval.add(new int[] { u, w, (int) viaDistance });
+				}
+			}
+		}
+		return returnval;
+	}
+	
+	/**
+	 * Dijkstra search from a node which avoids another node, for finding witness paths.
+	 * The search ends at the given distance or after {@link #WITNESS_LIMIT} nodes.
+	 * 
+	 * @param source the starting node
+	 * @param avoid the node which must not be used
+	 * @param limit the maximum distance
+	 * @param outArcs the outgoing arcs of each node, by target
+	 * @param contracted flag for each node, if it is already contracted
+	 * @return the settled nodes with their distances
+	 */
+	private static Map<Integer, Long> searchWitness(int source, int avoid, long limit, List<Map<Integer, Integer>> outArcs, boolean[] contracted) {
+		Map<Integer, Long> settled = new HashMap<Integer, Long>();
+		Map<Integer, Long> tentative = new HashMap<Integer, Long>();
+		PriorityQueue<long[]> queue = new PriorityQueue<long[]>(11, new DistanceComparator());
+		tentative.put(source, 0L);
+		queue.add(new long[] { 0, source });
+		while(!queue.isEmpty() && settled.size() < WITNESS_LIMIT) {
+			long[] entry = queue.poll();
+			int x = (int) entry[1];
+			if(settled.containsKey(x) || entry[0] > tentative.get(x)) {
+				continue;
+			}
+			if(entry[0] > limit) {
+				break;
+			}
+			settled.put(x, entry[0]);
+			for(Map.Entry<Integer, Integer> arc : outArcs.get(x).entrySet()) {
+				int y = arc.getKey();
+				if(y == avoid || contracted[y]) {
+					continue;
+				}
+				long dist = entry[0] + arc.getValue();
+				Long old = tentative.get(y);
+				if(old == null || dist < old) {
+					tentative.put(y, dist);
+					queue.add(new long[] { dist, y });
+				}
+			}
+		}
+		return settled;
+	}
+	
+	/**
+	 * Adds an arc to the graph, or shortens an existing arc between the same nodes.
+	 * Loops are ignored, as they never lie on a shortest path.
+	 * 
+	 * @param outArcs the outgoing arcs of each node, by target
+	 * @param inArcs the incoming arcs of each node, by source
+	 * @param from the source of the arc
+	 * @param to the target of the arc
+	 * @param weight the weight of the arc in millimeters
+	 */
+	private static void addArc(List<Map<Integer, Integer>> outArcs, List<Map<Integer, Integer>> inArcs, int from, int to, int weight) {
+		if(from == to) {
+			return;
+		}
+		Integer old = outArcs.get(from).get(to);
+		if(old == null || weight < old) {
+			outArcs.get(from).put(to, weight);
+			inArcs.get(to).put(from, weight);
+		}
+	}
+	
+	/**
+	 * Get the number of the node for entering a TOP_Kante in a search direction.
+	 * 
+	 * @param index the number of the TOP_Kante
+	 * @param forward if the search direction is the same as the topological direction (A -> B) of the TOP_Kante
+	 * @return the number of the node
+	 */
+	private static int node(int index, boolean forward) {
+		if(forward) {
+			return 2 * index;
+		}
+		return 2 * index + 1;
+	}
+	
+	
+	/**
+	 * Comparator for queue entries consisting of a distance and a node, ordered by distance and node.
+	 * 
+	 * @author Stefan Dillmann
+	 *
+	 */
+	private static class DistanceComparator implements Comparator<long[]> {
+		
+		/**
+		 * Compares two queue entries.
+		 * 
+		 * @param a the first entry
+		 * @param b the second entry
+		 * @return a negative value, zero or a positive value if the first entry is lower, equal or greater
+		 */
+		@Override
+		public int compare(long[] a, long[] b) {
+			if(a[0] != b[0]) {
+				return Long.compare(a[0], b[0]);
+			}
+			return Long.compare(a[1], b[1]);
+		}
+	
+	}
+
+}
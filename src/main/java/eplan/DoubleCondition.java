@@ -64,5 +64,37 @@ public class DoubleCondition extends AbstractComparisonCondition {
 		if(compareOperator == Operator.GREATER_EQUAL && finalValue >= compareValue) return true;
 		return false;
 	}
+	
+	/**
+	 * Estimated relative cost of a single evaluation.
+	 * The value at the path is looked up and parsed as number.
+	 * 
+	 * @return the estimated cost of one evaluation
+	 */
+	@Override
+	public int getCost() {
+		return 4;
+	}
+	
+	/**
+	 * String representation of the object (only for debugging purposes).
+	 * 
+	 * @return String representation of the object
+	 */
+	@Override
+	public String toString() {
+		return comparePath + " " + compareOperator + " " + compareValue;
+	}
+	
+	/**
+	 * Check if the result of the condition depends only on the given element and its child elements.
+	 * Only the value at the path below the element is tested.
+	 * 
+	 * @return true
+	 */
+	@Override
+	public boolean isLocal() {
+		return true;
+	}
 
 }
@@ -26,5 +26,28 @@ public interface Evaluable {
 	 * @return true if the condition is fulfilled, otherwise false
 	 */
 	boolean evaluate(Element e);
+	
+	/**
+	 * Estimated relative cost of a single evaluation.
+	 * Compound conditions use this value to evaluate cheap conditions first.
+	 * Conditions that only inspect the element itself should return small values,
+	 * conditions that have to look up other objects of the model should return large values.
+	 * 
+	 * @return the estimated cost of one evaluation
+	 */
+	default int getCost() {
+		return 10;
+	}
+	
+	/**
+	 * Check if the result of the condition depends only on the given element and its child elements.
+	 * Results of such conditions can be cached per element, as long as the element itself is not modified.
+	 * Conditions that also look at other objects of the model (or where this is unknown) must return false.
+	 * 
+	 * @return true if the result depends only on the subtree of the given element, otherwise false
+	 */
+	default boolean isLocal() {
+		return false;
+	}
 
 }
@@ -43,5 +43,37 @@ public class ExistenceCondition extends AbstractComparisonCondition {
 	public boolean evaluate(Element e) {
 		return isPathExisting(e, comparePath);
 	}
+	
+	/**
+	 * Estimated relative cost of a single evaluation.
+	 * Only the child elements along the path are looked up.
+	 * 
+	 * @return the estimated cost of one evaluation
+	 */
+	@Override
+	public int getCost() {
+		return 2;
+	}
+	
+	/**
+	 * String representation of the object (only for debugging purposes).
+	 * 
+	 * @return String representation of the object
+	 */
+	@Override
+	public String toString() {
+		return "exists(" + comparePath + ")";
+	}
+	
+	/**
+	 * Check if the result of the condition depends only on the given element and its child elements.
+	 * Only the child elements along the path are tested.
+	 * 
+	 * @return true
+	 */
+	@Override
+	public boolean isLocal() {
+		return true;
+	}
 
 }
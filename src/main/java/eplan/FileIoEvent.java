@@ -0,0 +1,51 @@
+/**
+ * EPlan - Automated ETCS Planning Tool
+ * 
+ * Copyright (c) 2017-2025, The FormETCS Project. All rights reserved.
+ * This file is licensed under the terms of the Modified (3-Clause) BSD License.
+ * 
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package eplan;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder event for reading or writing a PlanPro file by a {@link eplan.PlanProModel}.
+ * The duration of the event includes parsing or formatting the XML document.
+ * 
+ * @author Stefan Dillmann
+ *
+ */
+@Name("eplan.FileIo")
+@Label("PlanPro File IO")
+@Category({"EPlan", "IO"})
+@Description("Reading or writing a PlanPro file, including parsing or formatting the XML document")
+public class FileIoEvent extends Event {
+	
+	/**
+	 * The operation, "read" or "write".
+	 */
+	@Label("Operation")
+	public String operation;
+	
+	/**
+	 * The name of the file, the URL, or "stdin".
+	 */
+	@Label("Path")
+	public String path;
+	
+	/**
+	 * The size of the file, or -1 if it is unknown.
+	 */
+	@Label("Bytes")
+	@DataAmount
+	public long bytes;
+
+}
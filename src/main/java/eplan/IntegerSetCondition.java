@@ -0,0 +1,104 @@
+/**
+ * EPlan - Automated ETCS Planning Tool
+ * 
+ * Copyright (c) 2017-2025, The FormETCS Project. All rights reserved.
+ * This file is licensed under the terms of the Modified (3-Clause) BSD License.
+ * 
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package eplan;
+
+import java.util.Arrays;
+
+import org.jdom2.Element;
+
+/**
+ * Condition class to test if an integer value from a DOM element (and its child elements) is contained in a given set of values.
+ * This replaces a conjunction of several {@link IntegerCondition} objects with operator NOT_EQUAL
+ * (or a disjunction with operator EQUAL) on the same path, so the value has to be looked up and parsed only once.
+ * Only the operators EQUAL (value is contained in the set) and NOT_EQUAL (value is not contained in the set)
+ * are supported, all other operators evaluate to false.
+ * 
+ * @author Stefan Dillmann
+ *
+ */
+public class IntegerSetCondition extends AbstractComparisonCondition {
+	
+	/**
+	 * The path below the given DOM element.
+	 */
+	private String comparePath;
+	
+	/**
+	 * The operator used for comparison.
+	 */
+	private Operator compareOperator;
+	
+	/**
+	 * The values to compare with, in ascending order.
+	 */
+	private int[] compareValues;
+	
+	/**
+	 * Creates a new IntegerSetCondition.
+	 * 
+	 * @param s the path below the given DOM element
+	 * @param op the operator used for comparison (EQUAL or NOT_EQUAL)
+	 * @param vals the values to compare with
+	 */
+	public IntegerSetCondition(String s, Operator op, int...vals) {
+		comparePath = s;
+		compareOperator = op;
+		compareValues = vals.clone();
+		Arrays.sort(compareValues);
+	}
+	
+	/**
+	 * Evaluation function.
+	 * 
+	 * @param e the DOM element to test
+	 * @return true if the value from the object at the given path is contained (EQUAL) or not contained (NOT_EQUAL) in the given set of values
+	 */
+	@Override
+	public boolean evaluate(Element e) {
+		int finalValue = Integer.parseInt(getElementValue(e, comparePath));
+		boolean contained = (Arrays.binarySearch(compareValues, finalValue) >= 0);
+		if(compareOperator == Operator.EQUAL && contained) return true;
+		if(compareOperator == Operator.NOT_EQUAL && !contained) return true;
+		return false;
+	}
+	
+	/**
+	 * Estimated relative cost of a single evaluation.
+	 * The value at the path is looked up and parsed as number only once for all values of the set.
+	 * 
+	 * @return the estimated cost of one evaluation
+	 */
+	@Override
+	public int getCost() {
+		return 4;
+	}
+	
+	/**
+	 * String representation of the object (only for debugging purposes).
+	 * 
+	 * @return String representation of the object
+	 */
+	@Override
+	public String toString() {
+		return comparePath + " " + compareOperator + " " + Arrays.toString(compareValues);
+	}
+	
+	/**
+	 * Check if the result of the condition depends only on the given element and its child elements.
+	 * Only the value at the path below the element is tested.
+	 * 
+	 * @return true
+	 */
+	@Override
+	public boolean isLocal() {
+		return true;
+	}
+
+}
@@ -0,0 +1,396 @@
+/**
+ * EPlan - Automated ETCS Planning Tool
+ * 
+ * Copyright (c) 2017-2025, The FormETCS Project. All rights reserved.
+ * This file is licensed under the terms of the Modified (3-Clause) BSD License.
+ * 
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package eplan;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Logging context of one planning run.
+ * Each context has its own settings and its own destination (stdout, stderr or a buffered logfile),
+ * so several plans can be created in parallel without mixing their logs.
+ * The static methods of {@link eplan.Logger} use a default context for the command line program.
+ * 
+ * @author Stefan Dillmann
+ *
+ */
+public class LogContext {
+	
+	/**
+	 * A held back message, which is created from its format string and arguments when it is printed.
+	 * 
+	 * @author Stefan Dillmann
+	 *
+	 */
+	private static class DeferredMessage {
+		
+		/**
+		 * The format string of the message.
+		 */
+		final String format;
+		
+		/**
+		 * The arguments referenced by the format string.
+		 */
+		final Object[] args;
+		
+		/**
+		 * Creates a new deferred message.
+		 * 
+		 * @param format the format string of the message
+		 * @param args the arguments referenced by the format string
+		 */
+		DeferredMessage(String format, Object[] args) {
+			this.format = format;
+			this.args = args;
+		}
+		
+		/**
+		 * Create the message.
+		 * 
+		 * @return the formatted message
+		 */
+		@Override
+		public String toString() {
+			return String.format(format, args);
+		}
+	
+	}
+	
+	
+	/**
+	 * Flag if general messages are enabled.
+	 */
+	private volatile boolean enabled;
+	
+	/**
+	 * Flag if debug messages are enabled.
+	 */
+	private volatile boolean debugEnabled;
+	
+	/**
+	 * Flag to write to stderr instead of stdout.
+	 */
+	private volatile boolean stderr;
+	
+	/**
+	 * Name of the logfile.
+	 */
+	private String logfile;
+	
+	/**
+	 * Buffered writer of the logfile, or null if the logfile is not open.
+	 */
+	private BufferedWriter logWriter;
+	
+	/**
+	 * Flag if the logfile was already created, so further messages are appended to it.
+	 */
+	private boolean logfileCreated;
+	
+	/**
+	 * The first error which occurred when writing the logfile, or null if no error occurred.
+	 */
+	private IOException logError;
+	
+	/**
+	 * Messages of the current thread which are held back, or null if the messages of the current thread are printed immediately.
+	 */
+	private final ThreadLocal<List<Object>> heldMessages;
+	
+	
+	/**
+	 * Creates a new context with all messages disabled, printing to stdout.
+	 */
+	public LogContext() {
+		enabled = false;
+		debugEnabled = false;
+		stderr = false;
+		logfile = null;
+		logWriter = null;
+		logfileCreated = false;
+		logError = null;
+		heldMessages = new ThreadLocal<List<Object>>();
+	}
+	
+	/**
+	 * Enable logging of general messages.
+	 * 
+	 * @param enable true to enable logging, false to disable
+	 */
+	public void enable(boolean enable) {
+		enabled = enable;
+	}
+	
+	/**
+	 * Enable logging of debug messages.
+	 * The logging of general messages will also be activated implicitly.
+	 * 
+	 * @param enable true to enable logging, false to disable
+	 */
+	public void enableDebug(boolean enable) {
+		debugEnabled = enable;
+	}
+	
+	/**
+	 * Check if logging of general messages is enabled.
+	 * 
+	 * @return true if general messages are logged
+	 */
+	public boolean isEnabled() {
+		return enabled || debugEnabled;
+	}
+	
+	/**
+	 * Check if logging of debug messages is enabled.
+	 * 
+	 * @return true if debug messages are logged
+	 */
+	public boolean isDebugEnabled() {
+		return debugEnabled;
+	}
+	
+	/**
+	 * Enable logging to standard error instead of standard output.
+	 * 
+	 * @param err true to write to stderr, false to write to stdout
+	 */
+	public void writeToStderr(boolean err) {
+		stderr = err;
+	}
+	
+	/**
+	 * Set the name of the logfile.
+	 * If a file name is provided, all general and debug messages will be written into this file.
+	 * The file is created with the first message. The messages are buffered in memory,
+	 * and written to disk when the buffer is full and by {@link #writeLogfile()}.
+	 * If null is provided, all messages are printed to standard output or standard error.
+	 * A previously set logfile is closed.
+	 * 
+	 * @param file the name of the logfile to write into, or null to print to stdout/stderr
+	 */
+	public synchronized void setLogfile(String file) {
+		closeLogfile();
+		logfile = file;
+		logfileCreated = false;
+		logError = null;
+	}
+	
+	/**
+	 * Get the name of the logfile.
+	 * 
+	 * @return the name of the logfile, or null if messages are printed to stdout/stderr
+	 */
+	public synchronized String getLogfile() {
+		return logfile;
+	}
+	
+	/**
+	 * Print a general message.
+	 * This is only effective if logging of general messages is enabled.
+	 * 
+	 * @param message the message to print
+	 */
+	public void log(String message) {
+		if(enabled || debugEnabled) {
+			write(message);
+		}
+	}
+	
+	/**
+	 * Print a debug message.
+	 * This is only effective if logging of debug messages is enabled.
+	 * 
+	 * @param message the message to print
+	 */
+	public void debug(String message) {
+		if(debugEnabled) {
+			write(message);
+		}
+	}
+	
+	/**
+	 * Print a general message, which is created from a format string and arguments (see {@link String#format(String, Object...)}).
+	 * The message is only created if logging of general messages is enabled, so the arguments are not converted to strings otherwise.
+	 * 
+	 * @param format the format string of the message
+	 * @param args the arguments referenced by the format string
+	 */
+	public void log(String format, Object... args) {
+		if(enabled || debugEnabled) {
+			write(format, args);
+		}
+	}
+	
+	/**
+	 * Print a debug message, which is created from a format string and arguments (see {@link String#format(String, Object...)}).
+	 * The message is only created if logging of debug messages is enabled, so the arguments are not converted to strings otherwise.
+	 * 
+	 * @param format the format string of the message
+	 * @param args the arguments referenced by the format string
+	 */
+	public void debug(String format, Object... args) {
+		if(debugEnabled) {
+			write(format, args);
+		}
+	}
+	
+	/**
+	 * Hold back all following messages of the current thread, instead of printing them immediately.
+	 * This allows tasks running in parallel to print their messages in a defined order later,
+	 * using {@link #releaseMessages()} and {@link #print(List)}.
+	 * Held messages with a format string are created when they are printed,
+	 * so they show the state of their arguments at this time (e.g. values completed when the results of the task are committed).
+	 */
+	public void holdMessages() {
+		heldMessages.set(new ArrayList<Object>());
+	}
+	
+	/**
+	 * Stop holding back the messages of the current thread.
+	 * The following messages are printed immediately again.
+	 * 
+	 * @return the messages held back since the last call of {@link #holdMessages()}, in the order they were logged
+	 */
+	public List<Object> releaseMessages() {
+		List<Object> messages = heldMessages.get();
+		heldMessages.remove();
+		if(messages == null) {
+			return Collections.emptyList();
+		}
+		return messages;
+	}
+	
+	/**
+	 * Print messages which were held back.
+	 * The messages were already filtered when they were logged, so they are printed regardless of the enabled message types.
+	 * 
+	 * @param messages the messages to print, as returned by {@link #releaseMessages()}
+	 */
+	public void print(List<Object> messages) {
+		for(Object message : messages) {
+			write(message.toString());
+		}
+	}
+	
+	/**
+	 * Write a message to the logfile, stdout or stderr,
+	 * or hold it back if this is requested for the current thread.
+	 * 
+	 * @param message the message to write
+	 */
+	private void write(String message) {
+		List<Object> messages = heldMessages.get();
+		if(messages != null) {
+			messages.add(message);
+			return;
+		}
+		synchronized(this) {
+			if(logfile != null) {
+				if(logWriter == null && logError == null) {
+					openLogfile();
+				}
+				if(logWriter != null) {
+					try {
+						logWriter.write(message);
+						logWriter.write("\n");
+					} catch (IOException e) {
+						logError = e;
+						closeLogfile();
+					}
+				}
+			}
+			else if(stderr) {
+				System.err.println(message);
+			}
+			else {
+				System.out.println(message);
+			}
+		}
+	}
+	
+	/**
+	 * Write a message created from a format string and arguments,
+	 * or hold it back unformatted if this is requested for the current thread.
+	 * 
+	 * @param format the format string of the message
+	 * @param args the arguments referenced by the format string
+	 */
+	private void write(String format, Object[] args) {
+		List<Object> messages = heldMessages.get();
+		if(messages != null) {
+			messages.add(new DeferredMessage(format, args));
+			return;
+		}
+		write(String.format(format, args));
+	}
+	
+	/**
+	 * Write all buffered messages to the logfile and close it.
+	 * Calling this method before terminating the program is required to store the remaining messages on disk,
+	 * also if the program terminates because of an error. Messages logged afterwards are appended to the logfile.
+	 * 
+	 * @throws IOException if the logfile could not be written
+	 */
+	public synchronized void writeLogfile() throws IOException {
+		if(logfile == null) {
+			return;
+		}
+		if(!logfileCreated && logError == null) { // no messages, create an empty file
+			openLogfile();
+		}
+		if(logWriter != null) {
+			try {
+				logWriter.close();
+			} catch (IOException e) {
+				logError = e;
+			}
+			logWriter = null;
+		}
+		if(logError != null) {
+			throw logError;
+		}
+	}
+	
+	/**
+	 * Open the logfile. An existing file is overwritten when it is opened for the first time, and appended to afterwards.
+	 * If opening fails, the error is stored and reported by {@link #writeLogfile()}.
+	 */
+	private void openLogfile() {
+		try {
+			logWriter = new BufferedWriter(new FileWriter(logfile, logfileCreated));
+			logfileCreated = true;
+		} catch (IOException e) {
+			logError = e;
+		}
+	}
+	
+	/**
+	 * Close the logfile without reporting errors, e.g. after a write error.
+	 */
+	private void closeLogfile() {
+		if(logWriter == null) {
+			return;
+		}
+		try {
+			logWriter.close();
+		} catch (IOException e) {
+			if(logError == null) {
+				logError = e;
+			}
+		}
+		logWriter = null;
+	}
+
+}
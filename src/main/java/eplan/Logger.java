@@ -9,11 +9,13 @@
 
 package eplan;
 
-import java.io.FileWriter;
 import java.io.IOException;
+import java.util.List;
 
 /**
  * Logging functionality.
+ * All methods use the default {@link eplan.LogContext}, which is configured by the command line program.
+ * Programs creating several plans in parallel should use a separate context for each plan instead.
  * 
  * @author Stefan Dillmann
  *
@@ -21,36 +23,25 @@ import java.io.IOException;
 public class Logger {
 	
 	/**
-	 * Flag if general messages are enabled.
+	 * The default context.
 	 */
-	private static boolean enabled = false;
+	private static final LogContext defaultContext = new LogContext();
 	
-	/**
-	 * Flag if debug messages are enabled.
-	 */
-	private static boolean debugEnabled = false;
-	
-	/**
-	 * Flag to write to stderr instead of stdout.
-	 */
-	private static boolean stderr = false;
 	
 	/**
-	 * Name of the logfile.
-	 */
-	private static String logfile = null;
-	
-	/**
-	 * Buffer where all messages are stored temporarily when they should be written to file.
+	 * Disable instance creation.
 	 */
-	private static String messageString = "";
+	private Logger() {
 	
+	}
 	
 	/**
-	 * Disable instance creation.
+	 * Get the default context, which is used by all methods of this class.
+	 * 
+	 * @return the default context
 	 */
-	private Logger() {
-		
+	public static LogContext getDefaultContext() {
+		return defaultContext;
 	}
 	
 	/**
@@ -59,7 +50,7 @@ public class Logger {
 	 * @param enable true to enable logging, false to disable
 	 */
 	public static void enable(boolean enable) {
-		enabled = enable;
+		defaultContext.enable(enable);
 	}
 	
 	/**
@@ -69,7 +60,7 @@ public class Logger {
 	 * @param enable true to enable logging, false to disable
 	 */
 	public static void enableDebug(boolean enable) {
-		debugEnabled = enable;
+		defaultContext.enableDebug(enable);
 	}
 	
 	/**
@@ -78,18 +69,18 @@ public class Logger {
 	 * @param err true to write to stderr, false to write to stdout
 	 */
 	public static void writeToStderr(boolean err) {
-		stderr = err;
+		defaultContext.writeToStderr(err);
 	}
 	
 	/**
-	 * Set the name of the logfile.
+	 * Set the name of the logfile (see {@link eplan.LogContext#setLogfile(String)}).
 	 * If a file name is provided, all general and debug messages will be written into this file.
 	 * If null is provided, all messages are printed to standard output or standard error.
 	 * 
 	 * @param file the name of the logfile to write into, or null to print to stdout/stderr
 	 */
 	public static void setLogfile(String file) {
-		logfile = file;
+		defaultContext.setLogfile(file);
 	}
 	
 	/**
@@ -99,18 +90,7 @@ public class Logger {
 	 * @param message the message to print
 	 */
 	public static void log(String message) {
-		if(enabled || debugEnabled) {
-			if(logfile != null) {
-				messageString += message;
-				messageString += "\n";
-			}
-			else if(stderr) {
-				System.err.println(message);
-			}
-			else {
-				System.out.println(message);
-			}
-		}
+		defaultContext.log(message);
 	}
 	
 	/**
@@ -120,33 +100,64 @@ public class Logger {
 	 * @param message the message to print
 	 */
 	public static void debug(String message) {
-		if(debugEnabled) {
-			if(logfile != null) {
-				messageString += message;
-				messageString += "\n";
-			}
-			else if(stderr) {
-				System.err.println(message);
-			}
-			else {
-				System.out.println(message);
-			}
-		}
+		defaultContext.debug(message);
+	}
+	
+	/**
+	 * Print a general message, which is only created if logging of general messages is enabled
+	 * (see {@link eplan.LogContext#log(String, Object...)}).
+	 * 
+	 * @param format the format string of the message
+	 * @param args the arguments referenced by the format string
+	 */
+	public static void log(String format, Object... args) {
+		defaultContext.log(format, args);
+	}
+	
+	/**
+	 * Print a debug message, which is only created if logging of debug messages is enabled
+	 * (see {@link eplan.LogContext#debug(String, Object...)}).
+	 * 
+	 * @param format the format string of the message
+	 * @param args the arguments referenced by the format string
+	 */
+	public static void debug(String format, Object... args) {
+		defaultContext.debug(format, args);
+	}
+	
+	/**
+	 * Hold back all following messages of the current thread, instead of printing them immediately
+	 * (see {@link eplan.LogContext#holdMessages()}).
+	 */
+	public static void holdMessages() {
+		defaultContext.holdMessages();
+	}
+	
+	/**
+	 * Stop holding back the messages of the current thread (see {@link eplan.LogContext#releaseMessages()}).
+	 * 
+	 * @return the messages held back since the last call of {@link #holdMessages()}, in the order they were logged
+	 */
+	public static List<Object> releaseMessages() {
+		return defaultContext.releaseMessages();
+	}
+	
+	/**
+	 * Print messages which were held back (see {@link eplan.LogContext#print(List)}).
+	 * 
+	 * @param messages the messages to print, as returned by {@link #releaseMessages()}
+	 */
+	public static void print(List<Object> messages) {
+		defaultContext.print(messages);
 	}
 	
 	/**
-	 * Write the logfile to disk.
-	 * If writing to file is activated, all messages are stored temporarily in memory first and not written to file immediately.
-	 * Calling this method before terminating the program is required to store the memory content finally to disk.
+	 * Write all buffered messages to the logfile and close it (see {@link eplan.LogContext#writeLogfile()}).
+	 * Calling this method before terminating the program is required to store the remaining messages on disk.
 	 * 
-	 * @throws IOException if a file error occurs
+	 * @throws IOException if the logfile could not be written
 	 */
 	public static void writeLogfile() throws IOException {
-		if(logfile == null) {
-			return;
-		}
-		FileWriter fw = new FileWriter(logfile);
-		fw.write(messageString);
-		fw.close();
+		defaultContext.writeLogfile();
 	}
 }
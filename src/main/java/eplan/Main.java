@@ -10,6 +10,8 @@
 package eplan;
 
 import java.io.IOException;
+import java.util.List;
+
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
 import org.apache.commons.cli.DefaultParser;
@@ -80,6 +82,26 @@ public class Main {
 		options.addOption(createEndOption);
 		Option deleteStartOption = Option.builder().longOpt("delete-start").desc("delete any existing start state after sucessful planning").build();
 		options.addOption(deleteStartOption);
+		Option conditionCacheOption = Option.builder().longOpt("condition-cache").hasArg().argName("size").desc("cache up to <size> results per search condition (default: no caching)").build();
+		options.addOption(conditionCacheOption);
+		Option distanceOracleOption = Option.builder().longOpt("distance-oracle").desc("precompute a shortcut hierarchy to speed up distance calculations").build();
+		options.addOption(distanceOracleOption);
+		Option positionCacheOption = Option.builder().longOpt("position-cache").hasArg().argName("size").desc("cache up to <size> calculated positions (default: no caching)").build();
+		options.addOption(positionCacheOption);
+		Option threadsOption = Option.builder().longOpt("threads").hasArg().argName("n").desc("use <n> threads to calculate the placements of the signals and to run independent placement rules (default: 1)").build();
+		options.addOption(threadsOption);
+		Option batchOption = Option.builder().longOpt("batch").hasArg().argName("source").desc("plan all .ppxml files in directory <source> or listed in file <source>, requires --out-dir").build();
+		options.addOption(batchOption);
+		Option outDirOption = Option.builder().longOpt("out-dir").hasArg().argName("dir").desc("write the generated plans and logs of batch mode to <dir>").build();
+		options.addOption(outDirOption);
+		Option jobsOption = Option.builder().longOpt("jobs").hasArg().argName("n").desc("plan up to <n> files in parallel in batch mode (default: number of processors)").build();
+		options.addOption(jobsOption);
+		Option profileOption = Option.builder().longOpt("profile").desc("print the time of each planning phase and the number of frequently called operations to stderr").build();
+		options.addOption(profileOption);
+		Option profileJsonOption = Option.builder().longOpt("profile-json").desc("like --profile, but also write the measurements to <file>.profile.json next to the generated plan").build();
+		options.addOption(profileJsonOption);
+		Option profileSignalsOption = Option.builder().longOpt("profile-signals").hasArg().argName("n").desc("like --profile, but also list the <n> signals whose placement took longest, with their searches and condition evaluations").build();
+		options.addOption(profileSignalsOption);
 		
 		String infile = null;
 		String outfile = null;
@@ -87,6 +109,11 @@ public class Main {
 		String[] addlist = null;
 		String[] removelist = null;
 		boolean compatibilityMode = false;
+		int conditionCacheSize = 0;
+		int positionCacheSize = 0;
+		int threadCount = 1;
+		int jobCount = Runtime.getRuntime().availableProcessors();
+		int profileSignalCount = 0;
 		boolean readFromStdin = false;
 		boolean enableLog = true;
 		boolean enableDebug = false;
@@ -158,10 +185,72 @@ public class Main {
 		if(cmd.hasOption("c")) {
 			compatibilityMode = true;
 		}
+		if(cmd.hasOption("condition-cache")) {
+			try {
+				conditionCacheSize = Integer.parseInt(cmd.getOptionValue("condition-cache"));
+			} catch (NumberFormatException e) {
+				e.printStackTrace();
+				System.exit(1);
+			}
+		}
+		if(cmd.hasOption("position-cache")) {
+			try {
+				positionCacheSize = Integer.parseInt(cmd.getOptionValue("position-cache"));
+			} catch (NumberFormatException e) {
+				e.printStackTrace();
+				System.exit(1);
+			}
+		}
+		if(cmd.hasOption("threads")) {
+			try {
+				threadCount = Integer.parseInt(cmd.getOptionValue("threads"));
+			} catch (NumberFormatException e) {
+				e.printStackTrace();
+				System.exit(1);
+			}
+		}
+		if(cmd.hasOption("jobs")) {
+			try {
+				jobCount = Integer.parseInt(cmd.getOptionValue("jobs"));
+			} catch (NumberFormatException e) {
+				e.printStackTrace();
+				System.exit(1);
+			}
+		}
+		if(cmd.hasOption("profile-signals")) {
+			try {
+				profileSignalCount = Integer.parseInt(cmd.getOptionValue("profile-signals"));
+			} catch (NumberFormatException e) {
+				e.printStackTrace();
+				System.exit(1);
+			}
+		}
 		
-		
+		PlanningJob job = new PlanningJob(null, outfile);
+		job.etcslevel = etcslevel;
+		job.addlist = addlist;
+		job.removelist = removelist;
+		job.compatibilityMode = compatibilityMode;
+		job.createEndState = cmd.hasOption("create-end");
+		job.deleteStartState = cmd.hasOption("delete-start");
+		job.conditionCacheSize = conditionCacheSize;
+		job.positionCacheSize = positionCacheSize;
+		job.distanceOracle = cmd.hasOption("distance-oracle");
+		job.threadCount = threadCount;
+		job.profiler = new Profiler(cmd.hasOption("profile") || cmd.hasOption("profile-json") || profileSignalCount > 0);
+		job.profiler.setObjectReportSize(profileSignalCount);
 		
 		String[] remainingArgs = cmd.getArgs();
+		if(cmd.hasOption("batch")) {
+			if(remainingArgs.length != 0 || readFromStdin || !cmd.hasOption("out-dir")) {
+				System.out.println("Batch mode requires --out-dir and no input file, type 'eplan -h' for help");
+				System.exit(0);
+			}
+			Logger.enable(enableLog);
+			Logger.enableDebug(enableDebug);
+			runBatch(job, cmd.getOptionValue("batch"), cmd.getOptionValue("out-dir"), jobCount, cmd.hasOption("profile-json"));
+			return;
+		}
 		if(remainingArgs.length == 0 && readFromStdin) {
 			// do nothing
 		}
@@ -184,49 +273,77 @@ public class Main {
 		Logger.writeToStderr(writeToStderr);
 		Logger.setLogfile(logfile);
 		
-		PlanProModel ppm = new PlanProModel();
-		
-		try {	
-			if(readFromStdin) {
-				ppm.readFromStdin();
-			}
-			else {
-				ppm.readFile(infile);
+		job.inputFile = infile;
+		if(cmd.hasOption("profile-json")) {
+			if(outfile == null) {
+				System.out.println("Option --profile-json requires -o, type 'eplan -h' for help");
+				System.exit(0);
 			}
+			job.profileFile = outfile + ".profile.json";
+		}
+		int exitStatus = 0;
+		try {
+			job.run("EPlan", VERSION);
 		} catch (JDOMException e) {
 			e.printStackTrace();
-			System.exit(1);
+			exitStatus = 1;
 		} catch (IOException e) {
 			e.printStackTrace();
-			System.exit(1);
+			exitStatus = 1;
+		} finally {
+			// also store the messages logged before a failure
+			try {
+				Logger.writeLogfile();
+			} catch (IOException e) {
+				e.printStackTrace();
+				exitStatus = 1;
+			}
 		}
-		
-		if(cmd.hasOption("create-end")) {
-			ppm.createEndState();
-		}
-		Constructor constructor = new Constructor(ppm);
-		constructor.setEtcslevel(etcslevel);
-		constructor.setSelectionLists(addlist, removelist);
-		constructor.setCompatibilityMode(compatibilityMode);
-		constructor.constructEtcsLine();
-		
-		if(cmd.hasOption("delete-start")) {
-			ppm.deleteStartState();
+		if(exitStatus != 0) {
+			System.exit(exitStatus);
 		}
-		
-		ppm.updatePlanProHeader("EPlan", VERSION);
-		
-		try {
-			if(outfile != null) {
-				ppm.writeFile(outfile);
-			}
-			else {
-				System.out.println(ppm);
+		if(job.profiler.isEnabled()) {
+			for(String line : job.profiler.createReport()) {
+				System.err.println(line);
 			}
-			Logger.writeLogfile();
+		}
+	}
+	
+	
+	/**
+	 * Plan several files in batch mode and print a summary.
+	 * The program exits with status 1 if the batch cannot be started or if any file could not be planned.
+	 * 
+	 * @param options the planning options used for all files
+	 * @param source the directory or list file containing the input files
+	 * @param outDir the directory the generated plans and logs are written into
+	 * @param jobCount the maximum number of files planned in parallel
+	 * @param profileJson true to write the measurements of the profiler of each file as JSON next to the generated plan
+	 */
+	private static void runBatch(PlanningJob options, String source, String outDir, int jobCount, boolean profileJson) {
+		BatchRunner runner = new BatchRunner(options, outDir, jobCount, "EPlan", VERSION);
+		runner.setProfileJson(profileJson);
+		List<BatchRunner.JobResult> results = null;
+		try {
+			results = runner.run(runner.readJobs(source));
+		} catch (ParseException e) {
+			e.printStackTrace();
+			System.exit(1);
 		} catch (IOException e) {
 			e.printStackTrace();
 			System.exit(1);
 		}
+		boolean failed = false;
+		for(String line : BatchRunner.createSummary(results)) {
+			System.out.println(line);
+		}
+		for(BatchRunner.JobResult result : results) {
+			if(!result.success) {
+				failed = true;
+			}
+		}
+		if(failed) {
+			System.exit(1);
+		}
 	}
 }
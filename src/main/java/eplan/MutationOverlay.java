@@ -0,0 +1,154 @@
+/**
+ * EPlan - Automated ETCS Planning Tool
+ * 
+ * Copyright (c) 2017-2025, The FormETCS Project. All rights reserved.
+ * This file is licensed under the terms of the Modified (3-Clause) BSD License.
+ * 
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package eplan;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.jdom2.Element;
+
+/**
+ * New PlanPro objects which are not yet added to a {@link eplan.PlanProModel}.
+ * While a model is frozen (see {@link eplan.PlanProModel#freeze()}), it can be queried from several threads at once,
+ * but objects cannot be added directly. Instead, they are collected in an overlay and added to the model
+ * in the order they were collected by {@link eplan.PlanProModel#commit(MutationOverlay)}.
+ * Modifications of the new objects which depend on the objects collected before them in other overlays
+ * (e.g. the kilometer mark of a datapoint) can be collected as actions, which are executed at the same position of the order on commit.
+ * 
+ * @author Stefan Dillmann
+ *
+ */
+public class MutationOverlay {
+	
+	/**
+	 * The containers of the collected objects.
+	 */
+	private List<Element> containers;
+	
+	/**
+	 * The collected objects, in the order they were added.
+	 */
+	private List<Element> objects;
+	
+	/**
+	 * The collected actions, in the order they were added.
+	 */
+	private List<Runnable> actions;
+	
+	/**
+	 * The number of objects collected before each action.
+	 */
+	private List<Integer> actionPositions;
+	
+	
+	/**
+	 * Creates a new, empty overlay.
+	 */
+	public MutationOverlay() {
+		containers = new ArrayList<Element>();
+		objects = new ArrayList<Element>();
+		actions = new ArrayList<Runnable>();
+		actionPositions = new ArrayList<Integer>();
+	}
+	
+	/**
+	 * Collect a new PlanPro object, which should be added to a container element on commit.
+	 * 
+	 * @param container the DOM element of the container, as returned by {@link eplan.PlanProModel#createContainerElement(String)}
+	 * @param object the DOM element of the new PlanPro object
+	 */
+	public synchronized void addObject(Element container, Element object) {
+		containers.add(container);
+		objects.add(object);
+	}
+	
+	/**
+	 * Collect an action, which should be executed on commit after the objects collected before it are added to the model,
+	 * and before the objects collected after it are added.
+	 * 
+	 * @param action the action
+	 */
+	public synchronized void addAction(Runnable action) {
+		actions.add(action);
+		actionPositions.add(objects.size());
+	}
+	
+	/**
+	 * Get the containers of the collected objects.
+	 * 
+	 * @return a read-only list of the container elements, in the same order as {@link #getObjects()}
+	 */
+	public synchronized List<Element> getContainers() {
+		return Collections.unmodifiableList(new ArrayList<Element>(containers));
+	}
+	
+	/**
+	 * Get the collected objects.
+	 * 
+	 * @return a read-only list of the collected objects, in the order they were added
+	 */
+	public synchronized List<Element> getObjects() {
+		return Collections.unmodifiableList(new ArrayList<Element>(objects));
+	}
+	
+	/**
+	 * Get the collected actions.
+	 * 
+	 * @return a read-only list of the collected actions, in the order they were added
+	 */
+	public synchronized List<Runnable> getActions() {
+		return Collections.unmodifiableList(new ArrayList<Runnable>(actions));
+	}
+	
+	/**
+	 * Get the positions of the collected actions in the order of the collected objects.
+	 * 
+	 * @return a read-only list of the number of objects collected before each action, in the same order as {@link #getActions()}
+	 */
+	public synchronized List<Integer> getActionPositions() {
+		return Collections.unmodifiableList(new ArrayList<Integer>(actionPositions));
+	}
+	
+	/**
+	 * Get the number of collected objects.
+	 * 
+	 * @return the number of objects
+	 */
+	public synchronized int size() {
+		return objects.size();
+	}
+	
+	/**
+	 * Remove all collected objects and actions.
+	 */
+	public synchronized void clear() {
+		containers.clear();
+		objects.clear();
+		actions.clear();
+		actionPositions.clear();
+	}
+	
+	/**
+	 * String representation of the object (only for debugging purposes).
+	 * Contains the names of the collected objects.
+	 * 
+	 * @return String representation of the object
+	 */
+	@Override
+	public synchronized String toString() {
+		List<String> names = new ArrayList<String>();
+		for(Element object : objects) {
+			names.add(object.getName());
+		}
+		return names.toString();
+	}
+
+}
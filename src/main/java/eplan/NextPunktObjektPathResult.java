@@ -25,6 +25,7 @@ public class NextPunktObjektPathResult {
 	
 	/**
 	 * A list of DOM elements representing the TOP_Kante objects on the route between the starting Punkt_Objekt and the found Punkt_Objekt.
+	 * For results of the search functions of {@link eplan.PlanProModel}, this is a read-only {@link eplan.TopKantenPath}, which may be shared with other results.
 	 */
 	public List<Element> topKantenList;
 	
@@ -59,7 +60,7 @@ public class NextPunktObjektPathResult {
 	 * @param list a list of NextPunktObjektPathResult objects
 	 * @return the NextPunktObjektPathResult with the lowest distance value or null if the list was empty
 	 */
-	public static NextPunktObjektPathResult nearest(List<NextPunktObjektPathResult> list) {
+	public static NextPunktObjektPathResult nearest(List<? extends NextPunktObjektPathResult> list) {
 		NextPunktObjektPathResult bestPath = null;
 		int bestDistance = 999999999;
 		for(int i = 0; i < list.size(); i++) {
@@ -81,7 +82,7 @@ public class NextPunktObjektPathResult {
 	 * @param list a list of NextPunktObjektPathResult objects
 	 * @return the NextPunktObjektPathResult with the highest distance value or null if the list was empty
 	 */
-	public static NextPunktObjektPathResult farthest(List<NextPunktObjektPathResult> list) {
+	public static NextPunktObjektPathResult farthest(List<? extends NextPunktObjektPathResult> list) {
 		NextPunktObjektPathResult bestPath = null;
 		int bestDistance = 0;
 		for(int i = 0; i < list.size(); i++) {
@@ -0,0 +1,456 @@
+/**
+ * EPlan - Automated ETCS Planning Tool
+ * 
+ * Copyright (c) 2017-2025, The FormETCS Project. All rights reserved.
+ * This file is licensed under the terms of the Modified (3-Clause) BSD License.
+ * 
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package eplan;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.jdom2.Element;
+
+/**
+ * Executes a sequence of placement passes on a {@link eplan.PlanProModel}, running independent passes in parallel on the frozen model.
+ * Each pass declares the resources it reads and writes (e.g. the interlocking objects or the datapoints).
+ * A pass is started as soon as all passes before it in the sequence which write one of its read resources are finished and committed.
+ * Objects added by a pass through {@link #addObject(Element, Element)} are buffered in a {@link eplan.MutationOverlay}.
+ * Modifications which depend on the objects of the passes before (e.g. the kilometer mark of a new datapoint)
+ * are buffered through {@link #addAction(Runnable)} and executed on commit, so they do not have to be declared as read resources.
+ * The overlays and the log messages of the passes are committed to the model in the order of the sequence, so the result is the same as if all passes were executed one after another.
+ * Passes which read one of their own write resources see their own modifications, so they are executed
+ * alone on the unfrozen model and modify it directly, after all passes before them are committed.
+ * 
+ * @author Stefan Dillmann
+ *
+ */
+public class PassScheduler {
+	
+	/**
+	 * A placement pass and its buffered results.
+	 * 
+	 * @author Stefan Dillmann
+	 *
+	 */
+	private static class Pass {
+		
+		/**
+		 * Name of the pass (only for debugging purposes).
+		 */
+		final String name;
+		
+		/**
+		 * The resources the pass reads.
+		 */
+		final Set<String> reads;
+		
+		/**
+		 * The resources the pass writes.
+		 */
+		final Set<String> writes;
+		
+		/**
+		 * The placement rule of the pass.
+		 */
+		final Runnable rule;
+		
+		/**
+		 * The buffered objects.
+		 */
+		final MutationOverlay overlay;
+		
+		/**
+		 * The log messages of the pass.
+		 */
+		List<Object> messages;
+		
+		/**
+		 * The exception thrown by the pass, or null if the pass was successful.
+		 */
+		RuntimeException failure;
+		
+		/**
+		 * Creates a new pass.
+		 * 
+		 * @param n the name of the pass
+		 * @param r the resources the pass reads
+		 * @param w the resources the pass writes
+		 * @param rule the placement rule of the pass
+		 */
+		Pass(String n, String[] r, String[] w, Runnable rule) {
+			this.name = n;
+			this.reads = new HashSet<String>(Arrays.asList(r));
+			this.writes = new HashSet<String>(Arrays.asList(w));
+			this.rule = rule;
+			this.overlay = new MutationOverlay();
+			this.messages = Collections.emptyList();
+			this.failure = null;
+		}
+		
+		/**
+		 * Check if the pass reads its own modifications and therefore cannot be buffered.
+		 * 
+		 * @return true if the pass reads one of the resources it writes
+		 */
+		boolean isExclusive() {
+			return !Collections.disjoint(reads, writes);
+		}
+	
+	}
+	
+	
+	/**
+	 * The model modified by the passes.
+	 */
+	private final PlanProModel ppm;
+	
+	/**
+	 * The logging context the messages of the passes are printed to.
+	 */
+	private final LogContext logContext;
+	
+	/**
+	 * Number of threads used to execute independent passes.
+	 */
+	private final int threadCount;
+	
+	/**
+	 * The thread pool shared with the passes, or null if a pool is created for each run.
+	 */
+	private ExecutorService executor;
+	
+	/**
+	 * The passes, in the order of the sequence.
+	 */
+	private List<Pass> passes;
+	
+	/**
+	 * The buffered pass executed by the current thread, or null if objects should be added to the model directly.
+	 */
+	private final ThreadLocal<Pass> currentPass;
+	
+	
+	/**
+	 * Creates a new scheduler without passes.
+	 * 
+	 * @param p the model modified by the passes
+	 * @param threadCount the number of threads used to execute independent passes; 1 executes all passes one after another
+	 */
+	public PassScheduler(PlanProModel p, int threadCount) {
+		this(p, p.getLogContext(), threadCount);
+	}
+	
+	/**
+	 * Creates a new scheduler without passes, for passes logging through a separate context.
+	 * 
+	 * @param p the model modified by the passes
+	 * @param l the logging context the messages of the passes are printed to
+	 * @param threadCount the number of threads used to execute independent passes; 1 executes all passes one after another
+	 */
+	public PassScheduler(PlanProModel p, LogContext l, int threadCount) {
+		this.ppm = p;
+		this.logContext = l;
+		this.threadCount = Math.max(1, threadCount);
+		this.executor = null;
+		this.passes = new ArrayList<Pass>();
+		this.currentPass = new ThreadLocal<Pass>();
+	}
+	
+	/**
+	 * Set a thread pool which executes the passes, instead of creating a pool with the configured number of threads for each run.
+	 * Passes can submit their own calculations to the same pool, if it allows waiting tasks to execute other tasks
+	 * (e.g. a {@link java.util.concurrent.ForkJoinPool}). The pool is not shut down by the scheduler.
+	 * 
+	 * @param executor the thread pool, or null to create a pool for each run
+	 */
+	public void setExecutor(ExecutorService executor) {
+		this.executor = executor;
+	}
+	
+	/**
+	 * Append a pass to the sequence.
+	 * 
+	 * @param name the name of the pass
+	 * @param reads the resources the pass reads
+	 * @param writes the resources the pass writes
+	 * @param rule the placement rule of the pass, which must add new objects through {@link #addObject(Element, Element)}
+	 */
+	public void addPass(String name, String[] reads, String[] writes, Runnable rule) {
+		passes.add(new Pass(name, reads, writes, rule));
+	}
+	
+	/**
+	 * Check if a resource is written by passes which are executed in parallel with others.
+	 * Such passes must not modify the model structure, e.g. containers must be created before.
+	 * 
+	 * @param resource the resource
+	 * @return true if the resource is written by a buffered pass and more than one thread is used
+	 */
+	public boolean isWrittenConcurrently(String resource) {
+		if(threadCount == 1) {
+			return false;
+		}
+		for(Pass pass : passes) {
+			if(!pass.isExclusive() && pass.writes.contains(resource)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Add a new object to a container.
+	 * If called from a buffered pass, the object is added when the pass is committed,
+	 * otherwise it is added to the model immediately (see {@link eplan.PlanProModel#addObject(Element, Element)}).
+	 * 
+	 * @param container the DOM element of the container
+	 * @param object the DOM element of the new PlanPro object
+	 */
+	public void addObject(Element container, Element object) {
+		Pass pass = currentPass.get();
+		if(pass == null) {
+			ppm.addObject(container, object);
+			return;
+		}
+		pass.overlay.addObject(container, object);
+	}
+	
+	/**
+	 * Execute an action which depends on the objects added by the passes before the current one.
+	 * If called from a buffered pass, the action is executed when the pass is committed,
+	 * after the objects added by the pass before the action, otherwise it is executed immediately.
+	 * 
+	 * @param action the action
+	 */
+	public void addAction(Runnable action) {
+		Pass pass = currentPass.get();
+		if(pass == null) {
+			action.run();
+			return;
+		}
+		pass.overlay.addAction(action);
+	}
+	
+	/**
+	 * Determine the waves in which the passes are executed if more than one thread is used (see {@link #run()}).
+	 * 
+	 * @return the names of the passes of each wave, in the order the waves are executed
+	 */
+	public List<List<String>> getWaves() {
+		List<List<String>> returnval = new ArrayList<List<String>>();
+		for(List<Integer> wave : planWaves()) {
+			List<String> names = new ArrayList<String>();
+			for(int i : wave) {
+				names.add(passes.get(i).name);
+			}
+			returnval.add(names);
+		}
+		return returnval;
+	}
+	
+	/**
+	 * Execute all passes.
+	 * With one thread, the passes are executed one after another. Otherwise, the model is frozen and the passes are executed in waves:
+	 * All passes whose read resources are not written by an uncommitted pass before them are executed in parallel,
+	 * then the finished passes at the beginning of the sequence are committed.
+	 * If a pass throws an exception, the passes before it are committed, its messages are printed and the exception is rethrown.
+	 */
+	public void run() {
+		if(threadCount == 1) {
+			for(Pass pass : passes) {
+				runPass(pass);
+			}
+			return;
+		}
+		List<List<Integer>> waves = planWaves();
+		ppm.freeze();
+		ExecutorService pool = executor;
+		if(pool == null) {
+			pool = new ForkJoinPool(threadCount);
+		}
+		try {
+			boolean[] finished = new boolean[passes.size()];
+			int committed = 0;
+			for(List<Integer> wave : waves) {
+				if(wave.size() == 1 && passes.get(wave.get(0)).isExclusive()) {
+					ppm.unfreeze();
+					runPass(passes.get(wave.get(0)));
+					ppm.freeze();
+				}
+				else {
+					execute(pool, wave);
+				}
+				for(int i : wave) {
+					finished[i] = true;
+				}
+				while(committed < passes.size() && finished[committed]) {
+					commit(passes.get(committed));
+					committed++;
+				}
+			}
+		} finally {
+			if(pool != executor) {
+				pool.shutdown();
+			}
+			ppm.unfreeze();
+		}
+	}
+	
+	/**
+	 * Determine the waves in which the passes are executed.
+	 * After each wave, the finished passes at the beginning of the sequence are committed.
+	 * 
+	 * @return the indices of the passes of each wave, in the order the waves are executed
+	 */
+	private List<List<Integer>> planWaves() {
+		List<List<Integer>> returnval = new ArrayList<List<Integer>>();
+		boolean[] finished = new boolean[passes.size()];
+		int committed = 0;
+		while(committed < passes.size()) {
+			List<Integer> wave = getReadyPasses(committed, finished);
+			for(int i : wave) {
+				finished[i] = true;
+			}
+			while(committed < passes.size() && finished[committed]) {
+				committed++;
+			}
+			returnval.add(wave);
+		}
+		return returnval;
+	}
+	
+	/**
+	 * Determine the passes which can be executed next.
+	 * 
+	 * @param committed the number of committed passes at the beginning of the sequence
+	 * @param finished the passes which are already executed
+	 * @return the indices of the passes which can be executed, or only the index of the next exclusive pass
+	 */
+	private List<Integer> getReadyPasses(int committed, boolean[] finished) {
+		List<Integer> returnval = new ArrayList<Integer>();
+		if(passes.get(committed).isExclusive()) {
+			returnval.add(committed);
+			return returnval;
+		}
+		for(int i = committed; i < passes.size(); i++) {
+			Pass pass = passes.get(i);
+			if(finished[i] || pass.isExclusive()) {
+				continue;
+			}
+			boolean ready = true;
+			for(int j = committed; j < i; j++) {
+				if(!Collections.disjoint(passes.get(j).writes, pass.reads)) {
+					ready = false;
+					break;
+				}
+			}
+			if(ready) {
+				returnval.add(i);
+			}
+		}
+		return returnval;
+	}
+	
+	/**
+	 * Execute buffered passes in parallel and wait until all of them are finished.
+	 * 
+	 * @param executor the executor service
+	 * @param wave the indices of the passes to execute
+	 */
+	private void execute(ExecutorService executor, List<Integer> wave) {
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+		for(int i : wave) {
+			final Pass pass = passes.get(i);
+			tasks.add(new Callable<Void>() {
+				@Override
+				public Void call() {
+					currentPass.set(pass);
+					logContext.holdMessages();
+					try {
+						runPass(pass);
+					} catch (RuntimeException e) {
+						pass.failure = e;
+					} finally {
+						pass.messages = logContext.releaseMessages();
+						currentPass.remove();
+					}
+					return null;
+				}
+			});
+		}
+		try {
+			for(Future<Void> future : executor.invokeAll(tasks)) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("placement interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+	
+	/**
+	 * Execute the placement rule of a pass in the current thread, measuring its wall time with the profiler of the model.
+	 * An attribution of the effort to a PlanPro object started by the rule ends with the pass.
+	 * 
+	 * @param pass the pass
+	 */
+	private void runPass(Pass pass) {
+		long start = ppm.getProfiler().start();
+		try {
+			pass.rule.run();
+		} finally {
+			ppm.getProfiler().endAttribution();
+			ppm.getProfiler().stop(pass.name, start);
+		}
+	}
+	
+	/**
+	 * Add the buffered objects of a pass to the model and print its messages.
+	 * The time for executing the buffered actions is added to the wall time of the pass.
+	 * 
+	 * @param pass the pass
+	 */
+	private void commit(Pass pass) {
+		long start = ppm.getProfiler().start();
+		try {
+			ppm.commit(pass.overlay);
+		} finally {
+			ppm.getProfiler().stop(pass.name, start);
+		}
+		logContext.print(pass.messages);
+		if(pass.failure != null) {
+			throw pass.failure;
+		}
+	}
+	
+	/**
+	 * String representation of the object (only for debugging purposes).
+	 * Contains the names of the passes in the order of the sequence.
+	 * 
+	 * @return String representation of the object
+	 */
+	@Override
+	public String toString() {
+		List<String> names = new ArrayList<String>();
+		for(Pass pass : passes) {
+			names.add(pass.name);
+		}
+		return names.toString();
+	}
+
+}
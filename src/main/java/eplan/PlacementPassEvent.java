@@ -0,0 +1,52 @@
+/**
+ * EPlan - Automated ETCS Planning Tool
+ * 
+ * Copyright (c) 2017-2025, The FormETCS Project. All rights reserved.
+ * This file is licensed under the terms of the Modified (3-Clause) BSD License.
+ * 
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package eplan;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event for the execution of a placement rule of the {@link eplan.Constructor}.
+ * The duration of the event is the duration of the rule, excluding the commit of its buffered objects.
+ * 
+ * @author Stefan Dillmann
+ *
+ */
+@Name("eplan.PlacementPass")
+@Label("Placement Pass")
+@Category({"EPlan", "Placement"})
+@Description("Execution of the placement rule of a datapoint type")
+@StackTrace(false)
+public class PlacementPassEvent extends Event {
+	
+	/**
+	 * The name of the pass.
+	 */
+	@Label("Pass")
+	public String pass;
+	
+	/**
+	 * The number of PlanPro objects the placement rule was executed for.
+	 */
+	@Label("Objects Scanned")
+	@Description("Number of signals (for DP 9 and DP 25: datapoints) the placement rule was executed for")
+	public long objectsScanned;
+	
+	/**
+	 * The number of new datapoints.
+	 */
+	@Label("Datapoints Placed")
+	public long datapointsPlaced;
+
+}
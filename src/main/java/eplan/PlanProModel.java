@@ -9,10 +9,19 @@
 
 package eplan;
 
+import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
 import java.util.UUID;
 import java.net.URL;
 import java.time.LocalDateTime;
@@ -50,17 +59,210 @@ public class PlanProModel {
 		BOTH
 	}
 	
+	/**
+	 * Node of the search tree of {@link PlanProModel#getNearestPunktObjektPath(PunktObjekt, Evaluable, Direction, boolean)}.
+	 * It is either a position on a TOP_Kante where the search continues, or a found Punkt_Objekt.
+	 * The nodes are ordered by their distance from the starting point. Nodes with equal distance are ordered
+	 * by their branch indices, which is the order in which the depth-first search would reach them.
+	 * 
+	 * @author Stefan Dillmann
+	 *
+	 */
+	private static class SearchState implements Comparable<SearchState> {
+		
+		/**
+		 * The branch indices on the way from the starting point to this node.
+		 */
+		int[] branch;
+		
+		/**
+		 * The position on the TOP_Kante where the search continues.
+		 */
+		TraversalState state;
+		
+		/**
+		 * The distance from the starting point in millimeters.
+		 */
+		int distance;
+		
+		/**
+		 * The DOM element of the found Punkt_Objekt, or null if the search continues at this node.
+		 */
+		Element punktObjektElement;
+		
+		/**
+		 * Creates a new node for a position where the search continues.
+		 * 
+		 * @param p the node from which this node was reached, or null for a starting position
+		 * @param index the branch index of this node
+		 * @param st the position on the TOP_Kante
+		 */
+		SearchState(SearchState p, int index, TraversalState st) {
+			if(p == null) {
+				branch = new int[] { index };
+			}
+			else {
+				branch = Arrays.copyOf(p.branch, p.branch.length + 1);
+				branch[p.branch.length] = index;
+			}
+			state = st;
+			distance = st.distance;
+			punktObjektElement = null;
+		}
+		
+		/**
+		 * Creates a new node for a Punkt_Objekt found on the TOP_Kante of the given node.
+		 * 
+		 * @param p the node on whose TOP_Kante the Punkt_Objekt was found
+		 * @param e the DOM element of the found Punkt_Objekt
+		 * @param dist the distance from the starting point in millimeters
+		 */
+		SearchState(SearchState p, Element e, int dist) {
+			branch = p.branch;
+			state = p.state;
+			distance = dist;
+			punktObjektElement = e;
+		}
+		
+		/**
+		 * Compares two nodes by their distance, and nodes with equal distance by their branch indices.
+		 * 
+		 * @param o the node to compare with
+		 * @return a negative value, zero or a positive value if this node is ordered before, equal to or after the other node
+		 */
+		@Override
+		public int compareTo(SearchState o) {
+			if(distance != o.distance) {
+				return Integer.compare(distance, o.distance);
+			}
+			for(int i = 0; i < branch.length && i < o.branch.length; i++) {
+				if(branch[i] != o.branch[i]) {
+					return Integer.compare(branch[i], o.branch[i]);
+				}
+			}
+			return Integer.compare(branch.length, o.branch.length);
+		}
+	}
+	
+	/**
+	 * Entry of the explicit stack of {@link PlanProModel#traverse(PunktObjektTopKante, boolean, TraversalVisitor)}.
+	 * 
+	 * @author Stefan Dillmann
+	 *
+	 */
+	private static class TraversalFrame {
+		
+		/**
+		 * The position whose following positions are traversed.
+		 */
+		TraversalState state;
+		
+		/**
+		 * The positions on the following TOP_Kante objects.
+		 */
+		List<TraversalState> successors;
+		
+		/**
+		 * The index of the next following position to visit.
+		 */
+		int next;
+		
+		/**
+		 * Creates a new stack entry.
+		 * 
+		 * @param st the position whose following positions are traversed
+		 * @param succ the positions on the following TOP_Kante objects
+		 */
+		TraversalFrame(TraversalState st, List<TraversalState> succ) {
+			state = st;
+			successors = succ;
+			next = 0;
+		}
+	}
+	
 	/**
 	 * The DOM document.
 	 */
 	private Document doc;
 	
+	/**
+	 * Counter of the modifications of the set of PlanPro objects made through this model.
+	 * It is used to detect if results depending on other objects are still valid.
+	 */
+	private long modificationCount;
+	
+	/**
+	 * Precomputed information about the track topology, or null if it has to be rebuilt.
+	 */
+	private volatile TopologyIndex topologyIndex;
+	
+	/**
+	 * Precomputed shortcut hierarchy for distance queries, or null if not built yet.
+	 */
+	private volatile DistanceOracle distanceOracle;
+	
+	/**
+	 * Flag if distance queries should be answered by the {@link eplan.DistanceOracle}.
+	 */
+	private boolean distanceOracleEnabled;
+	
+	/**
+	 * Precomputed positions of the Punkt_Objekt objects, or null if it has to be rebuilt.
+	 */
+	private volatile PunktObjektIndex punktObjektIndex;
+	
+	/**
+	 * Cache for calculated positions, or null if it has to be created.
+	 */
+	private volatile PositionCache positionCache;
+	
+	/**
+	 * The maximum number of cached positions, or 0 if positions should not be cached.
+	 */
+	private int positionCacheSize;
+	
+	/**
+	 * Flag if the model is frozen, which means that all precomputed data is built and the model must not be modified.
+	 */
+	private volatile boolean frozen;
+	
+	/**
+	 * The logging context for the messages of the model.
+	 */
+	private LogContext logContext;
+	
+	/**
+	 * The profiler recording the operations of the model.
+	 */
+	private Profiler profiler;
+	
 	
 	/**
-	 * Create a new PlanProModel instance.
+	 * Create a new PlanProModel instance, logging through the default context of the {@link eplan.Logger}.
 	 */
 	public PlanProModel() {
+		this(Logger.getDefaultContext());
+	}
+	
+	
+	/**
+	 * Create a new PlanProModel instance with a separate logging context.
+	 * 
+	 * 
+	 * @param l the logging context for the messages of the model
+	 */
+	public PlanProModel(LogContext l) {
+		logContext = l;
+		profiler = new Profiler(false);
 		doc = null;
+		modificationCount = 0;
+		topologyIndex = null;
+		distanceOracle = null;
+		distanceOracleEnabled = false;
+		punktObjektIndex = null;
+		positionCache = null;
+		positionCacheSize = 0;
+		frozen = false;
 	}
 	
 	
@@ -73,7 +275,15 @@ public class PlanProModel {
 	 * @throws IOException if a file error occurs
 	 */
 	public void readFile(String filename) throws JDOMException, IOException {
+		checkNotFrozen();
+		FileIoEvent event = new FileIoEvent();
+		event.begin();
 		doc = new SAXBuilder().build(filename);
+		event.end();
+		commitFileIoEvent(event, "read", filename, new File(filename).length());
+		modificationCount++;
+		topologyIndex = null;
+		punktObjektIndex = null;
 	}
 	
 	
@@ -86,7 +296,15 @@ public class PlanProModel {
 	 * @throws IOException if a file error occurs
 	 */
 	public void readFile(URL url) throws JDOMException, IOException {
+		checkNotFrozen();
+		FileIoEvent event = new FileIoEvent();
+		event.begin();
 		doc = new SAXBuilder().build(url);
+		event.end();
+		commitFileIoEvent(event, "read", url.toString(), -1);
+		modificationCount++;
+		topologyIndex = null;
+		punktObjektIndex = null;
 	}
 	
 	
@@ -98,7 +316,15 @@ public class PlanProModel {
 	 * @throws IOException if a file error occurs
 	 */
 	public void readFromStdin() throws JDOMException, IOException {
+		checkNotFrozen();
+		FileIoEvent event = new FileIoEvent();
+		event.begin();
 		doc = new SAXBuilder().build(System.in);
+		event.end();
+		commitFileIoEvent(event, "read", "stdin", -1);
+		modificationCount++;
+		topologyIndex = null;
+		punktObjektIndex = null;
 	}
 	
 	
@@ -110,9 +336,33 @@ public class PlanProModel {
 	 * @throws IOException if a file error occurs
 	 */
 	public void writeFile(String filename) throws IOException {
+		FileIoEvent event = new FileIoEvent();
+		event.begin();
 		FileWriter fw = new FileWriter(filename);
 		XMLOutputter out = new XMLOutputter(Format.getPrettyFormat());
 		out.output(doc, fw);
+		event.end();
+		commitFileIoEvent(event, "write", filename, new File(filename).length());
+	}
+	
+	
+	/**
+	 * Commit a Java Flight Recorder event for reading or writing a file, if the event is enabled.
+	 * 
+	 * 
+	 * @param event the ended event
+	 * @param operation the operation, "read" or "write"
+	 * @param path the name of the file, the URL, or "stdin"
+	 * @param bytes the size of the file, or -1 if it is unknown
+	 */
+	private static void commitFileIoEvent(FileIoEvent event, String operation, String path, long bytes) {
+		if(!event.shouldCommit()) {
+			return;
+		}
+		event.operation = operation;
+		event.path = path;
+		event.bytes = bytes;
+		event.commit();
 	}
 	
 	
@@ -153,6 +403,7 @@ public class PlanProModel {
 		if(e != null) {
 			return e;
 		}
+		checkNotFrozen();
 		Element rootElem = doc.getRootElement();
 		Element fachdatenElem = rootElem.getChild("LST_Planung").getChild("Fachdaten");
 		Element ausgabeFachdatenElem = new Element("Ausgabe_Fachdaten");
@@ -192,11 +443,360 @@ public class PlanProModel {
 		Element untergewerkArtWertElem = new Element("Wert");
 		untergewerkArtElem.addContent(untergewerkArtWertElem);
 		untergewerkArtWertElem.setText(category);
+		modificationCount++;
 		
 		return containerZielElem;
 	}
 	
 	
+	/**
+	 * Add a new PlanPro object to a container element.
+	 * All objects should be added using this method (and not directly to the DOM tree),
+	 * so that the modification can be detected by cached results depending on other objects.
+	 * This also applies to new subgroup elements of existing objects, which are added to their parent element.
+	 * While the model is frozen, objects must be collected in a {@link eplan.MutationOverlay} instead.
+	 * 
+	 * 
+	 * @param container the DOM element of the container, as returned by {@link #createContainerElement(String)}
+	 * @param object the DOM element of the new PlanPro object
+	 * @throws IllegalStateException if the model is frozen
+	 */
+	public void addObject(Element container, Element object) {
+		checkNotFrozen();
+		insertObject(container, object);
+	}
+	
+	
+	/**
+	 * Add the objects collected in an overlay to the model, in the order they were collected.
+	 * The collected actions are executed between the objects, at the positions they were collected, and can query the model.
+	 * If the model is frozen, the precomputed data invalidated by the new objects is rebuilt, so the model stays frozen.
+	 * This must not be called while the model is queried from other threads.
+	 * 
+	 * 
+	 * @param overlay the collected objects, which is empty afterwards
+	 */
+	public synchronized void commit(MutationOverlay overlay) {
+		List<Element> containers = overlay.getContainers();
+		List<Element> objects = overlay.getObjects();
+		List<Runnable> actions = overlay.getActions();
+		List<Integer> actionPositions = overlay.getActionPositions();
+		int nextAction = 0;
+		for(int i = 0; i < objects.size(); i++) {
+			while(nextAction < actions.size() && actionPositions.get(nextAction) <= i) {
+				actions.get(nextAction).run();
+				nextAction++;
+			}
+			insertObject(containers.get(i), objects.get(i));
+		}
+		while(nextAction < actions.size()) {
+			actions.get(nextAction).run();
+			nextAction++;
+		}
+		overlay.clear();
+		if(frozen) {
+			prepareConcurrentQueries();
+		}
+	}
+	
+	
+	/**
+	 * Freeze the model, so it can be queried from several threads at once.
+	 * All precomputed data (see {@link #prepareConcurrentQueries()}) is built,
+	 * and all methods modifying the model throw an {@link IllegalStateException} until the model is unfrozen.
+	 * New objects can be collected in a {@link eplan.MutationOverlay} and added by {@link #commit(MutationOverlay)}.
+	 */
+	public synchronized void freeze() {
+		prepareConcurrentQueries();
+		frozen = true;
+	}
+	
+	
+	/**
+	 * Unfreeze the model, so it can be modified directly again.
+	 * This must not be called while the model is queried from other threads.
+	 */
+	public synchronized void unfreeze() {
+		frozen = false;
+	}
+	
+	
+	/**
+	 * Check if the model is frozen (see {@link #freeze()}).
+	 * 
+	 * 
+	 * @return true if the model is frozen
+	 */
+	public boolean isFrozen() {
+		return frozen;
+	}
+	
+	
+	/**
+	 * Throw an exception if the model is frozen.
+	 * 
+	 * 
+	 * @throws IllegalStateException if the model is frozen
+	 */
+	private void checkNotFrozen() {
+		if(frozen) {
+			throw new IllegalStateException("model is frozen");
+		}
+	}
+	
+	
+	/**
+	 * Add a new PlanPro object to a container element and update the precomputed data.
+	 * 
+	 * 
+	 * @param container the DOM element of the container
+	 * @param object the DOM element of the new PlanPro object
+	 */
+	private void insertObject(Element container, Element object) {
+		container.addContent(object);
+		modificationCount++;
+		if(object.getName().equals("TOP_Kante")) {
+			topologyIndex = null;
+		}
+		if(punktObjektIndex != null && isPunktObjekt(object)) {
+			punktObjektIndex.add(container, object);
+		}
+	}
+	
+	
+	/**
+	 * Get the precomputed information about the track topology.
+	 * It is built on first use and rebuilt after the TOP_Kante objects were changed through this model.
+	 * Once it is built, it is returned without locking the model.
+	 * 
+	 * 
+	 * @return the {@link eplan.TopologyIndex} for the current state of the model
+	 */
+	public TopologyIndex getTopologyIndex() {
+		TopologyIndex index = topologyIndex;
+		if(index == null) {
+			index = buildTopologyIndex();
+		}
+		return index;
+	}
+	
+	
+	/**
+	 * Build the precomputed information about the track topology, unless another thread has already built it.
+	 * 
+	 * 
+	 * @return the {@link eplan.TopologyIndex} for the current state of the model
+	 */
+	private synchronized TopologyIndex buildTopologyIndex() {
+		if(topologyIndex == null) {
+			topologyIndex = new TopologyIndex(this);
+		}
+		return topologyIndex;
+	}
+	
+	
+	/**
+	 * Get the precomputed positions of the Punkt_Objekt objects.
+	 * It is built on first use, updated when objects are added and rebuilt after other changes through this model.
+	 * Once it is built, it is returned without locking the model.
+	 * 
+	 * @return the {@link eplan.PunktObjektIndex} for the current state of the model
+	 */
+	public PunktObjektIndex getPunktObjektIndex() {
+		PunktObjektIndex index = punktObjektIndex;
+		if(index == null) {
+			index = buildPunktObjektIndex();
+		}
+		return index;
+	}
+	
+	
+	/**
+	 * Build the precomputed positions of the Punkt_Objekt objects, unless another thread has already built them.
+	 * 
+	 * @return the {@link eplan.PunktObjektIndex} for the current state of the model
+	 */
+	private synchronized PunktObjektIndex buildPunktObjektIndex() {
+		if(punktObjektIndex == null) {
+			punktObjektIndex = new PunktObjektIndex(doc.getRootElement().getChild("LST_Planung").getChild("Fachdaten"));
+		}
+		return punktObjektIndex;
+	}
+	
+	
+	/**
+	 * Enables or disables the use of the {@link eplan.DistanceOracle} for {@link #calculateDistance(PunktObjekt, PunktObjekt)}.
+	 * Building the oracle takes some time once, but afterwards each distance query only visits a small part of the topology.
+	 * The default is false, which means that each query searches along the track.
+	 * 
+	 * @param enabled true if the distance oracle should be used
+	 */
+	public void setDistanceOracleEnabled(boolean enabled) {
+		checkNotFrozen();
+		distanceOracleEnabled = enabled;
+	}
+	
+	
+	/**
+	 * Get the precomputed shortcut hierarchy for distance queries.
+	 * It is built on first use and rebuilt together with the {@link eplan.TopologyIndex}.
+	 * Once it is built, it is returned without locking the model.
+	 * 
+	 * @return the {@link eplan.DistanceOracle} for the current state of the model
+	 */
+	public DistanceOracle getDistanceOracle() {
+		DistanceOracle oracle = distanceOracle;
+		if(oracle == null || oracle.getTopologyIndex() != getTopologyIndex()) {
+			oracle = buildDistanceOracle();
+		}
+		return oracle;
+	}
+	
+	
+	/**
+	 * Build the precomputed shortcut hierarchy for distance queries, unless another thread has already built it.
+	 * 
+	 * @return the {@link eplan.DistanceOracle} for the current state of the model
+	 */
+	private synchronized DistanceOracle buildDistanceOracle() {
+		TopologyIndex index = getTopologyIndex();
+		if(distanceOracle == null || distanceOracle.getTopologyIndex() != index) {
+			distanceOracle = new DistanceOracle(index);
+			logContext.debug("Distance oracle built with %d shortcuts", distanceOracle.getShortcutCount());
+		}
+		return distanceOracle;
+	}
+	
+	
+	/**
+	 * Set the maximum number of cached results of {@link #calculatePosition(PunktObjekt, int)}.
+	 * The planning rules calculate positions at the same distances from the same objects many times.
+	 * If caching is enabled, the results are stored per starting position and distance (see {@link eplan.PositionCache}).
+	 * The default is 0, which disables caching.
+	 * 
+	 * @param size the maximum number of cached results, or 0 to disable caching
+	 */
+	public synchronized void setPositionCacheSize(int size) {
+		checkNotFrozen();
+		positionCacheSize = size;
+		positionCache = null;
+	}
+	
+	
+	/**
+	 * Get the cache for calculated positions.
+	 * It is created on first use and cleared after the TOP_Kante objects were changed through this model.
+	 * Once it is created, it is returned without locking the model.
+	 * 
+	 * @return the {@link eplan.PositionCache} for the current state of the model, or null if caching is disabled
+	 */
+	public PositionCache getPositionCache() {
+		if(positionCacheSize <= 0) {
+			return null;
+		}
+		PositionCache cache = positionCache;
+		if(cache == null || cache.getTopologyIndex() != getTopologyIndex()) {
+			cache = buildPositionCache();
+		}
+		return cache;
+	}
+	
+	
+	/**
+	 * Create the cache for calculated positions, unless another thread has already created it.
+	 * 
+	 * @return the {@link eplan.PositionCache} for the current state of the model
+	 */
+	private synchronized PositionCache buildPositionCache() {
+		TopologyIndex index = getTopologyIndex();
+		if(positionCache == null || positionCache.getTopologyIndex() != index) {
+			positionCache = new PositionCache(index, positionCacheSize);
+		}
+		return positionCache;
+	}
+	
+	
+	/**
+	 * Build all precomputed data which is otherwise built on first use.
+	 * This should be called before the model is queried from several threads at once,
+	 * so the queries only read the published precomputed data and do not lock the model.
+	 * Only the hit statistics and entries of the {@link eplan.PositionCache} are still updated under a short lock of the cache.
+	 * The model must not be modified while such queries are running; {@link #freeze()} ensures this.
+	 */
+	public void prepareConcurrentQueries() {
+		getTopologyIndex();
+		getPunktObjektIndex();
+		if(distanceOracleEnabled) {
+			getDistanceOracle();
+		}
+		getPositionCache();
+	}
+	
+	
+	/**
+	 * Get the logging context of the model.
+	 * 
+	 * 
+	 * @return the logging context
+	 */
+	public LogContext getLogContext() {
+		return logContext;
+	}
+	
+	
+	/**
+	 * Set the profiler recording the operations of the model.
+	 * By default, a disabled profiler is used.
+	 * 
+	 * 
+	 * @param p the profiler
+	 */
+	public void setProfiler(Profiler p) {
+		checkNotFrozen();
+		profiler = p;
+	}
+	
+	
+	/**
+	 * Get the profiler recording the operations of the model.
+	 * 
+	 * 
+	 * @return the profiler
+	 */
+	public Profiler getProfiler() {
+		return profiler;
+	}
+	
+	
+	/**
+	 * Evaluate a condition for a PlanPro object and count the evaluation in the profiler of the model.
+	 * The searches of the model and the placement rules evaluate their conditions through this method,
+	 * so the profiler reports all of them.
+	 * 
+	 * 
+	 * @param condition an object implementing {@link eplan.Evaluable}
+	 * @param e the DOM element of the PlanPro object
+	 * @return the result of the condition
+	 */
+	public boolean evaluate(Evaluable condition, Element e) {
+		profiler.count(Profiler.Counter.CONDITION_EVALUATE);
+		return condition.evaluate(e);
+	}
+	
+	
+	/**
+	 * Get the modification counter of the model.
+	 * The counter is increased each time the set of PlanPro objects is modified through this model,
+	 * e.g. by reading a file or adding objects. It never decreases.
+	 * 
+	 * 
+	 * @return the current value of the modification counter
+	 */
+	public long getModificationCount() {
+		return modificationCount;
+	}
+	
+	
 	/**
 	 * Get the list of all PlanPro objects.
 	 * 
@@ -204,6 +804,7 @@ public class PlanProModel {
 	 * @return a list of DOM elements, containing all PlanPro objects
 	 */
 	public List<Element> getPlanProObjectList() {
+		profiler.count(Profiler.Counter.PLANPRO_OBJECT_LIST);
 		List<Element> returnval = new ArrayList<Element>();
 		Element rootElem = doc.getRootElement();
 		Element fachdatenElem = rootElem.getChild("LST_Planung").getChild("Fachdaten");
@@ -229,6 +830,7 @@ public class PlanProModel {
 	 * @param toolversion the version of the tool that has written most recently
 	 */
 	public void updatePlanProHeader(String toolname, String toolversion) {
+		checkNotFrozen();
 		Element rootElem = doc.getRootElement();
 		Element idElem = rootElem.getChild("Identitaet").getChild("Wert");
 		Element timestampElem = rootElem.getChild("PlanPro_Schnittstelle_Allg").getChild("Erzeugung_Zeitstempel").getChild("Wert");
@@ -248,6 +850,7 @@ public class PlanProModel {
 	 * Any existing end state will be deleted.
 	 */
 	public void createEndState() {
+		checkNotFrozen();
 		Element rootElem = doc.getRootElement();
 		Element fachdatenElem = rootElem.getChild("LST_Planung").getChild("Fachdaten");
 		List<Element> ausgabeFachdatenList = fachdatenElem.getChildren("Ausgabe_Fachdaten");
@@ -259,6 +862,9 @@ public class PlanProModel {
 			zustandZielElem.removeChild("Container");
 			zustandZielElem.addContent(newContainerZielElem);
 		}
+		modificationCount++;
+		topologyIndex = null;
+		punktObjektIndex = null;
 	}
 	
 	
@@ -266,6 +872,7 @@ public class PlanProModel {
 	 * Delete the existing start state.
 	 */
 	public void deleteStartState() {
+		checkNotFrozen();
 		Element rootElem = doc.getRootElement();
 		Element fachdatenElem = rootElem.getChild("LST_Planung").getChild("Fachdaten");
 		List<Element> ausgabeFachdatenList = fachdatenElem.getChildren("Ausgabe_Fachdaten");
@@ -274,6 +881,7 @@ public class PlanProModel {
 			Element containerElem = ausgabeFachdatenElem.getChild("LST_Zustand_Start").getChild("Container");
 			containerElem.removeContent();
 		}
+		modificationCount++;
 	}
 	
 	
@@ -285,6 +893,7 @@ public class PlanProModel {
 	 * @return the corresponding DOM element, or null if no object exists for the given id
 	 */
 	public Element getElementbyId(String guid) {
+		profiler.count(Profiler.Counter.ELEMENT_BY_ID);
 		List<Element> objectList = getPlanProObjectList();
 		for(int i = 0; i < objectList.size(); i++) {
 			Element e = objectList.get(i);
@@ -318,6 +927,7 @@ public class PlanProModel {
 	 * @return a list of {@link eplan.NextTopKanteResult} objects, containing all connected edges.
 	 */
 	public List<NextTopKanteResult> getNextTopKante(Element topKante, boolean forward) {
+		profiler.count(Profiler.Counter.NEXT_TOP_KANTE);
 		List<NextTopKanteResult> returnval = new ArrayList<NextTopKanteResult>();
 		String srcIdTopKnotenA = topKante.getChild("ID_TOP_Knoten_A").getChild("Wert").getText();
 		String srcIdTopKnotenB = topKante.getChild("ID_TOP_Knoten_B").getChild("Wert").getText();
@@ -438,70 +1048,100 @@ public class PlanProModel {
 	 */
 	public List<PunktObjekt> calculatePosition(PunktObjekt startpos, int distance) {
 		List<PunktObjekt> returnval = new ArrayList<PunktObjekt>();
+		PositionCache cache = getPositionCache();
 		for(PunktObjektTopKante potk : startpos.punktObjektTopKante) {
-			String startGuid = potk.idTopKante;
-			int startAbstand = potk.abstand;
-			String startWirkrichtung = potk.wirkrichtung;
-			Element startEdge = getElementbyId(startGuid);
-			double tempEdgeLength = Double.parseDouble(startEdge.getChild("TOP_Kante_Allg").getChild("TOP_Laenge").getChild("Wert").getText());
-			tempEdgeLength *= 1000.0;
-			int edgeLength = (int) tempEdgeLength;
-			int newPos = startAbstand;
-			if (!startWirkrichtung.equals("gegen")) {
-				newPos = startAbstand + distance;
-			} else {
-				newPos = startAbstand - distance;
+			List<PunktObjekt> result = null;
+			if(cache != null) {
+				result = cache.get(potk, distance);
 			}
-	
-			if (newPos >= 0 && newPos <= edgeLength) { // new position is on the same edge
-				PunktObjekt target = new PunktObjekt(startGuid, newPos, startWirkrichtung);
-				returnval.add(target);
-			} else {
-				int remainingDistance = distance;
-				boolean direction = true;
-				if (newPos < 0 && !startWirkrichtung.equals("gegen")) { // continue on previous edge
-					remainingDistance = distance + startAbstand;
-					direction = false;
-				} else if (newPos < 0 && startWirkrichtung.equals("gegen")) { // continue on previous edge
-					remainingDistance = distance - startAbstand;
-					direction = false;
-				} else if (newPos > edgeLength && !startWirkrichtung.equals("gegen")) { // continue on following edge
-					remainingDistance = distance - (edgeLength - startAbstand);
-					direction = true;
-				} else if (newPos > edgeLength && startWirkrichtung.equals("gegen")) { // continue on following edge
-					remainingDistance = distance + (edgeLength - startAbstand);
-					direction = true;
+			if(result == null) {
+				result = calculatePosition(potk, distance);
+				if(cache != null) {
+					cache.put(potk, distance, result);
 				}
-				List<NextTopKanteResult> edgelist = getNextTopKante(startEdge, direction);
-				for (int i = 0; i < edgelist.size(); i++) {
-					NextTopKanteResult edgeresult = edgelist.get(i);
-					Element tka = edgeresult.topKanteElement;
-					String tka_id = tka.getChild("Identitaet").getChild("Wert").getText();
-					boolean newdir = edgeresult.direction;
-					
-					int newAbstand = 0;
-					String newWirkrichtung = "";
-					if (newdir && remainingDistance < 0) {
-						newAbstand = 0;
-						newWirkrichtung = "gegen";
-					} else if (newdir && remainingDistance >= 0) {
-						newAbstand = 0;
-						newWirkrichtung = "in";
-					} else if (!newdir && remainingDistance < 0) {
-						double tka_len = Double.parseDouble(tka.getChild("TOP_Kante_Allg").getChild("TOP_Laenge").getChild("Wert").getText());
-						tka_len *= 1000.0;
-						newAbstand = (int) tka_len;
-						newWirkrichtung = "in";
-					} else if (!newdir && remainingDistance >= 0) {
-						double tka_len = Double.parseDouble(tka.getChild("TOP_Kante_Allg").getChild("TOP_Laenge").getChild("Wert").getText());
-						tka_len *= 1000.0;
-						newAbstand = (int) tka_len;
-						newWirkrichtung = "gegen";
-					}
-					PunktObjekt newStart = new PunktObjekt(tka_id, newAbstand, newWirkrichtung);
-					List<PunktObjekt> resultlist = calculatePosition(newStart, remainingDistance);
-					returnval.addAll(resultlist);
+			}
+			returnval.addAll(result);
+		}
+		return returnval;
+	}
+	
+	
+	/**
+	 * Calculates positions where a Punkt_Objekt can be created, using a starting position on a single TOP_Kante and a distance.
+	 * This is the calculation for each TOP_Kante of the starting Punkt_Objekt in {@link #calculatePosition(PunktObjekt, int)}.
+	 * 
+	 * @param potk the starting position
+	 * @param distance the distance from the starting position in millimeters (negative value means reverse direction)
+	 * @return a list of {@link eplan.PunktObjekt} objects, containing all positions where a Punkt_Objekt must be created.
+	 */
+	private List<PunktObjekt> calculatePosition(PunktObjektTopKante potk, int distance) {
+		List<PunktObjekt> returnval = new ArrayList<PunktObjekt>();
+		String startGuid = potk.idTopKante;
+		int startAbstand = potk.abstand;
+		String startWirkrichtung = potk.wirkrichtung;
+		Element startEdge = getElementbyId(startGuid);
+		double tempEdgeLength = Double.parseDouble(startEdge.getChild("TOP_Kante_Allg").getChild("TOP_Laenge").getChild("Wert").getText());
+		tempEdgeLength *= 1000.0;
+		int edgeLength = (int) tempEdgeLength;
+		int newPos = startAbstand;
+		if (!startWirkrichtung.equals("gegen")) {
+			newPos = startAbstand + distance;
+		} else {
+			newPos = startAbstand - distance;
+		}
+		
+		if (newPos >= 0 && newPos <= edgeLength) { // new position is on the same edge
+			PunktObjekt target = new PunktObjekt(startGuid, newPos, startWirkrichtung);
+			returnval.add(target);
+		} else {
+			List<PunktObjekt> chainResult = calculatePositionOnChain(potk, distance);
+			if (chainResult != null) { // the following edges do not branch, so the position was calculated on the chain
+				return chainResult;
+			}
+			int remainingDistance = distance;
+			boolean direction = true;
+			if (newPos < 0 && !startWirkrichtung.equals("gegen")) { // continue on previous edge
+				remainingDistance = distance + startAbstand;
+				direction = false;
+			} else if (newPos < 0 && startWirkrichtung.equals("gegen")) { // continue on previous edge
+				remainingDistance = distance - startAbstand;
+				direction = false;
+			} else if (newPos > edgeLength && !startWirkrichtung.equals("gegen")) { // continue on following edge
+				remainingDistance = distance - (edgeLength - startAbstand);
+				direction = true;
+			} else if (newPos > edgeLength && startWirkrichtung.equals("gegen")) { // continue on following edge
+				remainingDistance = distance + (edgeLength - startAbstand);
+				direction = true;
+			}
+			List<NextTopKanteResult> edgelist = getNextTopKante(startEdge, direction);
+			for (int i = 0; i < edgelist.size(); i++) {
+				NextTopKanteResult edgeresult = edgelist.get(i);
+				Element tka = edgeresult.topKanteElement;
+				String tka_id = tka.getChild("Identitaet").getChild("Wert").getText();
+				boolean newdir = edgeresult.direction;
+				
+				int newAbstand = 0;
+				String newWirkrichtung = "";
+				if (newdir && remainingDistance < 0) {
+					newAbstand = 0;
+					newWirkrichtung = "gegen";
+				} else if (newdir && remainingDistance >= 0) {
+					newAbstand = 0;
+					newWirkrichtung = "in";
+				} else if (!newdir && remainingDistance < 0) {
+					double tka_len = Double.parseDouble(tka.getChild("TOP_Kante_Allg").getChild("TOP_Laenge").getChild("Wert").getText());
+					tka_len *= 1000.0;
+					newAbstand = (int) tka_len;
+					newWirkrichtung = "in";
+				} else if (!newdir && remainingDistance >= 0) {
+					double tka_len = Double.parseDouble(tka.getChild("TOP_Kante_Allg").getChild("TOP_Laenge").getChild("Wert").getText());
+					tka_len *= 1000.0;
+					newAbstand = (int) tka_len;
+					newWirkrichtung = "gegen";
 				}
+				PunktObjekt newStart = new PunktObjekt(tka_id, newAbstand, newWirkrichtung);
+				List<PunktObjekt> resultlist = calculatePosition(newStart, remainingDistance);
+				returnval.addAll(resultlist);
 			}
 		}
 
@@ -509,6 +1149,72 @@ public class PlanProModel {
 	}
 	
 
+	/**
+	 * Calculates a position for {@link #calculatePosition(PunktObjekt, int)} which lies outside of the starting TOP_Kante,
+	 * using the chains of the {@link eplan.TopologyIndex}. As the TOP_Kante objects within a chain do not branch,
+	 * the position can be calculated from the chain offsets without stepping from one TOP_Kante to the next.
+	 * If the position lies beyond the end of the chain, the calculation continues at the end of the chain.
+	 * 
+	 * @param potk the starting position
+	 * @param distance the distance from the starting position in millimeters (negative value means reverse direction)
+	 * @return a list of {@link eplan.PunktObjekt} objects, containing all positions where a Punkt_Objekt must be created,
+	 * or null if the starting TOP_Kante is the last one of its chain in search direction
+	 */
+	private List<PunktObjekt> calculatePositionOnChain(PunktObjektTopKante potk, int distance) {
+		TopologyIndex index = getTopologyIndex();
+		int startEdge = index.getEdgeIndex(potk.idTopKante);
+		if(startEdge < 0) {
+			return null;
+		}
+		int c = index.getChain(startEdge);
+		int[] chainEdges = index.getChainEdges(c);
+		// search direction related to the topological direction of the starting edge and to the chain direction
+		boolean direction = (!potk.wirkrichtung.equals("gegen") == distance >= 0);
+		boolean chainDirection = (direction == index.isChainForward(startEdge));
+		int step = 1;
+		int lastEdge = chainEdges[chainEdges.length - 1];
+		int chainEnd = index.getChainLength(c);
+		if(!chainDirection) {
+			step = -1;
+			lastEdge = chainEdges[0];
+			chainEnd = 0;
+		}
+		if(lastEdge == startEdge) {
+			return null;
+		}
+		int startOffset = index.toChainOffset(startEdge, potk.abstand);
+		int targetOffset = startOffset + step * Math.abs(distance);
+		
+		List<PunktObjekt> returnval = new ArrayList<PunktObjekt>();
+		for(int i = index.getChainPosition(startEdge) + step; i >= 0 && i < chainEdges.length; i += step) {
+			int edge = chainEdges[i];
+			int edgeBegin = index.getChainOffset(edge);
+			if(targetOffset >= edgeBegin && targetOffset <= edgeBegin + index.getEdgeLength(edge)) { // new position is on this edge
+				String newWirkrichtung = "gegen";
+				if((chainDirection == index.isChainForward(edge)) == distance >= 0) {
+					newWirkrichtung = "in";
+				}
+				String edgeId = index.getEdge(edge).getChild("Identitaet").getChild("Wert").getText();
+				returnval.add(new PunktObjekt(edgeId, index.fromChainOffset(edge, targetOffset), newWirkrichtung));
+				return returnval;
+			}
+		}
+		
+		// continue at the end of the chain
+		int remainingDistance = Math.abs(distance) - Math.abs(chainEnd - startOffset);
+		if(distance < 0) {
+			remainingDistance = -remainingDistance;
+		}
+		String newWirkrichtung = "gegen";
+		if((chainDirection == index.isChainForward(lastEdge)) == distance >= 0) {
+			newWirkrichtung = "in";
+		}
+		String edgeId = index.getEdge(lastEdge).getChild("Identitaet").getChild("Wert").getText();
+		PunktObjekt newStart = new PunktObjekt(edgeId, index.fromChainOffset(lastEdge, chainEnd), newWirkrichtung);
+		return calculatePosition(newStart, remainingDistance);
+	}
+	
+	
 	/**
 	 * Calculates a position where a Punkt_Objekt can be created, using a starting Punkt_Objekt and a distance.
 	 * The resulting position will be calculated only for a given path of TOP_Kante objects and does not consider branches.
@@ -653,80 +1359,86 @@ public class PlanProModel {
 	 * @return the (positive) distance between the objects in millimeters, or -1 if endpos is not reachable
 	 */
 	private int calculateDistance(PunktObjekt startpos, PunktObjekt endpos, boolean forward) {
-		int returnval = -1;
-		PunktObjektTopKante potkStart = startpos.punktObjektTopKante[0];
-		PunktObjektTopKante potkEnd = endpos.punktObjektTopKante[0];
-		String startGuid = potkStart.idTopKante;
-		int startAbstand = potkStart.abstand;
-		String startWirkrichtung = potkStart.wirkrichtung;
-		String endGuid = potkEnd.idTopKante;
-		int endAbstand = potkEnd.abstand;
-		//String endWirkrichtung = potkEnd.wirkrichtung;
-		if (startGuid.equals(endGuid) && !startWirkrichtung.equals("gegen") && forward) { // both positions are on the
-																							// same edge
-			returnval = endAbstand - startAbstand;
-		} else if (startGuid.equals(endGuid) && !startWirkrichtung.equals("gegen") && !forward) { // both positions are
-																									// on the same edge
-			returnval = startAbstand - endAbstand;
-		} else if (startGuid.equals(endGuid) && startWirkrichtung.equals("gegen") && !forward) { // both positions are
-																									// on the same edge
-			returnval = endAbstand - startAbstand;
-		} else if (startGuid.equals(endGuid) && startWirkrichtung.equals("gegen") && forward) { // both positions are on
-																								// the same edge
-			returnval = startAbstand - endAbstand;
-		} else {
-			Element startEdge = getElementbyId(startGuid);
-			if (startEdge != null) {
-				int currentDistance = -1;
-				int remainingDistance = -1;
-				boolean direction = true;
-				if (!startWirkrichtung.equals("gegen") && forward) {
-					double tempEdgeLength = Double.parseDouble(startEdge.getChild("TOP_Kante_Allg").getChild("TOP_Laenge").getChild("Wert").getText());
-					tempEdgeLength *= 1000.0;
-					int edgeLength = (int) tempEdgeLength;
-					currentDistance = edgeLength - startAbstand;
-					direction = true;
-				} else if (!startWirkrichtung.equals("gegen") && !forward) {
-					currentDistance = startAbstand;
-					direction = false;
-				} else if (startWirkrichtung.equals("gegen") && forward) {
-					currentDistance = startAbstand;
-					direction = false;
-				} else if (startWirkrichtung.equals("gegen") && !forward) {
-					double tempEdgeLength = Double.parseDouble(startEdge.getChild("TOP_Kante_Allg").getChild("TOP_Laenge").getChild("Wert").getText());
-					tempEdgeLength *= 1000.0;
-					int edgeLength = (int) tempEdgeLength;
-					currentDistance = edgeLength - startAbstand;
-					direction = true;
-				}
-				List<NextTopKanteResult> edgelist = getNextTopKante(startEdge, direction);
-				for (int i = 0; i < edgelist.size(); i++) {
-					NextTopKanteResult edgeresult = edgelist.get(i);
-					Element tka = edgeresult.topKanteElement;
-					String tka_id = tka.getChild("Identitaet").getChild("Wert").getText();
-					boolean newdir = edgeresult.direction;
-					int newAbstand = 0;
-					if (newdir) {
-						newAbstand = 0;
-					} else {
-						double tka_len = Double.parseDouble(tka.getChild("TOP_Kante_Allg").getChild("TOP_Laenge").getChild("Wert").getText());
-						tka_len *= 1000.0;
-						newAbstand = (int) tka_len;
-					}
-					PunktObjekt newStart = new PunktObjekt(tka_id, newAbstand, "in");
-					int tempdist = calculateDistance(newStart, endpos, newdir);
-					if ((remainingDistance < 0 && tempdist >= 0)
-							|| (remainingDistance >= 0 && tempdist >= 0 && tempdist < remainingDistance)) {
-						remainingDistance = tempdist;
-					}
+		TopologySearchEvent event = new TopologySearchEvent();
+		event.begin();
+		if(distanceOracleEnabled) {
+			Integer result = calculateDistanceByOracle(startpos.punktObjektTopKante[0], endpos.punktObjektTopKante[0], forward);
+			if(result != null) {
+				event.end();
+				commitSearchEvent(event, "calculateDistanceByOracle", startpos, forward, 0, (result >= 0) ? 1 : 0);
+				return result;
+			}
+		}
+		final String endGuid = endpos.punktObjektTopKante[0].idTopKante;
+		final int endAbstand = endpos.punktObjektTopKante[0].abstand;
+		final int[] returnval = { -1 };
+		int visited = traverse(startpos.punktObjektTopKante[0], forward, new TraversalVisitor() {
+			@Override
+			public Action visit(TraversalState state) {
+				if(!state.idTopKante.equals(endGuid)) {
+					return Action.CONTINUE;
 				}
-				if (remainingDistance >= 0) {
-					returnval = currentDistance + remainingDistance;
+				// both positions are on the same edge, so the search ends on this branch
+				int dist = state.distance + state.getDistanceTo(endAbstand);
+				if(dist >= 0 && (returnval[0] < 0 || dist < returnval[0])) {
+					returnval[0] = dist;
 				}
+				return Action.SKIP;
 			}
+		});
+		event.end();
+		commitSearchEvent(event, "calculateDistance", startpos, forward, visited, (returnval[0] >= 0) ? 1 : 0);
+		return returnval[0];
+	}
+	
+	
+	/**
+	 * Commit a Java Flight Recorder event for a search in the track topology, if the event is enabled.
+	 * 
+	 * 
+	 * @param event the ended event
+	 * @param operation the name of the search operation
+	 * @param startpos the starting Punkt_Objekt
+	 * @param forward if the search direction is the same as the effective direction of the starting Punkt_Objekt
+	 * @param edgesVisited the number of visited TOP_Kante positions
+	 * @param results the number of results
+	 */
+	private static void commitSearchEvent(TopologySearchEvent event, String operation, PunktObjekt startpos, boolean forward, long edgesVisited, int results) {
+		if(!event.shouldCommit()) {
+			return;
 		}
-
-		return returnval;
+		event.operation = operation;
+		event.startGuid = startpos.identitaet;
+		event.forward = forward;
+		event.edgesVisited = edgesVisited;
+		event.results = results;
+		event.commit();
+	}
+	
+	
+	/**
+	 * Calculates the distance between two positions, using a specified search direction and the {@link eplan.DistanceOracle}.
+	 * The result is the same as the result of the search in {@link #calculateDistance(PunktObjekt, PunktObjekt, boolean)}.
+	 * 
+	 * @param start the starting position
+	 * @param end the ending position
+	 * @param forward if the search direction should be the same as the effective direction of the starting position
+	 * @return the (positive) distance between the positions in millimeters, -1 if the ending position is not reachable,
+	 * or null if the oracle can not be used for these positions (unknown TOP_Kante or position outside of the TOP_Kante)
+	 */
+	private Integer calculateDistanceByOracle(PunktObjektTopKante start, PunktObjektTopKante end, boolean forward) {
+		DistanceOracle oracle = getDistanceOracle();
+		TopologyIndex index = oracle.getTopologyIndex();
+		int startEdge = index.getEdgeIndex(start.idTopKante);
+		int endEdge = index.getEdgeIndex(end.idTopKante);
+		if(startEdge < 0 || endEdge < 0) {
+			return null;
+		}
+		if(start.abstand < 0 || start.abstand > index.getEdgeLength(startEdge) || end.abstand < 0 || end.abstand > index.getEdgeLength(endEdge)) {
+			return null;
+		}
+		boolean startDirection = (start.wirkrichtung.equals("gegen") != forward);
+		return oracle.calculateDistance(startEdge, start.abstand, startDirection, endEdge, end.abstand);
 	}
 	
 	
@@ -734,6 +1446,7 @@ public class PlanProModel {
 	 * Calculates the relative orientation of two Punkt_Objekt objects.
 	 * The search is performed both in forward and reverse direction (related to startpos)
 	 * and also multiple Punkt_Objekt_TOP_Kante attribute groups in both startpos and endpos are considered.
+	 * In most cases, the result is taken from the orientation parities of the {@link eplan.TopologyIndex} without a search.
 	 * 
 	 * @param startpos the starting Punkt_Objekt
 	 * @param endpos the ending Punkt_Objekt
@@ -755,7 +1468,14 @@ public class PlanProModel {
 				PunktObjekt poStart = new PunktObjekt(identitaetStart, idTopKanteStart, abstandStart, wirkrichtungStart);
 				PunktObjekt poEnd = new PunktObjekt(identitaetEnd, idTopKanteEnd, abstandEnd, wirkrichtungEnd);
 				
-				Direction result = checkDirection(poStart, poEnd, true);
+				Direction result = checkDirectionByParity(potkStart, potkEnd);
+				if(result != null) {
+					if(result != Direction.NOT_CONNECTED) {
+						return result;
+					}
+					continue;
+				}
+				result = checkDirection(poStart, poEnd, true);
 				if(result != Direction.NOT_CONNECTED) {
 					return result;
 				}
@@ -781,72 +1501,79 @@ public class PlanProModel {
 	 * @return a {@link eplan.PlanProModel.Direction} object, describing the relative orientation of the objects
 	 */
 	private Direction checkDirection(PunktObjekt startpos, PunktObjekt endpos, boolean forward) {
-		Direction returnval = Direction.NOT_CONNECTED;
-		PunktObjektTopKante potkStart = startpos.punktObjektTopKante[0];
-		PunktObjektTopKante potkEnd = endpos.punktObjektTopKante[0];
-		String startGuid = potkStart.idTopKante;
-		String startWirkrichtung = potkStart.wirkrichtung;
-		String endGuid = potkEnd.idTopKante;
-		String endWirkrichtung = potkEnd.wirkrichtung;
-		if (startGuid.equals(endGuid) && startWirkrichtung.equals("in") && endWirkrichtung.equals("in")) { // both positions are on the
-																							// same edge
-			returnval = Direction.EQUAL;
-		} else if (startGuid.equals(endGuid) && startWirkrichtung.equals("gegen") && endWirkrichtung.equals("gegen")) { // both positions are
-																									// on the same edge
-			returnval = Direction.EQUAL;
-		} else if (startGuid.equals(endGuid) && startWirkrichtung.equals("in") && endWirkrichtung.equals("gegen")) { // both positions are
-																									// on the same edge
-			returnval = Direction.OPPOSITE;
-		} else if (startGuid.equals(endGuid) && startWirkrichtung.equals("gegen") && endWirkrichtung.equals("in")) { // both positions are on
-																								// the same edge
-			returnval = Direction.OPPOSITE;
-		} else if (startGuid.equals(endGuid)) { // both positions are on the same edge, at least one direction is "beide"
-			returnval = Direction.BOTH;
-		}
-		else {
-			Element startEdge = getElementbyId(startGuid);
-			if (startEdge != null) {
-				boolean direction = true;
-				if (!startWirkrichtung.equals("gegen") && forward) {
-					direction = true;
-				} else if (!startWirkrichtung.equals("gegen") && !forward) {
-					direction = false;
-				} else if (startWirkrichtung.equals("gegen") && forward) {
-					direction = false;
-				} else if (startWirkrichtung.equals("gegen") && !forward) {
-					direction = true;
-				}
-				List<NextTopKanteResult> edgelist = getNextTopKante(startEdge, direction);
-				for (int i = 0; i < edgelist.size(); i++) {
-					NextTopKanteResult edgeresult = edgelist.get(i);
-					Element tka = edgeresult.topKanteElement;
-					String tka_id = tka.getChild("Identitaet").getChild("Wert").getText();
-					boolean newdir = edgeresult.direction;
-					String newWirkrichtung = "in";
-					if (direction && newdir || !direction && !newdir) {
-						newWirkrichtung = startWirkrichtung;
-					} else {
-						if (startWirkrichtung.equals("in")) {
-							newWirkrichtung = "gegen";
-						}
-						else if (startWirkrichtung.equals("gegen")) {
-							newWirkrichtung = "in";
-						}
-						else {
-							newWirkrichtung = "beide";
-						}
-					}
-					PunktObjekt newStart = new PunktObjekt(tka_id, 0, newWirkrichtung);
-					Direction tempdir = checkDirection(newStart, endpos, forward);
-					if (tempdir != Direction.NOT_CONNECTED) {
-						returnval = tempdir;
-						break;
-					}
+		final String endGuid = endpos.punktObjektTopKante[0].idTopKante;
+		final String endWirkrichtung = endpos.punktObjektTopKante[0].wirkrichtung;
+		final Direction[] returnval = { Direction.NOT_CONNECTED };
+		traverse(startpos.punktObjektTopKante[0], forward, new TraversalVisitor() {
+			@Override
+			public Action visit(TraversalState state) {
+				if(!state.idTopKante.equals(endGuid)) {
+					return Action.CONTINUE;
 				}
+				// both positions are on the same edge
+				returnval[0] = compareWirkrichtung(state.wirkrichtung, endWirkrichtung);
+				return Action.STOP;
 			}
+		});
+		return returnval[0];
+	}
+	
+	
+	/**
+	 * Calculates the relative orientation of two positions, using the connected components and orientation parities of the {@link eplan.TopologyIndex}.
+	 * This does not require a search, unless the positions are on the same TOP_Kante, or the orientation parity
+	 * of their component is ambiguous. In these cases, null is returned and the relative orientation has to be calculated by a search.
+	 * 
+	 * @param start the starting position
+	 * @param end the ending position
+	 * @return a {@link eplan.PlanProModel.Direction} object, describing the relative orientation of the positions, or null if it can not be determined this way
+	 */
+	private Direction checkDirectionByParity(PunktObjektTopKante start, PunktObjektTopKante end) {
+		TopologyIndex index = getTopologyIndex();
+		int startEdge = index.getEdgeIndex(start.idTopKante);
+		int endEdge = index.getEdgeIndex(end.idTopKante);
+		if(startEdge < 0 || endEdge < 0 || startEdge == endEdge) {
+			return null;
 		}
-
-		return returnval;
+		if(index.getComponent(startEdge) != index.getComponent(endEdge)) {
+			return Direction.NOT_CONNECTED;
+		}
+		if(!index.isParityConsistent(startEdge)) {
+			return null;
+		}
+		if(!index.isReachable(startEdge, endEdge)) {
+			return Direction.NOT_CONNECTED;
+		}
+		String startWirkrichtung = start.wirkrichtung;
+		if(index.getParity(startEdge) != index.getParity(endEdge) && startWirkrichtung.equals("in")) {
+			startWirkrichtung = "gegen";
+		}
+		else if(index.getParity(startEdge) != index.getParity(endEdge) && startWirkrichtung.equals("gegen")) {
+			startWirkrichtung = "in";
+		}
+		return compareWirkrichtung(startWirkrichtung, end.wirkrichtung);
+	}
+	
+	
+	/**
+	 * Calculates the relative orientation of two effective directions related to the same TOP_Kante.
+	 * 
+	 * @param startWirkrichtung the effective direction of the starting object
+	 * @param endWirkrichtung the effective direction of the ending object
+	 * @return a {@link eplan.PlanProModel.Direction} object, describing the relative orientation of the objects
+	 */
+	static Direction compareWirkrichtung(String startWirkrichtung, String endWirkrichtung) {
+		if (startWirkrichtung.equals("in") && endWirkrichtung.equals("in")) {
+			return Direction.EQUAL;
+		} else if (startWirkrichtung.equals("gegen") && endWirkrichtung.equals("gegen")) {
+			return Direction.EQUAL;
+		} else if (startWirkrichtung.equals("in") && endWirkrichtung.equals("gegen")) {
+			return Direction.OPPOSITE;
+		} else if (startWirkrichtung.equals("gegen") && endWirkrichtung.equals("in")) {
+			return Direction.OPPOSITE;
+		}
+		// at least one direction is "beide"
+		return Direction.BOTH;
 	}
 
 	
@@ -872,8 +1599,7 @@ public class PlanProModel {
 		else {
 			cond = new TypeCondition(type);
 		}
-		List<NextPunktObjektPathResult> resultlist = getNextPunktObjektPaths(startpos, cond, Direction.BOTH, forward);
-		NextPunktObjektPathResult resultval = NextPunktObjektPathResult.nearest(resultlist);
+		NextPunktObjektPathResult resultval = getNearestPunktObjektPath(startpos, cond, Direction.BOTH, forward);
 		if(resultval != null ) {
 			return resultval.punktObjektElement;
 		}
@@ -922,198 +1648,452 @@ public class PlanProModel {
 	 * @param forward if the search direction should be the same as the effective direction of the starting Punkt_Objekt
 	 * @return a list of {@link eplan.NextPunktObjektPathResult} objects, containing element and path information
 	 */
-	public List<NextPunktObjektPathResult> getNextPunktObjektPaths(PunktObjekt startpos, Evaluable condition, Direction orientation, boolean forward) {
-		List<NextPunktObjektPathResult> returnval = new ArrayList<NextPunktObjektPathResult>();
+	public List<NextPunktObjektPathResult> getNextPunktObjektPaths(PunktObjekt startpos, final Evaluable condition, final Direction orientation, boolean forward) {
+		final List<NextPunktObjektPathResult> returnval = new ArrayList<NextPunktObjektPathResult>();
 		if(orientation == Direction.NOT_CONNECTED) {
 			return returnval;
 		}
+		TopologySearchEvent event = new TopologySearchEvent();
+		event.begin();
+		int visited = 0;
+		final Element startElement = getElementbyId(startpos.identitaet);
 		for(PunktObjektTopKante potk : startpos.punktObjektTopKante) {
-			int minimumDistance = -1;
-			Element minimumPunktObj = null;
-			String startIdTopKante = potk.idTopKante;
-			int startAbstand = potk.abstand;
-			String startWirkrichtung = potk.wirkrichtung;
-			Element startElement = getElementbyId(startpos.identitaet);
-			List<Element> objectList = getPlanProObjectList();
-			for (int i = 0; i < objectList.size(); i++) {
-				Element temp = objectList.get(i);
-				if (temp != startElement && isPunktObjekt(temp)) {
-					List<Element> topKantenList = temp.getChildren("Punkt_Objekt_TOP_Kante");
-					for(Element topKantenElement : topKantenList) {
-						String tempIdTopKante = topKantenElement.getChild("ID_TOP_Kante").getChild("Wert").getText();
-						if(!startIdTopKante.equals(tempIdTopKante)) {
-							continue;
+			visited += traverse(potk, forward, new TraversalVisitor() {
+				@Override
+				public Action visit(TraversalState state) {
+					Element excludedElement = null;
+					if(state.isStart()) {
+						excludedElement = startElement;
+					}
+					NextPunktObjektPathResult edgeResult = getNextPunktObjektOnEdge(excludedElement, state, condition, orientation);
+					if(edgeResult == null) { // continue searching on the next edge(s)
+						return Action.CONTINUE;
+					}
+					returnval.add(edgeResult);
+					return Action.SKIP;
+				}
+			});
+		}
+		event.end();
+		commitSearchEvent(event, "getNextPunktObjektPaths", startpos, forward, visited, returnval.size());
+		return returnval;
+	}
+	
+	
+	/**
+	 * Finds the Punkt_Objekt objects which immediately follow a given Punkt_Objekt in a specified search direction,
+	 * for several targets in one traversal of the track.
+	 * Each target receives the same results as a separate call of {@link #getNextPunktObjektPaths(PunktObjekt, Evaluable, Direction, boolean)}
+	 * with its condition and orientation, except for the objects beyond its maximum distance.
+	 * A branch of the track is followed until each target has been found on it or its maximum distance is reached.
+	 * The results of previous searches are removed from the targets.
+	 * 
+	 * @param startpos the starting Punkt_Objekt
+	 * @param targets a list of {@link eplan.SearchTarget} objects, describing the searched objects and receiving the results
+	 * @param forward if the search direction should be the same as the effective direction of the starting Punkt_Objekt
+	 */
+	public void findNextPunktObjektPaths(PunktObjekt startpos, final List<SearchTarget> targets, boolean forward) {
+		for(SearchTarget target : targets) {
+			target.results.clear();
+		}
+		final Element startElement = getElementbyId(startpos.identitaet);
+		for(PunktObjektTopKante potk : startpos.punktObjektTopKante) {
+			// the targets already found on the route to each TOP_Kante
+			final Map<TopKantenPath, boolean[]> foundTargets = new IdentityHashMap<TopKantenPath, boolean[]>();
+			traverse(potk, forward, new TraversalVisitor() {
+				@Override
+				public Action visit(TraversalState state) {
+					Element excludedElement = null;
+					boolean[] found;
+					if(state.isStart()) {
+						excludedElement = startElement;
+						found = new boolean[targets.size()];
+						for(int i = 0; i < targets.size(); i++) {
+							found[i] = (targets.get(i).orientation == Direction.NOT_CONNECTED);
 						}
-						if(!condition.evaluate(temp)) {
-							continue;
+					}
+					else {
+						found = foundTargets.get(state.path.getPrefix()).clone();
+					}
+					NextPunktObjektPathResult[] edgeResults = getNextPunktObjekteOnEdge(excludedElement, state, targets, found);
+					boolean finished = true;
+					for(int i = 0; i < targets.size(); i++) {
+						if(edgeResults[i] != null) {
+							targets.get(i).results.add(edgeResults[i]);
+							found[i] = true;
 						}
-						double doubleTempAbstand = Double.parseDouble(topKantenElement.getChild("Abstand").getChild("Wert").getText());
-						doubleTempAbstand *= 1000.0;
-						int tempAbstand = (int) doubleTempAbstand;
-						String tempWirkrichtung = "beide";
-						if(topKantenElement.getChild("Wirkrichtung") != null) {
-							tempWirkrichtung = topKantenElement.getChild("Wirkrichtung").getChild("Wert").getText();
+						long endDistance = (long) state.distance + state.getRemainingDistance();
+						if(!found[i] && endDistance <= targets.get(i).maxDistance) {
+							finished = false;
 						}
-						if(orientation == Direction.EQUAL && startWirkrichtung.equals("in") && tempWirkrichtung.equals("gegen") ||
-								orientation == Direction.EQUAL && startWirkrichtung.equals("gegen") && tempWirkrichtung.equals("in") ||
-								orientation == Direction.OPPOSITE && startWirkrichtung.equals("in") && tempWirkrichtung.equals("in") ||
-								orientation == Direction.OPPOSITE && startWirkrichtung.equals("gegen") && tempWirkrichtung.equals("gegen")) {
+					}
+					if(finished) {
+						return Action.SKIP;
+					}
+					foundTargets.put(state.path, found);
+					return Action.CONTINUE;
+				}
+			});
+		}
+	}
+	
+	
+	/**
+	 * Finds all Punkt_Objekt objects within a distance window from a given Punkt_Objekt in a specified search direction.
+	 * This is the same as {@link #findPunktObjekteInRange(PunktObjekt, int, int, Evaluable, Direction, boolean)}
+	 * with all relative orientations allowed.
+	 * 
+	 * @param startpos the starting Punkt_Objekt
+	 * @param fromDistance the minimum distance from the starting Punkt_Objekt in millimeters
+	 * @param toDistance the maximum distance from the starting Punkt_Objekt in millimeters
+	 * @param condition an object implementing {@link eplan.Evaluable}, restricting the search to these conditions
+	 * @param forward if the search direction should be the same as the effective direction of the starting Punkt_Objekt
+	 * @return a list of {@link eplan.NextPunktObjektPathResult} objects, containing element and path information
+	 */
+	public List<NextPunktObjektPathResult> findPunktObjekteInRange(PunktObjekt startpos, int fromDistance, int toDistance, Evaluable condition, boolean forward) {
+		return findPunktObjekteInRange(startpos, fromDistance, toDistance, condition, Direction.BOTH, forward);
+	}
+	
+	
+	/**
+	 * Finds all Punkt_Objekt objects within a distance window from a given Punkt_Objekt in a specified search direction.
+	 * Unlike {@link #getNextPunktObjektPaths(PunktObjekt, Evaluable, Direction, boolean)}, the search does not end at the first
+	 * matching object, but returns every matching object on every branch of the track whose distance lies between fromDistance
+	 * and toDistance (both inclusive). An object which can be reached on several branches is returned once for each branch.
+	 * The results are ordered like the branches in the depth-first search, and by distance on each TOP_Kante
+	 * (objects with the same distance in document order), so the first result of each branch is the nearest one.
+	 * The TOP_Kante objects are only followed up to the maximum distance, and the objects on each of them are looked up in the
+	 * {@link eplan.PunktObjektIndex}, so the effort depends on the number of visited TOP_Kante objects and found objects only.
+	 * 
+	 * @param startpos the starting Punkt_Objekt
+	 * @param fromDistance the minimum distance from the starting Punkt_Objekt in millimeters
+	 * @param toDistance the maximum distance from the starting Punkt_Objekt in millimeters
+	 * @param condition an object implementing {@link eplan.Evaluable}, restricting the search to these conditions
+	 * @param orientation a {@link eplan.PlanProModel.Direction} enum value, describing the relative orientation of the objects
+	 * @param forward if the search direction should be the same as the effective direction of the starting Punkt_Objekt
+	 * @return a list of {@link eplan.NextPunktObjektPathResult} objects, containing element and path information
+	 */
+	public List<NextPunktObjektPathResult> findPunktObjekteInRange(PunktObjekt startpos, final int fromDistance, final int toDistance, final Evaluable condition, final Direction orientation, boolean forward) {
+		final List<NextPunktObjektPathResult> returnval = new ArrayList<NextPunktObjektPathResult>();
+		if(orientation == Direction.NOT_CONNECTED || toDistance < fromDistance || toDistance < 0) {
+			return returnval;
+		}
+		final Element startElement = getElementbyId(startpos.identitaet);
+		final PunktObjektIndex index = getPunktObjektIndex();
+		for(PunktObjektTopKante potk : startpos.punktObjektTopKante) {
+			traverse(potk, forward, new TraversalVisitor() {
+				@Override
+				public Action visit(TraversalState state) {
+					if(state.distance > toDistance) {
+						return Action.SKIP;
+					}
+					for(PunktObjektIndex.Entry entry : index.getEntries(state.idTopKante, state.abstand, state.searchDirection)) {
+						int dist = state.distance + state.getDistanceTo(entry.abstand);
+						if(dist > toDistance) {
+							break;
+						}
+						if(dist < fromDistance || state.isStart() && entry.punktObjektElement == startElement) {
 							continue;
 						}
-						int dist = -1;
-						if (!startWirkrichtung.equals("gegen") && forward) {
-							dist = tempAbstand - startAbstand;
-						} else if (!startWirkrichtung.equals("gegen") && !forward) {
-							dist = startAbstand - tempAbstand;
-						} else if (startWirkrichtung.equals("gegen") && !forward) {
-							dist = tempAbstand - startAbstand;
-						} else if (startWirkrichtung.equals("gegen") && forward) {
-							dist = startAbstand - tempAbstand;
+						if(!isMatchingOrientation(orientation, state.wirkrichtung, entry.wirkrichtung)) {
+							continue;
 						}
-		
-						if (dist >= 0 && (minimumDistance < 0 || dist < minimumDistance)) {
-							minimumDistance = dist;
-							minimumPunktObj = temp;
+						if(!evaluate(condition, entry.punktObjektElement)) {
+							continue;
 						}
+						returnval.add(new NextPunktObjektPathResult(state.path, entry.punktObjektElement, dist));
+					}
+					if((long) state.distance + state.getRemainingDistance() > toDistance) { // the following TOP_Kante objects are out of range
+						return Action.SKIP;
 					}
+					return Action.CONTINUE;
 				}
+			});
+		}
+		return returnval;
+	}
+	
+	
+	/**
+	 * Finds the Punkt_Objekt which immediately follows a given Punkt_Objekt in a specified search direction, using a best-first search.
+	 * The arguments have the same meaning as in {@link #getNextPunktObjektPaths(PunktObjekt, Evaluable, Direction, boolean)},
+	 * and the result is the same as calling {@link eplan.NextPunktObjektPathResult#nearest(List)} on the result of that function:
+	 * If several objects have the same distance, the one found first by the depth-first search is returned.
+	 * Unlike the depth-first search, the TOP_Kante objects are expanded in order of their distance from the starting Punkt_Objekt
+	 * and the search stops at the first match, so only the edges up to the distance of the found object are visited.
+	 * Each TOP_Kante is expanded at most once per search direction, which also ends the search in loops without a match.
+	 * 
+	 * @param startpos the starting Punkt_Objekt
+	 * @param condition an object implementing {@link eplan.Evaluable}, restricting the search to these conditions
+	 * @param orientation a {@link eplan.PlanProModel.Direction} enum value, describing the relative orientation of the objects
+	 * @param forward if the search direction should be the same as the effective direction of the starting Punkt_Objekt
+	 * @return a {@link eplan.NextPunktObjektPathResult} object containing element and path information of the nearest Punkt_Objekt, or null if no such object exists
+	 */
+	public NextPunktObjektPathResult getNearestPunktObjektPath(PunktObjekt startpos, Evaluable condition, Direction orientation, boolean forward) {
+		if(orientation == Direction.NOT_CONNECTED) {
+			return null;
+		}
+		PriorityQueue<SearchState> queue = new PriorityQueue<SearchState>();
+		Set<String> expanded = new HashSet<String>();
+		Element startElement = getElementbyId(startpos.identitaet);
+		for(int i = 0; i < startpos.punktObjektTopKante.length; i++) {
+			queue.add(new SearchState(null, i, createStartState(startpos.punktObjektTopKante[i], forward)));
+		}
+		int visited = 0;
+		while(!queue.isEmpty()) {
+			SearchState node = queue.poll();
+			if(node.punktObjektElement != null) { // all remaining nodes are farther away (or equally far, but on a later branch)
+				profiler.countSearch(visited);
+				return new NextPunktObjektPathResult(node.state.path, node.punktObjektElement, node.distance);
+			}
+			Element excludedElement = null;
+			if(node.state.isStart()) {
+				excludedElement = startElement;
+			}
+			else if(!expanded.add(node.state.getKey())) {
+				continue;
+			}
+			visited++;
+			NextPunktObjektPathResult edgeResult = getNextPunktObjektOnEdge(excludedElement, node.state, condition, orientation);
+			if(edgeResult != null) {
+				queue.add(new SearchState(node, edgeResult.punktObjektElement, edgeResult.distance));
+				continue;
 			}
+			List<TraversalState> successors = getSuccessorStates(node.state);
+			for(int i = 0; i < successors.size(); i++) {
+				queue.add(new SearchState(node, i, successors.get(i)));
+			}
+		}
+		profiler.countSearch(visited);
+		return null;
+	}
 	
-			Element tempEdge = getElementbyId(startIdTopKante);
-			double tempEdgeLength = Double.parseDouble(tempEdge.getChild("TOP_Kante_Allg").getChild("TOP_Laenge").getChild("Wert").getText());
-			tempEdgeLength *= 1000.0;
-			int edgeLength = (int) tempEdgeLength;;
-	
-			if (minimumDistance >= 0) { // Punkt_Objekt found on the same edge
-				List<Element> klist = new ArrayList<Element>();
-				klist.add(tempEdge);
-				NextPunktObjektPathResult res = new NextPunktObjektPathResult(klist, minimumPunktObj, minimumDistance);
-				returnval.add(res);
-			} else { // continue searching on the next edge(s)
-				boolean searchdirection = true;
-				if (!startWirkrichtung.equals("gegen") && forward) {
-					searchdirection = true;
-				} else if (!startWirkrichtung.equals("gegen") && !forward) {
-					searchdirection = false;
-				} else if (startWirkrichtung.equals("gegen") && forward) {
-					searchdirection = false;
-				} else if (startWirkrichtung.equals("gegen") && !forward) {
-					searchdirection = true;
-				}
-				List<NextTopKanteResult> edgelist = getNextTopKante(tempEdge, searchdirection);
-				for (int i = 0; i < edgelist.size(); i++) {
-					NextTopKanteResult temppair = edgelist.get(i);
-					Element newKante = temppair.topKanteElement;
-					boolean newDirection = temppair.direction;
-					String newKanteId = newKante.getChild("Identitaet").getChild("Wert").getText();
-					double tempNewKanteLength = Double.parseDouble(newKante.getChild("TOP_Kante_Allg").getChild("TOP_Laenge").getChild("Wert").getText());
-					tempNewKanteLength *= 1000.0;
-					int newKanteLength = (int) tempNewKanteLength;
-	
-					if (searchdirection && newDirection) {
-						String finalWirkrichtung = "beide";
-						boolean finalForward = true;
-						if(startWirkrichtung.equals("in")) {
-							finalWirkrichtung = "in";
-							finalForward = true;
-						}
-						if(startWirkrichtung.equals("gegen")) {
-							finalWirkrichtung = "gegen";
-							finalForward = false;
-						}
-						PunktObjekt newStartPunktObjekt = new PunktObjekt(newKanteId, 0, finalWirkrichtung);
-						List<NextPunktObjektPathResult> tempresultlist = getNextPunktObjektPaths(newStartPunktObjekt, condition, orientation, finalForward);
-						for (int j = 0; j < tempresultlist.size(); j++) {
-							NextPunktObjektPathResult tempresult = tempresultlist.get(j);
-							List<Element> trKantenList = tempresult.topKantenList;
-							Element trPoElem = tempresult.punktObjektElement;
-							int trDist = tempresult.distance;
-							int additionalDistance = edgeLength - startAbstand;
-							trKantenList.add(0, tempEdge);
-							trDist = trDist + additionalDistance;
-							tempresult = new NextPunktObjektPathResult(trKantenList, trPoElem, trDist);
-							returnval.add(tempresult);
-						}
-					} else if (searchdirection && !newDirection) {
-						String finalWirkrichtung = "beide";
-						boolean finalForward = false;
-						if(startWirkrichtung.equals("in")) {
-							finalWirkrichtung = "gegen";
-							finalForward = true;
-						}
-						if(startWirkrichtung.equals("gegen")) {
-							finalWirkrichtung = "in";
-							finalForward = false;
-						}
-						PunktObjekt newStartPunktObjekt = new PunktObjekt(newKanteId, newKanteLength, finalWirkrichtung);
-						List<NextPunktObjektPathResult> tempresultlist = getNextPunktObjektPaths(newStartPunktObjekt, condition, orientation, finalForward);
-						for (int j = 0; j < tempresultlist.size(); j++) {
-							NextPunktObjektPathResult tempresult = tempresultlist.get(j);
-							List<Element> trKantenList = tempresult.topKantenList;
-							Element trPoElem = tempresult.punktObjektElement;
-							int trDist = tempresult.distance;
-							int additionalDistance = edgeLength - startAbstand;
-							trKantenList.add(0, tempEdge);
-							trDist = trDist + additionalDistance;
-							tempresult = new NextPunktObjektPathResult(trKantenList, trPoElem, trDist);
-							returnval.add(tempresult);
-						}
-					} else if (!searchdirection && newDirection) {
-						String finalWirkrichtung = "beide";
-						boolean finalForward = true;
-						if(startWirkrichtung.equals("in")) {
-							finalWirkrichtung = "gegen";
-							finalForward = false;
-						}
-						if(startWirkrichtung.equals("gegen")) {
-							finalWirkrichtung = "in";
-							finalForward = true;
-						}
-						PunktObjekt newStartPunktObjekt = new PunktObjekt(newKanteId, 0, finalWirkrichtung);
-						List<NextPunktObjektPathResult> tempresultlist = getNextPunktObjektPaths(newStartPunktObjekt, condition, orientation, finalForward);
-						for (int j = 0; j < tempresultlist.size(); j++) {
-							NextPunktObjektPathResult tempresult = tempresultlist.get(j);
-							List<Element> trKantenList = tempresult.topKantenList;
-							Element trPoElem = tempresult.punktObjektElement;
-							int trDist = tempresult.distance;
-							int additionalDistance = startAbstand;
-							trKantenList.add(0, tempEdge);
-							trDist = trDist + additionalDistance;
-							tempresult = new NextPunktObjektPathResult(trKantenList, trPoElem, trDist);
-							returnval.add(tempresult);
-						}
-					} else if (!searchdirection && !newDirection) {
-						String finalWirkrichtung = "beide";
-						boolean finalForward = false;
-						if(startWirkrichtung.equals("in")) {
-							finalWirkrichtung = "in";
-							finalForward = false;
-						}
-						if(startWirkrichtung.equals("gegen")) {
-							finalWirkrichtung = "gegen";
-							finalForward = true;
-						}
-						PunktObjekt newStartPunktObjekt = new PunktObjekt(newKanteId, newKanteLength, finalWirkrichtung);
-						List<NextPunktObjektPathResult> tempresultlist = getNextPunktObjektPaths(newStartPunktObjekt, condition, orientation, finalForward);
-						for (int j = 0; j < tempresultlist.size(); j++) {
-							NextPunktObjektPathResult tempresult = tempresultlist.get(j);
-							List<Element> trKantenList = tempresult.topKantenList;
-							Element trPoElem = tempresult.punktObjektElement;
-							int trDist = tempresult.distance;
-							int additionalDistance = startAbstand;
-							trKantenList.add(0, tempEdge);
-							trDist = trDist + additionalDistance;
-							tempresult = new NextPunktObjektPathResult(trKantenList, trPoElem, trDist);
-							returnval.add(tempresult);
-						}
+	
+	/**
+	 * Traverses the track topology, beginning at a given position.
+	 * The visitor is called for the starting position and, depending on its decision, for the positions where the following
+	 * TOP_Kante objects are entered, which are visited in depth-first order. If the track branches, all branches are visited
+	 * in the order returned by {@link #getNextTopKante(Element, boolean)}, which are looked up in the {@link eplan.TopologyIndex}. The distance is accumulated and the effective direction
+	 * is transferred to each following TOP_Kante, so the visitor can treat every position as if it was on the starting TOP_Kante.
+	 * The traversal uses an explicit stack, so arbitrarily long paths can be traversed. Branches leading back to a position
+	 * which is already part of the current path are not followed.
+	 * If the forward value is true, the traversal follows the effective direction of the starting position, otherwise it goes backwards
+	 * (The effective direction "beide" will be handled like effective direction "in").
+	 * 
+	 * @param start the starting position
+	 * @param forward if the traversal direction should be the same as the effective direction of the starting position
+	 * @param visitor an object implementing {@link eplan.TraversalVisitor}, which is called for every position
+	 * @return the number of visited positions
+	 */
+	public int traverse(PunktObjektTopKante start, boolean forward, TraversalVisitor visitor) {
+		TraversalState startState = createStartState(start, forward);
+		int visited = 1;
+		try {
+			if(visitor.visit(startState) != TraversalVisitor.Action.CONTINUE || startState.topKante == null) {
+				return visited;
+			}
+			Deque<TraversalFrame> stack = new ArrayDeque<TraversalFrame>();
+			Set<String> currentPath = new HashSet<String>();
+			stack.push(new TraversalFrame(startState, getSuccessorStates(startState)));
+			while(!stack.isEmpty()) {
+				TraversalFrame frame = stack.peek();
+				if(frame.next >= frame.successors.size()) { // all branches done
+					stack.pop();
+					if(!frame.state.isStart()) {
+						currentPath.remove(frame.state.getKey());
 					}
+					continue;
 				}
+				TraversalState state = frame.successors.get(frame.next);
+				frame.next++;
+				if(currentPath.contains(state.getKey())) { // loop
+					continue;
+				}
+				visited++;
+				TraversalVisitor.Action action = visitor.visit(state);
+				if(action == TraversalVisitor.Action.STOP) {
+					return visited;
+				}
+				if(action == TraversalVisitor.Action.CONTINUE) {
+					currentPath.add(state.getKey());
+					stack.push(new TraversalFrame(state, getSuccessorStates(state)));
+				}
+			}
+		} finally {
+			profiler.countSearch(visited);
+		}
+		return visited;
+	}
+	
+	
+	/**
+	 * Creates the starting position of a traversal.
+	 * 
+	 * @param start the starting position
+	 * @param forward if the traversal direction should be the same as the effective direction of the starting position
+	 * @return the starting position of a traversal
+	 */
+	private TraversalState createStartState(PunktObjektTopKante start, boolean forward) {
+		TopologyIndex index = getTopologyIndex();
+		int startIndex = index.getEdgeIndex(start.idTopKante);
+		Element startEdge = null;
+		int edgeLength = 0;
+		if(startIndex >= 0) {
+			startEdge = index.getEdge(startIndex);
+			edgeLength = index.getEdgeLength(startIndex);
+		}
+		return new TraversalState(TopKantenPath.append(null, startEdge), start.idTopKante, start.abstand, start.wirkrichtung, forward, edgeLength, 0);
+	}
+	
+	
+	/**
+	 * Calculates the positions where the TOP_Kante objects following a given position are entered.
+	 * If the topological direction changes at the node, the effective direction is inverted,
+	 * so it keeps its meaning relative to the search direction.
+	 * 
+	 * @param state the current position
+	 * @return a list of the positions on the following TOP_Kante objects, in the order returned by {@link eplan.TopologyIndex#getSuccessorEdges(int, boolean)}
+	 */
+	private List<TraversalState> getSuccessorStates(TraversalState state) {
+		List<TraversalState> returnval = new ArrayList<TraversalState>();
+		int newDistance = state.distance + state.getRemainingDistance();
+		TopologyIndex index = getTopologyIndex();
+		int edge = index.getEdgeIndex(state.idTopKante);
+		if(edge < 0) { // unknown TOP_Kante
+			return returnval;
+		}
+		int[] edges = index.getSuccessorEdges(edge, state.searchDirection);
+		boolean[] directions = index.getSuccessorDirections(edge, state.searchDirection);
+		for (int i = 0; i < edges.length; i++) {
+			Element newKante = index.getEdge(edges[i]);
+			boolean newDirection = directions[i];
+			String newKanteId = newKante.getChild("Identitaet").getChild("Wert").getText();
+			int newKanteLength = index.getEdgeLength(edges[i]);
+			int newAbstand = 0;
+			if(!newDirection) {
+				newAbstand = newKanteLength;
 			}
+			String newWirkrichtung = state.wirkrichtung;
+			if(state.searchDirection != newDirection && state.wirkrichtung.equals("in")) {
+				newWirkrichtung = "gegen";
+			}
+			else if(state.searchDirection != newDirection && state.wirkrichtung.equals("gegen")) {
+				newWirkrichtung = "in";
+			}
+			// the search continues in the topological direction given by newDirection
+			boolean newForward = (newWirkrichtung.equals("gegen") != newDirection);
+			TopKantenPath newPath = TopKantenPath.append(state.path, newKante);
+			returnval.add(new TraversalState(newPath, newKanteId, newAbstand, newWirkrichtung, newForward, newKanteLength, newDistance));
 		}
 		return returnval;
 	}
 	
 	
+	/**
+	 * Finds the Punkt_Objekt which immediately follows a given position on the same TOP_Kante in search direction.
+	 * This is the search step on a single edge for {@link #getNextPunktObjektPaths(PunktObjekt, Evaluable, Direction, boolean)}
+	 * and {@link #getNearestPunktObjektPath(PunktObjekt, Evaluable, Direction, boolean)}.
+	 * The objects on the TOP_Kante are looked up in the {@link eplan.PunktObjektIndex} in the order of their distance,
+	 * so the search ends at the first matching object.
+	 * If several objects have the same distance, the first one in document order is returned.
+	 * 
+	 * @param startElement the DOM element of the starting Punkt_Objekt, which is excluded from the search, or null
+	 * @param state the position where the search starts
+	 * @param condition an object implementing {@link eplan.Evaluable}, restricting the search to these conditions
+	 * @param orientation a {@link eplan.PlanProModel.Direction} enum value, describing the relative orientation of the objects
+	 * @return a {@link eplan.NextPunktObjektPathResult} object with the path, the found Punkt_Objekt and its distance from the starting point of the traversal, or null if there is no such object on this edge
+	 */
+	private NextPunktObjektPathResult getNextPunktObjektOnEdge(Element startElement, TraversalState state, Evaluable condition, Direction orientation) {
+		for(PunktObjektIndex.Entry entry : getPunktObjektIndex().getEntries(state.idTopKante, state.abstand, state.searchDirection)) {
+			if(entry.punktObjektElement == startElement) {
+				continue;
+			}
+			if(!isMatchingOrientation(orientation, state.wirkrichtung, entry.wirkrichtung)) {
+				continue;
+			}
+			if(!evaluate(condition, entry.punktObjektElement)) {
+				continue;
+			}
+			return new NextPunktObjektPathResult(state.path, entry.punktObjektElement, state.distance + state.getDistanceTo(entry.abstand));
+		}
+		return null;
+	}
+	
+	
+	/**
+	 * Finds the Punkt_Objekt objects which immediately follow a given position on the same TOP_Kante in search direction,
+	 * for several targets at once. The objects on the TOP_Kante are looked up only once for all targets.
+	 * For each target, the result is the same as the result of {@link #getNextPunktObjektOnEdge(Element, TraversalState, Evaluable, Direction)},
+	 * unless it is beyond the maximum distance of the target.
+	 * 
+	 * @param startElement the DOM element of the starting Punkt_Objekt, which is excluded from the search, or null
+	 * @param state the position where the search starts
+	 * @param targets a list of {@link eplan.SearchTarget} objects, describing the searched objects
+	 * @param found flag for each target, if it was already found on the route, so it is not searched on this TOP_Kante
+	 * @return an array containing the found Punkt_Objekt for each target, with the distance from the starting point of the search, or null if there is no such object on this TOP_Kante
+	 */
+	private NextPunktObjektPathResult[] getNextPunktObjekteOnEdge(Element startElement, TraversalState state, List<SearchTarget> targets, boolean[] found) {
+		NextPunktObjektPathResult[] returnval = new NextPunktObjektPathResult[targets.size()];
+		// the targets which are found or out of range on this TOP_Kante
+		boolean[] done = found.clone();
+		int remainingTargets = 0;
+		for(int k = 0; k < targets.size(); k++) {
+			if(!done[k]) {
+				remainingTargets++;
+			}
+		}
+		for(PunktObjektIndex.Entry entry : getPunktObjektIndex().getEntries(state.idTopKante, state.abstand, state.searchDirection)) {
+			if(remainingTargets == 0) {
+				break;
+			}
+			if(entry.punktObjektElement == startElement) {
+				continue;
+			}
+			int dist = state.distance + state.getDistanceTo(entry.abstand);
+			for(int k = 0; k < targets.size(); k++) {
+				SearchTarget target = targets.get(k);
+				if(done[k]) {
+					continue;
+				}
+				if(dist > target.maxDistance) { // all following objects are also too far away
+					done[k] = true;
+					remainingTargets--;
+					continue;
+				}
+				if(!isMatchingOrientation(target.orientation, state.wirkrichtung, entry.wirkrichtung)) {
+					continue;
+				}
+				if(!evaluate(target.condition, entry.punktObjektElement)) {
+					continue;
+				}
+				returnval[k] = new NextPunktObjektPathResult(state.path, entry.punktObjektElement, dist);
+				done[k] = true;
+				remainingTargets--;
+			}
+		}
+		return returnval;
+	}
+	
+	
+	/**
+	 * Check if an object has the requested orientation, related to the effective direction of the starting object.
+	 * 
+	 * @param orientation a {@link eplan.PlanProModel.Direction} enum value, describing the requested relative orientation
+	 * @param startWirkrichtung the effective direction of the starting object, related to the TOP_Kante of the object
+	 * @param wirkrichtung the effective direction of the object
+	 * @return true if the object has the requested orientation, otherwise false
+	 */
+	private static boolean isMatchingOrientation(Direction orientation, String startWirkrichtung, String wirkrichtung) {
+		if(orientation == Direction.EQUAL && startWirkrichtung.equals("in") && wirkrichtung.equals("gegen") ||
+				orientation == Direction.EQUAL && startWirkrichtung.equals("gegen") && wirkrichtung.equals("in") ||
+				orientation == Direction.OPPOSITE && startWirkrichtung.equals("in") && wirkrichtung.equals("in") ||
+				orientation == Direction.OPPOSITE && startWirkrichtung.equals("gegen") && wirkrichtung.equals("gegen")) {
+			return false;
+		}
+		return true;
+	}
+	
+	
 	/**
 	 * Prints out the XML representation of the DOM tree.
 	 * 
@@ -0,0 +1,223 @@
+/**
+ * EPlan - Automated ETCS Planning Tool
+ * 
+ * Copyright (c) 2017-2025, The FormETCS Project. All rights reserved.
+ * This file is licensed under the terms of the Modified (3-Clause) BSD License.
+ * 
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package eplan;
+
+import java.io.IOException;
+
+import org.jdom2.JDOMException;
+
+/**
+ * Planning of one PlanPro file: reading the input plan, constructing the ETCS line and writing the generated plan.
+ * The planning options correspond to the command line options of {@link eplan.Main}.
+ * Errors are reported by exceptions, so several jobs can be executed in one program run.
+ * 
+ * @author Stefan Dillmann
+ *
+ */
+public class PlanningJob {
+	
+	/**
+	 * The name of the input file, or null if the input plan should be read from stdin.
+	 */
+	public String inputFile;
+	
+	/**
+	 * The name of the output file, or null if the generated plan should be printed to stdout.
+	 */
+	public String outputFile;
+	
+	/**
+	 * The ETCS level.
+	 */
+	public int etcslevel;
+	
+	/**
+	 * List of datapoint types which should be included into the planning, or null (see {@link eplan.Constructor#setSelectionLists(String[], String[])}).
+	 */
+	public String[] addlist;
+	
+	/**
+	 * List of datapoint types which should be omitted from planning, or null (see {@link eplan.Constructor#setSelectionLists(String[], String[])}).
+	 */
+	public String[] removelist;
+	
+	/**
+	 * Flag if compatibility mode for old PlanPro files should be used.
+	 */
+	public boolean compatibilityMode;
+	
+	/**
+	 * Flag if a new end state should be created as a copy of the start state.
+	 */
+	public boolean createEndState;
+	
+	/**
+	 * Flag if the start state should be deleted after planning.
+	 */
+	public boolean deleteStartState;
+	
+	/**
+	 * Maximum number of cached results per search condition, or 0 to disable caching.
+	 */
+	public int conditionCacheSize;
+	
+	/**
+	 * Maximum number of cached positions, or 0 to disable caching.
+	 */
+	public int positionCacheSize;
+	
+	/**
+	 * Flag if distance queries should be answered by the {@link eplan.DistanceOracle}.
+	 */
+	public boolean distanceOracle;
+	
+	/**
+	 * Number of threads used by the {@link eplan.Constructor}.
+	 */
+	public int threadCount;
+	
+	/**
+	 * The logging context for all messages of the job.
+	 */
+	public LogContext logContext;
+	
+	/**
+	 * The profiler measuring the phases of the job.
+	 */
+	public Profiler profiler;
+	
+	/**
+	 * The name of the file the measurements of the profiler are written into as JSON, or null if they should not be written.
+	 */
+	public String profileFile;
+	
+	
+	/**
+	 * Creates a new job with the default options: ETCS Level 2, all datapoint types, no caching, one thread,
+	 * no profiling and logging through the default context of the {@link eplan.Logger}.
+	 * 
+	 * @param in the name of the input file, or null to read from stdin
+	 * @param out the name of the output file, or null to print to stdout
+	 */
+	public PlanningJob(String in, String out) {
+		this.inputFile = in;
+		this.outputFile = out;
+		this.etcslevel = 2;
+		this.addlist = null;
+		this.removelist = null;
+		this.compatibilityMode = false;
+		this.createEndState = false;
+		this.deleteStartState = false;
+		this.conditionCacheSize = 0;
+		this.positionCacheSize = 0;
+		this.distanceOracle = false;
+		this.threadCount = 1;
+		this.logContext = Logger.getDefaultContext();
+		this.profiler = new Profiler(false);
+		this.profileFile = null;
+	}
+	
+	/**
+	 * Creates a copy of a job for other input and output files.
+	 * The copy gets its own profiler, with the same settings as the profiler of the other job.
+	 * 
+	 * @param other the job whose planning options are copied
+	 * @param in the name of the input file, or null to read from stdin
+	 * @param out the name of the output file, or null to print to stdout
+	 */
+	public PlanningJob(PlanningJob other, String in, String out) {
+		this.inputFile = in;
+		this.outputFile = out;
+		this.etcslevel = other.etcslevel;
+		this.addlist = other.addlist;
+		this.removelist = other.removelist;
+		this.compatibilityMode = other.compatibilityMode;
+		this.createEndState = other.createEndState;
+		this.deleteStartState = other.deleteStartState;
+		this.conditionCacheSize = other.conditionCacheSize;
+		this.positionCacheSize = other.positionCacheSize;
+		this.distanceOracle = other.distanceOracle;
+		this.threadCount = other.threadCount;
+		this.logContext = other.logContext;
+		this.profiler = new Profiler(other.profiler.isEnabled());
+		this.profiler.setObjectReportSize(other.profiler.getObjectReportSize());
+		this.profileFile = null;
+	}
+	
+	/**
+	 * Execute the planning.
+	 * Log messages are written to the logging context of the job, the logfile is not written.
+	 * The wall time of each phase is measured by the profiler of the job, whose measurements are written into the profile file if it is set.
+	 * 
+	 * @param toolname the name of the tool, written into the PlanPro header
+	 * @param toolversion the version of the tool, written into the PlanPro header
+	 * @throws JDOMException if an XML parse error occurs
+	 * @throws IOException if a file error occurs
+	 */
+	public void run(String toolname, String toolversion) throws JDOMException, IOException {
+		PlanProModel ppm = new PlanProModel(logContext);
+		ppm.setProfiler(profiler);
+		long start = profiler.start();
+		if(inputFile == null) {
+			ppm.readFromStdin();
+		}
+		else {
+			ppm.readFile(inputFile);
+		}
+		profiler.stop("parse", start);
+		if(createEndState) {
+			start = profiler.start();
+			ppm.createEndState();
+			profiler.stop("createEndState", start);
+		}
+		ppm.setDistanceOracleEnabled(distanceOracle);
+		ppm.setPositionCacheSize(positionCacheSize);
+		Constructor constructor = new Constructor(ppm, logContext);
+		constructor.setEtcslevel(etcslevel);
+		constructor.setSelectionLists(addlist, removelist);
+		constructor.setCompatibilityMode(compatibilityMode);
+		constructor.setConditionCacheSize(conditionCacheSize);
+		constructor.setThreadCount(threadCount);
+		constructor.constructEtcsLine();
+		if(ppm.getPositionCache() != null) {
+			logContext.debug("position cache: %s", ppm.getPositionCache());
+		}
+		if(deleteStartState) {
+			start = profiler.start();
+			ppm.deleteStartState();
+			profiler.stop("deleteStartState", start);
+		}
+		start = profiler.start();
+		ppm.updatePlanProHeader(toolname, toolversion);
+		profiler.stop("updatePlanProHeader", start);
+		start = profiler.start();
+		if(outputFile != null) {
+			ppm.writeFile(outputFile);
+		}
+		else {
+			System.out.println(ppm);
+		}
+		profiler.stop("write", start);
+		if(profileFile != null) {
+			profiler.writeJson(profileFile);
+		}
+	}
+	
+	/**
+	 * String representation of the object (only for debugging purposes).
+	 * 
+	 * @return String representation of the object
+	 */
+	@Override
+	public String toString() {
+		return "[" + inputFile + "," + outputFile + ",level " + etcslevel + "]";
+	}
+
+}
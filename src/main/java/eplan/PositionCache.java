@@ -0,0 +1,197 @@
+/**
+ * EPlan - Automated ETCS Planning Tool
+ * 
+ * Copyright (c) 2017-2025, The FormETCS Project. All rights reserved.
+ * This file is licensed under the terms of the Modified (3-Clause) BSD License.
+ * 
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package eplan;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache for the results of {@link eplan.PlanProModel#calculatePosition(PunktObjekt, int)}.
+ * The results are stored per starting position on a TOP_Kante (identity of the TOP_Kante, Abstand and Wirkrichtung)
+ * and distance. The cache holds a bounded number of results; if the limit is reached, the least recently used result is dropped.
+ * As the calculated positions only depend on the track topology, the cache is valid as long as the
+ * {@link eplan.TopologyIndex} it was created for. Cached results are copied on each access,
+ * so callers may modify the returned positions.
+ * 
+ * @author Stefan Dillmann
+ *
+ */
+public class PositionCache {
+	
+	/**
+	 * The topology index the cached results were calculated with.
+	 */
+	private final TopologyIndex index;
+	
+	/**
+	 * The cached results, in access order.
+	 */
+	private LinkedHashMap<String, List<PunktObjekt>> cache;
+	
+	/**
+	 * Number of calculations answered from the cache.
+	 */
+	private long hitCount;
+	
+	/**
+	 * Number of calculations that were not found in the cache.
+	 */
+	private long missCount;
+	
+	/**
+	 * Number of results dropped from the cache because the limit was reached.
+	 */
+	private long evictionCount;
+	
+	
+	/**
+	 * Creates a new, empty cache.
+	 * 
+	 * @param index the topology index the cached results are calculated with
+	 * @param maxSize the maximum number of cached results
+	 */
+	public PositionCache(TopologyIndex index, final int maxSize) {
+		this.index = index;
+		cache = new LinkedHashMap<String, List<PunktObjekt>>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, List<PunktObjekt>> eldest) {
+				if(size() > maxSize) {
+					evictionCount++;
+					return true;
+				}
+				return false;
+			}
+		};
+		hitCount = 0;
+		missCount = 0;
+		evictionCount = 0;
+	}
+	
+	/**
+	 * Get the topology index the cached results were calculated with.
+	 * 
+	 * @return the topology index
+	 */
+	public TopologyIndex getTopologyIndex() {
+		return index;
+	}
+	
+	/**
+	 * Get the cached positions for a starting position and distance.
+	 * 
+	 * @param start the starting position
+	 * @param distance the distance in millimeters
+	 * @return a copy of the cached positions, or null if they are not in the cache
+	 */
+	public List<PunktObjekt> get(PunktObjektTopKante start, int distance) {
+		List<PunktObjekt> cachedValue;
+		synchronized(cache) {
+			cachedValue = cache.get(getKey(start, distance));
+			if(cachedValue == null) {
+				missCount++;
+				return null;
+			}
+			hitCount++;
+		}
+		return copy(cachedValue);
+	}
+	
+	/**
+	 * Store the calculated positions for a starting position and distance.
+	 * 
+	 * @param start the starting position
+	 * @param distance the distance in millimeters
+	 * @param positions the calculated positions, which are copied into the cache
+	 */
+	public void put(PunktObjektTopKante start, int distance, List<PunktObjekt> positions) {
+		List<PunktObjekt> value = copy(positions);
+		synchronized(cache) {
+			cache.put(getKey(start, distance), value);
+		}
+	}
+	
+	/**
+	 * Get the number of calculations answered from the cache.
+	 * 
+	 * @return the number of cache hits
+	 */
+	public long getHitCount() {
+		synchronized(cache) {
+			return hitCount;
+		}
+	}
+	
+	/**
+	 * Get the number of calculations that were not found in the cache.
+	 * 
+	 * @return the number of cache misses
+	 */
+	public long getMissCount() {
+		synchronized(cache) {
+			return missCount;
+		}
+	}
+	
+	/**
+	 * Get the number of results dropped from the cache because the limit was reached.
+	 * 
+	 * @return the number of evicted results
+	 */
+	public long getEvictionCount() {
+		synchronized(cache) {
+			return evictionCount;
+		}
+	}
+	
+	/**
+	 * Get the key of a starting position and distance.
+	 * 
+	 * @param start the starting position
+	 * @param distance the distance in millimeters
+	 * @return the key
+	 */
+	private static String getKey(PunktObjektTopKante start, int distance) {
+		return start.idTopKante + ":" + start.abstand + ":" + start.wirkrichtung + ":" + distance;
+	}
+	
+	/**
+	 * Copies a list of positions.
+	 * 
+	 * @param positions the positions to copy
+	 * @return a new list containing copies of all positions
+	 */
+	private static List<PunktObjekt> copy(List<PunktObjekt> positions) {
+		List<PunktObjekt> returnval = new ArrayList<PunktObjekt>(positions.size());
+		for(PunktObjekt po : positions) {
+			returnval.add(new PunktObjekt(po));
+		}
+		return returnval;
+	}
+	
+	/**
+	 * String representation of the object (only for debugging purposes).
+	 * Contains the cache statistics.
+	 * 
+	 * @return String representation of the object
+	 */
+	@Override
+	public String toString() {
+		long hits = getHitCount();
+		long total = hits + getMissCount();
+		long rate = 0;
+		if(total > 0) {
+			rate = Math.round(100.0 * hits / total);
+		}
+		return "{hits=" + hits + ", total=" + total + ", rate=" + rate + "%, evictions=" + getEvictionCount() + "}";
+	}
+
+}
@@ -0,0 +1,717 @@
+/**
+ * EPlan - Automated ETCS Planning Tool
+ * 
+ * Copyright (c) 2017-2025, The FormETCS Project. All rights reserved.
+ * This file is licensed under the terms of the Modified (3-Clause) BSD License.
+ * 
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package eplan;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.jdom2.Element;
+
+/**
+ * Measurement of the wall time of the phases of a planning run and counters for frequently called operations.
+ * A disabled profiler ignores all calls after checking a flag, so the measurement points can remain in the code.
+ * Optionally, the time, searches and condition evaluations of the placement rules are attributed to the PlanPro objects
+ * (usually signals) they are executed for, to find the objects causing the highest effort.
+ * Also optionally, the bytes allocated by the current thread are measured per phase, which covers all allocations of a phase
+ * as long as the planning runs in one thread.
+ * All methods can be called from several threads at once.
+ * 
+ * @author Stefan Dillmann
+ *
+ */
+public class Profiler {
+	
+	/**
+	 * Enum for the counted operations.
+	 * 
+	 */
+	public enum Counter {
+		/** Calls of {@link eplan.PlanProModel#getPlanProObjectList()} */
+		PLANPRO_OBJECT_LIST("getPlanProObjectList"),
+		
+		/** Calls of {@link eplan.PlanProModel#getElementbyId(String)} */
+		ELEMENT_BY_ID("getElementbyId"),
+		
+		/** Calls of {@link eplan.PlanProModel#getNextTopKante(org.jdom2.Element, boolean)} */
+		NEXT_TOP_KANTE("getNextTopKante"),
+		
+		/** Evaluations of search conditions on candidate objects */
+		CONDITION_EVALUATE("evaluate"),
+		
+		/** Traversals of the track topology */
+		SEARCH("searches"),
+		
+		/** TOP_Kante positions visited by all traversals */
+		EDGES_VISITED("edgesVisited");
+		
+		/**
+		 * Name of the counter in the report.
+		 */
+		private final String label;
+		
+		/**
+		 * Creates a new enum value.
+		 * 
+		 * @param label the name of the counter in the report
+		 */
+		private Counter(String label) {
+			this.label = label;
+		}
+		
+		/**
+		 * Get the name of the counter in the report.
+		 * 
+		 * @return the name of the counter
+		 */
+		public String getLabel() {
+			return label;
+		}
+	}
+	
+	/**
+	 * Effort of a placement rule for one PlanPro object.
+	 * 
+	 * @author Stefan Dillmann
+	 *
+	 */
+	public static class ObjectCost {
+		
+		/**
+		 * The name of the placement pass.
+		 */
+		public final String pass;
+		
+		/**
+		 * The DOM element of the PlanPro object.
+		 */
+		public final Element object;
+		
+		/**
+		 * The name of the PlanPro object in the report, e.g. the name of a signal.
+		 */
+		public final String name;
+		
+		/**
+		 * The kilometer mark value of the PlanPro object in the report.
+		 */
+		public final String km;
+		
+		/**
+		 * The wall time in nanoseconds.
+		 */
+		public long time;
+		
+		/**
+		 * The number of traversals of the track topology.
+		 */
+		public long searches;
+		
+		/**
+		 * The number of TOP_Kante positions visited by the traversals.
+		 */
+		public long edgesVisited;
+		
+		/**
+		 * The number of evaluated search conditions.
+		 */
+		public long evaluations;
+		
+		/**
+		 * Creates a new object without effort.
+		 * 
+		 * @param pass the name of the placement pass
+		 * @param object the DOM element of the PlanPro object
+		 * @param name the name of the PlanPro object in the report
+		 * @param km the kilometer mark value of the PlanPro object in the report
+		 */
+		public ObjectCost(String pass, Element object, String name, String km) {
+			this.pass = pass;
+			this.object = object;
+			this.name = name;
+			this.km = km;
+			this.time = 0;
+			this.searches = 0;
+			this.edgesVisited = 0;
+			this.evaluations = 0;
+		}
+		
+		/**
+		 * Add the effort of another object.
+		 * 
+		 * @param other the effort to add
+		 */
+		synchronized void add(ObjectCost other) {
+			time += other.time;
+			searches += other.searches;
+			edgesVisited += other.edgesVisited;
+			evaluations += other.evaluations;
+		}
+		
+		/**
+		 * Get the GUID of the PlanPro object.
+		 * 
+		 * @return the GUID
+		 */
+		public String getGuid() {
+			return object.getChild("Identitaet").getChild("Wert").getText();
+		}
+		
+		/**
+		 * String representation of the object (only for debugging purposes).
+		 * This is the line of the object in the report.
+		 * 
+		 * @return String representation of the object
+		 */
+		@Override
+		public synchronized String toString() {
+			return String.format("%-8s %-10s %-12s %-12s %-36s %12.3f %10d %12d %12d", pass, object.getName(),
+					name, km, getGuid(),
+					time / 1e6, searches, edgesVisited, evaluations);
+		}
+	
+	}
+	
+	/**
+	 * Effort of the PlanPro object the current thread is working on.
+	 * 
+	 * @author Stefan Dillmann
+	 *
+	 */
+	private static class Attribution {
+		
+		/**
+		 * The effort since the start of the attribution.
+		 */
+		final ObjectCost cost;
+		
+		/**
+		 * The start time of the attribution.
+		 */
+		final long start;
+		
+		/**
+		 * Creates a new attribution, starting now.
+		 * 
+		 * @param pass the name of the placement pass
+		 * @param object the DOM element of the PlanPro object
+		 * @param name the name of the PlanPro object in the report
+		 * @param km the kilometer mark value of the PlanPro object in the report
+		 */
+		Attribution(String pass, Element object, String name, String km) {
+			this.cost = new ObjectCost(pass, object, name, km);
+			this.start = System.nanoTime();
+		}
+	
+	}
+	
+	
+	/**
+	 * Flag if measurements are recorded.
+	 */
+	private final boolean enabled;
+	
+	/**
+	 * Accumulated wall time per phase in nanoseconds, in the order the phases were first recorded.
+	 */
+	private Map<String, Long> phaseTimes;
+	
+	/**
+	 * The counter values, indexed by the ordinal of the {@link Counter}.
+	 */
+	private AtomicLongArray counters;
+	
+	/**
+	 * Maximum number of positions visited by one traversal.
+	 */
+	private AtomicLong maxEdgesPerSearch;
+	
+	/**
+	 * Number of objects listed in the report of the most expensive objects, or 0 if the effort is not attributed to objects.
+	 */
+	private int objectReportSize;
+	
+	/**
+	 * The accumulated effort per placement pass and object, in the order the objects were first attributed.
+	 */
+	private Map<String, ObjectCost> objectCosts;
+	
+	/**
+	 * The object the current thread is working on, or null.
+	 */
+	private final ThreadLocal<Attribution> currentAttribution;
+	
+	/**
+	 * The thread bean measuring the allocated bytes, or null if allocations are not measured.
+	 */
+	private com.sun.management.ThreadMXBean allocationBean;
+	
+	/**
+	 * Accumulated allocated bytes per phase, in the order the phases were first recorded.
+	 */
+	private Map<String, Long> phaseAllocations;
+	
+	/**
+	 * The allocated bytes of the current thread at the start of each running phase, the innermost phase first.
+	 */
+	private final ThreadLocal<Deque<Long>> allocationStarts;
+	
+	
+	/**
+	 * Creates a new profiler without measurements.
+	 * 
+	 * @param enabled true to record measurements, false to ignore all calls
+	 */
+	public Profiler(boolean enabled) {
+		this.enabled = enabled;
+		this.phaseTimes = new LinkedHashMap<String, Long>();
+		this.counters = new AtomicLongArray(Counter.values().length);
+		this.maxEdgesPerSearch = new AtomicLong();
+		this.objectReportSize = 0;
+		this.objectCosts = new LinkedHashMap<String, ObjectCost>();
+		this.currentAttribution = new ThreadLocal<Attribution>();
+		this.allocationBean = null;
+		this.phaseAllocations = new LinkedHashMap<String, Long>();
+		this.allocationStarts = new ThreadLocal<Deque<Long>>();
+	}
+	
+	/**
+	 * Check if measurements are recorded.
+	 * 
+	 * @return true if the profiler is enabled
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+	
+	/**
+	 * Enable the attribution of the effort of the placement rules to the PlanPro objects they are executed for.
+	 * This only has an effect if the profiler is enabled.
+	 * 
+	 * @param size the number of objects listed in the report of the most expensive objects, or 0 to disable the attribution
+	 */
+	public void setObjectReportSize(int size) {
+		this.objectReportSize = size;
+	}
+	
+	/**
+	 * Get the number of objects listed in the report of the most expensive objects.
+	 * 
+	 * @return the number of objects, or 0 if the effort is not attributed to objects
+	 */
+	public int getObjectReportSize() {
+		return objectReportSize;
+	}
+	
+	/**
+	 * Check if the effort is attributed to PlanPro objects.
+	 * 
+	 * @return true if the profiler is enabled and the object report size is positive
+	 */
+	public boolean isAttributionEnabled() {
+		return enabled && objectReportSize > 0;
+	}
+	
+	/**
+	 * Measure the bytes allocated by the thread executing each phase.
+	 * This only has an effect if the profiler is enabled. It must be called before the first phase is started.
+	 * 
+	 * @throws UnsupportedOperationException if the JVM cannot measure the allocations of a thread
+	 */
+	public void enableAllocationTracking() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if(!(bean instanceof com.sun.management.ThreadMXBean)) {
+			throw new UnsupportedOperationException("allocation tracking is not supported by this JVM");
+		}
+		com.sun.management.ThreadMXBean allocBean = (com.sun.management.ThreadMXBean) bean;
+		if(!allocBean.isThreadAllocatedMemorySupported()) {
+			throw new UnsupportedOperationException("allocation tracking is not supported by this JVM");
+		}
+		allocBean.setThreadAllocatedMemoryEnabled(true);
+		this.allocationBean = allocBean;
+	}
+	
+	/**
+	 * Check if the allocated bytes are measured.
+	 * 
+	 * @return true if the profiler is enabled and allocation tracking has been enabled
+	 */
+	public boolean isAllocationTrackingEnabled() {
+		return enabled && allocationBean != null;
+	}
+	
+	/**
+	 * Attribute the following effort of the current thread to a PlanPro object, until {@link #endAttribution()} is called
+	 * or another object is attributed. The effort of a pass for the same object is added up.
+	 * The name and kilometer mark value of the object are only used in the report, so they are passed by the caller,
+	 * which knows the type of the object.
+	 * 
+	 * @param pass the name of the placement pass
+	 * @param object the DOM element of the PlanPro object, usually a signal
+	 * @param name the name of the PlanPro object in the report
+	 * @param km the kilometer mark value of the PlanPro object in the report
+	 */
+	public void beginAttribution(String pass, Element object, String name, String km) {
+		if(!isAttributionEnabled()) {
+			return;
+		}
+		endAttribution();
+		currentAttribution.set(new Attribution(pass, object, name, km));
+	}
+	
+	/**
+	 * End the attribution of the current thread, if any.
+	 */
+	public void endAttribution() {
+		if(!isAttributionEnabled()) {
+			return;
+		}
+		Attribution attribution = currentAttribution.get();
+		if(attribution == null) {
+			return;
+		}
+		currentAttribution.remove();
+		attribution.cost.time = System.nanoTime() - attribution.start;
+		String key = attribution.cost.pass + "/" + attribution.cost.getGuid();
+		ObjectCost total;
+		synchronized(objectCosts) {
+			total = objectCosts.get(key);
+			if(total == null) {
+				total = new ObjectCost(attribution.cost.pass, attribution.cost.object, attribution.cost.name, attribution.cost.km);
+				objectCosts.put(key, total);
+			}
+		}
+		total.add(attribution.cost);
+	}
+	
+	/**
+	 * Get the PlanPro objects with the highest effort.
+	 * 
+	 * @param count the maximum number of objects
+	 * @return the effort per placement pass and object, ordered by decreasing time
+	 */
+	public List<ObjectCost> getMostExpensiveObjects(int count) {
+		List<ObjectCost> returnval;
+		synchronized(objectCosts) {
+			returnval = new ArrayList<ObjectCost>(objectCosts.values());
+		}
+		Collections.sort(returnval, new Comparator<ObjectCost>() {
+			@Override
+			public int compare(ObjectCost o1, ObjectCost o2) {
+				return Long.compare(o2.time, o1.time);
+			}
+		});
+		if(returnval.size() > count) {
+			returnval = new ArrayList<ObjectCost>(returnval.subList(0, count));
+		}
+		return returnval;
+	}
+	
+	/**
+	 * Start the time measurement of a phase.
+	 * 
+	 * @return the start time, which must be passed to {@link #stop(String, long)}
+	 */
+	public long start() {
+		if(!enabled) {
+			return 0;
+		}
+		if(allocationBean != null) {
+			Deque<Long> starts = allocationStarts.get();
+			if(starts == null) {
+				starts = new ArrayDeque<Long>();
+				allocationStarts.set(starts);
+			}
+			starts.push(allocationBean.getCurrentThreadAllocatedBytes());
+		}
+		return System.nanoTime();
+	}
+	
+	/**
+	 * End the time measurement of a phase.
+	 * If a phase is measured several times, the times are added up.
+	 * Phases of one thread must be stopped in the reverse order they were started.
+	 * 
+	 * @param phase the name of the phase
+	 * @param start the start time, as returned by {@link #start()}
+	 */
+	public void stop(String phase, long start) {
+		if(!enabled) {
+			return;
+		}
+		long duration = System.nanoTime() - start;
+		synchronized(phaseTimes) {
+			Long previous = phaseTimes.get(phase);
+			phaseTimes.put(phase, (previous == null) ? duration : previous + duration);
+		}
+		if(allocationBean != null) {
+			long allocated = allocationBean.getCurrentThreadAllocatedBytes() - allocationStarts.get().pop();
+			synchronized(phaseAllocations) {
+				Long previous = phaseAllocations.get(phase);
+				phaseAllocations.put(phase, (previous == null) ? allocated : previous + allocated);
+			}
+		}
+	}
+	
+	/**
+	 * Increase a counter by one.
+	 * 
+	 * @param counter the counter
+	 */
+	public void count(Counter counter) {
+		if(!enabled) {
+			return;
+		}
+		counters.incrementAndGet(counter.ordinal());
+		if(counter == Counter.CONDITION_EVALUATE && objectReportSize > 0) {
+			Attribution attribution = currentAttribution.get();
+			if(attribution != null) {
+				attribution.cost.evaluations++;
+			}
+		}
+	}
+	
+	/**
+	 * Record a finished traversal of the track topology.
+	 * 
+	 * @param edges the number of positions visited by the traversal
+	 */
+	public void countSearch(long edges) {
+		if(!enabled) {
+			return;
+		}
+		counters.incrementAndGet(Counter.SEARCH.ordinal());
+		counters.addAndGet(Counter.EDGES_VISITED.ordinal(), edges);
+		long max = maxEdgesPerSearch.get();
+		while(edges > max && !maxEdgesPerSearch.compareAndSet(max, edges)) {
+			max = maxEdgesPerSearch.get();
+		}
+		if(objectReportSize > 0) {
+			Attribution attribution = currentAttribution.get();
+			if(attribution != null) {
+				attribution.cost.searches++;
+				attribution.cost.edgesVisited += edges;
+			}
+		}
+	}
+	
+	/**
+	 * Get the value of a counter.
+	 * 
+	 * @param counter the counter
+	 * @return the number of counted operations
+	 */
+	public long getCount(Counter counter) {
+		return counters.get(counter.ordinal());
+	}
+	
+	/**
+	 * Get the maximum number of positions visited by one traversal.
+	 * 
+	 * @return the maximum number of visited positions, or 0 if no traversal was recorded
+	 */
+	public long getMaxEdgesPerSearch() {
+		return maxEdgesPerSearch.get();
+	}
+	
+	/**
+	 * Get the measured phases.
+	 * 
+	 * @return a copy of the accumulated wall time per phase in nanoseconds, in the order the phases were first recorded
+	 */
+	public Map<String, Long> getPhaseTimes() {
+		synchronized(phaseTimes) {
+			return new LinkedHashMap<String, Long>(phaseTimes);
+		}
+	}
+	
+	/**
+	 * Get the allocations of the measured phases.
+	 * 
+	 * @return a copy of the accumulated allocated bytes per phase, in the order the phases were first recorded
+	 */
+	public Map<String, Long> getPhaseAllocations() {
+		synchronized(phaseAllocations) {
+			return new LinkedHashMap<String, Long>(phaseAllocations);
+		}
+	}
+	
+	/**
+	 * Create a table of all measurements.
+	 * 
+	 * @return the lines of the table
+	 */
+	public List<String> createReport() {
+		List<String> returnval = new ArrayList<String>();
+		if(isAllocationTrackingEnabled()) {
+			Map<String, Long> allocations = getPhaseAllocations();
+			returnval.add(String.format("%-32s %14s %14s", "phase", "time [ms]", "allocated [MB]"));
+			for(Map.Entry<String, Long> entry : getPhaseTimes().entrySet()) {
+				Long allocated = allocations.get(entry.getKey());
+				returnval.add(String.format("%-32s %14.3f %14.3f", entry.getKey(), entry.getValue() / 1e6,
+						(allocated == null) ? 0.0 : allocated / 1e6));
+			}
+		}
+		else {
+			returnval.add(String.format("%-32s %14s", "phase", "time [ms]"));
+			for(Map.Entry<String, Long> entry : getPhaseTimes().entrySet()) {
+				returnval.add(String.format("%-32s %14.3f", entry.getKey(), entry.getValue() / 1e6));
+			}
+		}
+		returnval.add(String.format("%-32s %14s", "operation", "count"));
+		for(Counter counter : Counter.values()) {
+			returnval.add(String.format("%-32s %14d", counter.getLabel(), getCount(counter)));
+		}
+		long searches = getCount(Counter.SEARCH);
+		double average = (searches == 0) ? 0 : (double) getCount(Counter.EDGES_VISITED) / searches;
+		returnval.add(String.format("%-32s %14.1f", "edgesPerSearch (avg)", average));
+		returnval.add(String.format("%-32s %14d", "edgesPerSearch (max)", getMaxEdgesPerSearch()));
+		if(isAttributionEnabled()) {
+			returnval.add(String.format("%-8s %-10s %-12s %-12s %-36s %12s %10s %12s %12s", "pass", "object", "name", "km", "GUID",
+					"time [ms]", "searches", "edgesVisited", "evaluations"));
+			for(ObjectCost cost : getMostExpensiveObjects(objectReportSize)) {
+				returnval.add(cost.toString());
+			}
+		}
+		return returnval;
+	}
+	
+	/**
+	 * Write all measurements into a JSON file.
+	 * The file contains an object "phases" with the wall time per phase in milliseconds,
+	 * if allocations are measured an object "allocations" with the allocated bytes per phase,
+	 * an object "counters" with the counter values and, if the effort is attributed to PlanPro objects,
+	 * an array "objects" with the most expensive objects.
+	 * 
+	 * @param filename the name of the file to write into
+	 * @throws IOException if the file cannot be written
+	 */
+	public void writeJson(String filename) throws IOException {
+		List<String> lines = new ArrayList<String>();
+		lines.add("{");
+		lines.add("  \"phases\": {");
+		List<String> entries = new ArrayList<String>();
+		for(Map.Entry<String, Long> entry : getPhaseTimes().entrySet()) {
+			entries.add("    " + quote(entry.getKey()) + ": " + String.format(Locale.ROOT, "%.3f", entry.getValue() / 1e6));
+		}
+		lines.addAll(joinEntries(entries));
+		lines.add("  },");
+		if(isAllocationTrackingEnabled()) {
+			lines.add("  \"allocations\": {");
+			entries = new ArrayList<String>();
+			for(Map.Entry<String, Long> entry : getPhaseAllocations().entrySet()) {
+				entries.add("    " + quote(entry.getKey()) + ": " + entry.getValue());
+			}
+			lines.addAll(joinEntries(entries));
+			lines.add("  },");
+		}
+		lines.add("  \"counters\": {");
+		entries = new ArrayList<String>();
+		for(Counter counter : Counter.values()) {
+			entries.add("    " + quote(counter.getLabel()) + ": " + getCount(counter));
+		}
+		entries.add("    " + quote("maxEdgesPerSearch") + ": " + getMaxEdgesPerSearch());
+		lines.addAll(joinEntries(entries));
+		if(isAttributionEnabled()) {
+			lines.add("  },");
+			lines.add("  \"objects\": [");
+			entries = new ArrayList<String>();
+			for(ObjectCost cost : getMostExpensiveObjects(objectReportSize)) {
+				synchronized(cost) {
+					entries.add("    {\"pass\": " + quote(cost.pass) + ", \"type\": " + quote(cost.object.getName())
+							+ ", \"name\": " + quote(cost.name) + ", \"km\": " + quote(cost.km) + ", \"guid\": " + quote(cost.getGuid())
+							+ ", \"time\": " + String.format(Locale.ROOT, "%.3f", cost.time / 1e6) + ", \"searches\": " + cost.searches
+							+ ", \"edgesVisited\": " + cost.edgesVisited + ", \"evaluations\": " + cost.evaluations + "}");
+				}
+			}
+			lines.addAll(joinEntries(entries));
+			lines.add("  ]");
+		}
+		else {
+			lines.add("  }");
+		}
+		lines.add("}");
+		Files.write(Paths.get(filename), lines, StandardCharsets.UTF_8);
+	}
+	
+	/**
+	 * Separate the entries of a JSON object by commas.
+	 * 
+	 * @param entries the entries
+	 * @return the entries, each except the last one followed by a comma
+	 */
+	private static List<String> joinEntries(List<String> entries) {
+		List<String> returnval = new ArrayList<String>();
+		for(int i = 0; i < entries.size(); i++) {
+			returnval.add((i < entries.size() - 1) ? entries.get(i) + "," : entries.get(i));
+		}
+		return returnval;
+	}
+	
+	/**
+	 * Create a JSON string literal.
+	 * Quotes, backslashes and control characters are escaped, so phase names and labels can contain any characters.
+	 * This is also used by the benchmarks writing JSON results.
+	 * 
+	 * @param s the string
+	 * @return the quoted and escaped string
+	 */
+	static String quote(String s) {
+		StringBuilder returnval = new StringBuilder("\"");
+		for(int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if(c == '"' || c == '\\') {
+				returnval.append('\\').append(c);
+			}
+			else if(c == '\n') {
+				returnval.append("\\n");
+			}
+			else if(c == '\r') {
+				returnval.append("\\r");
+			}
+			else if(c == '\t') {
+				returnval.append("\\t");
+			}
+			else if(c < 0x20) {
+				returnval.append(String.format("\\u%04x", (int) c));
+			}
+			else {
+				returnval.append(c);
+			}
+		}
+		returnval.append('"');
+		return returnval.toString();
+	}
+	
+	/**
+	 * String representation of the object (only for debugging purposes).
+	 * 
+	 * @return String representation of the object
+	 */
+	@Override
+	public String toString() {
+		return "[" + (enabled ? "enabled" : "disabled") + "," + getPhaseTimes().size() + " phases,"
+				+ getCount(Counter.SEARCH) + " searches]";
+	}
+
+}
@@ -0,0 +1,272 @@
+/**
+ * EPlan - Automated ETCS Planning Tool
+ * 
+ * Copyright (c) 2017-2025, The FormETCS Project. All rights reserved.
+ * This file is licensed under the terms of the Modified (3-Clause) BSD License.
+ * 
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package eplan;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jdom2.Content;
+import org.jdom2.Element;
+
+/**
+ * Precomputed positions of the Punkt_Objekt objects of a {@link eplan.PlanProModel}.
+ * For each TOP_Kante, the index holds the Punkt_Objekt objects located on it, sorted by their position.
+ * Objects with the same position are sorted in document order, so a search along the TOP_Kante finds them
+ * in the same order as a sweep over all PlanPro objects. There is one list for each direction of the TOP_Kante,
+ * so the objects in front of a position can be looked up by a binary search in both search directions.
+ * Objects added through {@link eplan.PlanProModel#addObject(Element, Element)} are inserted into the index,
+ * for all other modifications the index must be rebuilt.
+ * 
+ * @author Stefan Dillmann
+ *
+ */
+public class PunktObjektIndex {
+	
+	/**
+	 * The Punkt_Objekt positions on each TOP_Kante in topological direction (A -> B), by the identity of the TOP_Kante.
+	 */
+	private Map<String, List<Entry>> ascendingEntries;
+	
+	/**
+	 * The Punkt_Objekt positions on each TOP_Kante against the topological direction (B -> A), by the identity of the TOP_Kante.
+	 */
+	private Map<String, List<Entry>> descendingEntries;
+	
+	/**
+	 * The position of each container element in document order.
+	 */
+	private Map<Element, Integer> containerOrdinals;
+	
+	/**
+	 * Order of the positions in topological direction, with objects in document order on the same position.
+	 */
+	private static final Comparator<Entry> ASCENDING = new Comparator<Entry>() {
+		@Override
+		public int compare(Entry e1, Entry e2) {
+			if(e1.abstand != e2.abstand) {
+				return Integer.compare(e1.abstand, e2.abstand);
+			}
+			return Long.compare(e1.order, e2.order);
+		}
+	};
+	
+	/**
+	 * Order of the positions against the topological direction, with objects in document order on the same position.
+	 */
+	private static final Comparator<Entry> DESCENDING = new Comparator<Entry>() {
+		@Override
+		public int compare(Entry e1, Entry e2) {
+			if(e1.abstand != e2.abstand) {
+				return Integer.compare(e2.abstand, e1.abstand);
+			}
+			return Long.compare(e1.order, e2.order);
+		}
+	};
+	
+	
+	/**
+	 * Creates the index for the current state of a model.
+	 * 
+	 * @param fachdatenElem the DOM element containing all Ausgabe_Fachdaten elements of the model
+	 */
+	public PunktObjektIndex(Element fachdatenElem) {
+		ascendingEntries = new HashMap<String, List<Entry>>();
+		descendingEntries = new HashMap<String, List<Entry>>();
+		containerOrdinals = new IdentityHashMap<Element, Integer>();
+		List<Element> ausgabeFachdatenList = fachdatenElem.getChildren("Ausgabe_Fachdaten");
+		for(int i = 0; i < ausgabeFachdatenList.size(); i++) {
+			Element containerElem = ausgabeFachdatenList.get(i).getChild("LST_Zustand_Ziel").getChild("Container");
+			containerOrdinals.put(containerElem, i);
+			List<Content> contentList = containerElem.getContent();
+			for(int j = 0; j < contentList.size(); j++) {
+				Content c = contentList.get(j);
+				if(c instanceof Element && PlanProModel.isPunktObjekt((Element) c)) {
+					addEntries((Element) c, ((long) i << 32) | j, false);
+				}
+			}
+		}
+		for(List<Entry> entries : ascendingEntries.values()) {
+			Collections.sort(entries, ASCENDING);
+		}
+		for(List<Entry> entries : descendingEntries.values()) {
+			Collections.sort(entries, DESCENDING);
+		}
+	}
+	
+	/**
+	 * Inserts a Punkt_Objekt which was appended to a container element.
+	 * Objects in other elements than the containers of the target state are ignored,
+	 * as they are not part of {@link eplan.PlanProModel#getPlanProObjectList()}.
+	 * 
+	 * @param container the DOM element of the container
+	 * @param object the DOM element of the Punkt_Objekt, which must be the last content of the container
+	 */
+	public void add(Element container, Element object) {
+		Integer ordinal = containerOrdinals.get(container);
+		if(ordinal == null) { // container created after the index
+			Element zustandElem = container.getParentElement();
+			if(zustandElem == null || !zustandElem.getName().equals("LST_Zustand_Ziel")) {
+				return;
+			}
+			Element ausgabeFachdatenElem = zustandElem.getParentElement();
+			ordinal = ausgabeFachdatenElem.getParentElement().getChildren("Ausgabe_Fachdaten").indexOf(ausgabeFachdatenElem);
+			containerOrdinals.put(container, ordinal);
+		}
+		addEntries(object, ((long) ordinal << 32) | (container.getContentSize() - 1), true);
+	}
+	
+	/**
+	 * Get the Punkt_Objekt objects in front of a position on a TOP_Kante, in the order of their distance from this position.
+	 * Objects exactly at the position are included. Objects with the same distance are returned in document order.
+	 * 
+	 * @param idTopKante the identity of the TOP_Kante
+	 * @param abstand the position on the TOP_Kante, as distance from node A in millimeters
+	 * @param searchDirection if the search follows the topological direction (A -> B) of the TOP_Kante
+	 * @return a read-only list of the positions of the Punkt_Objekt objects
+	 */
+	public List<Entry> getEntries(String idTopKante, int abstand, boolean searchDirection) {
+		List<Entry> entries;
+		if(searchDirection) {
+			entries = ascendingEntries.get(idTopKante);
+		}
+		else {
+			entries = descendingEntries.get(idTopKante);
+		}
+		if(entries == null) {
+			return Collections.emptyList();
+		}
+		// binary search for the first position which is not behind the given position
+		int low = 0;
+		int high = entries.size();
+		while(low < high) {
+			int mid = (low + high) >>> 1;
+			int midAbstand = entries.get(mid).abstand;
+			if(searchDirection && midAbstand < abstand || !searchDirection && midAbstand > abstand) {
+				low = mid + 1;
+			}
+			else {
+				high = mid;
+			}
+		}
+		return Collections.unmodifiableList(entries.subList(low, entries.size()));
+	}
+	
+	/**
+	 * Adds the positions of a Punkt_Objekt on all of its TOP_Kante objects.
+	 * 
+	 * @param object the DOM element of the Punkt_Objekt
+	 * @param order the position of the Punkt_Objekt in document order
+	 * @param sorted if the entries should be inserted at their sorted position, otherwise they are appended
+	 */
+	private void addEntries(Element object, long order, boolean sorted) {
+		for(Element topKantenElement : object.getChildren("Punkt_Objekt_TOP_Kante")) {
+			String idTopKante = topKantenElement.getChild("ID_TOP_Kante").getChild("Wert").getText();
+			double doubleAbstand = Double.parseDouble(topKantenElement.getChild("Abstand").getChild("Wert").getText());
+			doubleAbstand *= 1000.0;
+			String wirkrichtung = "beide";
+			if(topKantenElement.getChild("Wirkrichtung") != null) {
+				wirkrichtung = topKantenElement.getChild("Wirkrichtung").getChild("Wert").getText();
+			}
+			Entry entry = new Entry(object, (int) doubleAbstand, wirkrichtung, order);
+			insert(ascendingEntries, idTopKante, entry, sorted ? ASCENDING : null);
+			insert(descendingEntries, idTopKante, entry, sorted ? DESCENDING : null);
+		}
+	}
+	
+	/**
+	 * Inserts a position into the list of a TOP_Kante.
+	 * 
+	 * @param entryMap the lists of all TOP_Kante objects
+	 * @param idTopKante the identity of the TOP_Kante
+	 * @param entry the position to insert
+	 * @param comparator the order of the list, or null if the position should be appended
+	 */
+	private static void insert(Map<String, List<Entry>> entryMap, String idTopKante, Entry entry, Comparator<Entry> comparator) {
+		List<Entry> entries = entryMap.get(idTopKante);
+		if(entries == null) {
+			entries = new ArrayList<Entry>();
+			entryMap.put(idTopKante, entries);
+		}
+		if(comparator == null) {
+			entries.add(entry);
+			return;
+		}
+		int pos = Collections.binarySearch(entries, entry, comparator);
+		if(pos < 0) {
+			pos = -pos - 1;
+		}
+		else { // same object on the same position, keep the order of Punkt_Objekt_TOP_Kante
+			pos++;
+		}
+		entries.add(pos, entry);
+	}
+	
+	
+	/**
+	 * Position of a Punkt_Objekt on a TOP_Kante.
+	 * 
+	 * @author Stefan Dillmann
+	 *
+	 */
+	public static class Entry {
+		
+		/**
+		 * The DOM element of the Punkt_Objekt.
+		 */
+		public final Element punktObjektElement;
+		
+		/**
+		 * The position on the TOP_Kante, as distance from node A in millimeters.
+		 */
+		public final int abstand;
+		
+		/**
+		 * The effective direction of the Punkt_Objekt, related to the topological direction (A -> B) of the TOP_Kante.
+		 */
+		public final String wirkrichtung;
+		
+		/**
+		 * The position of the Punkt_Objekt in document order.
+		 */
+		private final long order;
+		
+		/**
+		 * Creates a new position.
+		 * 
+		 * @param e the DOM element of the Punkt_Objekt
+		 * @param abst the position on the TOP_Kante, as distance from node A in millimeters
+		 * @param wirkr the effective direction of the Punkt_Objekt
+		 * @param ord the position of the Punkt_Objekt in document order
+		 */
+		private Entry(Element e, int abst, String wirkr, long ord) {
+			this.punktObjektElement = e;
+			this.abstand = abst;
+			this.wirkrichtung = wirkr;
+			this.order = ord;
+		}
+		
+		/**
+		 * String representation of the object (only for debugging purposes).
+		 * 
+		 * @return String representation of the object
+		 */
+		@Override
+		public String toString() {
+			return "[" + punktObjektElement.getChild("Identitaet").getChild("Wert").getText() + "," + abstand + "," + wirkrichtung + "]";
+		}
+	
+	}
+
+}
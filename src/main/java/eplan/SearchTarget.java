@@ -0,0 +1,105 @@
+/**
+ * EPlan - Automated ETCS Planning Tool
+ * 
+ * Copyright (c) 2017-2025, The FormETCS Project. All rights reserved.
+ * This file is licensed under the terms of the Modified (3-Clause) BSD License.
+ * 
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package eplan;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import eplan.PlanProModel.Direction;
+
+/**
+ * Target of {@link eplan.PlanProModel#findNextPunktObjektPaths(PunktObjekt, List, boolean)}.
+ * It describes the searched Punkt_Objekt objects by a condition and a relative orientation,
+ * optionally limited to a maximum distance, and receives the objects found by the search.
+ * 
+ * @author Stefan Dillmann
+ *
+ */
+public class SearchTarget {
+	
+	/**
+	 * An object implementing {@link eplan.Evaluable}, restricting the search to these conditions.
+	 */
+	public Evaluable condition;
+	
+	/**
+	 * The relative orientation the found objects and the starting object should have.
+	 */
+	public Direction orientation;
+	
+	/**
+	 * The maximum distance from the starting object in millimeters. Objects which are farther away are not found.
+	 */
+	public int maxDistance;
+	
+	/**
+	 * The found objects, one for each branch of the track where such an object exists, in the order of the depth-first search.
+	 * This is the same as the result of {@link eplan.PlanProModel#getNextPunktObjektPaths(PunktObjekt, Evaluable, Direction, boolean)},
+	 * without the objects beyond the maximum distance.
+	 */
+	public List<NextPunktObjektPathResult> results;
+	
+	/**
+	 * Creates a new search target without distance limit.
+	 * 
+	 * @param cond an object implementing {@link eplan.Evaluable}, restricting the search to these conditions
+	 * @param o a {@link eplan.PlanProModel.Direction} enum value, describing the relative orientation of the objects
+	 */
+	public SearchTarget(Evaluable cond, Direction o) {
+		this(cond, o, Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * Creates a new search target.
+	 * 
+	 * @param cond an object implementing {@link eplan.Evaluable}, restricting the search to these conditions
+	 * @param o a {@link eplan.PlanProModel.Direction} enum value, describing the relative orientation of the objects
+	 * @param max the maximum distance from the starting object in millimeters
+	 */
+	public SearchTarget(Evaluable cond, Direction o, int max) {
+		this.condition = cond;
+		this.orientation = o;
+		this.maxDistance = max;
+		this.results = new ArrayList<NextPunktObjektPathResult>();
+	}
+	
+	/**
+	 * Get the found object with the lowest distance.
+	 * If several objects have the same distance, the one found first is returned.
+	 * 
+	 * @return the nearest found object, or null if no object was found
+	 */
+	public NextPunktObjektPathResult getNearest() {
+		return NextPunktObjektPathResult.nearest(results);
+	}
+	
+	/**
+	 * Get the object found first by the depth-first search.
+	 * 
+	 * @return the first found object, or null if no object was found
+	 */
+	public NextPunktObjektPathResult getFirst() {
+		if(results.isEmpty()) {
+			return null;
+		}
+		return results.get(0);
+	}
+	
+	/**
+	 * String representation of the object (only for debugging purposes).
+	 * 
+	 * @return String representation of the object
+	 */
+	@Override
+	public String toString() {
+		return "[" + condition + "," + orientation + "," + maxDistance + "," + results + "]";
+	}
+
+}
@@ -78,5 +78,37 @@ public class SignalAspectCondition implements Evaluable {
 		}
 		return false;
 	}
+	
+	/**
+	 * Estimated relative cost of a single evaluation.
+	 * Each evaluation scans the signal aspects and signal frames of the whole model.
+	 * 
+	 * @return the estimated cost of one evaluation
+	 */
+	@Override
+	public int getCost() {
+		return 1000;
+	}
+	
+	/**
+	 * String representation of the object (only for debugging purposes).
+	 * 
+	 * @return String representation of the object
+	 */
+	@Override
+	public String toString() {
+		return "aspect=" + signalAspectId;
+	}
+	
+	/**
+	 * Check if the result of the condition depends only on the given element and its child elements.
+	 * The signal aspects are separate objects referring to the signal, so the result depends on other objects of the model.
+	 * 
+	 * @return false
+	 */
+	@Override
+	public boolean isLocal() {
+		return false;
+	}
 
 }
@@ -0,0 +1,144 @@
+/**
+ * EPlan - Automated ETCS Planning Tool
+ * 
+ * Copyright (c) 2017-2025, The FormETCS Project. All rights reserved.
+ * This file is licensed under the terms of the Modified (3-Clause) BSD License.
+ * 
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package eplan;
+
+import java.util.AbstractList;
+
+import org.jdom2.Element;
+
+/**
+ * Immutable path of TOP_Kante objects, as found by the search functions of {@link eplan.PlanProModel}.
+ * Each path consists of its last TOP_Kante and a reference to the path before it,
+ * so extending a path takes constant time and all paths leading through the same edges share these common prefixes.
+ * The path can be used as a read-only list of DOM elements, beginning with the first traversed TOP_Kante.
+ * For random access, the elements are copied into an array once on first use.
+ * 
+ * @author Stefan Dillmann
+ *
+ */
+public class TopKantenPath extends AbstractList<Element> {
+	
+	/**
+	 * The path before the last TOP_Kante, or null if the path consists of one TOP_Kante only.
+	 */
+	private final TopKantenPath prefix;
+	
+	/**
+	 * The DOM element of the last TOP_Kante of the path.
+	 */
+	private final Element topKante;
+	
+	/**
+	 * The number of TOP_Kante objects in the path.
+	 */
+	private final int size;
+	
+	/**
+	 * The DOM elements of all TOP_Kante objects in order, or null if not needed yet.
+	 */
+	private volatile Element[] elements;
+	
+	
+	/**
+	 * Creates a new path.
+	 * 
+	 * @param p the path before the last TOP_Kante, or null
+	 * @param tk the DOM element of the last TOP_Kante
+	 */
+	private TopKantenPath(TopKantenPath p, Element tk) {
+		prefix = p;
+		topKante = tk;
+		if(p == null) {
+			size = 1;
+		}
+		else {
+			size = p.size + 1;
+		}
+		elements = null;
+	}
+	
+	/**
+	 * Creates a path by appending a TOP_Kante to an existing path.
+	 * The existing path is not changed.
+	 * 
+	 * @param p the existing path, or null to start a new path
+	 * @param tk the DOM element of the TOP_Kante to append
+	 * @return the extended path
+	 */
+	public static TopKantenPath append(TopKantenPath p, Element tk) {
+		return new TopKantenPath(p, tk);
+	}
+	
+	/**
+	 * Get the path before the last TOP_Kante.
+	 * 
+	 * @return the path without the last TOP_Kante, or null if the path consists of one TOP_Kante only
+	 */
+	public TopKantenPath getPrefix() {
+		return prefix;
+	}
+	
+	/**
+	 * Get the last TOP_Kante of the path.
+	 * 
+	 * @return the DOM element of the last TOP_Kante
+	 */
+	public Element getLast() {
+		return topKante;
+	}
+	
+	/**
+	 * Get a TOP_Kante of the path.
+	 * 
+	 * @param index the position in the path, beginning with 0 for the first traversed TOP_Kante
+	 * @return the DOM element of the TOP_Kante
+	 */
+	@Override
+	public Element get(int index) {
+		if(index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		if(index == size - 1) {
+			return topKante;
+		}
+		return toElementArray()[index];
+	}
+	
+	/**
+	 * Get the number of TOP_Kante objects in the path.
+	 * 
+	 * @return the length of the path
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * Get the DOM elements of all TOP_Kante objects in order.
+	 * The array is created on first use and must not be modified.
+	 * 
+	 * @return the DOM elements of the path
+	 */
+	private Element[] toElementArray() {
+		Element[] result = elements;
+		if(result == null) {
+			result = new Element[size];
+			TopKantenPath current = this;
+			for(int i = size - 1; i >= 0; i--) {
+				result[i] = current.topKante;
+				current = current.prefix;
+			}
+			elements = result;
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,619 @@
+/**
+ * EPlan - Automated ETCS Planning Tool
+ * 
+ * Copyright (c) 2017-2025, The FormETCS Project. All rights reserved.
+ * This file is licensed under the terms of the Modified (3-Clause) BSD License.
+ * 
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package eplan;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jdom2.Element;
+
+/**
+ * Precomputed information about the track topology of a {@link eplan.PlanProModel}.
+ * The TOP_Kante objects are numbered in document order. For each of them, the index holds the length,
+ * the connected TOP_Kante objects in both directions (as returned by {@link eplan.PlanProModel#getNextTopKante(Element, boolean)}),
+ * the connected component and an orientation parity.
+ * The parity is chosen so that an effective direction is inverted on the way from one TOP_Kante to another
+ * exactly if the parities of both TOP_Kante objects differ. This is only possible if every loop in the component
+ * inverts the effective direction an even number of times, which is checked for each component.
+ * Note that a common component does not imply that one TOP_Kante can be reached from the other,
+ * as a train can not change from one branch of a point to the other one. Therefore, reachability
+ * is calculated separately (on first use for each starting TOP_Kante).
+ * Furthermore, maximal sequences of TOP_Kante objects without branches are combined to chains.
+ * Each TOP_Kante has an offset within its chain, so that a position on it can be mapped to a position on the chain and back.
+ * The index must be rebuilt if TOP_Kante objects are added or removed.
+ * 
+ * @author Stefan Dillmann
+ *
+ */
+public class TopologyIndex {
+	
+	/**
+	 * The DOM elements of all TOP_Kante objects in document order.
+	 */
+	private List<Element> edgeList;
+	
+	/**
+	 * The numbers of the TOP_Kante objects by their identity.
+	 */
+	private Map<String, Integer> edgeIndexMap;
+	
+	/**
+	 * The lengths of the TOP_Kante objects in millimeters.
+	 */
+	private int[] edgeLength;
+	
+	/**
+	 * The numbers of the connected TOP_Kante objects, for each TOP_Kante and direction (see {@link #state(int, boolean)}).
+	 */
+	private int[][] successorEdges;
+	
+	/**
+	 * The search directions on the connected TOP_Kante objects, for each TOP_Kante and direction (see {@link #state(int, boolean)}).
+	 */
+	private boolean[][] successorDirections;
+	
+	/**
+	 * The number of the connected component of each TOP_Kante.
+	 */
+	private int[] component;
+	
+	/**
+	 * The orientation parity of each TOP_Kante.
+	 */
+	private boolean[] parity;
+	
+	/**
+	 * Flag for each component, if the orientation parity is consistent on all loops.
+	 */
+	private boolean[] parityConsistent;
+	
+	/**
+	 * The reachable TOP_Kante objects for each starting TOP_Kante, or null if not calculated yet.
+	 */
+	private BitSet[] reachable;
+	
+	/**
+	 * The numbers of the TOP_Kante objects of each chain, in chain direction.
+	 */
+	private int[][] chainEdges;
+	
+	/**
+	 * The lengths of the chains in millimeters.
+	 */
+	private int[] chainLength;
+	
+	/**
+	 * The number of the chain of each TOP_Kante.
+	 */
+	private int[] chain;
+	
+	/**
+	 * The position of each TOP_Kante within its chain.
+	 */
+	private int[] chainPosition;
+	
+	/**
+	 * Flag for each TOP_Kante, if its topological direction (A -> B) is the same as the chain direction.
+	 */
+	private boolean[] chainForward;
+	
+	/**
+	 * The offset of each TOP_Kante within its chain in millimeters.
+	 */
+	private int[] chainOffset;
+	
+	
+	/**
+	 * Creates a new TopologyIndex for the current state of a model.
+	 * 
+	 * @param ppm the model containing the TOP_Kante objects
+	 */
+	public TopologyIndex(PlanProModel ppm) {
+		edgeList = new ArrayList<Element>();
+		edgeIndexMap = new HashMap<String, Integer>();
+		for(Element e : ppm.getPlanProObjectList()) {
+			if(e.getName().equals("TOP_Kante")) {
+				edgeIndexMap.put(e.getChild("Identitaet").getChild("Wert").getText(), edgeList.size());
+				edgeList.add(e);
+			}
+		}
+		int n = edgeList.size();
+		edgeLength = new int[n];
+		String[] knotenA = new String[n];
+		String[] knotenB = new String[n];
+		String[] anschlussA = new String[n];
+		String[] anschlussB = new String[n];
+		Map<String, List<Integer>> incidentEdges = new HashMap<String, List<Integer>>();
+		for(int i = 0; i < n; i++) {
+			Element e = edgeList.get(i);
+			Element allg = e.getChild("TOP_Kante_Allg");
+			double tempEdgeLength = Double.parseDouble(allg.getChild("TOP_Laenge").getChild("Wert").getText());
+			tempEdgeLength *= 1000.0;
+			edgeLength[i] = (int) tempEdgeLength;
+			knotenA[i] = e.getChild("ID_TOP_Knoten_A").getChild("Wert").getText();
+			knotenB[i] = e.getChild("ID_TOP_Knoten_B").getChild("Wert").getText();
+			anschlussA[i] = allg.getChild("TOP_Anschluss_A").getChild("Wert").getText();
+			anschlussB[i] = allg.getChild("TOP_Anschluss_B").getChild("Wert").getText();
+			addIncidentEdge(incidentEdges, knotenA[i], i);
+			if(!knotenB[i].equals(knotenA[i])) {
+				addIncidentEdge(incidentEdges, knotenB[i], i);
+			}
+		}
+		successorEdges = new int[2 * n][];
+		successorDirections = new boolean[2 * n][];
+		for(int i = 0; i < n; i++) {
+			for(boolean forward : new boolean[] { true, false }) {
+				String knoten = forward ? knotenB[i] : knotenA[i];
+				String anschluss = forward ? anschlussB[i] : anschlussA[i];
+				List<Integer> edgelist = new ArrayList<Integer>();
+				List<Boolean> directionlist = new ArrayList<Boolean>();
+				for(int j : incidentEdges.get(knoten)) {
+					if(j == i) {
+						continue;
+					}
+					if(knotenA[j].equals(knoten) && isConnected(anschluss, anschlussA[j])) {
+						edgelist.add(j);
+						directionlist.add(true);
+					}
+					else if(knotenB[j].equals(knoten) && isConnected(anschluss, anschlussB[j])) {
+						edgelist.add(j);
+						directionlist.add(false);
+					}
+				}
+				int[] edges = new int[edgelist.size()];
+				boolean[] directions = new boolean[edgelist.size()];
+				for(int j = 0; j < edgelist.size(); j++) {
+					edges[j] = edgelist.get(j);
+					directions[j] = directionlist.get(j);
+				}
+				successorEdges[state(i, forward)] = edges;
+				successorDirections[state(i, forward)] = directions;
+			}
+		}
+		calculateComponents();
+		calculateChains();
+		reachable = new BitSet[n];
+	}
+	
+	/**
+	 * Add a TOP_Kante to the list of TOP_Kante objects ending at a TOP_Knoten.
+	 * 
+	 * @param incidentEdges the lists of TOP_Kante numbers by the identity of the TOP_Knoten
+	 * @param knoten the identity of the TOP_Knoten
+	 * @param index the number of the TOP_Kante
+	 */
+	private static void addIncidentEdge(Map<String, List<Integer>> incidentEdges, String knoten, int index) {
+		List<Integer> edges = incidentEdges.get(knoten);
+		if(edges == null) {
+			edges = new ArrayList<Integer>();
+			incidentEdges.put(knoten, edges);
+		}
+		edges.add(index);
+	}
+	
+	/**
+	 * Check if a train can pass from one TOP_Kante to another TOP_Kante at their common TOP_Knoten,
+	 * with the same rules as {@link eplan.PlanProModel#getNextTopKante(Element, boolean)}.
+	 * 
+	 * @param from the connection type of the TOP_Kante the train leaves
+	 * @param to the connection type of the TOP_Kante the train enters
+	 * @return true if the connection can be passed, otherwise false
+	 */
+	private static boolean isConnected(String from, String to) {
+		if(from.equals("Verbindung")) {
+			return to.equals("Verbindung");
+		}
+		if(from.equals("Links") || from.equals("Rechts")) {
+			return to.equals("Spitze");
+		}
+		if(from.equals("Spitze")) {
+			return to.equals("Links") || to.equals("Rechts");
+		}
+		return false;
+	}
+	
+	/**
+	 * Get the number of TOP_Kante objects.
+	 * 
+	 * @return the number of TOP_Kante objects
+	 */
+	public int getEdgeCount() {
+		return edgeList.size();
+	}
+	
+	/**
+	 * Get the number of a TOP_Kante.
+	 * 
+	 * @param guid the identity of the TOP_Kante
+	 * @return the number of the TOP_Kante, or -1 if no TOP_Kante exists for the given id
+	 */
+	public int getEdgeIndex(String guid) {
+		Integer index = edgeIndexMap.get(guid);
+		if(index == null) {
+			return -1;
+		}
+		return index.intValue();
+	}
+	
+	/**
+	 * Get the DOM element of a TOP_Kante.
+	 * 
+	 * @param index the number of the TOP_Kante
+	 * @return the DOM element of the TOP_Kante
+	 */
+	public Element getEdge(int index) {
+		return edgeList.get(index);
+	}
+	
+	/**
+	 * Get the length of a TOP_Kante.
+	 * 
+	 * @param index the number of the TOP_Kante
+	 * @return the length of the TOP_Kante in millimeters
+	 */
+	public int getEdgeLength(int index) {
+		return edgeLength[index];
+	}
+	
+	/**
+	 * Get the TOP_Kante objects which are directly connected to a given TOP_Kante in a specified search direction.
+	 * 
+	 * @param index the number of the TOP_Kante
+	 * @param forward if the search direction is the same as the topological direction (A -> B) of the TOP_Kante
+	 * @return the numbers of the connected TOP_Kante objects, in the order returned by {@link eplan.PlanProModel#getNextTopKante(Element, boolean)}
+	 */
+	public int[] getSuccessorEdges(int index, boolean forward) {
+		return successorEdges[state(index, forward)];
+	}
+	
+	/**
+	 * Get the search directions on the TOP_Kante objects which are directly connected to a given TOP_Kante in a specified search direction.
+	 * 
+	 * @param index the number of the TOP_Kante
+	 * @param forward if the search direction is the same as the topological direction (A -> B) of the TOP_Kante
+	 * @return the search directions on the connected TOP_Kante objects, in the same order as {@link #getSuccessorEdges(int, boolean)}
+	 */
+	public boolean[] getSuccessorDirections(int index, boolean forward) {
+		return successorDirections[state(index, forward)];
+	}
+	
+	/**
+	 * Get the connected component of a TOP_Kante.
+	 * 
+	 * @param index the number of the TOP_Kante
+	 * @return the number of the connected component
+	 */
+	public int getComponent(int index) {
+		return component[index];
+	}
+	
+	/**
+	 * Get the orientation parity of a TOP_Kante.
+	 * An effective direction is inverted on the way between two TOP_Kante objects of the same component
+	 * exactly if their parities differ, provided that {@link #isParityConsistent(int)} is true.
+	 * 
+	 * @param index the number of the TOP_Kante
+	 * @return the orientation parity
+	 */
+	public boolean getParity(int index) {
+		return parity[index];
+	}
+	
+	/**
+	 * Check if the orientation parity is valid for the component of a TOP_Kante.
+	 * This is not the case if the component contains a loop that inverts the effective direction (e.g. a reversing loop or a wye).
+	 * 
+	 * @param index the number of the TOP_Kante
+	 * @return true if the orientation parity is valid, otherwise false
+	 */
+	public boolean isParityConsistent(int index) {
+		return parityConsistent[component[index]];
+	}
+	
+	/**
+	 * Check if a TOP_Kante can be reached from another TOP_Kante, searching in any direction.
+	 * The result is calculated on first use for each starting TOP_Kante.
+	 * 
+	 * @param from the number of the starting TOP_Kante
+	 * @param to the number of the TOP_Kante to reach
+	 * @return true if the TOP_Kante is reachable, otherwise false
+	 */
+	public boolean isReachable(int from, int to) {
+		if(from == to) {
+			return true;
+		}
+		BitSet result;
+		synchronized(reachable) {
+			result = reachable[from];
+			if(result == null) {
+				result = calculateReachable(from);
+				reachable[from] = result;
+			}
+		}
+		return result.get(to);
+	}
+	
+	/**
+	 * Get the chain of a TOP_Kante.
+	 * 
+	 * @param index the number of the TOP_Kante
+	 * @return the number of the chain
+	 */
+	public int getChain(int index) {
+		return chain[index];
+	}
+	
+	/**
+	 * Get the TOP_Kante objects of a chain.
+	 * 
+	 * @param c the number of the chain
+	 * @return the numbers of the TOP_Kante objects, in chain direction
+	 */
+	public int[] getChainEdges(int c) {
+		return chainEdges[c];
+	}
+	
+	/**
+	 * Get the length of a chain.
+	 * 
+	 * @param c the number of the chain
+	 * @return the length of the chain in millimeters
+	 */
+	public int getChainLength(int c) {
+		return chainLength[c];
+	}
+	
+	/**
+	 * Get the position of a TOP_Kante within its chain.
+	 * 
+	 * @param index the number of the TOP_Kante
+	 * @return the position within the chain, beginning with 0
+	 */
+	public int getChainPosition(int index) {
+		return chainPosition[index];
+	}
+	
+	/**
+	 * Get the offset of a TOP_Kante within its chain.
+	 * 
+	 * @param index the number of the TOP_Kante
+	 * @return the distance from the beginning of the chain to the beginning of the TOP_Kante in millimeters
+	 */
+	public int getChainOffset(int index) {
+		return chainOffset[index];
+	}
+	
+	/**
+	 * Check if the topological direction (A -> B) of a TOP_Kante is the same as the direction of its chain.
+	 * 
+	 * @param index the number of the TOP_Kante
+	 * @return true if both directions are the same, otherwise false
+	 */
+	public boolean isChainForward(int index) {
+		return chainForward[index];
+	}
+	
+	/**
+	 * Calculates the position on the chain for a position on a TOP_Kante.
+	 * 
+	 * @param index the number of the TOP_Kante
+	 * @param abstand the position on the TOP_Kante, as distance from node A in millimeters
+	 * @return the position on the chain, as distance from the beginning of the chain in millimeters
+	 */
+	public int toChainOffset(int index, int abstand) {
+		if(chainForward[index]) {
+			return chainOffset[index] + abstand;
+		}
+		return chainOffset[index] + edgeLength[index] - abstand;
+	}
+	
+	/**
+	 * Calculates the position on a TOP_Kante for a position on the chain of the TOP_Kante.
+	 * 
+	 * @param index the number of the TOP_Kante
+	 * @param offset the position on the chain, as distance from the beginning of the chain in millimeters
+	 * @return the position on the TOP_Kante, as distance from node A in millimeters
+	 */
+	public int fromChainOffset(int index, int offset) {
+		if(chainForward[index]) {
+			return offset - chainOffset[index];
+		}
+		return chainOffset[index] + edgeLength[index] - offset;
+	}
+	
+	/**
+	 * Calculate the connected components and orientation parities.
+	 */
+	private void calculateComponents() {
+		int n = edgeList.size();
+		component = new int[n];
+		parity = new boolean[n];
+		List<Boolean> consistent = new ArrayList<Boolean>();
+		for(int i = 0; i < n; i++) {
+			component[i] = -1;
+		}
+		Deque<Integer> queue = new ArrayDeque<Integer>();
+		for(int i = 0; i < n; i++) {
+			if(component[i] >= 0) {
+				continue;
+			}
+			int c = consistent.size();
+			boolean ok = true;
+			component[i] = c;
+			parity[i] = false;
+			queue.add(i);
+			while(!queue.isEmpty()) {
+				int current = queue.poll();
+				for(boolean forward : new boolean[] { true, false }) {
+					int[] edges = successorEdges[state(current, forward)];
+					boolean[] directions = successorDirections[state(current, forward)];
+					for(int j = 0; j < edges.length; j++) {
+						// the effective direction is inverted if the topological direction changes at the node
+						boolean newParity = parity[current] ^ (forward != directions[j]);
+						int next = edges[j];
+						if(component[next] < 0) {
+							component[next] = c;
+							parity[next] = newParity;
+							queue.add(next);
+						}
+						else if(parity[next] != newParity) {
+							ok = false;
+						}
+					}
+				}
+			}
+			consistent.add(ok);
+		}
+		parityConsistent = new boolean[consistent.size()];
+		for(int i = 0; i < parityConsistent.length; i++) {
+			parityConsistent[i] = consistent.get(i);
+		}
+	}
+	
+	/**
+	 * Calculate the TOP_Kante objects reachable from a starting TOP_Kante, searching in both directions.
+	 * The search follows the connections between the TOP_Kante objects, so it can not change from one branch of a point to the other one.
+	 * 
+	 * @param from the number of the starting TOP_Kante
+	 * @return the set of reachable TOP_Kante objects
+	 */
+	private BitSet calculateReachable(int from) {
+		BitSet visitedStates = new BitSet(successorEdges.length);
+		BitSet result = new BitSet(edgeList.size());
+		Deque<Integer> queue = new ArrayDeque<Integer>();
+		queue.add(state(from, true));
+		queue.add(state(from, false));
+		visitedStates.set(state(from, true));
+		visitedStates.set(state(from, false));
+		result.set(from);
+		while(!queue.isEmpty()) {
+			int current = queue.poll();
+			int[] edges = successorEdges[current];
+			boolean[] directions = successorDirections[current];
+			for(int j = 0; j < edges.length; j++) {
+				int next = state(edges[j], directions[j]);
+				result.set(edges[j]);
+				if(!visitedStates.get(next)) {
+					visitedStates.set(next);
+					queue.add(next);
+				}
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Combine the TOP_Kante objects to chains.
+	 * Two TOP_Kante objects are in the same chain if each of them is the only connected TOP_Kante of the other one at their common node.
+	 */
+	private void calculateChains() {
+		int n = edgeList.size();
+		chain = new int[n];
+		chainPosition = new int[n];
+		chainForward = new boolean[n];
+		chainOffset = new int[n];
+		for(int i = 0; i < n; i++) {
+			chain[i] = -1;
+		}
+		List<int[]> chainList = new ArrayList<int[]>();
+		List<Integer> lengthList = new ArrayList<Integer>();
+		for(int i = 0; i < n; i++) {
+			if(chain[i] >= 0) {
+				continue;
+			}
+			// go backwards to the beginning of the chain
+			int head = i;
+			boolean headForward = true;
+			while(true) {
+				int previous = getChainSuccessor(head, !headForward);
+				if(previous < 0 || previous == i) {
+					break;
+				}
+				headForward = !successorDirections[state(head, !headForward)][0];
+				head = previous;
+			}
+			// collect the TOP_Kante objects in chain direction
+			int c = chainList.size();
+			List<Integer> edges = new ArrayList<Integer>();
+			int current = head;
+			boolean currentForward = headForward;
+			int offset = 0;
+			while(true) {
+				chain[current] = c;
+				chainPosition[current] = edges.size();
+				chainForward[current] = currentForward;
+				chainOffset[current] = offset;
+				edges.add(current);
+				offset += edgeLength[current];
+				int next = getChainSuccessor(current, currentForward);
+				if(next < 0 || chain[next] >= 0) {
+					break;
+				}
+				currentForward = successorDirections[state(current, currentForward)][0];
+				current = next;
+			}
+			int[] edgeArray = new int[edges.size()];
+			for(int j = 0; j < edgeArray.length; j++) {
+				edgeArray[j] = edges.get(j);
+			}
+			chainList.add(edgeArray);
+			lengthList.add(offset);
+		}
+		chainEdges = chainList.toArray(new int[0][]);
+		chainLength = new int[lengthList.size()];
+		for(int i = 0; i < chainLength.length; i++) {
+			chainLength[i] = lengthList.get(i);
+		}
+	}
+	
+	/**
+	 * Get the following TOP_Kante within a chain.
+	 * This is the case if the TOP_Kante has exactly one connected TOP_Kante in search direction,
+	 * which in turn has exactly the first one as connected TOP_Kante in reverse direction.
+	 * 
+	 * @param index the number of the TOP_Kante
+	 * @param forward if the search direction is the same as the topological direction (A -> B) of the TOP_Kante
+	 * @return the number of the following TOP_Kante, or -1 if the chain ends here
+	 */
+	private int getChainSuccessor(int index, boolean forward) {
+		int[] edges = successorEdges[state(index, forward)];
+		if(edges.length != 1 || edges[0] < 0 || edges[0] == index) {
+			return -1;
+		}
+		int next = edges[0];
+		boolean nextForward = successorDirections[state(index, forward)][0];
+		int[] backEdges = successorEdges[state(next, !nextForward)];
+		boolean[] backDirections = successorDirections[state(next, !nextForward)];
+		if(backEdges.length != 1 || backEdges[0] != index || backDirections[0] == forward) {
+			return -1;
+		}
+		return next;
+	}
+	
+	/**
+	 * Get the number of a directed TOP_Kante, used as index for the successor arrays.
+	 * 
+	 * @param index the number of the TOP_Kante
+	 * @param forward if the search direction is the same as the topological direction (A -> B) of the TOP_Kante
+	 * @return the number of the directed TOP_Kante
+	 */
+	private static int state(int index, boolean forward) {
+		if(forward) {
+			return 2 * index;
+		}
+		return 2 * index + 1;
+	}
+
+}
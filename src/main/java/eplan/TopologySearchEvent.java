@@ -0,0 +1,65 @@
+/**
+ * EPlan - Automated ETCS Planning Tool
+ * 
+ * Copyright (c) 2017-2025, The FormETCS Project. All rights reserved.
+ * This file is licensed under the terms of the Modified (3-Clause) BSD License.
+ * 
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package eplan;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event for a search in the track topology of a {@link eplan.PlanProModel}
+ * ({@link eplan.PlanProModel#getNextPunktObjektPaths(PunktObjekt, Evaluable, PlanProModel.Direction, boolean)} or a distance calculation).
+ * The duration of the event is the duration of the search.
+ * 
+ * @author Stefan Dillmann
+ *
+ */
+@Name("eplan.TopologySearch")
+@Label("Topology Search")
+@Category({"EPlan", "Topology"})
+@Description("Search for Punkt_Objekt objects or distances in the track topology")
+@StackTrace(false)
+public class TopologySearchEvent extends Event {
+	
+	/**
+	 * The name of the search operation.
+	 */
+	@Label("Operation")
+	public String operation;
+	
+	/**
+	 * The GUID of the Punkt_Objekt the search starts at, or null if it starts at a calculated position.
+	 */
+	@Label("Start GUID")
+	public String startGuid;
+	
+	/**
+	 * The search direction, relative to the effective direction of the starting Punkt_Objekt.
+	 */
+	@Label("Forward")
+	@Description("True if the search follows the effective direction of the starting Punkt_Objekt")
+	public boolean forward;
+	
+	/**
+	 * The number of TOP_Kante positions visited by the search.
+	 */
+	@Label("Edges Visited")
+	public long edgesVisited;
+	
+	/**
+	 * The number of results of the search.
+	 */
+	@Label("Results")
+	public int results;
+
+}
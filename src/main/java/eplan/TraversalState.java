@@ -0,0 +1,148 @@
+/**
+ * EPlan - Automated ETCS Planning Tool
+ * 
+ * Copyright (c) 2017-2025, The FormETCS Project. All rights reserved.
+ * This file is licensed under the terms of the Modified (3-Clause) BSD License.
+ * 
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package eplan;
+
+import org.jdom2.Element;
+
+/**
+ * Position reached by {@link eplan.PlanProModel#traverse(PunktObjektTopKante, boolean, TraversalVisitor)}.
+ * It holds the position on the current TOP_Kante, the effective direction and search direction at this position,
+ * the path from the starting point and the distance from the starting point.
+ * When the traversal enters a new TOP_Kante, the position is at the node where it was entered.
+ * 
+ * @author Stefan Dillmann
+ *
+ */
+public class TraversalState {
+	
+	/**
+	 * The TOP_Kante objects on the route from the starting point, ending with the current TOP_Kante.
+	 */
+	public TopKantenPath path;
+	
+	/**
+	 * The DOM element of the current TOP_Kante, or null if the starting point references an unknown TOP_Kante.
+	 */
+	public Element topKante;
+	
+	/**
+	 * The identity of the current TOP_Kante.
+	 */
+	public String idTopKante;
+	
+	/**
+	 * The position on the current TOP_Kante, as distance from node A in millimeters.
+	 */
+	public int abstand;
+	
+	/**
+	 * The effective direction of the starting point, related to the topological direction (A -> B) of the current TOP_Kante.
+	 */
+	public String wirkrichtung;
+	
+	/**
+	 * If the search direction is the same as the effective direction.
+	 */
+	public boolean forward;
+	
+	/**
+	 * If the search direction is the same as the topological direction (A -> B) of the current TOP_Kante.
+	 */
+	public boolean searchDirection;
+	
+	/**
+	 * The length of the current TOP_Kante in millimeters.
+	 */
+	public int edgeLength;
+	
+	/**
+	 * The distance between the starting point and this position in millimeters.
+	 */
+	public int distance;
+	
+	/**
+	 * Creates a new position.
+	 * The effective direction "beide" is handled like effective direction "in".
+	 * 
+	 * @param p the TOP_Kante objects on the route from the starting point, ending with the current TOP_Kante
+	 * @param idtk the identity of the current TOP_Kante
+	 * @param abst the position on the current TOP_Kante, as distance from node A in millimeters
+	 * @param wirkr the effective direction, related to the topological direction (A -> B) of the current TOP_Kante
+	 * @param fwd if the search direction is the same as the effective direction
+	 * @param len the length of the current TOP_Kante in millimeters
+	 * @param dist the distance between the starting point and this position in millimeters
+	 */
+	public TraversalState(TopKantenPath p, String idtk, int abst, String wirkr, boolean fwd, int len, int dist) {
+		this.path = p;
+		this.topKante = p.getLast();
+		this.idTopKante = idtk;
+		this.abstand = abst;
+		this.wirkrichtung = wirkr;
+		this.forward = fwd;
+		this.searchDirection = (wirkr.equals("gegen") != fwd);
+		this.edgeLength = len;
+		this.distance = dist;
+	}
+	
+	/**
+	 * Check if this is the starting point of the traversal.
+	 * 
+	 * @return true if this is the starting point, otherwise false
+	 */
+	public boolean isStart() {
+		return path.size() == 1;
+	}
+	
+	/**
+	 * Calculates the distance from this position to another position on the current TOP_Kante in search direction.
+	 * 
+	 * @param targetAbstand the other position, as distance from node A in millimeters
+	 * @return the distance in millimeters, which is negative if the other position lies behind this position
+	 */
+	public int getDistanceTo(int targetAbstand) {
+		if(searchDirection) {
+			return targetAbstand - abstand;
+		}
+		return abstand - targetAbstand;
+	}
+	
+	/**
+	 * Calculates the distance from this position to the end of the current TOP_Kante in search direction.
+	 * 
+	 * @return the distance in millimeters
+	 */
+	public int getRemainingDistance() {
+		if(searchDirection) {
+			return edgeLength - abstand;
+		}
+		return abstand;
+	}
+	
+	/**
+	 * Get a key identifying the current TOP_Kante together with the position, effective direction and search direction.
+	 * Two positions with the same key lead to the same traversal.
+	 * 
+	 * @return the key
+	 */
+	public String getKey() {
+		return idTopKante + ":" + abstand + ":" + wirkrichtung + ":" + forward;
+	}
+	
+	/**
+	 * String representation of the object (only for debugging purposes).
+	 * 
+	 * @return String representation of the object
+	 */
+	@Override
+	public String toString() {
+		return "[" + idTopKante + "," + abstand + "," + wirkrichtung + "," + forward + "," + distance + "]";
+	}
+
+}
@@ -0,0 +1,44 @@
+/**
+ * EPlan - Automated ETCS Planning Tool
+ * 
+ * Copyright (c) 2017-2025, The FormETCS Project. All rights reserved.
+ * This file is licensed under the terms of the Modified (3-Clause) BSD License.
+ * 
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package eplan;
+
+/**
+ * Interface for visitors of {@link eplan.PlanProModel#traverse(PunktObjektTopKante, boolean, TraversalVisitor)}.
+ * The visitor is called for every position reached by the traversal and decides how the traversal continues.
+ * 
+ * @author Stefan Dillmann
+ *
+ */
+public interface TraversalVisitor {
+	
+	/**
+	 * Enum to describe how the traversal continues after a position was visited.
+	 * 
+	 */
+	public enum Action {
+		/** Continue on the following TOP_Kante objects */
+		CONTINUE,
+		
+		/** Do not continue on this branch, but on the remaining branches */
+		SKIP,
+		
+		/** End the whole traversal */
+		STOP
+	}
+	
+	/**
+	 * Visit function.
+	 * 
+	 * @param state the position reached by the traversal
+	 * @return an {@link eplan.TraversalVisitor.Action} enum value, describing how the traversal continues
+	 */
+	Action visit(TraversalState state);
+
+}
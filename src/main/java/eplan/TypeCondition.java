@@ -45,5 +45,37 @@ public class TypeCondition implements Evaluable {
 		if(e.getName().equals(compareValue)) return true;
 		return false;
 	}
+	
+	/**
+	 * Estimated relative cost of a single evaluation.
+	 * Only the name of the element itself is compared.
+	 * 
+	 * @return the estimated cost of one evaluation
+	 */
+	@Override
+	public int getCost() {
+		return 1;
+	}
+	
+	/**
+	 * String representation of the object (only for debugging purposes).
+	 * 
+	 * @return String representation of the object
+	 */
+	@Override
+	public String toString() {
+		return "type=" + compareValue;
+	}
+	
+	/**
+	 * Check if the result of the condition depends only on the given element and its child elements.
+	 * Only the name of the element itself is tested.
+	 * 
+	 * @return true
+	 */
+	@Override
+	public boolean isLocal() {
+		return true;
+	}
 
 }
@@ -0,0 +1,165 @@
+/**
+ * EPlan - Automated ETCS Planning Tool
+ * 
+ * Copyright (c) 2017-2025, The FormETCS Project. All rights reserved.
+ * This file is licensed under the terms of the Modified (3-Clause) BSD License.
+ * 
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package eplan;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.apache.commons.cli.ParseException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BatchRunnerTest {
+	
+	@TempDir
+	Path tempDir;
+	
+	private BatchRunner createRunner(Path outDir) {
+		PlanningJob defaults = new PlanningJob(null, null);
+		defaults.logContext = new LogContext();
+		defaults.logContext.enable(true);
+		return new BatchRunner(defaults, outDir.toString(), 2, "EPlan", "test");
+	}
+	
+	private Path writeListFile(String... lines) throws Exception {
+		Path listFile = tempDir.resolve("in").resolve("jobs.txt");
+		Files.createDirectories(listFile.getParent());
+		Files.write(listFile, List.of(lines), StandardCharsets.UTF_8);
+		return listFile;
+	}
+	
+	@Test
+	void testReadListFile() throws Exception {
+		Path outDir = tempDir.resolve("out");
+		Path absoluteOutput = tempDir.resolve("elsewhere").resolve("c.ppxml");
+		Path absoluteLog = tempDir.resolve("elsewhere").resolve("c.log");
+		Path listFile = writeListFile(
+				"# comment",
+				"",
+				"a.ppxml -l 1 --debug",
+				"  sub/b.ppxml -o b-out.ppxml --logfile b-out.log -a 20 -a 21 -c",
+				"c.ppxml -o " + absoluteOutput + " --logfile " + absoluteLog + " --create-end -q");
+		List<PlanningJob> jobs = createRunner(outDir).readJobs(listFile.toString());
+		assertEquals(3, jobs.size());
+		
+		// Relative input files are resolved against the directory of the list file, outputs go into the output directory
+		PlanningJob a = jobs.get(0);
+		assertEquals(listFile.getParent().resolve("a.ppxml").toString(), a.inputFile);
+		assertEquals(outDir.resolve("a.ppxml").toString(), a.outputFile);
+		assertEquals(outDir.resolve("a.log").toString(), a.logContext.getLogfile());
+		assertEquals(1, a.etcslevel);
+		assertTrue(a.logContext.isDebugEnabled());
+		
+		// Relative output and log files are resolved against the output directory
+		PlanningJob b = jobs.get(1);
+		assertEquals(listFile.getParent().resolve("sub").resolve("b.ppxml").toString(), b.inputFile);
+		assertEquals(outDir.resolve("b-out.ppxml").toString(), b.outputFile);
+		assertEquals(outDir.resolve("b-out.log").toString(), b.logContext.getLogfile());
+		assertEquals(2, b.etcslevel);
+		assertEquals(List.of("20", "21"), List.of(b.addlist));
+		assertTrue(b.compatibilityMode);
+		
+		// Absolute output and log files are used as they are
+		PlanningJob c = jobs.get(2);
+		assertEquals(absoluteOutput.toString(), c.outputFile);
+		assertEquals(absoluteLog.toString(), c.logContext.getLogfile());
+		assertTrue(c.createEndState);
+		assertFalse(c.logContext.isEnabled());
+	}
+	
+	@Test
+	void testReadListFileErrors() throws Exception {
+		BatchRunner runner = createRunner(tempDir.resolve("out"));
+		String[][] invalidLines = {{"a.ppxml b.ppxml", "exactly one input file"}, {"a.ppxml -l x", "invalid level x"}};
+		for(String[] invalidLine : invalidLines) {
+			Path listFile = writeListFile("# comment", invalidLine[0]);
+			String message = null;
+			try {
+				runner.readJobs(listFile.toString());
+			} catch (ParseException e) {
+				message = e.getMessage();
+			}
+			assertNotNull(message);
+			assertTrue(message.startsWith("line 2: " + invalidLine[1]));
+		}
+	}
+	
+	@Test
+	void testFindConflicts() throws Exception {
+		Path outDir = tempDir.resolve("out");
+		Files.createDirectories(outDir.resolve("sub"));
+		Path listFile = writeListFile(
+				"a.ppxml",
+				"b.ppxml -o x.ppxml --logfile x.log",
+				"c.ppxml -o sub/../x.ppxml --logfile c.log",
+				"d.ppxml -o " + tempDir.resolve("in").resolve("a.ppxml"),
+				"e.ppxml");
+		List<PlanningJob> jobs = createRunner(outDir).readJobs(listFile.toString());
+		String[] conflicts = BatchRunner.findConflicts(jobs);
+		
+		assertNull(conflicts[0]);
+		assertNull(conflicts[1]);
+		// the output of c is the output of b, although the names are different
+		assertNotNull(conflicts[2]);
+		assertTrue(conflicts[2].contains("already written for " + jobs.get(1).inputFile));
+		// d would overwrite the input of a
+		assertNotNull(conflicts[3]);
+		assertTrue(conflicts[3].contains("would overwrite the input file of " + jobs.get(0).inputFile));
+		assertNull(conflicts[4]);
+	}
+	
+	@Test
+	void testFailedJob() throws Exception {
+		Path inDir = tempDir.resolve("in");
+		Files.createDirectories(inDir);
+		InputStream plan = BatchRunnerTest.class.getResourceAsStream("branches.ppxml");
+		try {
+			Files.copy(plan, inDir.resolve("a.ppxml"));
+		} finally {
+			plan.close();
+		}
+		Files.write(inDir.resolve("b.ppxml"), List.of("<broken"), StandardCharsets.UTF_8);
+		Files.copy(inDir.resolve("a.ppxml"), inDir.resolve("c.ppxml"));
+		Path outDir = tempDir.resolve("out");
+		Path listFile = writeListFile("a.ppxml", "b.ppxml", "c.ppxml -o a.ppxml");
+		BatchRunner runner = createRunner(outDir);
+		List<BatchRunner.JobResult> results = runner.run(runner.readJobs(listFile.toString()));
+		assertEquals(3, results.size());
+		
+		// A job which throws is reported as failed, with the error in its result and its logfile
+		assertTrue(results.get(0).success);
+		assertTrue(new File(results.get(0).job.outputFile).isFile());
+		assertFalse(results.get(1).success);
+		assertTrue(results.get(1).message.contains("JDOMParseException"));
+		String log = new String(Files.readAllBytes(outDir.resolve("b.log")), StandardCharsets.UTF_8);
+		assertTrue(log.contains("planning failed: " + results.get(1).message));
+		
+		// A conflicting job is not executed
+		assertFalse(results.get(2).success);
+		assertTrue(results.get(2).message.contains("already written"));
+		assertFalse(Files.exists(outDir.resolve("c.log")));
+		
+		List<String> summary = BatchRunner.createSummary(results);
+		assertEquals(4, summary.size());
+		assertTrue(summary.get(1).startsWith("FAILED  " + results.get(1).job.inputFile));
+		assertEquals("3 plans, 1 successful, 2 failed", summary.get(3));
+	}
+	
+}
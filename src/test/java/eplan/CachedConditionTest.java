@@ -0,0 +1,140 @@
+/**
+ * EPlan - Automated ETCS Planning Tool
+ * 
+ * Copyright (c) 2017-2025, The FormETCS Project. All rights reserved.
+ * This file is licensed under the terms of the Modified (3-Clause) BSD License.
+ * 
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package eplan;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.jdom2.Element;
+import org.junit.jupiter.api.Test;
+
+class CachedConditionTest {
+	
+	// Non-local condition, true if the container holds an odd number of objects
+	private static class OddContainerCondition implements Evaluable {
+		
+		final Element container;
+		
+		int evaluations;
+		
+		OddContainerCondition(Element container) {
+			this.container = container;
+		}
+		
+		@Override
+		public boolean evaluate(Element e) {
+			evaluations++;
+			return container.getChildren().size() % 2 == 1;
+		}
+	}
+	
+	@Test
+	void testLocalCondition() {
+		CachedCondition cached = new CachedCondition(new TypeCondition("Signal"), 2);
+		Element s1 = new Element("Signal");
+		Element s2 = new Element("Signal");
+		Element s3 = new Element("Signal");
+		
+		assertTrue(cached.isLocal());
+		assertTrue(cached.evaluate(s1));
+		assertTrue(cached.evaluate(s1));
+		assertEquals(1, cached.getHitCount());
+		assertEquals(1, cached.getMissCount());
+		
+		// the least recently used result is dropped
+		cached.evaluate(s2);
+		cached.evaluate(s3);
+		cached.evaluate(s1);
+		assertEquals(1, cached.getHitCount());
+		assertEquals(4, cached.getMissCount());
+		cached.evaluate(s3);
+		assertEquals(2, cached.getHitCount());
+	}
+	
+	@Test
+	void testInvalidation() throws Exception {
+		PlanProModel model = new PlanProModel();
+		model.readFile(CachedConditionTest.class.getResource("branches.ppxml"));
+		Element container = model.createContainerElement("ETCS");
+		OddContainerCondition condition = new OddContainerCondition(container);
+		CachedCondition cached = new CachedCondition(condition, 10, model);
+		Element e = new Element("Signal");
+		
+		assertFalse(cached.isLocal());
+		assertFalse(cached.evaluate(e));
+		assertFalse(cached.evaluate(e));
+		assertEquals(1, condition.evaluations);
+		assertEquals(1, cached.getHitCount());
+		
+		// insertObject changes the modification count, so the cached result is not reused
+		long modificationCount = model.getModificationCount();
+		model.addObject(container, new Element("A1"));
+		assertTrue(model.getModificationCount() != modificationCount);
+		assertTrue(cached.evaluate(e));
+		assertEquals(2, condition.evaluations);
+		assertTrue(cached.evaluate(e));
+		assertEquals(2, condition.evaluations);
+		
+		// the same holds for the objects inserted by the commit of a mutation overlay
+		model.freeze();
+		MutationOverlay overlay = new MutationOverlay();
+		overlay.addObject(container, new Element("A2"));
+		assertTrue(cached.evaluate(e));
+		model.commit(overlay);
+		assertFalse(cached.evaluate(e));
+		assertEquals(3, condition.evaluations);
+		assertEquals(3, cached.getMissCount());
+		model.unfreeze();
+	}
+	
+	@Test
+	void testModificationDuringEvaluation() throws Exception {
+		final PlanProModel model = new PlanProModel();
+		model.readFile(CachedConditionTest.class.getResource("branches.ppxml"));
+		final Element container = model.createContainerElement("ETCS");
+		// the model is modified while the result is computed, as another thread could do
+		OddContainerCondition condition = new OddContainerCondition(container) {
+			@Override
+			public boolean evaluate(Element e) {
+				boolean returnval = super.evaluate(e);
+				if(evaluations == 1) {
+					model.addObject(container, new Element("A1"));
+				}
+				return returnval;
+			}
+		};
+		CachedCondition cached = new CachedCondition(condition, 10, model);
+		Element e = new Element("Signal");
+		
+		assertFalse(cached.evaluate(e));
+		// the result computed before the modification was not stored
+		assertTrue(cached.evaluate(e));
+		assertTrue(cached.evaluate(e));
+		assertEquals(2, condition.evaluations);
+		assertEquals(1, cached.getHitCount());
+	}
+	
+	@Test
+	void testNoModel() {
+		Element container = new Element("ETCS");
+		OddContainerCondition condition = new OddContainerCondition(container);
+		CachedCondition cached = new CachedCondition(condition, 10);
+		Element e = new Element("Signal");
+		
+		// results of a non-local condition are never cached without a model
+		assertFalse(cached.evaluate(e));
+		container.addContent(new Element("A1"));
+		assertTrue(cached.evaluate(e));
+		assertEquals(2, condition.evaluations);
+		assertEquals(0, cached.getHitCount());
+	}
+	
+}
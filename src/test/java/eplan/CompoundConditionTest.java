@@ -0,0 +1,221 @@
+/**
+ * EPlan - Automated ETCS Planning Tool
+ * 
+ * Copyright (c) 2017-2025, The FormETCS Project. All rights reserved.
+ * This file is licensed under the terms of the Modified (3-Clause) BSD License.
+ * 
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package eplan;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jdom2.Element;
+import org.junit.jupiter.api.Test;
+
+import eplan.AbstractComparisonCondition.Operator;
+
+class CompoundConditionTest {
+	
+	// Condition returning the value of the attribute with its name, recording each evaluation
+	private static class RecordingCondition implements Evaluable {
+		
+		final String name;
+		
+		final int cost;
+		
+		final List<String> log;
+		
+		RecordingCondition(String name, int cost, List<String> log) {
+			this.name = name;
+			this.cost = cost;
+			this.log = log;
+		}
+		
+		@Override
+		public boolean evaluate(Element e) {
+			log.add(name);
+			return "true".equals(e.getAttributeValue(name));
+		}
+		
+		@Override
+		public int getCost() {
+			return cost;
+		}
+		
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+	
+	private static Element createElement(boolean a, boolean b, boolean c) {
+		Element e = new Element("Signal");
+		e.setAttribute("A", Boolean.toString(a));
+		e.setAttribute("B", Boolean.toString(b));
+		e.setAttribute("C", Boolean.toString(c));
+		return e;
+	}
+	
+	@Test
+	void testInsertionOrder() {
+		List<String> log = new ArrayList<String>();
+		ConditionConjunction conjunc = new ConditionConjunction(new RecordingCondition("A", 10, log),
+				new RecordingCondition("B", 10, log), new RecordingCondition("C", 10, log));
+		ConditionDisjunction disjunc = new ConditionDisjunction(new RecordingCondition("A", 10, log),
+				new RecordingCondition("B", 10, log), new RecordingCondition("C", 10, log));
+		
+		// Conditions of equal cost are evaluated in insertion order, with the short-circuit of the original order
+		for(int i = 0; i < 8; i++) {
+			boolean[] values = {(i & 4) != 0, (i & 2) != 0, (i & 1) != 0};
+			Element e = createElement(values[0], values[1], values[2]);
+			
+			List<String> expected = new ArrayList<String>();
+			boolean result = true;
+			for(int j = 0; j < values.length; j++) {
+				expected.add(String.valueOf((char) ('A' + j)));
+				if(!values[j]) {
+					result = false;
+					break;
+				}
+			}
+			log.clear();
+			assertEquals(result, conjunc.evaluate(e));
+			assertEquals(expected, log);
+			
+			expected.clear();
+			result = false;
+			for(int j = 0; j < values.length; j++) {
+				expected.add(String.valueOf((char) ('A' + j)));
+				if(values[j]) {
+					result = true;
+					break;
+				}
+			}
+			log.clear();
+			assertEquals(result, disjunc.evaluate(e));
+			assertEquals(expected, log);
+		}
+	}
+	
+	@Test
+	void testCostOrder() {
+		List<String> log = new ArrayList<String>();
+		RecordingCondition a = new RecordingCondition("A", 1000, log);
+		RecordingCondition b = new RecordingCondition("B", 4, log);
+		RecordingCondition c = new RecordingCondition("C", 4, log);
+		ConditionConjunction conjunc = new ConditionConjunction(a, b, c);
+		ConditionDisjunction disjunc = new ConditionDisjunction(a, b, c);
+		
+		// Cheap conditions go first, equal costs keep their insertion order
+		assertEquals(List.of(b, c, a), conjunc.getEvaluationOrder());
+		assertEquals(List.of(b, c, a), disjunc.getEvaluationOrder());
+		assertEquals(1008, conjunc.getCost());
+		
+		// C ends the conjunction early more often than B, so it moves ahead of B, but not of the expensive A
+		for(int i = 0; i < 1000; i++) {
+			Element e = createElement(i % 2 == 0, true, i % 4 == 0);
+			assertEquals(i % 4 == 0, conjunc.evaluate(e));
+			assertTrue(disjunc.evaluate(e));
+		}
+		assertEquals(List.of(c, b, a), conjunc.getEvaluationOrder());
+		assertEquals(List.of(b, c, a), disjunc.getEvaluationOrder());
+		
+		// The result does not depend on the changed order
+		for(int i = 0; i < 8; i++) {
+			boolean[] values = {(i & 4) != 0, (i & 2) != 0, (i & 1) != 0};
+			Element e = createElement(values[0], values[1], values[2]);
+			assertEquals(values[0] && values[1] && values[2], conjunc.evaluate(e));
+			assertEquals(values[0] || values[1] || values[2], disjunc.evaluate(e));
+		}
+		
+		// The observed statistics do not change the cost of a compound condition
+		assertEquals(1008, conjunc.getCost());
+		assertEquals(1008, disjunc.getCost());
+	}
+	
+	@Test
+	void testNestedCompoundBehindGuard() {
+		List<String> log = new ArrayList<String>();
+		// the nested conjunction almost always ends after its first, cheap condition
+		ConditionConjunction nested = new ConditionConjunction(new RecordingCondition("A", 0, log), new RecordingCondition("B", 1000, log));
+		TypeCondition guard = new TypeCondition("Signal");
+		ConditionConjunction conjunc = new ConditionConjunction(nested, guard);
+		assertEquals(List.of(guard, nested), conjunc.getEvaluationOrder());
+		
+		for(int i = 0; i < 1000; i++) {
+			Element e = createElement(false, true, false);
+			if(i % 2 == 0) {
+				e.setName("Other");
+			}
+			assertFalse(conjunc.evaluate(e));
+		}
+		
+		// The expensive nested conjunction stays behind the cheap type check
+		assertEquals(List.of(guard, nested), conjunc.getEvaluationOrder());
+		assertEquals(1000, nested.getCost());
+		log.clear();
+		Element other = createElement(true, true, false);
+		other.setName("Other");
+		assertFalse(conjunc.evaluate(other));
+		assertTrue(log.isEmpty());
+		assertTrue(conjunc.evaluate(createElement(true, true, false)));
+		assertEquals(List.of("A", "B"), log);
+	}
+	
+	@Test
+	void testIntegerSetCondition() {
+		IntegerSetCondition notContained = new IntegerSetCondition("DP_Typ/Wert", Operator.NOT_EQUAL, 37, 26, 34, 32, 36);
+		IntegerSetCondition contained = new IntegerSetCondition("DP_Typ/Wert", Operator.EQUAL, 37, 26, 34, 32, 36);
+		IntegerSetCondition lessThan = new IntegerSetCondition("DP_Typ/Wert", Operator.LESS_THAN, 37, 26, 34, 32, 36);
+		// the conjunction of single comparisons which is replaced by the set condition
+		ConditionConjunction reference = new ConditionConjunction(
+				new IntegerCondition("DP_Typ/Wert", Operator.NOT_EQUAL, 26),
+				new IntegerCondition("DP_Typ/Wert", Operator.NOT_EQUAL, 32),
+				new IntegerCondition("DP_Typ/Wert", Operator.NOT_EQUAL, 34),
+				new IntegerCondition("DP_Typ/Wert", Operator.NOT_EQUAL, 36),
+				new IntegerCondition("DP_Typ/Wert", Operator.NOT_EQUAL, 37));
+		
+		for(int value = 0; value <= 40; value++) {
+			Element e = new Element("Datenpunkt");
+			e.addContent(new Element("DP_Typ").addContent(new Element("Wert").setText(Integer.toString(value))));
+			assertEquals(reference.evaluate(e), notContained.evaluate(e));
+			assertEquals(!reference.evaluate(e), contained.evaluate(e));
+			assertFalse(lessThan.evaluate(e));
+		}
+		assertEquals("DP_Typ/Wert NOT_EQUAL [26, 32, 34, 36, 37]", notContained.toString());
+		assertTrue(notContained.isLocal());
+		assertTrue(notContained.getCost() < reference.getCost());
+	}
+	
+	@Test
+	void testConcurrentEvaluation() throws Exception {
+		final ConditionConjunction conjunc = new ConditionConjunction(new ConstantCondition(true), new ConstantCondition(true));
+		final Element e = new Element("Signal");
+		Thread[] threads = new Thread[4];
+		for(int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for(int j = 0; j < 10000; j++) {
+						assertTrue(conjunc.evaluate(e));
+					}
+				}
+			});
+			threads[i].start();
+		}
+		for(Thread thread : threads) {
+			thread.join();
+		}
+		
+		// no evaluation is lost, although the order is recalculated while other threads evaluate
+		assertEquals(2, conjunc.toString().split("\\{n=40000,").length - 1);
+	}
+	
+}
@@ -0,0 +1,63 @@
+/**
+ * EPlan - Automated ETCS Planning Tool
+ * 
+ * Copyright (c) 2017-2025, The FormETCS Project. All rights reserved.
+ * This file is licensed under the terms of the Modified (3-Clause) BSD License.
+ * 
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package eplan;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.jupiter.api.Test;
+
+class FlightRecorderEventsTest {
+	
+	@Test
+	void testFlightRecorderEvents() throws Exception {
+		Path file = Files.createTempFile("eplan", ".jfr");
+		Recording recording = new Recording();
+		recording.enable(TopologySearchEvent.class);
+		recording.enable(FileIoEvent.class);
+		recording.start();
+		PlanProModel model = new PlanProModel();
+		model.readFile(FlightRecorderEventsTest.class.getResource("branches.ppxml"));
+		PunktObjekt poS1 = new PunktObjekt(model.getElementbyId("11111111-2222-3333-4444-000000660001"));
+		model.getNextPunktObjektPaths(poS1, "Signal", true);
+		recording.stop();
+		recording.dump(file);
+		recording.close();
+		
+		List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+		Files.delete(file);
+		int searchEvents = 0;
+		int fileEvents = 0;
+		for(RecordedEvent event : events) {
+			if(event.getEventType().getName().equals("eplan.TopologySearch")) {
+				assertEquals("getNextPunktObjektPaths", event.getString("operation"));
+				assertEquals("11111111-2222-3333-4444-000000660001", event.getString("startGuid"));
+				assertEquals(4, event.getInt("results"));
+				assertTrue(event.getLong("edgesVisited") > 0);
+				searchEvents++;
+			}
+			if(event.getEventType().getName().equals("eplan.FileIo")) {
+				assertEquals("read", event.getString("operation"));
+				fileEvents++;
+			}
+		}
+		assertEquals(1, searchEvents);
+		assertEquals(1, fileEvents);
+	}
+	
+}
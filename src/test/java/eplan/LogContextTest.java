@@ -0,0 +1,184 @@
+/**
+ * EPlan - Automated ETCS Planning Tool
+ * 
+ * Copyright (c) 2017-2025, The FormETCS Project. All rights reserved.
+ * This file is licensed under the terms of the Modified (3-Clause) BSD License.
+ * 
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package eplan;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LogContextTest {
+	
+	@TempDir
+	Path tempDir;
+	
+	private static String read(Path file) throws IOException {
+		return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+	}
+	
+	@Test
+	void testLogfileAppend() throws Exception {
+		Path logfile = tempDir.resolve("eplan.log");
+		Files.write(logfile, "old content\n".getBytes(StandardCharsets.UTF_8));
+		LogContext context = new LogContext();
+		context.enable(true);
+		context.setLogfile(logfile.toString());
+		
+		// The existing file is overwritten by the first message, the messages are buffered until writeLogfile
+		context.log("first");
+		context.log("%s %d", "second", 2);
+		assertEquals("", read(logfile));
+		context.writeLogfile();
+		assertEquals("first\nsecond 2\n", read(logfile));
+		
+		// Messages logged afterwards are appended
+		context.log("third");
+		context.writeLogfile();
+		assertEquals("first\nsecond 2\nthird\n", read(logfile));
+		
+		// A new logfile is created, even without messages
+		Path empty = tempDir.resolve("empty.log");
+		context.setLogfile(empty.toString());
+		context.writeLogfile();
+		assertEquals("", read(empty));
+		context.log("fourth");
+		context.writeLogfile();
+		assertEquals("fourth\n", read(empty));
+		assertEquals("first\nsecond 2\nthird\n", read(logfile));
+	}
+	
+	@Test
+	void testHeldMessagesOrder() throws Exception {
+		Path logfile = tempDir.resolve("eplan.log");
+		final LogContext context = new LogContext();
+		context.enable(true);
+		context.setLogfile(logfile.toString());
+		
+		// Messages of parallel tasks are held back and printed in the order of the tasks
+		final List<List<Object>> held = new ArrayList<List<Object>>();
+		Thread[] threads = new Thread[4];
+		for(int i = 0; i < threads.length; i++) {
+			held.add(null);
+			final int task = i;
+			threads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					context.holdMessages();
+					for(int j = 0; j < 100; j++) {
+						context.log("task %d message %d", task, j);
+					}
+					List<Object> messages = context.releaseMessages();
+					synchronized(held) {
+						held.set(task, messages);
+					}
+				}
+			});
+			threads[i].start();
+		}
+		context.log("not held");
+		for(Thread thread : threads) {
+			thread.join();
+		}
+		for(List<Object> messages : held) {
+			context.print(messages);
+		}
+		context.writeLogfile();
+		
+		StringBuilder expected = new StringBuilder("not held\n");
+		for(int i = 0; i < threads.length; i++) {
+			for(int j = 0; j < 100; j++) {
+				expected.append("task ").append(i).append(" message ").append(j).append("\n");
+			}
+		}
+		assertEquals(expected.toString(), read(logfile));
+	}
+	
+	@Test
+	void testWriteError() throws Exception {
+		// The logfile cannot be opened, as its directory does not exist
+		Path logfile = tempDir.resolve("missing").resolve("eplan.log");
+		LogContext context = new LogContext();
+		context.enable(true);
+		context.setLogfile(logfile.toString());
+		context.log("first");
+		context.log("second");
+		
+		// The error is stored and reported when the logfile is written, also on a second attempt
+		for(int i = 0; i < 2; i++) {
+			IOException error = null;
+			try {
+				context.writeLogfile();
+			} catch (IOException e) {
+				error = e;
+			}
+			assertNotNull(error);
+			assertTrue(error.getMessage().contains("eplan.log"));
+		}
+		
+		// A new logfile resets the error
+		Files.createDirectories(logfile.getParent());
+		context.setLogfile(logfile.toString());
+		context.log("third");
+		context.writeLogfile();
+		assertEquals("third\n", read(logfile));
+	}
+	
+	@Test
+	void testModelContext() throws Exception {
+		LogContext context = new LogContext();
+		context.enableDebug(true);
+		PlanProModel model = new PlanProModel(context);
+		model.readFile(LogContextTest.class.getResource("branches.ppxml"));
+		assertEquals(context, model.getLogContext());
+		
+		// Messages of the model go to its own context
+		context.holdMessages();
+		model.setDistanceOracleEnabled(true);
+		model.getDistanceOracle();
+		List<Object> messages = context.releaseMessages();
+		assertEquals(1, messages.size());
+		assertTrue(messages.get(0).toString().startsWith("Distance oracle built"));
+		
+		// Disabled message types are not held back
+		context.enableDebug(false);
+		context.holdMessages();
+		context.debug("debug");
+		context.log("log");
+		assertEquals(0, context.releaseMessages().size());
+		
+		// Formatted messages are only created if they are logged
+		final int[] converted = new int[1];
+		Object argument = new Object() {
+			@Override
+			public String toString() {
+				converted[0]++;
+				return "arg";
+			}
+		};
+		context.enable(true);
+		context.holdMessages();
+		context.debug("debug %s", argument);
+		context.log("log %s", argument);
+		messages = context.releaseMessages();
+		assertEquals(1, messages.size());
+		assertEquals("log arg", messages.get(0).toString());
+		assertEquals(1, converted[0]);
+	}
+	
+}
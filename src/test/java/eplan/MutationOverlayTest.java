@@ -0,0 +1,72 @@
+/**
+ * EPlan - Automated ETCS Planning Tool
+ * 
+ * Copyright (c) 2017-2025, The FormETCS Project. All rights reserved.
+ * This file is licensed under the terms of the Modified (3-Clause) BSD License.
+ * 
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package eplan;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.jdom2.Element;
+import org.junit.jupiter.api.Test;
+
+class MutationOverlayTest {
+	
+	@Test
+	void testMutationOverlay() throws Exception {
+		final PlanProModel model = new PlanProModel();
+		model.readFile(MutationOverlayTest.class.getResource("branches.ppxml"));
+		Element container = model.createContainerElement("ETCS");
+		model.freeze();
+		assertTrue(model.isFrozen());
+		
+		// Queries on a frozen model do not lock it
+		final PunktObjektIndex[] index = new PunktObjektIndex[1];
+		Thread query = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				index[0] = model.getPunktObjektIndex();
+			}
+		});
+		synchronized(model) {
+			query.start();
+			query.join(10000);
+		}
+		assertNotNull(index[0]);
+		
+		// A frozen model cannot be modified directly
+		boolean rejected = false;
+		try {
+			model.addObject(container, new Element("A1"));
+		} catch (IllegalStateException e) {
+			rejected = true;
+		}
+		assertTrue(rejected);
+		
+		// Collected objects are added on commit, in the order they were collected
+		MutationOverlay overlay = new MutationOverlay();
+		overlay.addObject(container, new Element("A1"));
+		overlay.addObject(container, new Element("A2"));
+		assertEquals(2, overlay.size());
+		assertEquals(0, container.getChildren().size());
+		long modificationCount = model.getModificationCount();
+		model.commit(overlay);
+		assertEquals(0, overlay.size());
+		assertEquals(2, container.getChildren().size());
+		assertEquals("A1", container.getChildren().get(0).getName());
+		assertEquals("A2", container.getChildren().get(1).getName());
+		assertTrue(model.getModificationCount() > modificationCount);
+		assertTrue(model.isFrozen());
+		
+		model.unfreeze();
+		model.addObject(container, new Element("A3"));
+		assertEquals(3, container.getChildren().size());
+	}
+	
+}
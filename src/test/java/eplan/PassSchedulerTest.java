@@ -0,0 +1,81 @@
+/**
+ * EPlan - Automated ETCS Planning Tool
+ * 
+ * Copyright (c) 2017-2025, The FormETCS Project. All rights reserved.
+ * This file is licensed under the terms of the Modified (3-Clause) BSD License.
+ * 
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package eplan;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.jdom2.Element;
+import org.junit.jupiter.api.Test;
+
+class PassSchedulerTest {
+	
+	@Test
+	void testPassScheduler() throws Exception {
+		final PlanProModel model = new PlanProModel();
+		model.readFile(PassSchedulerTest.class.getResource("branches.ppxml"));
+		final Element container = model.createContainerElement("ETCS");
+		final PassScheduler scheduler = new PassScheduler(model, 3);
+		scheduler.addPass("A", new String[] {}, new String[] {"x"}, new Runnable() {
+			@Override
+			public void run() {
+				try {
+					Thread.sleep(50);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				scheduler.addObject(container, new Element("A1"));
+				scheduler.addObject(container, new Element("A2"));
+			}
+		});
+		scheduler.addPass("B", new String[] {}, new String[] {"x"}, new Runnable() {
+			@Override
+			public void run() {
+				scheduler.addObject(container, new Element("B1"));
+			}
+		});
+		final List<String> seenByC = new ArrayList<String>();
+		scheduler.addPass("C", new String[] {"x"}, new String[] {"x"}, new Runnable() {
+			@Override
+			public void run() {
+				for(Element e : container.getChildren()) {
+					seenByC.add(e.getName());
+				}
+				scheduler.addObject(container, new Element("C1"));
+			}
+		});
+		scheduler.run();
+		
+		// Buffered objects are committed in the order of the passes, not in the order they were created
+		List<Element> children = container.getChildren();
+		assertEquals(4, children.size());
+		assertEquals("A1", children.get(0).getName());
+		assertEquals("A2", children.get(1).getName());
+		assertEquals("B1", children.get(2).getName());
+		assertEquals("C1", children.get(3).getName());
+		
+		// A pass reading the modifications of earlier passes sees all of them
+		assertEquals(3, seenByC.size());
+		
+		// Placement rules which do not inspect existing datapoints share a wave
+		Constructor constructor = new Constructor(model);
+		constructor.setEtcslevel(2);
+		constructor.setThreadCount(4);
+		List<List<String>> waves = constructor.createPassScheduler().getWaves();
+		assertTrue(waves.get(0).contains("DP 20"));
+		assertTrue(waves.get(0).contains("DP 21"));
+		assertTrue(waves.contains(Collections.singletonList("DP 9")));
+	}
+	
+}
@@ -0,0 +1,51 @@
+/**
+ * EPlan - Automated ETCS Planning Tool
+ * 
+ * Copyright (c) 2017-2025, The FormETCS Project. All rights reserved.
+ * This file is licensed under the terms of the Modified (3-Clause) BSD License.
+ * 
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package eplan;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.jdom2.JDOMException;
+import org.junit.jupiter.api.Test;
+
+class PlanGeneratorTest {
+	
+	// Seed 7 placed a pair of back-to-back block signals next to the end of a TOP_Kante,
+	// so the planning of the datapoints behind the signal failed.
+	private static final long[] SEEDS = {1, 2, 3, 7, 42};
+	
+	@Test
+	void testGeneratedPlansCanBePlanned() throws IOException, JDOMException {
+		Path planFile = Files.createTempFile("eplan-generator", ".ppxml");
+		Path outputFile = Files.createTempFile("eplan-generator", ".out.ppxml");
+		try {
+			for(long seed : SEEDS) {
+				PlanGenerator generator = new PlanGenerator(seed);
+				generator.lineLength = 5.0;
+				assertTrue(generator.writeFile(planFile.toString()) > 0);
+				for(int level = 1; level <= 2; level++) {
+					PlanningJob job = new PlanningJob(planFile.toString(), outputFile.toString());
+					job.etcslevel = level;
+					job.logContext = new LogContext();
+					job.logContext.enable(false);
+					job.run("EPlan", "test");
+					assertTrue(Files.size(outputFile) > Files.size(planFile), "seed " + seed + ", level " + level);
+				}
+			}
+		} finally {
+			Files.deleteIfExists(planFile);
+			Files.deleteIfExists(outputFile);
+		}
+	}
+	
+}
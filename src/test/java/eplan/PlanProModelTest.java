@@ -157,6 +157,58 @@ class PlanProModelTest {
 		assertTrue(resultlist.size() == 0);
 	}
 	
+	@Test
+	void testTopologyIndex() {
+		TopologyIndex index = ppm.getTopologyIndex();
+		assertNotNull(index);
+		int tka2 = index.getEdgeIndex("11111111-2222-3333-4444-000000550002");
+		int tka3 = index.getEdgeIndex("11111111-2222-3333-4444-000000550003");
+		int tka4 = index.getEdgeIndex("11111111-2222-3333-4444-000000550004");
+		assertTrue(tka2 >= 0);
+		assertTrue(tka3 >= 0);
+		assertTrue(tka4 >= 0);
+		assertEquals(-1, index.getEdgeIndex("11111111-2222-3333-4444-000000660001"));
+		
+		// TOP_Kante TKa3 in forward search direction
+		// Result must be TKa2 backward
+		int[] edges = index.getSuccessorEdges(tka3, true);
+		boolean[] directions = index.getSuccessorDirections(tka3, true);
+		assertEquals(1, edges.length);
+		assertEquals(tka2, edges[0]);
+		assertFalse(directions[0]);
+		
+		// the successors of every TOP_Kante are the same as the results of the linear search, in the same order
+		for(int i = 0; i < index.getEdgeCount(); i++) {
+			for(boolean forward : new boolean[] { true, false }) {
+				List<NextTopKanteResult> expected = ppm.getNextTopKante(index.getEdge(i), forward);
+				assertEquals(expected.size(), index.getSuccessorEdges(i, forward).length);
+				for(int j = 0; j < expected.size(); j++) {
+					assertTrue(expected.get(j).topKanteElement == index.getEdge(index.getSuccessorEdges(i, forward)[j]));
+					assertEquals(expected.get(j).direction, index.getSuccessorDirections(i, forward)[j]);
+				}
+			}
+		}
+		
+		// TKa2 and TKa3 are connected at their nodes B, so the orientation parity changes
+		// TKa3 and TKa4 are connected at node A and node B, so the orientation parity is the same
+		assertEquals(index.getComponent(tka3), index.getComponent(tka2));
+		assertEquals(index.getComponent(tka3), index.getComponent(tka4));
+		assertTrue(index.isParityConsistent(tka3));
+		assertTrue(index.getParity(tka3) != index.getParity(tka2));
+		assertTrue(index.getParity(tka3) == index.getParity(tka4));
+		assertTrue(index.isReachable(tka3, tka2));
+		assertTrue(index.isReachable(tka3, tka4));
+		
+		// every TOP_Kante belongs to exactly one chain, and the chain offsets can be converted back
+		int chain = index.getChain(tka3);
+		assertEquals(tka3, index.getChainEdges(chain)[index.getChainPosition(tka3)]);
+		assertTrue(index.getChainLength(chain) >= index.getEdgeLength(tka3));
+		assertEquals(1000, index.fromChainOffset(tka3, index.toChainOffset(tka3, 1000)));
+		
+		// the index is reused until the topology changes
+		assertTrue(index == ppm.getTopologyIndex());
+	}
+	
 	@Test
 	void testCalculatePosition() {
 		Element s1 = ppm.getElementbyId("11111111-2222-3333-4444-000000660001");
@@ -320,6 +372,33 @@ class PlanProModelTest {
 		assertEquals(-1, result);
 	}
 	
+	@Test
+	void testDistanceOracle() {
+		// Result must be the same as the result of the search along the track, for all pairs of signals
+		List<PunktObjekt> signals = new ArrayList<PunktObjekt>();
+		for(Element e : ppm.getPlanProObjectList()) {
+			if(e.getName().equals("Signal")) {
+				signals.add(new PunktObjekt(e));
+			}
+		}
+		assertTrue(signals.size() > 0);
+		assertNotNull(ppm.getDistanceOracle());
+		for(PunktObjekt start : signals) {
+			for(PunktObjekt end : signals) {
+				int expected = ppm.calculateDistance(start, end);
+				ppm.setDistanceOracleEnabled(true);
+				try {
+					assertEquals(expected, ppm.calculateDistance(start, end));
+				} finally {
+					ppm.setDistanceOracleEnabled(false);
+				}
+			}
+		}
+		
+		// the oracle is reused until the topology changes
+		assertTrue(ppm.getDistanceOracle() == ppm.getDistanceOracle());
+	}
+	
 	@Test
 	void testCheckDirection() {
 		Element s1 = ppm.getElementbyId("11111111-2222-3333-4444-000000660001");
@@ -475,4 +554,176 @@ class PlanProModelTest {
 		result0 = resultlist.get(0);
 		assertTrue(result0.punktObjektElement.equals(s9));
 	}
+	
+	@Test
+	void testGetNearestPunktObjektPath() {
+		Element s1 = ppm.getElementbyId("11111111-2222-3333-4444-000000660001");
+		Element s6 = ppm.getElementbyId("11111111-2222-3333-4444-000000660006");
+		assertNotNull(s1);
+		assertNotNull(s6);
+		PunktObjekt poS1 = new PunktObjekt(s1);
+		PunktObjekt poS6 = new PunktObjekt(s6);
+		Evaluable condition = new TypeCondition("Signal");
+		
+		// Search Signal S1 forward, look only for signals facing in opposite direction
+		// Result must be S9
+		NextPunktObjektPathResult result = ppm.getNearestPunktObjektPath(poS1, condition, Direction.OPPOSITE, true);
+		assertNotNull(result);
+		assertEquals("11111111-2222-3333-4444-000000660009", result.punktObjektElement.getChild("Identitaet").getChild("Wert").getText());
+		
+		// Search Signal S6 forward
+		// Result must be null
+		result = ppm.getNearestPunktObjektPath(poS6, condition, Direction.BOTH, true);
+		assertNull(result);
+		
+		// Result must be the same as the nearest result of the depth-first search, for all signals and search directions
+		Direction[] orientations = { Direction.BOTH, Direction.EQUAL, Direction.OPPOSITE };
+		for(Element e : ppm.getPlanProObjectList()) {
+			if(!e.getName().equals("Signal")) {
+				continue;
+			}
+			PunktObjekt po = new PunktObjekt(e);
+			for(Direction orientation : orientations) {
+				for(boolean forward : new boolean[] { true, false }) {
+					NextPunktObjektPathResult expected = NextPunktObjektPathResult.nearest(ppm.getNextPunktObjektPaths(po, condition, orientation, forward));
+					result = ppm.getNearestPunktObjektPath(po, condition, orientation, forward);
+					if(expected == null) {
+						assertNull(result);
+					}
+					else {
+						assertNotNull(result);
+						assertEquals(expected.punktObjektElement, result.punktObjektElement);
+						assertEquals(expected.distance, result.distance);
+						assertEquals(expected.topKantenList, result.topKantenList);
+					}
+				}
+			}
+		}
+	}
+	
+	@Test
+	void testFindNextPunktObjektPaths() {
+		Evaluable signalCondition = new TypeCondition("Signal");
+		Evaluable anyCondition = new ConstantCondition(true);
+		
+		// Results of all targets must be the same as the results of separate searches, for all signals and search directions
+		for(Element e : ppm.getPlanProObjectList()) {
+			if(!e.getName().equals("Signal")) {
+				continue;
+			}
+			PunktObjekt po = new PunktObjekt(e);
+			for(boolean forward : new boolean[] { true, false }) {
+				List<SearchTarget> targets = new ArrayList<SearchTarget>();
+				targets.add(new SearchTarget(signalCondition, Direction.OPPOSITE));
+				targets.add(new SearchTarget(signalCondition, Direction.EQUAL));
+				targets.add(new SearchTarget(anyCondition, Direction.BOTH));
+				ppm.findNextPunktObjektPaths(po, targets, forward);
+				for(SearchTarget target : targets) {
+					List<NextPunktObjektPathResult> expected = ppm.getNextPunktObjektPaths(po, target.condition, target.orientation, forward);
+					assertEquals(expected.size(), target.results.size());
+					for(int i = 0; i < expected.size(); i++) {
+						assertEquals(expected.get(i).punktObjektElement, target.results.get(i).punktObjektElement);
+						assertEquals(expected.get(i).distance, target.results.get(i).distance);
+						assertEquals(expected.get(i).topKantenList, target.results.get(i).topKantenList);
+					}
+				}
+				
+				// Objects beyond the maximum distance must not be found
+				SearchTarget limitedTarget = new SearchTarget(signalCondition, Direction.BOTH, 100000);
+				targets.clear();
+				targets.add(limitedTarget);
+				ppm.findNextPunktObjektPaths(po, targets, forward);
+				for(NextPunktObjektPathResult result : limitedTarget.results) {
+					assertTrue(result.distance <= 100000);
+				}
+			}
+		}
+	}
+	
+	@Test
+	void testFindPunktObjekteInRange() {
+		Evaluable signalCondition = new TypeCondition("Signal");
+		
+		for(Element e : ppm.getPlanProObjectList()) {
+			if(!e.getName().equals("Signal")) {
+				continue;
+			}
+			PunktObjekt po = new PunktObjekt(e);
+			for(boolean forward : new boolean[] { true, false }) {
+				// All objects must be within the window and satisfy the condition
+				List<NextPunktObjektPathResult> window = ppm.findPunktObjekteInRange(po, 1000, 200000, signalCondition, forward);
+				for(NextPunktObjektPathResult result : window) {
+					assertTrue(result.distance >= 1000 && result.distance <= 200000);
+					assertTrue(signalCondition.evaluate(result.punktObjektElement));
+					assertNotEquals(e, result.punktObjektElement);
+				}
+				
+				// The next objects on each branch must be contained, and the nearest one must be the same
+				List<NextPunktObjektPathResult> range = ppm.findPunktObjekteInRange(po, 0, 200000, signalCondition, Direction.OPPOSITE, forward);
+				List<NextPunktObjektPathResult> next = ppm.getNextPunktObjektPaths(po, signalCondition, Direction.OPPOSITE, forward);
+				List<NextPunktObjektPathResult> nextInRange = new ArrayList<NextPunktObjektPathResult>();
+				for(NextPunktObjektPathResult result : next) {
+					if(result.distance <= 200000) {
+						nextInRange.add(result);
+					}
+				}
+				for(NextPunktObjektPathResult expected : nextInRange) {
+					boolean contained = false;
+					for(NextPunktObjektPathResult result : range) {
+						if(result.punktObjektElement == expected.punktObjektElement && result.distance == expected.distance && result.topKantenList.equals(expected.topKantenList)) {
+							contained = true;
+						}
+					}
+					assertTrue(contained);
+				}
+				NextPunktObjektPathResult expectedNearest = NextPunktObjektPathResult.nearest(nextInRange);
+				NextPunktObjektPathResult nearest = NextPunktObjektPathResult.nearest(range);
+				if(expectedNearest == null) {
+					assertNull(nearest);
+				}
+				else {
+					assertEquals(expectedNearest.punktObjektElement, nearest.punktObjektElement);
+					assertEquals(expectedNearest.distance, nearest.distance);
+				}
+			}
+		}
+		
+		// An empty window contains no objects
+		Element signal = ppm.getElementbyId("11111111-2222-3333-4444-000000660001");
+		assertTrue(ppm.findPunktObjekteInRange(new PunktObjekt(signal), 500, 100, signalCondition, true).isEmpty());
+	}
+	
+	@Test
+	void testPositionCache() {
+		Element s6 = ppm.getElementbyId("11111111-2222-3333-4444-000000660006");
+		PunktObjekt poS6 = new PunktObjekt(s6);
+		List<PunktObjekt> expected = ppm.calculatePosition(poS6, -100000);
+		
+		ppm.setPositionCacheSize(1);
+		PositionCache cache = ppm.getPositionCache();
+		assertNotNull(cache);
+		
+		// The second calculation must be answered from the cache, with the same result
+		List<PunktObjekt> first = ppm.calculatePosition(poS6, -100000);
+		List<PunktObjekt> second = ppm.calculatePosition(poS6, -100000);
+		assertEquals(expected.size(), first.size());
+		assertEquals(expected.size(), second.size());
+		for(int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).punktObjektTopKante[0].idTopKante, second.get(i).punktObjektTopKante[0].idTopKante);
+			assertEquals(expected.get(i).punktObjektTopKante[0].abstand, second.get(i).punktObjektTopKante[0].abstand);
+			assertEquals(expected.get(i).punktObjektTopKante[0].wirkrichtung, second.get(i).punktObjektTopKante[0].wirkrichtung);
+		}
+		assertTrue(cache.getHitCount() >= 1);
+		
+		// Modifying a result must not modify the cached result
+		second.get(0).punktObjektTopKante[0].abstand = -1;
+		assertEquals(expected.get(0).punktObjektTopKante[0].abstand, ppm.calculatePosition(poS6, -100000).get(0).punktObjektTopKante[0].abstand);
+		
+		// Another distance must replace the only cached result
+		ppm.calculatePosition(poS6, 100000);
+		assertTrue(cache.getEvictionCount() >= 1);
+		
+		ppm.setPositionCacheSize(0);
+		assertNull(ppm.getPositionCache());
+	}
 }
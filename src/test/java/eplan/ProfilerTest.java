@@ -0,0 +1,80 @@
+/**
+ * EPlan - Automated ETCS Planning Tool
+ * 
+ * Copyright (c) 2017-2025, The FormETCS Project. All rights reserved.
+ * This file is licensed under the terms of the Modified (3-Clause) BSD License.
+ * 
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package eplan;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.jdom2.Element;
+import org.junit.jupiter.api.Test;
+
+class ProfilerTest {
+	
+	@Test
+	void testProfiler() throws Exception {
+		PlanProModel model = new PlanProModel();
+		model.readFile(ProfilerTest.class.getResource("branches.ppxml"));
+		PunktObjekt poS1 = new PunktObjekt(model.getElementbyId("11111111-2222-3333-4444-000000660001"));
+		
+		// A disabled profiler does not record anything
+		assertFalse(model.getProfiler().isEnabled());
+		model.getNextPunktObjektPaths(poS1, "Signal", true);
+		assertEquals(0, model.getProfiler().getCount(Profiler.Counter.SEARCH));
+		
+		// An enabled profiler counts searches, visited edges and condition evaluations
+		Profiler profiler = new Profiler(true);
+		model.setProfiler(profiler);
+		long start = profiler.start();
+		assertEquals(4, model.getNextPunktObjektPaths(poS1, "Signal", true).size());
+		profiler.stop("search", start);
+		assertEquals(1, profiler.getCount(Profiler.Counter.SEARCH));
+		assertTrue(profiler.getCount(Profiler.Counter.EDGES_VISITED) > 1);
+		assertEquals(profiler.getCount(Profiler.Counter.EDGES_VISITED), profiler.getMaxEdgesPerSearch());
+		assertTrue(profiler.getCount(Profiler.Counter.CONDITION_EVALUATE) > 0);
+		assertTrue(profiler.getPhaseTimes().containsKey("search"));
+		
+		// The effort is attributed to the object set for the current thread
+		Element s1 = model.getElementbyId("11111111-2222-3333-4444-000000660001");
+		profiler.setObjectReportSize(5);
+		profiler.beginAttribution("A", s1, "S1", "1,000");
+		model.getNextPunktObjektPaths(poS1, "Signal", true);
+		profiler.endAttribution();
+		model.getNextPunktObjektPaths(poS1, "Signal", true);
+		profiler.beginAttribution("A", s1, "S1", "1,000");
+		model.getNextPunktObjektPaths(poS1, "Signal", false);
+		profiler.endAttribution();
+		List<Profiler.ObjectCost> costs = profiler.getMostExpensiveObjects(5);
+		assertEquals(1, costs.size());
+		assertEquals("A", costs.get(0).pass);
+		assertEquals(s1, costs.get(0).object);
+		assertEquals("S1", costs.get(0).name);
+		assertEquals(2, costs.get(0).searches);
+		assertEquals(4, profiler.getCount(Profiler.Counter.SEARCH));
+		
+		// Nested phases of a thread are charged with the bytes allocated while they run
+		Profiler allocProfiler = new Profiler(true);
+		allocProfiler.enableAllocationTracking();
+		model.setProfiler(allocProfiler);
+		long outer = allocProfiler.start();
+		long inner = allocProfiler.start();
+		model.getNextPunktObjektPaths(poS1, "Signal", true);
+		allocProfiler.stop("inner", inner);
+		allocProfiler.stop("outer", outer);
+		assertTrue(allocProfiler.getPhaseAllocations().get("inner") > 0);
+		assertTrue(allocProfiler.getPhaseAllocations().get("outer") >= allocProfiler.getPhaseAllocations().get("inner"));
+		
+		// Names in the JSON output are escaped, including control characters
+		assertEquals("\"a\\\"b\\\\c\\nd\\te\\u0001\"", Profiler.quote("a\"b\\c\nd\te\u0001"));
+	}
+	
+}